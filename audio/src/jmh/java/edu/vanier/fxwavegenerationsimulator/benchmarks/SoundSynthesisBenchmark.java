@@ -0,0 +1,49 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.SoundController;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the synthesis of the audio buffer (SoundController.synthesize), without opening an audio device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SoundSynthesisBenchmark {
+    @Param({"1", "16", "256"})
+    public int waveCount;
+
+    /**
+     * The number of audio samples in the buffer (44100 samples is one second of sound).
+     */
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    private List<Wave> waves;
+    private byte[] buffer;
+    private byte[][] frequencyBuffer;
+
+    @Setup
+    public void setup() {
+        waves = BenchmarkWaves.create(waveCount);
+        buffer = new byte[sampleCount];
+        frequencyBuffer = new byte[sampleCount][waves.getLast().getFrequency() + 1];
+    }
+
+    @Benchmark
+    public byte[] synthesize() {
+        SoundController.synthesize(waves, buffer, frequencyBuffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,369 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.events.AudioBufferRebuildEvent;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.models.AudioBlockListener;
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingFormat;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sound.sampled.*;
+
+/**
+ * The controller class that handles the sound generation (from Wave data) and play.
+ *
+ * @author Qian Qian
+ */
+public class SoundController {
+    /**
+     * The maximum volume that is allowed for the combined waves.
+     * (To prevent overpowered sound for the computer)
+     */
+    private static final int MAX_VOLUME = 127;
+    /**
+     * The sample rate for the audio data.
+     */
+    private static final int SAMPLE_RATE = 44100;
+    /**
+     * The number of samples in an audio block given to the audio block listeners.
+     */
+    private static final int BLOCK_SIZE = 4096;
+
+    /**
+     * List that contains all Wave objects.
+     */
+    private final List<Wave> waves;
+
+    /**
+     * The audio data clip to be played.
+     */
+    private Clip clip;
+
+    /**
+     * Buffer to store the audio data.
+     * Each index in the buffer represents precisely one sample of the sound
+     * (e.g 1/44100 second of sound).
+     */
+    private byte[] buffer;
+
+    /**
+     * Buffer to store the audio data for each frequency.
+     * Each index in the buffer represents precisely one sample of the sound
+     * (e.g 1/44100 second of sound).
+     */
+    private byte[][] frequencyBuffer;
+
+    /**
+     * Whether the sound should be playing (between start() and stop()),
+     * so the clip stopping on its own can be counted as an audio underrun.
+     */
+    private volatile boolean playing;
+
+    /**
+     * The number of STOP events caused by reloading the clip (in generateTone) not received yet,
+     * so they are not counted as audio underruns (the line events are delivered on another thread, later).
+     */
+    private final AtomicInteger reloadStops = new AtomicInteger();
+
+    /**
+     * The listeners the audio is given to (in blocks) every time it is rebuilt (e.g. a shared-memory ring or a recording).
+     */
+    private final List<AudioBlockListener> audioBlockListeners = new CopyOnWriteArrayList<>();
+
+    public SoundController() throws LineUnavailableException, IOException {
+        waves = new ArrayList<>();
+        this.clip = AudioSystem.getClip();
+        // The clip stopping on its own while the sound should be playing (e.g. because the audio device
+        // dropped out) is a gap in the audio output. Stopping it to reload it after the waves changed is not.
+        this.clip.addLineListener(event -> {
+            if (event.getType() == LineEvent.Type.STOP && !consumeReloadStop() && playing) {
+                SimulationMetrics.recordAudioUnderrun();
+            }
+        });
+        rebuild();
+    }
+
+    /**
+     * Get the byte value of the amplitude that will be put into the sound data buffer.
+     * @param amplitude the amplitude of the wave
+     * @param waveCount the total number of waves
+     * @return the byte value of the amplitude
+     */
+    private static byte getBufferValue(double amplitude, int waveCount) {
+        // The amplitude value is divided by the total number of waves, so it stays in the range of -1 to 1.
+        // Then it is converted to a range of -127 to 127 (byte range) so it can be put into the buffer which is a byte array.
+        return toByte(amplitude / waveCount);
+    }
+
+    /**
+     * Convert an amplitude from a range of -1 to 1 to a range of -127 to 127 (byte range).
+     * The amplitude is clamped first: a merged component (e.g. a SIN and a COS of the same frequency)
+     * can be louder than 1, and would wrap around when narrowed to a byte.
+     * @param amplitude the amplitude
+     * @return the byte value of the amplitude
+     */
+    private static byte toByte(double amplitude) {
+        return (byte) Math.clamp(Math.round(amplitude * MAX_VOLUME), -MAX_VOLUME, MAX_VOLUME);
+    }
+
+    /**
+     * Refresh the sound data buffer by populating it with new calculated wave amplitude data.
+     */
+    private void refreshBuffer() {
+        buffer = new byte[clip.getBufferSize()];
+        if (!waves.isEmpty()) {
+            frequencyBuffer = new byte[clip.getBufferSize()][waves.getLast().getFrequency() + 1];
+        } else {
+            frequencyBuffer = new byte[clip.getBufferSize()][0];
+        }
+        synthesize(waves, buffer, frequencyBuffer);
+    }
+
+    /**
+     * Populate the sound data buffers with the calculated amplitude data of the waves.
+     * This does not need an audio device, so it can also be used (e.g. benchmarked) on its own.
+     * The waves are compiled first, so the waves of the same frequency are synthesized as one component.
+     * The shapes (e.g. SQUARE) are band-limited with PolyBLEP/PolyBLAMP, so they do not alias.
+     * @param waves the waves, sorted by frequency
+     * @param buffer the buffer to be filled with the combined sound data
+     * @param frequencyBuffer the buffer to be filled with the sound data of each frequency,
+     *                        with at least as many rows as the buffer and (highest frequency + 1) columns
+     */
+    public static void synthesize(List<Wave> waves, byte[] buffer, byte[][] frequencyBuffer) {
+        CompiledWaveSet compiledWaves = CompiledWaveSet.compile(List.copyOf(waves));
+        // A sine and a shape (e.g. SQUARE) of the same frequency are separate components,
+        // so the components are summed per frequency before being converted to bytes.
+        int[] frequencies = new int[compiledWaves.getComponentCount()];
+        for (int component = 0; component < frequencies.length; component++) {
+            frequencies[component] = compiledWaves.getFrequency(component);
+        }
+        int[] distinctFrequencies = Arrays.stream(frequencies).distinct().toArray();
+        double[] frequencyAmplitudes = new double[frequencyBuffer.length == 0 ? 0 : frequencyBuffer[0].length];
+        for (int i = 0; i < buffer.length; i++) {
+            double totalAmplitude = 0;
+            for (int component = 0; component < frequencies.length; component++) {
+                double amplitude = compiledWaves.sample(component, i / (double) SAMPLE_RATE, SAMPLE_RATE);
+                totalAmplitude += amplitude;
+                frequencyAmplitudes[frequencies[component]] += amplitude;
+            }
+            for (int frequency : distinctFrequencies) {
+                frequencyBuffer[i][frequency] = toByte(frequencyAmplitudes[frequency]);
+                frequencyAmplitudes[frequency] = 0;
+            }
+            // The loudness still depends on the number of waves, as before they were merged.
+            buffer[i] = getBufferValue(totalAmplitude, waves.size());
+        }
+    }
+
+    /**
+     * Refresh the buffer and generate the sound from it, recording how long it takes.
+     */
+    private void rebuild() throws LineUnavailableException, IOException {
+        long start = SimulationMetrics.now();
+        AudioBufferRebuildEvent rebuildEvent = new AudioBufferRebuildEvent();
+        if (rebuildEvent.isEnabled()) {
+            rebuildEvent.begin();
+        }
+        refreshBuffer();
+        generateTone();
+        publishBlocks();
+        SimulationMetrics.audioRebuild.recordSince(start);
+        if (rebuildEvent.isEnabled()) {
+            rebuildEvent.end();
+            rebuildEvent.bufferLength = buffer.length;
+            rebuildEvent.waveCount = waves.size();
+            rebuildEvent.commit();
+        }
+    }
+
+    /**
+     * Consume one of the STOP events caused by reloading the clip, if any is expected.
+     * @return true if the STOP event was caused by a reload
+     */
+    private boolean consumeReloadStop() {
+        return reloadStops.getAndUpdate(count -> Math.max(count - 1, 0)) > 0;
+    }
+
+    /**
+     * Generate the sound from the wave amplitude data in the buffer, and keep playing it if it was playing.
+     */
+    private void generateTone() throws LineUnavailableException, IOException {
+        // Only a running clip sends a STOP event when it is stopped.
+        if (clip.isRunning()) {
+            reloadStops.incrementAndGet();
+        }
+        clip.stop();
+        clip.close();
+
+        AudioFormat audioFormat = new AudioFormat(
+                SAMPLE_RATE,  // sample rate
+                8,  // sample size in bits
+                1,  // channels
+                true,  // signed
+                false  // bigEndian
+        );
+
+        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(buffer);
+        AudioInputStream ais = new AudioInputStream(
+                byteArrayInputStream,
+                audioFormat,
+                buffer.length
+        );
+        
+        clip.open(ais);
+        if (playing) {
+            clip.loop(Clip.LOOP_CONTINUOUSLY);
+        }
+    }
+
+    /**
+     * Give the rebuilt audio to the audio block listeners, in blocks.
+     */
+    private void publishBlocks() {
+        for (AudioBlockListener listener : audioBlockListeners) {
+            publishBlocks(listener);
+        }
+    }
+
+    private void publishBlocks(AudioBlockListener listener) {
+        for (int offset = 0; offset < buffer.length; offset += BLOCK_SIZE) {
+            listener.onAudioBlock(offset, buffer, offset, Math.min(BLOCK_SIZE, buffer.length - offset));
+        }
+    }
+
+    /**
+     * Create a shared-memory ring for audio blocks (signed 8-bit samples at 44100 Hz),
+     * to be exported to with addAudioBlockListener(ring::writeBytes).
+     * @param path the path of the ring file (e.g. in /dev/shm)
+     * @return the writer of the ring
+     * @throws IOException if the ring cannot be created
+     */
+    public static SharedRingWriter createAudioRing(Path path) throws IOException {
+        return new SharedRingWriter(path, SharedRingFormat.KIND_AUDIO, 64, BLOCK_SIZE, SAMPLE_RATE);
+    }
+
+    /**
+     * Give the audio to a listener every time it is rebuilt (starting with the current audio).
+     * The audio is a looping clip, so the listener receives the whole clip as blocks whenever the waves change,
+     * each block tagged with the offset of its first sample in the clip.
+     * @param listener the listener (e.g. ring::writeBytes for a ring created by createAudioRing)
+     */
+    public void addAudioBlockListener(AudioBlockListener listener) {
+        audioBlockListeners.add(listener);
+        publishBlocks(listener);
+    }
+
+    /**
+     * Stop giving the audio to a listener.
+     * @param listener the listener
+     */
+    public void removeAudioBlockListener(AudioBlockListener listener) {
+        audioBlockListeners.remove(listener);
+    }
+
+    /**
+     * Add a new wave to the sound controller.
+     * @param wave the wave to be added
+     */
+    public void addWave(Wave wave) throws LineUnavailableException, IOException {
+        // Add wave to the list.
+        waves.add(wave);
+        // Always sort the waves in the list by frequency (lowest to highest).
+        waves.sort(Comparator.comparingInt(Wave::getFrequency));
+        // Refresh the buffer and generate the sound.
+        rebuild();
+    }
+
+    /**
+     * Add a collection of waves to the sound controller at once,
+     * so the buffer is only refreshed and the sound only generated once.
+     * @param waves the waves to be added
+     */
+    public void addWaves(Collection<Wave> waves) throws LineUnavailableException, IOException {
+        this.waves.addAll(waves);
+        this.waves.sort(Comparator.comparingInt(Wave::getFrequency));
+        rebuild();
+    }
+
+    /**
+     * Replace all waves of the sound controller with a collection of waves at once,
+     * so the buffer is only refreshed and the sound only generated once.
+     * @param waves the new waves of the sound controller
+     */
+    public void replaceWaves(Collection<Wave> waves) throws LineUnavailableException, IOException {
+        this.waves.clear();
+        this.waves.addAll(waves);
+        this.waves.sort(Comparator.comparingInt(Wave::getFrequency));
+        rebuild();
+    }
+
+    /**
+     * Remove a wave from the sound controller.
+     * @param wave the wave to be removed
+     */
+    public void removeWave(Wave wave) throws LineUnavailableException, IOException {
+        // Remove wave from the list.
+        waves.remove(wave);
+        // Refresh the buffer and generate the sound.
+        rebuild();
+    }
+
+    /**
+     * Remove all waves from the sound controller.
+     * @throws LineUnavailableException
+     * @throws IOException
+     */
+    public void clearWaves() throws LineUnavailableException, IOException {
+        waves.clear();
+        rebuild();
+    }
+
+    /**
+     * Start playing the generated sound.
+     */
+    public void start() {
+        if (clip != null) {
+            playing = true;
+            // The sound will be played infinitely.
+            clip.loop(Clip.LOOP_CONTINUOUSLY);
+        }
+    }
+
+    /**
+     * Stop playing the generated sound.
+     */
+    public void stop() {
+        if (clip != null) {
+            playing = false;
+            clip.stop();
+        }
+    }
+
+    /**
+     * The getter for the buffer array, so other classes (like the sound analyzer) can fetch the data.
+     * @return the buffer array that contains the sound data, where each index represents 1/44100 second of sound.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * The getter for the frequency buffer array, so other classes (like the sound analyzer) can fetch the data.
+     * @return the frequency buffer array that contains the sound data for each frequency, where each index represents 1/44100 second of sound.
+     */
+    public byte[][] getFrequencyBuffer() {
+        return frequencyBuffer;
+    }
+}
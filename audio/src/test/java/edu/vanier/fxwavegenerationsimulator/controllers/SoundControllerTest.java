@@ -0,0 +1,102 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the synthesis of the audio buffers (SoundController.synthesize), which does not need an audio device:
+ * the samples of the combined waves scaled to the byte range, the loudness divided by the number of waves,
+ * the sound data of each frequency, and the clamping of the merged components louder than 1.
+ *
+ * @author Qian Qian
+ */
+class SoundControllerTest {
+    private static final int SAMPLE_RATE = 44100;
+    private static final int SAMPLE_COUNT = 2048;
+
+    private static byte[][] frequencyBuffer(List<Wave> waves) {
+        return new byte[SAMPLE_COUNT][waves.getLast().getFrequency() + 1];
+    }
+
+    private static double expected(List<Wave> waves, int sample) {
+        double amplitude = 0;
+        for (Wave wave : waves) {
+            amplitude += wave.amplitude(0, sample / (double) SAMPLE_RATE);
+        }
+        return amplitude;
+    }
+
+    @Test
+    void synthesizesTheWavesInTheByteRange() {
+        List<Wave> waves = List.of(new Wave(WaveTypes.SIN, 441, 0.8));
+        byte[] buffer = new byte[SAMPLE_COUNT];
+        SoundController.synthesize(waves, buffer, frequencyBuffer(waves));
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            assertEquals(127 * expected(waves, i), buffer[i], 0.5 + 1e-9, "sample " + i);
+        }
+    }
+
+    @Test
+    void dividesTheLoudnessByTheNumberOfWaves() {
+        List<Wave> waves = List.of(new Wave(WaveTypes.SIN, 100, 1), new Wave(WaveTypes.COS, 300, 1),
+                new Wave(WaveTypes.SIN, 300, -0.5));
+        byte[] buffer = new byte[SAMPLE_COUNT];
+        SoundController.synthesize(waves, buffer, frequencyBuffer(waves));
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            assertEquals(127 * expected(waves, i) / waves.size(), buffer[i], 0.5 + 1e-9, "sample " + i);
+        }
+    }
+
+    @Test
+    void separatesTheSoundOfEachFrequency() {
+        Wave low = new Wave(WaveTypes.SIN, 10, 0.5);
+        Wave high = new Wave(WaveTypes.COS, 20, 0.25);
+        List<Wave> waves = List.of(low, high);
+        byte[] buffer = new byte[SAMPLE_COUNT];
+        byte[][] frequencyBuffer = frequencyBuffer(waves);
+        SoundController.synthesize(waves, buffer, frequencyBuffer);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            assertEquals(127 * expected(List.of(low), i), frequencyBuffer[i][10], 0.5 + 1e-9, "sample " + i);
+            assertEquals(127 * expected(List.of(high), i), frequencyBuffer[i][20], 0.5 + 1e-9, "sample " + i);
+            for (int frequency = 0; frequency < frequencyBuffer[i].length; frequency++) {
+                if (frequency != 10 && frequency != 20) {
+                    assertEquals(0, frequencyBuffer[i][frequency]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void clampsTheMergedComponentsLouderThanOne() {
+        // A SIN and a COS of the same frequency merge into one phasor of amplitude sqrt(2).
+        List<Wave> waves = List.of(new Wave(WaveTypes.SIN, 50, 1), new Wave(WaveTypes.COS, 50, 1));
+        byte[] buffer = new byte[SAMPLE_COUNT];
+        byte[][] frequencyBuffer = frequencyBuffer(waves);
+        SoundController.synthesize(waves, buffer, frequencyBuffer);
+        int peak = 0;
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            int sample = frequencyBuffer[i][50];
+            assertTrue(sample >= -127 && sample <= 127, "sample " + i + " wrapped around: " + sample);
+            // The sign never flips where the sound is loud (it would if the byte wrapped around).
+            double value = 127 * expected(waves, i);
+            if (Math.abs(value) > 64) {
+                assertEquals(Math.signum(value), Math.signum(sample), "sample " + i);
+            }
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        assertEquals(127, peak);
+    }
+
+    @Test
+    void synthesizesSilenceWithoutWaves() {
+        byte[] buffer = {1, 2, 3};
+        SoundController.synthesize(List.of(), buffer, new byte[buffer.length][0]);
+        assertEquals(0, buffer[0] | buffer[1] | buffer[2]);
+    }
+}
@@ -0,0 +1,106 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingFormat;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingReader;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Control;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the end-to-end latency of the shared-memory ring with a ping-pong between two threads:
+ * the sender publishes a frame into the ping ring, the echo thread reads (copies) it and publishes it back
+ * into the pong ring, and the sender waits until it sees it. The sampled time of send is the round trip,
+ * so the latency from a writer to a reader is about half of it.
+ * The two threads only share the mapped files, exactly like a writer and a reader in two processes.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SharedRingBenchmark {
+    private Path pingPath;
+    private Path pongPath;
+    private SharedRingWriter ping;
+    private SharedRingWriter pong;
+    private SharedRingReader pingReader;
+    private SharedRingReader pongReader;
+    private float[] frame;
+    private float[] echoFrame;
+    private long echoed;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int sampleCount = WaveSimulationController.DEFAULT_SAMPLE_COUNT;
+        pingPath = Files.createTempFile(SharedRingFormat.defaultDirectory(), "fxwave-ping", ".ring");
+        pongPath = Files.createTempFile(SharedRingFormat.defaultDirectory(), "fxwave-pong", ".ring");
+        ping = new SharedRingWriter(pingPath, SharedRingFormat.KIND_FRAME, 64, sampleCount, 0);
+        pong = new SharedRingWriter(pongPath, SharedRingFormat.KIND_FRAME, 64, sampleCount, 0);
+        pingReader = new SharedRingReader(pingPath);
+        pongReader = new SharedRingReader(pongPath);
+        frame = new float[sampleCount];
+        echoFrame = new float[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            frame[i] = (float) Math.sin(i * 0.01);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ping.close();
+        pong.close();
+        Files.deleteIfExists(pingPath);
+        Files.deleteIfExists(pongPath);
+    }
+
+    /**
+     * Publish a frame and wait until it comes back.
+     */
+    @Benchmark
+    @Group("roundTrip")
+    @GroupThreads(1)
+    public long send(Control control) {
+        long sequence = ping.writeFloats(0, frame, 0, 1, false);
+        while (pongReader.getPublishedCount() < sequence && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+        return sequence;
+    }
+
+    /**
+     * Wait for the next frame, read it and publish it back.
+     */
+    @Benchmark
+    @Group("roundTrip")
+    @GroupThreads(1)
+    public long echo(Control control) {
+        long next = echoed + 1;
+        while (pingReader.getPublishedCount() < next) {
+            if (control.stopMeasurement) {
+                return echoed;
+            }
+            Thread.onSpinWait();
+        }
+        int length = pingReader.readFloats(next, echoFrame);
+        if (length >= 0) {
+            pong.writeFloats(pingReader.getLastTime(), echoFrame, pingReader.getLastViewportStart(),
+                    pingReader.getLastViewportEnd(), pingReader.isLastEnvelope());
+        }
+        echoed = next;
+        return next;
+    }
+}
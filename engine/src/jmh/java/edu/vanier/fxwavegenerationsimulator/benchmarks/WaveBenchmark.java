@@ -0,0 +1,49 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of a single wave (Wave.amplitude) over a row of samples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveBenchmark {
+    @Param({"1", "16", "256"})
+    public int waveCount;
+
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    private Wave[] waves;
+
+    @Setup
+    public void setup() {
+        waves = BenchmarkWaves.create(waveCount).toArray(new Wave[0]);
+    }
+
+    /**
+     * Evaluate every wave at every sample of a 500 m row at t = 0.25 s.
+     */
+    @Benchmark
+    public double amplitude() {
+        double gap = 500.0 / sampleCount;
+        double sum = 0;
+        for (Wave wave : waves) {
+            for (int i = 0; i < sampleCount; i++) {
+                sum += wave.amplitude(i * gap, 0.25);
+            }
+        }
+        return sum;
+    }
+}
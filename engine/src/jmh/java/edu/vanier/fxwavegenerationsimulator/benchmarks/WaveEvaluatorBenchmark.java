@@ -0,0 +1,61 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.evaluator.InterpretedWaveEvaluator;
+import edu.vanier.fxwavegenerationsimulator.evaluator.WaveEvaluator;
+import edu.vanier.fxwavegenerationsimulator.evaluator.WaveEvaluatorService;
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the evaluation of the combined wave over a row of samples by the interpreter
+ * and by the evaluator generated for the wave set (which needs --enable-preview, see the jmh task).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveEvaluatorBenchmark {
+    @Param({"1", "4", "16", "64", "256"})
+    public int waveCount;
+
+    @Param({"1024"})
+    public int sampleCount;
+
+    private WaveEvaluator interpreted;
+    private WaveEvaluator generated;
+    private double[] row;
+
+    @Setup
+    public void setup() {
+        CompiledWaveSet waves = CompiledWaveSet.compile(BenchmarkWaves.create(waveCount));
+        interpreted = new InterpretedWaveEvaluator(waves);
+        generated = WaveEvaluatorService.generate(waves);
+        row = new double[sampleCount];
+    }
+
+    /**
+     * Evaluate the combined wave at every sample of a 500 m row at t = 0.25 s with the interpreter.
+     */
+    @Benchmark
+    public double[] interpreted() {
+        interpreted.evaluate(0.25, 0, 500.0 / sampleCount, row, 0, sampleCount);
+        return row;
+    }
+
+    /**
+     * Evaluate the combined wave at every sample of a 500 m row at t = 0.25 s with the generated evaluator.
+     */
+    @Benchmark
+    public double[] generated() {
+        generated.evaluate(0.25, 0, 500.0 / sampleCount, row, 0, sampleCount);
+        return row;
+    }
+}
@@ -0,0 +1,49 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.models.WaveGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the combination of waves (WaveGenerator.combineWaves) over a row of samples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveGeneratorBenchmark {
+    @Param({"1", "16", "256"})
+    public int waveCount;
+
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    private WaveGenerator waveGenerator;
+    private double[] row;
+
+    @Setup
+    public void setup() {
+        waveGenerator = new WaveGenerator();
+        waveGenerator.addWaves(BenchmarkWaves.create(waveCount));
+        row = new double[sampleCount];
+    }
+
+    /**
+     * Combine the waves at every sample of a 500 m row at t = 0.25 s.
+     */
+    @Benchmark
+    public double[] combineWaves() {
+        double gap = 500.0 / sampleCount;
+        for (int i = 0; i < sampleCount; i++) {
+            row[i] = waveGenerator.combineWaves(i * gap, 0.25);
+        }
+        return row;
+    }
+}
@@ -0,0 +1,45 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full simulation tick (WaveSimulationController.simulate) without any subscriber,
+ * so only the simulation itself is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WaveSimulationBenchmark {
+    @Param({"1", "16", "256"})
+    public int waveCount;
+
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    private WaveSimulationController waveSimulationController;
+
+    @Setup
+    public void setup() {
+        waveSimulationController = new WaveSimulationController(500, sampleCount);
+        waveSimulationController.addWaves(BenchmarkWaves.create(waveCount));
+    }
+
+    /**
+     * Advance the simulation by one tick (10 ms) and simulate it.
+     */
+    @Benchmark
+    public SimulationFrame simulate() {
+        return waveSimulationController.step(10);
+    }
+}
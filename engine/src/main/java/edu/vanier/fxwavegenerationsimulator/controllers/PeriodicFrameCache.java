@@ -0,0 +1,219 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.models.SamplingPlan;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of the frames of one period of the simulation.
+ * The frequencies of the waves are integers, so the simulation repeats itself with a period of 1/gcd(frequencies)
+ * seconds, and the frame at a time is the frame at that time modulo the period (in whole milliseconds,
+ * 1000/gcd(1000, gcd(frequencies)) ms). E.g. waves of 10, 30, 50 and 70 Hz repeat every 100 ms, so every 10 ticks.
+ * <p>
+ * The frames of the period are stored as floats (half the memory of the frames themselves) within a memory budget,
+ * and served again as new frames, so a looping simulation only costs a copy per tick once the period is cached.
+ * The cache holds the frames of one snapshot of the waves and one sampling plan, and starts again when either changes.
+ *
+ * @author Qian Qian
+ */
+public class PeriodicFrameCache {
+    private final static Logger logger = LoggerFactory.getLogger(PeriodicFrameCache.class);
+
+    /**
+     * The default memory budget of the cache (32 MB).
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+    /**
+     * The maximum memory taken by the cached frames (in bytes).
+     */
+    private final long memoryBudget;
+
+    /**
+     * The snapshot of the waves and the sampling plan of the cached frames.
+     */
+    private List<Wave> waves;
+    private SamplingPlan plan;
+
+    /**
+     * The period of the simulation (in milliseconds).
+     */
+    private int periodMillis;
+
+    /**
+     * The cached frames by time modulo the period (or null if the frame is not cached), each made of the data points
+     * of the combined wave followed by the data points of every wave.
+     */
+    private float[][] frames;
+
+    /**
+     * The memory taken by the cached frames (in bytes).
+     */
+    private long usedBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Instantiate a cache.
+     * @param memoryBudget the maximum memory taken by the cached frames (in bytes), 0 to disable the cache
+     */
+    public PeriodicFrameCache(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Get the period of a simulation.
+     * @param waves the waves of the simulation
+     * @return the period (in milliseconds)
+     */
+    public static int periodMillis(List<Wave> waves) {
+        int gcd = 0;
+        for (Wave wave : waves) {
+            gcd = gcd(gcd, wave.getFrequency());
+        }
+        return gcd == 0 ? 1 : 1000 / gcd(1000, gcd);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /**
+     * Start caching the frames of other waves or another sampling plan (if they changed).
+     */
+    private void reset(List<Wave> waves, SamplingPlan plan) {
+        if (waves == this.waves && plan.equals(this.plan)) {
+            return;
+        }
+        this.waves = waves;
+        this.plan = plan;
+        this.periodMillis = periodMillis(waves);
+        this.frames = new float[periodMillis][];
+        this.usedBytes = 0;
+        long cycleBytes = (long) periodMillis / gcd(periodMillis, WaveSimulationController.DEFAULT_UPDATE_INTERVAL)
+                * frameBytes();
+        if (cycleBytes > memoryBudget) {
+            logger.info("Frame cache: a period of {} ms takes {} KB, only part of it fits in the {} KB budget",
+                    periodMillis, cycleBytes / 1024, memoryBudget / 1024);
+        } else {
+            logger.debug("Frame cache: period of {} ms, {} KB per period", periodMillis, cycleBytes / 1024);
+        }
+    }
+
+    private long frameBytes() {
+        return (long) (waves.size() + 1) * plan.viewport().sampleCount() * Float.BYTES;
+    }
+
+    /**
+     * Get a frame from the cache.
+     * @param waves the snapshot of the waves of the frame
+     * @param plan the sampling plan of the frame
+     * @param milliseconds the time of the frame (in milliseconds)
+     * @param combinedWave the wave object of the combined wave
+     * @return the data points of the frame, or null if it is not cached
+     */
+    public synchronized Map<Wave, double[]> get(List<Wave> waves, SamplingPlan plan, int milliseconds, Wave combinedWave) {
+        if (memoryBudget <= 0) {
+            return null;
+        }
+        reset(waves, plan);
+        float[] frame = frames[Math.floorMod(milliseconds, periodMillis)];
+        if (frame == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        int sampleCount = plan.viewport().sampleCount();
+        Map<Wave, double[]> dataPoints = new HashMap<>();
+        dataPoints.put(combinedWave, expand(frame, 0, sampleCount));
+        for (int i = 0; i < waves.size(); i++) {
+            dataPoints.put(waves.get(i), expand(frame, (i + 1) * sampleCount, sampleCount));
+        }
+        return dataPoints;
+    }
+
+    private static double[] expand(float[] frame, int offset, int length) {
+        double[] points = new double[length];
+        for (int i = 0; i < length; i++) {
+            points[i] = frame[offset + i];
+        }
+        return points;
+    }
+
+    /**
+     * Put a frame into the cache, if it fits in the memory budget.
+     * @param waves the snapshot of the waves of the frame
+     * @param plan the sampling plan of the frame
+     * @param milliseconds the time of the frame (in milliseconds)
+     * @param combinedWave the wave object of the combined wave
+     * @param dataPoints the data points of the frame
+     */
+    public synchronized void put(List<Wave> waves, SamplingPlan plan, int milliseconds, Wave combinedWave,
+                                 Map<Wave, double[]> dataPoints) {
+        if (memoryBudget <= 0) {
+            return;
+        }
+        reset(waves, plan);
+        int index = Math.floorMod(milliseconds, periodMillis);
+        long bytes = frameBytes();
+        if (frames[index] != null || usedBytes + bytes > memoryBudget) {
+            return;
+        }
+        int sampleCount = plan.viewport().sampleCount();
+        float[] frame = new float[(waves.size() + 1) * sampleCount];
+        compact(dataPoints.get(combinedWave), frame, 0);
+        for (int i = 0; i < waves.size(); i++) {
+            compact(dataPoints.get(waves.get(i)), frame, (i + 1) * sampleCount);
+        }
+        frames[index] = frame;
+        usedBytes += bytes;
+    }
+
+    private static void compact(double[] points, float[] frame, int offset) {
+        for (int i = 0; i < points.length; i++) {
+            frame[offset + i] = (float) points[i];
+        }
+    }
+
+    /**
+     * Get the number of frames served from the cache.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of frames that had to be simulated.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the memory taken by the cached frames.
+     * @return the memory (in bytes)
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Frame cache: period of %d ms, %d hits, %d misses, %.1f of %.1f MB".formatted(periodMillis,
+                getHitCount(), getMissCount(), usedBytes / 1e6, memoryBudget / 1e6);
+    }
+}
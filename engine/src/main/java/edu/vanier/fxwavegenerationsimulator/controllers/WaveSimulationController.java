@@ -0,0 +1,486 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveSimulationStatus;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.events.SimulationTickEvent;
+import edu.vanier.fxwavegenerationsimulator.evaluator.InterpretedWaveEvaluator;
+import edu.vanier.fxwavegenerationsimulator.evaluator.WaveEvaluator;
+import edu.vanier.fxwavegenerationsimulator.evaluator.WaveEvaluatorService;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import edu.vanier.fxwavegenerationsimulator.models.SamplingPlan;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.WaveGenerator;
+import edu.vanier.fxwavegenerationsimulator.models.WaveSimulationDisplay;
+import edu.vanier.fxwavegenerationsimulator.stream.DisplaySubscriber;
+import edu.vanier.fxwavegenerationsimulator.stream.FramePublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This is the controller class that handles all simulation logics for the application.
+ * This class extends the Thread class to run the simulation in a separate thread, which allows
+ * constant updates of the wave simulation data.
+ * By default, this class is set to update the simulation every 10 milliseconds.
+ * The waves can be edited while the simulation is running: each frame is computed from one immutable
+ * snapshot of the waves (see {@link WaveGenerator}) and one reading of the simulation clock, without locking.
+ * The frames are published through a {@link FramePublisher}, so any number of subscribers (the display being one of them)
+ * can receive them, each with its own buffer, without a slow subscriber stalling the simulation.
+ * Only the positions of the current {@link Viewport} are evaluated, so a display that zooms in or out changes the viewport
+ * to the range it shows at its pixel resolution, and the cost of a frame depends on the pixels rather than the range.
+ * With adaptive sampling (the default when showing the frames on a display), the viewport is only the resolution
+ * of the display, and each frame is sampled following a {@link SamplingPlan} chosen from the highest frequency.
+ * The simulation is periodic (see {@link PeriodicFrameCache}), so the frames of a period can be cached and served again
+ * (the default when showing the frames on a display).
+ * The combined wave can be evaluated by a class generated for the current wave set (see {@link WaveEvaluatorService}),
+ * with the interpreter in the meantime (the default when showing the frames on a display).
+ *
+ * @author Qian Qian
+ */
+public class WaveSimulationController {
+    private final static Logger logger = LoggerFactory.getLogger(WaveSimulationController.class);
+
+    /**
+     * The default sample count of the wave simulation.
+     */
+    public static final int DEFAULT_SAMPLE_COUNT = 1024;
+    /**
+     * The default update interval of the wave simulation (in milliseconds).
+     */
+    public static final int DEFAULT_UPDATE_INTERVAL = 10;
+    /**
+     * The dummy wave object that represents the combined wave of all waves in the simulation.
+     */
+    private static final Wave combinedWave = new Wave(WaveTypes.DUMMY, -1, 0, new Color(0, 0, 0));
+
+    /**
+     * The status of the wave simulation (e.g. playing, paused, stopped).
+     */
+    private volatile WaveSimulationStatus simulationStatus;
+
+    /**
+     * The time elapsed in the simulation (in milliseconds).
+     * It is advanced by the timer thread and stepped or reset by the caller thread, so it is atomic.
+     */
+    private final AtomicInteger milliseconds;
+
+    /**
+     * The timer that constantly updates the time of the simulation, and triggers the data update.
+     * It is only created when the simulation is started, so a controller that is only stepped manually
+     * (e.g. by the headless runner) never starts a timer thread.
+     */
+    private Timer timer;
+
+    /**
+     * The wave generator that handles the wave generation logic (calculating the amplitude of the combined waves),
+     * and holds the current snapshot of the waves of the simulation.
+     */
+    private final WaveGenerator waveGenerator;
+
+    /**
+     * The total length of the wave (in meters) to be simulated.
+     * This is a given value (e.g. the x-axis length of the graph) that determines the initial range
+     * of the wave to be simulated.
+     */
+    private final double totalLength;
+
+    /**
+     * The range of positions to be simulated and the number of sample (data points) generated over it.
+     * It starts as the totalLength with the sample count set when instantiating the controller (or a default value
+     * of 1024 points), and can be changed at any time (e.g. when the graph is zoomed), taking effect at the next frame.
+     */
+    private volatile Viewport viewport;
+
+    /**
+     * Whether the sample count is chosen for each frame from the waves (up to the sample count of the viewport),
+     * rather than always being the sample count of the viewport.
+     */
+    private volatile boolean adaptiveSampling;
+
+    /**
+     * The sampling plan of the latest frame, to log when it changes.
+     */
+    private final AtomicReference<SamplingPlan> samplingPlan = new AtomicReference<>();
+
+    /**
+     * The cache of the frames of a period of the simulation (or null if the frames are not cached).
+     */
+    private volatile PeriodicFrameCache frameCache;
+
+    /**
+     * The service generating the evaluators of the wave sets (or null if the waves are always interpreted).
+     */
+    private volatile WaveEvaluatorService evaluatorService;
+
+    /**
+     * The publisher of the frames of the simulation.
+     */
+    private final FramePublisher framePublisher;
+
+    /**
+     * The task that updates the simulation data.
+     */
+    private class UpdateTask extends TimerTask {
+        @Override
+        public void run() {
+            long allocatedBytesAtStart = SimulationMetrics.ENABLED ? SimulationMetrics.allocatedBytesOfCurrentThread() : -1;
+            simulate(milliseconds.addAndGet(DEFAULT_UPDATE_INTERVAL));
+            SimulationMetrics.recordTick(allocatedBytesAtStart);
+        }
+    }
+
+    /**
+     * Instantiate the wave simulation controller with a given length of the wave to be simulated
+     * and a default sample count of 1024.
+     *
+     * @param totalLength The total length of the wave (in meters) to be simulated.
+     */
+    public WaveSimulationController(double totalLength, WaveSimulationDisplay waveSimulationDisplay) {
+        this(totalLength, DEFAULT_SAMPLE_COUNT, waveSimulationDisplay);
+    }
+
+    /**
+     * Instantiate the wave simulation controller with a given length of the wave to be simulated
+     * and a given number of sample count, showing the frames on a display.
+     * The display subscribes to the frames keeping only the latest one, since a display only needs to show the last frame,
+     * and the sampling is adaptive, the sample count being the resolution of the display.
+     * The frames of a period of the simulation are cached within the default memory budget,
+     * and the combined wave is evaluated by generated evaluators.
+     *
+     * @param totalLength The total length of the wave (in meters) to be simulated.
+     * @param sampleCount The number of sample (data points) to be generated used to generate the wave graph.
+     * @param waveSimulationDisplay The display component that shows the wave simulation.
+     */
+    public WaveSimulationController(double totalLength, int sampleCount, WaveSimulationDisplay waveSimulationDisplay) {
+        this(totalLength, sampleCount);
+        this.adaptiveSampling = true;
+        this.frameCache = new PeriodicFrameCache(PeriodicFrameCache.DEFAULT_MEMORY_BUDGET);
+        this.evaluatorService = new WaveEvaluatorService();
+        this.framePublisher.subscribe(new DisplaySubscriber(waveSimulationDisplay), 1, OverflowPolicy.LATEST_ONLY);
+    }
+
+    /**
+     * Instantiate the wave simulation controller with a given length of the wave to be simulated
+     * and a given number of sample count, without any subscriber (see {@link #getFramePublisher()}).
+     *
+     * @param totalLength The total length of the wave (in meters) to be simulated.
+     * @param sampleCount The number of sample (data points) to be generated used to generate the wave graph.
+     */
+    public WaveSimulationController(double totalLength, int sampleCount) {
+        this.simulationStatus = WaveSimulationStatus.STOPPED;
+        this.milliseconds = new AtomicInteger();
+        this.waveGenerator = new WaveGenerator();
+        this.totalLength = totalLength;
+        this.viewport = new Viewport(0, totalLength, sampleCount);
+        this.framePublisher = new FramePublisher();
+    }
+
+    /**
+     * Adds a wave to the wave generator.
+     *
+     * @param wave The wave to be added to the wave generator.
+     */
+    public void addWave(Wave wave) {
+        waveGenerator.addWave(wave);
+    }
+
+    /**
+     * Adds a collection of waves to the simulation at once.
+     *
+     * @param waves The waves to be added to the simulation.
+     */
+    public void addWaves(Collection<Wave> waves) {
+        waveGenerator.addWaves(waves);
+    }
+
+    /**
+     * Replaces all waves of the simulation with a collection of waves at once.
+     *
+     * @param waves The new waves of the simulation.
+     */
+    public void replaceWaves(Collection<Wave> waves) {
+        waveGenerator.replaceWaves(waves);
+    }
+
+    public void clearWaves() {
+        waveGenerator.clearWaves();
+    }
+
+    public void removeWave(Wave wave) {
+        waveGenerator.removeWave(wave);
+    }
+
+    /**
+     * The main simulation logic, that calculates the amplitude of the combined waves at each sample point,
+     * and publishes the frame to the subscribers (e.g. the wave simulation display).
+     *
+     * @return the published frame
+     */
+    public SimulationFrame simulate() {
+        return simulate(milliseconds.get());
+    }
+
+    /**
+     * Simulate the frame at a given time from the current snapshot of the waves.
+     *
+     * @param milliseconds the time of the frame (in milliseconds)
+     * @return the published frame
+     */
+    private SimulationFrame simulate(int milliseconds) {
+        CompiledWaveSet compiledWaves = waveGenerator.getCompiledWaves();
+        List<Wave> waves = compiledWaves.getWaves();
+        SamplingPlan plan = adaptiveSampling ? SamplingPlan.of(this.viewport, waves) : SamplingPlan.fixed(this.viewport);
+        SamplingPlan previousPlan = samplingPlan.getAndSet(plan);
+        if (!plan.equals(previousPlan) && adaptiveSampling) {
+            logger.info("Sampling plan changed to {}", plan);
+        }
+        Viewport viewport = plan.viewport();
+        int sampleCount = viewport.sampleCount();
+        double t = milliseconds / 1000.0;
+        long start = SimulationMetrics.now();
+        SimulationTickEvent tickEvent = new SimulationTickEvent();
+        if (tickEvent.isEnabled()) {
+            tickEvent.begin();
+        }
+        PeriodicFrameCache cache = frameCache;
+        Map<Wave, double[]> dataPoints = cache == null ? null : cache.get(waves, plan, milliseconds, combinedWave);
+        if (dataPoints == null) {
+            WaveEvaluatorService service = evaluatorService;
+            WaveEvaluator evaluator = service == null
+                    ? new InterpretedWaveEvaluator(compiledWaves) : service.get(compiledWaves);
+            dataPoints = evaluate(compiledWaves, evaluator, plan, t);
+            if (cache != null) {
+                cache.put(waves, plan, milliseconds, combinedWave, dataPoints);
+            }
+        }
+        SimulationMetrics.simulate.recordSince(start);
+        if (tickEvent.isEnabled()) {
+            tickEvent.end();
+            tickEvent.waveCount = waves.size();
+            tickEvent.sampleCount = sampleCount * plan.subsamples() / (plan.envelope() ? 2 : 1);
+            tickEvent.simulationMillis = milliseconds;
+            tickEvent.commit();
+        }
+
+        SimulationFrame frame = new SimulationFrame(milliseconds, dataPoints, waves, viewport, plan.envelope(),
+                System.nanoTime());
+        framePublisher.submit(frame);
+        return frame;
+    }
+
+    /**
+     * Evaluate the combined wave (from the compiled waves) and every wave following a sampling plan.
+     *
+     * @param compiledWaves the compiled snapshot of the waves
+     * @param evaluator the evaluator of the combined wave over the samples (unless the plan is an envelope)
+     * @param plan the sampling plan
+     * @param t the time (in seconds)
+     * @return the map that contains the wave objects (including the combined wave) and their data points
+     */
+    private static Map<Wave, double[]> evaluate(CompiledWaveSet compiledWaves, WaveEvaluator evaluator,
+                                                SamplingPlan plan, double t) {
+        List<Wave> waves = compiledWaves.getWaves();
+        Viewport viewport = plan.viewport();
+        int sampleCount = viewport.sampleCount();
+        Map<Wave, double[]> dataPoints = new HashMap<>();
+        if (plan.envelope()) {
+            dataPoints.put(combinedWave, plan.evaluate(x -> compiledWaves.combine(x, t)));
+            for (Wave wave : waves) {
+                dataPoints.put(wave, plan.evaluate(x -> wave.amplitude(x, t)));
+            }
+        } else {
+            // The shapes are band-limited for the gap between the samples, so they do not alias.
+            double gap = viewport.gap();
+            double[] dataPointsCombined = new double[sampleCount];
+            evaluator.evaluate(t, viewport.start(), gap, dataPointsCombined, 0, sampleCount);
+            dataPoints.put(combinedWave, dataPointsCombined);
+            for (Wave wave : waves) {
+                double[] dataPointsWave = new double[sampleCount];
+                for (int i = 0; i < sampleCount; i++) {
+                    double x = viewport.x(i);
+                    dataPointsWave[i] = wave.amplitude(x, t, gap);
+                }
+                dataPoints.put(wave, dataPointsWave);
+            }
+        }
+        return dataPoints;
+    }
+
+    /**
+     * Start the wave simulation by starting the timer and the update task execution.
+     */
+    public void start() {
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+        this.timer = new Timer();
+        this.timer.scheduleAtFixedRate(new UpdateTask(), 0, DEFAULT_UPDATE_INTERVAL);
+
+        // Set the simulation status to playing.
+        this.simulationStatus = WaveSimulationStatus.PLAYING;
+    }
+
+    /**
+     * Pause the wave simulation by stopping the timer.
+     */
+    public void pause() {
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+
+        // Set the simulation status to paused.
+        this.simulationStatus = WaveSimulationStatus.PAUSED;
+    }
+
+    /**
+     * Stop the wave simulation by stopping the timer and resetting the time elapsed.
+     */
+    public void stop() {
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
+        this.milliseconds.set(0);
+
+        // Set the simulation status to stopped.
+        this.simulationStatus = WaveSimulationStatus.STOPPED;
+
+        // Get a simulation result at t=0 and reset the result to that.
+        simulate();
+    }
+
+    /**
+     * Step the wave simulation by a given number of time (in milliseconds) (that is,
+     * ship the simulation by a given time and update the simulation to the status at the new time).
+     *
+     * @param milliseconds the time to be skipped in the simulation (in milliseconds).
+     * @return the published frame
+     */
+    public SimulationFrame step(int milliseconds) {
+        return simulate(this.milliseconds.addAndGet(milliseconds));
+    }
+
+    /**
+     * Get the publisher of the frames, to subscribe to them (e.g. to record them or stream them).
+     *
+     * @return the frame publisher
+     */
+    public FramePublisher getFramePublisher() {
+        return framePublisher;
+    }
+
+    /**
+     * Get the current snapshot of the waves of the simulation.
+     *
+     * @return the immutable list of the current waves
+     */
+    public List<Wave> getWaves() {
+        return waveGenerator.getWaves();
+    }
+
+    public WaveSimulationStatus getSimulationStatus() {
+        return simulationStatus;
+    }
+
+    /**
+     * Evaluate another range of positions from the next frame on (e.g. the range shown by a zoomed graph,
+     * with one sample point per pixel). If the simulation is not playing, the current frame is evaluated again
+     * over the new range right away.
+     *
+     * @param start the first position of the range (in meters)
+     * @param end the end of the range (in meters)
+     * @param sampleCount the number of sample points
+     */
+    public void setViewport(double start, double end, int sampleCount) {
+        Viewport newViewport = new Viewport(start, end, sampleCount);
+        if (newViewport.equals(viewport)) {
+            return;
+        }
+        viewport = newViewport;
+        if (simulationStatus != WaveSimulationStatus.PLAYING) {
+            simulate();
+        }
+    }
+
+    /**
+     * Choose the sample count of each frame from the waves, or always use the sample count of the viewport.
+     *
+     * @param adaptiveSampling true to choose the sample count from the waves (see {@link SamplingPlan})
+     */
+    public void setAdaptiveSampling(boolean adaptiveSampling) {
+        this.adaptiveSampling = adaptiveSampling;
+    }
+
+    public boolean isAdaptiveSampling() {
+        return adaptiveSampling;
+    }
+
+    /**
+     * Cache the frames of a period of the simulation within a memory budget, or stop caching them.
+     *
+     * @param memoryBudget the maximum memory taken by the cached frames (in bytes), or 0 to stop caching
+     */
+    public void setFrameCacheBudget(long memoryBudget) {
+        this.frameCache = memoryBudget > 0 ? new PeriodicFrameCache(memoryBudget) : null;
+    }
+
+    /**
+     * Get the cache of the frames of a period of the simulation.
+     *
+     * @return the frame cache, or null if the frames are not cached
+     */
+    public PeriodicFrameCache getFrameCache() {
+        return frameCache;
+    }
+
+    /**
+     * Evaluate the combined wave with evaluators generated for each wave set, or always interpret the waves.
+     *
+     * @param generatedEvaluators true to generate the evaluators (see {@link WaveEvaluatorService})
+     */
+    public void setGeneratedEvaluators(boolean generatedEvaluators) {
+        this.evaluatorService = generatedEvaluators ? new WaveEvaluatorService() : null;
+    }
+
+    /**
+     * Get the service generating the evaluators of the wave sets.
+     *
+     * @return the evaluator service, or null if the waves are always interpreted
+     */
+    public WaveEvaluatorService getEvaluatorService() {
+        return evaluatorService;
+    }
+
+    /**
+     * Get the sampling plan of the latest frame.
+     *
+     * @return the sampling plan, or null if no frame was simulated yet
+     */
+    public SamplingPlan getSamplingPlan() {
+        return samplingPlan.get();
+    }
+
+    /**
+     * Get the range of positions currently simulated.
+     *
+     * @return the viewport
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public double getTotalLength() {
+        return totalLength;
+    }
+
+    public int getSampleCount() {
+        return viewport.sampleCount();
+    }
+}
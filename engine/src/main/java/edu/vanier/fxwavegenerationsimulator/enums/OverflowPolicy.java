@@ -0,0 +1,11 @@
+package edu.vanier.fxwavegenerationsimulator.enums;
+
+/**
+ * An enum listing what a frame subscription does when a new frame arrives and its buffer is full
+ * (drop the oldest frame, keep only the latest frame, or block the simulation until there is room).
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    LATEST_ONLY,
+    BLOCK
+}
@@ -0,0 +1,11 @@
+package edu.vanier.fxwavegenerationsimulator.enums;
+
+/**
+ * An enum listing all status for a simulation session of a SimulationHost (playing, paused, failed, closed).
+ */
+public enum SimulationSessionStatus {
+    PLAYING,
+    PAUSED,
+    FAILED,
+    CLOSED
+}
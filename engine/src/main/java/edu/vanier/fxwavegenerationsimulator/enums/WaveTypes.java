@@ -1,12 +1,17 @@
 package edu.vanier.fxwavegenerationsimulator.enums;
 
 /**
- * An enum listing all available types for a discrete wave, which are SIN and COS.
+ * An enum listing all available types for a discrete wave, which are SIN and COS,
+ * and the band-limited SQUARE, SAW (sawtooth), TRIANGLE and PULSE (with a duty cycle) shapes.
  *
  * @author Qian Qian
  */
 public enum WaveTypes {
     DUMMY,  // The dummy value for the dummy object for the combined wave
     SIN,
-    COS
+    COS,
+    SQUARE,
+    SAW,
+    TRIANGLE,
+    PULSE
 }
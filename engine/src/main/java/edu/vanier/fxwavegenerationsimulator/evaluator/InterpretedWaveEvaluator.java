@@ -0,0 +1,20 @@
+package edu.vanier.fxwavegenerationsimulator.evaluator;
+
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+
+/**
+ * The evaluator that interprets a compiled wave set (see CompiledWaveSet.combine), which works for any wave set
+ * right away, and is used until a specialized evaluator is generated (or when none can be).
+ *
+ * @param waves the compiled wave set
+ *
+ * @author Qian Qian
+ */
+public record InterpretedWaveEvaluator(CompiledWaveSet waves) implements WaveEvaluator {
+    @Override
+    public void evaluate(double t, double start, double gap, double[] points, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            points[offset + i] = waves.combine(start + i * gap, t, gap);
+        }
+    }
+}
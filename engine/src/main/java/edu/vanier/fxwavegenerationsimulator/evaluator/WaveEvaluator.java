@@ -0,0 +1,22 @@
+package edu.vanier.fxwavegenerationsimulator.evaluator;
+
+/**
+ * An evaluator of the combined wave of one compiled wave set, over a block of evenly spaced positions at a time.
+ * The interpreter ({@link InterpretedWaveEvaluator}) works for any wave set, while the evaluators generated by
+ * WaveEvaluatorCompiler (see {@link WaveEvaluatorService}) are specialized for a single one.
+ *
+ * @author Qian Qian
+ */
+public interface WaveEvaluator {
+    /**
+     * Evaluate the combined wave at the positions start + i * gap (for i from 0 to count - 1),
+     * the shapes (e.g. SQUARE) being band-limited for the gap.
+     * @param t the time (in seconds)
+     * @param start the first position (in meters)
+     * @param gap the gap between two positions (in meters)
+     * @param points the array the values are written to
+     * @param offset the index in the array of the value at the first position
+     * @param count the number of positions
+     */
+    void evaluate(double t, double start, double gap, double[] points, int offset, int count);
+}
@@ -0,0 +1,146 @@
+package edu.vanier.fxwavegenerationsimulator.evaluator;
+
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The service giving the evaluator of the current wave set: the evaluator generated for it by
+ * {@link WaveEvaluatorCompiler} once it is ready, or the interpreter in the meantime.
+ * A new wave set is compiled in the background (on a virtual thread shared by all the services, e.g. by all
+ * the sessions of a host) the first time it is asked for, so a change of the waves never waits for the compiler,
+ * and the wave sets replaced before their turn are skipped.
+ * <p>
+ * The compiler needs the ClassFile API, a preview API of Java 22. It is the only class built with --enable-preview
+ * (in the preview source set of the engine), so it is loaded by name here rather than linked: without
+ * --enable-preview (or on another Java release), it cannot be loaded, and every wave set is interpreted.
+ * The values are the same either way.
+ *
+ * @author Qian Qian
+ */
+public class WaveEvaluatorService {
+    private final static Logger logger = LoggerFactory.getLogger(WaveEvaluatorService.class);
+
+    /**
+     * The name of the compiler class, in the preview source set.
+     */
+    private static final String COMPILER_CLASS = "edu.vanier.fxwavegenerationsimulator.evaluator.WaveEvaluatorCompiler";
+
+    /**
+     * The compile method of the compiler, or null if the compiler cannot be loaded.
+     */
+    private static final MethodHandle COMPILE = findCompiler();
+
+    /**
+     * The thread compiling the wave sets of all the services.
+     */
+    private static final ExecutorService compiler =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("wave-evaluator-compiler").factory());
+
+    /**
+     * The evaluator of a wave set.
+     */
+    private record Entry(CompiledWaveSet waves, WaveEvaluator evaluator) {
+    }
+
+    /**
+     * The evaluator of the latest wave set compiled.
+     */
+    private final AtomicReference<Entry> current = new AtomicReference<>(
+            new Entry(CompiledWaveSet.empty(), new InterpretedWaveEvaluator(CompiledWaveSet.empty())));
+
+    /**
+     * The latest wave set asked for, the only one worth compiling.
+     */
+    private final AtomicReference<CompiledWaveSet> requested = new AtomicReference<>();
+
+    private final AtomicLong generatedCount = new AtomicLong();
+
+    /**
+     * Get the evaluator of a wave set, asking for it to be compiled if it is not yet.
+     * @param waves the compiled wave set
+     * @return the generated evaluator of the wave set if it is ready, the interpreter otherwise
+     */
+    public WaveEvaluator get(CompiledWaveSet waves) {
+        Entry entry = current.get();
+        if (entry.waves() == waves) {
+            return entry.evaluator();
+        }
+        if (COMPILE != null && requested.getAndSet(waves) != waves) {
+            compiler.execute(() -> compile(waves));
+        }
+        return new InterpretedWaveEvaluator(waves);
+    }
+
+    private void compile(CompiledWaveSet waves) {
+        if (requested.get() != waves) {
+            // Replaced by a newer wave set before its turn.
+            return;
+        }
+        long start = System.nanoTime();
+        WaveEvaluator evaluator;
+        try {
+            evaluator = generate(waves);
+            generatedCount.incrementAndGet();
+            logger.debug("Evaluator generated in {} us for {}", (System.nanoTime() - start) / 1000, waves);
+        } catch (RuntimeException e) {
+            // Do not try again for the same wave set.
+            logger.warn("Cannot generate the evaluator of {}, the waves are interpreted", waves, e);
+            evaluator = new InterpretedWaveEvaluator(waves);
+        }
+        current.set(new Entry(waves, evaluator));
+    }
+
+    private static MethodHandle findCompiler() {
+        try {
+            return MethodHandles.lookup().findStatic(Class.forName(COMPILER_CLASS), "compile",
+                    MethodType.methodType(WaveEvaluator.class, CompiledWaveSet.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            logger.info("Generated evaluators are not available ({}), the waves are interpreted", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Generate the evaluator of a wave set right away, on the calling thread.
+     * @param waves the compiled wave set
+     * @return the generated evaluator
+     * @throws UnsupportedOperationException if the compiler could not be loaded
+     */
+    public static WaveEvaluator generate(CompiledWaveSet waves) {
+        if (COMPILE == null) {
+            throw new UnsupportedOperationException("Generated evaluators need Java 22 with --enable-preview");
+        }
+        try {
+            return (WaveEvaluator) COMPILE.invokeExact(waves);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Check whether the evaluators can be generated.
+     * @return false if the compiler could not be loaded (e.g. without --enable-preview)
+     */
+    public static boolean isAvailable() {
+        return COMPILE != null;
+    }
+
+    /**
+     * Get the number of evaluators generated so far.
+     * @return the number of generated evaluators
+     */
+    public long getGeneratedCount() {
+        return generatedCount.get();
+    }
+}
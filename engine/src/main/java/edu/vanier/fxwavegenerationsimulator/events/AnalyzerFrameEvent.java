@@ -0,0 +1,25 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A frame of the sound analyzer, reading the sound data at the current time.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.AnalyzerFrame")
+@Label("Analyzer Frame")
+@Category({"FX Wave Generation Simulator", "Analyzer"})
+@Description("A frame of the sound analyzer, reading the sound data at the current time.")
+public class AnalyzerFrameEvent extends Event {
+    @Label("Buffer Index")
+    @Description("The index of the sample read from the audio buffer.")
+    public int bufferIndex;
+
+    @Label("Frequency Count")
+    @Description("The number of frequencies shown on the analyzer.")
+    public int frequencyCount;
+}
@@ -0,0 +1,24 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A rebuild of the audio buffer (and reload of the clip) by the SoundController.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.AudioBufferRebuild")
+@Label("Audio Buffer Rebuild")
+@Category({"FX Wave Generation Simulator", "Audio"})
+@Description("A rebuild of the audio buffer (and reload of the clip) by the SoundController.")
+public class AudioBufferRebuildEvent extends Event {
+    @Label("Buffer Length")
+    @Description("The number of samples in the audio buffer.")
+    public int bufferLength;
+
+    @Label("Wave Count")
+    public int waveCount;
+}
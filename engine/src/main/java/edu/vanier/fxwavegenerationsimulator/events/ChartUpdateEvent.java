@@ -0,0 +1,27 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An update of the data sets of a chart on the FX thread.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.ChartUpdate")
+@Label("Chart Update")
+@Category({"FX Wave Generation Simulator", "Rendering"})
+@Description("An update of the data sets of a chart on the FX thread.")
+public class ChartUpdateEvent extends Event {
+    @Label("Chart")
+    public String chart;
+
+    @Label("Data Set Count")
+    public int dataSetCount;
+
+    @Label("Point Count")
+    @Description("The total number of points in all data sets.")
+    public int pointCount;
+}
@@ -0,0 +1,28 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * An SQL operation of the DatabaseController.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.DatabaseOperation")
+@Label("Database Operation")
+@Category({"FX Wave Generation Simulator", "Persistence"})
+@Description("An SQL operation of the DatabaseController.")
+public class DatabaseOperationEvent extends Event {
+    @Label("Database")
+    public String database;
+
+    @Label("SQL Kind")
+    @Description("The kind of the SQL statement (SELECT, INSERT, UPDATE, DELETE).")
+    public String sqlKind;
+
+    @Label("Row Count")
+    @Description("The number of rows read or written.")
+    public long rowCount;
+}
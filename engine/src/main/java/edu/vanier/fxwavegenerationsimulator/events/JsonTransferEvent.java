@@ -0,0 +1,29 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JSON import or export of the JsonDataController.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.JsonTransfer")
+@Label("JSON Transfer")
+@Category({"FX Wave Generation Simulator", "Persistence"})
+@Description("A JSON import or export of the JsonDataController.")
+public class JsonTransferEvent extends Event {
+    @Label("Direction")
+    @Description("Import or Export.")
+    public String direction;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Wave Count")
+    public long waveCount;
+}
@@ -0,0 +1,28 @@
+package edu.vanier.fxwavegenerationsimulator.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A simulation tick (WaveSimulationController.simulate) that computed a frame of the waves.
+ * The duration of the event is the duration of the operation.
+ */
+@Name("edu.vanier.fxwavegenerationsimulator.SimulationTick")
+@Label("Simulation Tick")
+@Category({"FX Wave Generation Simulator", "Simulation"})
+@Description("A simulation tick (WaveSimulationController.simulate) that computed a frame of the waves.")
+public class SimulationTickEvent extends Event {
+    @Label("Wave Count")
+    public int waveCount;
+
+    @Label("Sample Count")
+    @Description("The number of samples computed for each wave.")
+    public int sampleCount;
+
+    @Label("Simulation Time")
+    @Description("The time of the simulation (in milliseconds) the frame was computed for.")
+    public long simulationMillis;
+}
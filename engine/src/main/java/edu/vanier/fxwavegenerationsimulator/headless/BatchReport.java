@@ -0,0 +1,34 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+/**
+ * The report of a headless batch simulation run.
+ *
+ * @param frameCount the number of frames produced
+ * @param simulatedMillis the simulated time covered by the run (in milliseconds)
+ * @param elapsedNanos the wall-clock time the run took (in nanoseconds)
+ *
+ * @author Qian Qian
+ */
+public record BatchReport(long frameCount, long simulatedMillis, long elapsedNanos) {
+    /**
+     * Get the number of frames produced per second of wall-clock time.
+     * @return the frames per second
+     */
+    public double framesPerSecond() {
+        return elapsedNanos == 0 ? 0 : frameCount * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Get how many times faster than real time the simulation ran.
+     * @return the simulated time divided by the wall-clock time
+     */
+    public double speedup() {
+        return elapsedNanos == 0 ? 0 : simulatedMillis * 1e6 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames (%d ms simulated) in %.3f s: %.1f frames/s, %.1fx real time",
+                frameCount, simulatedMillis, elapsedNanos / 1e9, framesPerSecond(), speedup());
+    }
+}
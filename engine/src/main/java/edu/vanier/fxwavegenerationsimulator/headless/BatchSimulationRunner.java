@@ -0,0 +1,157 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.stream.FramePublisher;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+/**
+ * Runs a wave simulation without JavaFX or audio, as fast as the CPU allows.
+ * Instead of waiting for the timer of the WaveSimulationController, the simulated time is a virtual clock
+ * that is stepped from the start to the end of the time range, and every frame is streamed to a FrameSink
+ * (written by a subscriber of the frames, while the next frames are simulated).
+ * This is the API behind the HeadlessMain command line, so it can also be used from batch jobs and tests.
+ *
+ * @author Qian Qian
+ */
+public class BatchSimulationRunner {
+    private final List<Wave> waves;
+    private final double totalLength;
+    private final int sampleCount;
+
+    /**
+     * The subscriber that writes the combined wave of every frame to the sink, in order.
+     * It subscribes with the BLOCK policy, so no frame is lost and the simulation waits when the sink falls behind.
+     */
+    private static class FrameWriter implements Flow.Subscriber<SimulationFrame> {
+        private final FrameSink sink;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private volatile IOException failure;
+        private volatile long frameCount;
+
+        private FrameWriter(FrameSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SimulationFrame frame) {
+            for (Map.Entry<Wave, double[]> entry : frame.dataPoints().entrySet()) {
+                if (entry.getKey().getWaveType() == WaveTypes.DUMMY) {
+                    try {
+                        sink.write(frame.milliseconds(), entry.getValue());
+                        frameCount++;
+                    } catch (IOException e) {
+                        failure = e;
+                        subscription.cancel();
+                        done.countDown();
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        /**
+         * Wait until every frame is written.
+         * @throws IOException if the sink could not be written
+         */
+        private void await() throws IOException {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing the frames.");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Instantiate a runner.
+     * @param waves the waves to be simulated
+     * @param totalLength the total length of the wave (in meters) to be simulated
+     * @param sampleCount the number of samples in each frame
+     */
+    public BatchSimulationRunner(Collection<Wave> waves, double totalLength, int sampleCount) {
+        if (totalLength <= 0) {
+            throw new IllegalArgumentException("Total length must be greater than 0.");
+        }
+        if (sampleCount <= 0) {
+            throw new IllegalArgumentException("Sample count must be greater than 0.");
+        }
+        this.waves = List.copyOf(waves);
+        this.totalLength = totalLength;
+        this.sampleCount = sampleCount;
+    }
+
+    /**
+     * Run the simulation over a time range, writing one frame per step to the sink.
+     * The sink is opened before the first frame and closed after the last one.
+     * @param startMillis the simulated time of the first frame (in milliseconds)
+     * @param endMillis the simulated time after which no more frames are produced (in milliseconds)
+     * @param stepMillis the simulated time between two frames (in milliseconds)
+     * @param sink the sink the frames are written to
+     * @return the report of the run
+     * @throws IOException if the sink cannot be written
+     */
+    public BatchReport run(int startMillis, int endMillis, int stepMillis, FrameSink sink) throws IOException {
+        if (startMillis < 0 || endMillis < startMillis) {
+            throw new IllegalArgumentException("Invalid time range: " + startMillis + " to " + endMillis + " ms.");
+        }
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("Step must be greater than 0.");
+        }
+        FrameWriter writer = new FrameWriter(sink);
+        WaveSimulationController controller = new WaveSimulationController(totalLength, sampleCount);
+        controller.getFramePublisher().subscribe(writer, FramePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.BLOCK);
+        controller.addWaves(waves);
+        // Initialize the metrics (e.g. register the MBeans) before the clock starts, so it is not counted in the run.
+        SimulationMetrics.get();
+
+        long start = System.nanoTime();
+        try (sink) {
+            sink.open(waves, totalLength, sampleCount);
+            // Move the virtual clock to the start of the range (this also simulates the first frame).
+            controller.step(startMillis);
+            for (long time = startMillis + stepMillis; time <= endMillis && writer.failure == null; time += stepMillis) {
+                controller.step(stepMillis);
+            }
+            // The frames are written while the next ones are simulated, wait for the last ones.
+            controller.getFramePublisher().close();
+            writer.await();
+        }
+        long frameCount = writer.frameCount;
+        long elapsed = System.nanoTime() - start;
+        long simulatedMillis = frameCount == 0 ? 0 : (frameCount - 1) * stepMillis;
+        return new BatchReport(frameCount, simulatedMillis, elapsed);
+    }
+}
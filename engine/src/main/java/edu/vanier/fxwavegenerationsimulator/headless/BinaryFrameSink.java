@@ -0,0 +1,124 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A frame sink that writes the frames to a compact binary file. All values are little-endian:
+ * <pre>
+ * Header (24 bytes)
+ *   0  int    magic ("WFRM")
+ *   4  short  format version
+ *   6  short  reserved (0)
+ *   8  int    number of samples in each frame
+ *   12 int    number of frames
+ *   16 double total length of the wave (in meters)
+ * Frames (4 + 4 * samples bytes each, starting at offset 24)
+ *   0  int     simulated time (in milliseconds)
+ *   4  float32 samples of the combined wave
+ * </pre>
+ * Like the WaveSimWriter, the frames are streamed through a FileChannel and the header is completed on close.
+ *
+ * @author Qian Qian
+ */
+public class BinaryFrameSink implements FrameSink {
+    /**
+     * The magic number at the start of every frame file ("WFRM").
+     */
+    public static final int MAGIC = 0x4D524657;
+    /**
+     * The current version of the frame file format.
+     */
+    public static final short VERSION = 1;
+    /**
+     * The size of the header (in bytes).
+     */
+    public static final int HEADER_SIZE = 24;
+
+    /**
+     * The size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int sampleCount;
+    private double totalLength;
+    private int frameCount;
+
+    /**
+     * Instantiate a binary sink (the file is only created when the sink is opened).
+     * @param path the path of the frame file (which is overwritten if it already exists)
+     */
+    public BinaryFrameSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void open(List<Wave> waves, double totalLength, int sampleCount) throws IOException {
+        this.sampleCount = sampleCount;
+        this.totalLength = totalLength;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        // Leave room for the header, which is written when the sink is closed.
+        channel.position(HEADER_SIZE);
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void write(int milliseconds, double[] frame) throws IOException {
+        if (frame.length != sampleCount) {
+            throw new IllegalArgumentException("Expected " + sampleCount + " samples, got " + frame.length + ".");
+        }
+        if (buffer.remaining() < Integer.BYTES) {
+            flush();
+        }
+        buffer.putInt(milliseconds);
+        for (double sample : frame) {
+            if (buffer.remaining() < Float.BYTES) {
+                flush();
+            }
+            buffer.putFloat((float) sample);
+        }
+        frameCount++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) 0);
+            header.putInt(sampleCount);
+            header.putInt(frameCount);
+            header.putDouble(totalLength);
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
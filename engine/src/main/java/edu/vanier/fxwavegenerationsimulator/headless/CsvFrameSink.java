@@ -0,0 +1,66 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A frame sink that writes the frames to a CSV file, one row per frame.
+ * The first column is the simulated time (in milliseconds), followed by one column per sample;
+ * the header row names each sample column with its position (in meters).
+ *
+ * @author Qian Qian
+ */
+public class CsvFrameSink implements FrameSink {
+    /**
+     * The size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private BufferedWriter writer;
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Instantiate a CSV sink (the file is only created when the sink is opened).
+     * @param path the path of the CSV file (which is overwritten if it already exists)
+     */
+    public CsvFrameSink(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public void open(List<Wave> waves, double totalLength, int sampleCount) throws IOException {
+        writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), BUFFER_SIZE);
+        row.setLength(0);
+        row.append("time_ms");
+        double gap = totalLength / sampleCount;
+        for (int i = 0; i < sampleCount; i++) {
+            row.append(',').append(i * gap);
+        }
+        writer.append(row).append('\n');
+    }
+
+    @Override
+    public void write(int milliseconds, double[] frame) throws IOException {
+        // Double.toString (used by append) does not depend on the locale, so the file always uses '.' for decimals.
+        row.setLength(0);
+        row.append(milliseconds);
+        for (double sample : frame) {
+            row.append(',').append(sample);
+        }
+        writer.append(row).append('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+}
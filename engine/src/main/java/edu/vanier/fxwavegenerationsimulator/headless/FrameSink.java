@@ -0,0 +1,39 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The destination of the frames produced by the headless batch runner (e.g. a file, or nothing for benchmarking).
+ * A frame is the combined wave sampled over the simulated length at a given time.
+ *
+ * @author Qian Qian
+ */
+public interface FrameSink extends AutoCloseable {
+    /**
+     * Prepare the sink before the first frame is written.
+     * @param waves the waves that are simulated
+     * @param totalLength the total length of the wave (in meters) that is simulated
+     * @param sampleCount the number of samples in each frame
+     * @throws IOException if the sink cannot be prepared
+     */
+    void open(List<Wave> waves, double totalLength, int sampleCount) throws IOException;
+
+    /**
+     * Write a frame.
+     * The frame array is reused by the caller, so it must be copied if it is kept after this call.
+     * @param milliseconds the simulated time of the frame (in milliseconds)
+     * @param frame the samples of the combined wave
+     * @throws IOException if the frame cannot be written
+     */
+    void write(int milliseconds, double[] frame) throws IOException;
+
+    /**
+     * Flush everything that has been written and release the sink.
+     * @throws IOException if the sink cannot be flushed
+     */
+    @Override
+    void close() throws IOException;
+}
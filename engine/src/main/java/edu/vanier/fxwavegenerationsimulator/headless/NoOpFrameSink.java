@@ -0,0 +1,38 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.util.List;
+
+/**
+ * A frame sink that discards every frame, to measure the speed of the simulation on its own.
+ * The last sample of each frame is kept, so the JIT cannot optimize the simulation away.
+ *
+ * @author Qian Qian
+ */
+public class NoOpFrameSink implements FrameSink {
+    private double lastSample;
+
+    @Override
+    public void open(List<Wave> waves, double totalLength, int sampleCount) {
+    }
+
+    @Override
+    public void write(int milliseconds, double[] frame) {
+        if (frame.length > 0) {
+            lastSample = frame[frame.length - 1];
+        }
+    }
+
+    /**
+     * Get the last sample of the last frame.
+     * @return the last sample of the last frame
+     */
+    public double getLastSample() {
+        return lastSample;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,32 @@
+package edu.vanier.fxwavegenerationsimulator.host;
+
+/**
+ * The aggregate throughput of a SimulationHost since it was created.
+ *
+ * @param sessionCount the number of open sessions
+ * @param playingCount the number of sessions that are playing
+ * @param failedCount the number of sessions that failed (including the ones closed since)
+ * @param tickCount the number of ticks simulated over all sessions
+ * @param skippedTickCount the number of ticks skipped because the previous tick of the session was still running
+ * @param throttledTickCount the number of ticks skipped because the session was over its CPU budget
+ * @param elapsedNanos the wall-clock time since the host was created (in nanoseconds)
+ *
+ * @author Qian Qian
+ */
+public record HostReport(int sessionCount, int playingCount, int failedCount,
+                         long tickCount, long skippedTickCount, long throttledTickCount, long elapsedNanos) {
+    /**
+     * Get the number of ticks simulated per second of wall-clock time over all sessions.
+     * @return the ticks per second
+     */
+    public double ticksPerSecond() {
+        return elapsedNanos == 0 ? 0 : tickCount * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sessions (%d playing, %d failed): %d ticks in %.3f s (%.1f ticks/s), %d skipped, %d throttled",
+                sessionCount, playingCount, failedCount, tickCount, elapsedNanos / 1e9, ticksPerSecond(),
+                skippedTickCount, throttledTickCount);
+    }
+}
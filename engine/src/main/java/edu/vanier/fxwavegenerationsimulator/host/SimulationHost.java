@@ -0,0 +1,190 @@
+package edu.vanier.fxwavegenerationsimulator.host;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.SimulationSessionStatus;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.WaveSimulationDisplay;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs many independent wave simulations (sessions) in one JVM, e.g. for batch scenarios or a classroom server.
+ * Instead of a Timer thread per WaveSimulationController, one shared ticker thread wakes up at every tick interval
+ * and runs the tick of every playing session on its own virtual thread, so paused sessions cost no thread at all
+ * and playing sessions share the carrier threads.
+ * A session that throws only fails itself, a session whose previous tick is still running skips the tick,
+ * and a session that takes more than its CPU budget per tick is throttled.
+ * The frames of the sessions are delivered to their subscribers (e.g. a display) on the delivery threads of their
+ * frame publishers, not on the thread of the tick, so a slow subscriber does not stall a session either,
+ * unless it subscribed with the BLOCK policy: then the tick of its session waits for it (see SimulationSession).
+ *
+ * @author Qian Qian
+ */
+public class SimulationHost implements AutoCloseable {
+    /**
+     * The default time a tick of a session may take (in nanoseconds), a fifth of the default tick interval.
+     */
+    public static final long DEFAULT_CPU_BUDGET_NANOS = WaveSimulationController.DEFAULT_UPDATE_INTERVAL * 1_000_000L / 5;
+
+    private final int tickInterval;
+    private final long cpuBudgetNanos;
+    private final Set<SimulationSession> sessions;
+    private final AtomicLong nextSessionId;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService workers;
+    private final long startNanos;
+
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder skippedTickCount = new LongAdder();
+    private final LongAdder throttledTickCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * Instantiate a host ticking every 10 milliseconds with the default CPU budget.
+     */
+    public SimulationHost() {
+        this(WaveSimulationController.DEFAULT_UPDATE_INTERVAL, DEFAULT_CPU_BUDGET_NANOS);
+    }
+
+    /**
+     * Instantiate a host.
+     * @param tickInterval the time between two ticks (in milliseconds), which is also the simulated time of a tick
+     * @param cpuBudgetNanos the time a tick of a session may take (in nanoseconds)
+     */
+    public SimulationHost(int tickInterval, long cpuBudgetNanos) {
+        if (tickInterval <= 0) {
+            throw new IllegalArgumentException("Tick interval must be greater than 0.");
+        }
+        if (cpuBudgetNanos <= 0) {
+            throw new IllegalArgumentException("CPU budget must be greater than 0.");
+        }
+        this.tickInterval = tickInterval;
+        this.cpuBudgetNanos = cpuBudgetNanos;
+        this.sessions = ConcurrentHashMap.newKeySet();
+        this.nextSessionId = new AtomicLong();
+        this.ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("simulation-host-ticker").daemon().factory());
+        this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("simulation-session-", 0).factory());
+        this.startNanos = System.nanoTime();
+        this.ticker.scheduleAtFixedRate(this::tickAll, tickInterval, tickInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a new (paused) session without a display, whose frames are only given to the subscribers
+     * of the frame publisher of the session controller.
+     * @param waves the initial waves of the session
+     * @param totalLength the total length of the wave (in meters) to be simulated
+     * @param sampleCount the number of samples in each frame
+     * @return the new session
+     */
+    public SimulationSession openSession(Collection<Wave> waves, double totalLength, int sampleCount) {
+        return openSession(waves, totalLength, sampleCount, null);
+    }
+
+    /**
+     * Open a new (paused) session.
+     * @param waves the initial waves of the session
+     * @param totalLength the total length of the wave (in meters) to be simulated
+     * @param sampleCount the number of samples in each frame
+     * @param display the display the frames of the session are pushed to (keeping only the latest frame,
+     *                on a delivery thread of the frame publisher), more subscribers can subscribe to the frame publisher of the session controller
+     * @return the new session
+     */
+    public SimulationSession openSession(Collection<Wave> waves, double totalLength, int sampleCount,
+                                         WaveSimulationDisplay display) {
+        SimulationSession session = new SimulationSession(this, nextSessionId.incrementAndGet(), waves,
+                totalLength, sampleCount, display);
+        sessions.add(session);
+        return session;
+    }
+
+    /**
+     * Remove a closed session from the host.
+     * @param session the session
+     */
+    void remove(SimulationSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Start the tick of every playing session on a virtual thread.
+     */
+    private void tickAll() {
+        for (SimulationSession session : sessions) {
+            if (session.getStatus() != SimulationSessionStatus.PLAYING) {
+                continue;
+            }
+            if (!session.tryBeginTick()) {
+                skippedTickCount.increment();
+                continue;
+            }
+            try {
+                workers.execute(() -> session.tick(tickInterval, cpuBudgetNanos));
+            } catch (RejectedExecutionException e) {
+                // The host is closing.
+                return;
+            }
+        }
+    }
+
+    void recordTick() {
+        tickCount.increment();
+    }
+
+    void recordThrottledTick() {
+        throttledTickCount.increment();
+    }
+
+    void recordFailure() {
+        failureCount.increment();
+    }
+
+    /**
+     * Get the open sessions of the host.
+     * @return a copy of the list of sessions
+     */
+    public List<SimulationSession> getSessions() {
+        return List.copyOf(sessions);
+    }
+
+    /**
+     * Get the aggregate throughput of the host since it was created.
+     * @return the report
+     */
+    public HostReport report() {
+        int playing = 0;
+        int count = 0;
+        for (SimulationSession session : sessions) {
+            count++;
+            if (session.getStatus() == SimulationSessionStatus.PLAYING) {
+                playing++;
+            }
+        }
+        return new HostReport(count, playing, failureCount.intValue(), tickCount.sum(), skippedTickCount.sum(),
+                throttledTickCount.sum(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Stop ticking, close every session (completing the subscribers of their frame publishers)
+     * and wait for the running ticks.
+     * The sessions are closed first, so a tick waiting for a BLOCK subscriber is released instead of holding up the close.
+     */
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        for (SimulationSession session : List.copyOf(sessions)) {
+            session.close();
+        }
+        workers.close();
+    }
+}
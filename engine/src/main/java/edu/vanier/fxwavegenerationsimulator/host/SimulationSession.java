@@ -0,0 +1,176 @@
+package edu.vanier.fxwavegenerationsimulator.host;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.SimulationSessionStatus;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.WaveSimulationDisplay;
+import edu.vanier.fxwavegenerationsimulator.stream.DisplaySubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One independent wave simulation run by a SimulationHost.
+ * A session has no thread of its own: the host steps its WaveSimulationController on a virtual thread at every tick
+ * while it is playing, so an idle (paused) session costs nothing but its memory.
+ * The frames are not given to the display (or the other subscribers) on the thread of the tick: the frame publisher
+ * of the controller delivers them on its own delivery threads. Only a subscriber with the BLOCK policy can hold up
+ * the tick (its virtual thread waits for room in the buffer), which only stalls this session: its next ticks are skipped
+ * until the blocked one ends, while the other sessions keep ticking. That wait is not charged to the CPU budget
+ * of the session, which only covers the evaluation of its frames.
+ * The waves of a session can be edited at any time through its controller.
+ * The controller of a session is headless (see WaveSimulationController(double, int)): it samples the fixed
+ * sample count, caches no frames and interprets the waves, so thousands of sessions cost no more than their frames.
+ * Adaptive sampling, the frame cache and the generated evaluators can be turned on for a session through its controller.
+ *
+ * @author Qian Qian
+ */
+public class SimulationSession {
+    private final static Logger logger = LoggerFactory.getLogger(SimulationSession.class);
+
+    private final SimulationHost host;
+    private final long id;
+    private final WaveSimulationController controller;
+
+    private volatile SimulationSessionStatus status;
+
+    /**
+     * Whether a tick of this session is running, so a session never runs two ticks at once.
+     */
+    private final AtomicBoolean ticking;
+
+    /**
+     * The time this session spent over its CPU budget that it still has to pay back by skipping ticks (in nanoseconds).
+     * It is only accessed by the running tick.
+     */
+    private long budgetDebtNanos;
+
+    private volatile long tickCount;
+    private volatile long throttledTickCount;
+    private volatile Throwable failure;
+
+    /**
+     * Instantiate a session, paused.
+     * @param host the host running the session
+     * @param id the identifier of the session in the host
+     * @param waves the initial waves of the session
+     * @param totalLength the total length of the wave (in meters) to be simulated
+     * @param sampleCount the number of samples in each frame
+     * @param display the display the frames of the session are pushed to (keeping only the latest frame,
+     *                on a delivery thread of the frame publisher), or null for a session without a display
+     */
+    SimulationSession(SimulationHost host, long id, Collection<Wave> waves, double totalLength, int sampleCount,
+                      WaveSimulationDisplay display) {
+        this.host = host;
+        this.id = id;
+        this.controller = new WaveSimulationController(totalLength, sampleCount);
+        if (display != null) {
+            this.controller.getFramePublisher().subscribe(new DisplaySubscriber(display), 1, OverflowPolicy.LATEST_ONLY);
+        }
+        this.controller.addWaves(waves);
+        this.status = SimulationSessionStatus.PAUSED;
+        this.ticking = new AtomicBoolean();
+    }
+
+    /**
+     * Start (or resume) the simulation of this session at the next tick of the host.
+     */
+    public void start() {
+        if (status == SimulationSessionStatus.PAUSED) {
+            status = SimulationSessionStatus.PLAYING;
+        }
+    }
+
+    /**
+     * Pause the simulation of this session, it stops being ticked by the host.
+     */
+    public void pause() {
+        if (status == SimulationSessionStatus.PLAYING) {
+            status = SimulationSessionStatus.PAUSED;
+        }
+    }
+
+    /**
+     * Close this session and remove it from its host.
+     * The frame publisher of the controller is closed, so its subscribers receive their buffered frames
+     * and are completed, and a tick waiting for a BLOCK subscriber is released.
+     */
+    public void close() {
+        status = SimulationSessionStatus.CLOSED;
+        controller.getFramePublisher().close();
+        host.remove(this);
+    }
+
+    /**
+     * Claim the next tick of this session, unless its previous tick is still running.
+     * @return true if the tick has to be run, false if it is skipped
+     */
+    boolean tryBeginTick() {
+        return status == SimulationSessionStatus.PLAYING && ticking.compareAndSet(false, true);
+    }
+
+    /**
+     * Run one tick of this session (after a successful tryBeginTick).
+     * A failing tick only fails this session, and a session whose evaluation of a frame takes more than its
+     * CPU budget skips ticks until it has paid back the time it used over the budget.
+     * @param tickInterval the simulated time of a tick (in milliseconds)
+     * @param cpuBudgetNanos the time a tick may take (in nanoseconds)
+     */
+    void tick(int tickInterval, long cpuBudgetNanos) {
+        try {
+            if (budgetDebtNanos > 0) {
+                budgetDebtNanos = Math.max(0, budgetDebtNanos - cpuBudgetNanos);
+                throttledTickCount++;
+                host.recordThrottledTick();
+                return;
+            }
+            // Only the evaluation of the frame is charged, up to its publication: a BLOCK subscriber can then hold
+            // the tick while it waits for room in its buffer, and that wait is not CPU time used by the session.
+            long start = System.nanoTime();
+            SimulationFrame frame = controller.step(tickInterval);
+            long elapsed = frame.publishedNanos() - start;
+            budgetDebtNanos = Math.max(0, elapsed - cpuBudgetNanos);
+            tickCount++;
+            host.recordTick();
+        } catch (RuntimeException e) {
+            failure = e;
+            status = SimulationSessionStatus.FAILED;
+            host.recordFailure();
+            logger.error("Simulation session {} failed: {}", id, e.toString());
+        } finally {
+            ticking.set(false);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public WaveSimulationController getController() {
+        return controller;
+    }
+
+    public SimulationSessionStatus getStatus() {
+        return status;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getThrottledTickCount() {
+        return throttledTickCount;
+    }
+
+    /**
+     * Get the exception that made this session fail.
+     * @return the exception, or null if the session did not fail
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,212 @@
+package edu.vanier.fxwavegenerationsimulator.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram in the style of HdrHistogram: the values (in nanoseconds) are counted in
+ * log-linear buckets, 16 buckets for every power of two, so every recorded value is kept with a relative
+ * precision of about 6%, whatever its magnitude, in a fixed amount of memory.
+ * Recording is a single atomic increment, so it can be done on every tick from any thread.
+ *
+ * @author Qian Qian
+ */
+public class LatencyHistogram implements LatencyHistogramMBean {
+    /**
+     * The number of bits used for the linear buckets inside each power of two (2^4 = 16 buckets).
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * Enough buckets for every positive long value.
+     */
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Instantiate an empty histogram.
+     * @param name the name of the histogram (e.g. the name of the measured operation)
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the name of the histogram.
+     * @return the name of the histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the bucket of a value.
+     * @param value the value (non-negative)
+     * @return the index of the bucket that counts the value
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Get the highest value counted by a bucket.
+     * @param bucket the index of the bucket
+     * @return the highest value counted by the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT;
+        long lowest = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    /**
+     * Record a duration.
+     * @param nanos the duration (in nanoseconds)
+     */
+    public void record(long nanos) {
+        if (!SimulationMetrics.ENABLED) {
+            return;
+        }
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        sum.add(nanos);
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Record the duration since a start time, if the metrics are enabled.
+     * @param startNanos the start time, from SimulationMetrics.now()
+     */
+    public void recordSince(long startNanos) {
+        if (SimulationMetrics.ENABLED) {
+            record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Get the value at a given percentile.
+     * @param percentile the percentile (between 0 and 100)
+     * @return the value (in nanoseconds), or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Take a snapshot of the bucket counts, so the values recorded in an interval can be told apart
+     * (see getValueAtPercentile(long[], long[], double)).
+     * @return the current count of every bucket
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the value at a given percentile of the values recorded between two snapshots.
+     * @param previous the snapshot at the start of the interval
+     * @param current the snapshot at the end of the interval
+     * @param percentile the percentile (between 0 and 100)
+     * @return the value (in nanoseconds), or 0 if nothing has been recorded in the interval
+     */
+    public static long getValueAtPercentile(long[] previous, long[] current, double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += current[i] - previous[i];
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += current[i] - previous[i];
+            if (seen >= target) {
+                return highestValueOf(i);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long total = count.sum();
+        return total == 0 ? 0 : sum.sum() / (double) total / 1000.0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return getValueAtPercentile(50) / 1000.0;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return getValueAtPercentile(90) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return getValueAtPercentile(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
@@ -0,0 +1,22 @@
+package edu.vanier.fxwavegenerationsimulator.metrics;
+
+/**
+ * The JMX management interface of a latency histogram. All durations are in microseconds.
+ */
+public interface LatencyHistogramMBean {
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP90Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,249 @@
+package edu.vanier.fxwavegenerationsimulator.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The instrumentation of the application: latency histograms of the simulation, display, audio and database
+ * operations, and counters of ticks, drawn and skipped frames, pending runLater tasks, audio underruns
+ * and allocations.
+ * Everything is registered as MBeans under the edu.vanier.fxwavegenerationsimulator domain,
+ * so it can be read with any standard JMX tool (e.g. JConsole or VisualVM).
+ * The metrics can be disabled with -Dfxwavegenerationsimulator.metrics=false,
+ * in which case recording does nothing (and is optimized away by the JIT).
+ *
+ * @author Qian Qian
+ */
+public class SimulationMetrics implements SimulationMetricsMBean {
+    private final static Logger logger = LoggerFactory.getLogger(SimulationMetrics.class);
+
+    /**
+     * The JMX domain of all MBeans of the application.
+     */
+    public static final String DOMAIN = "edu.vanier.fxwavegenerationsimulator";
+
+    /**
+     * Whether the metrics are recorded.
+     */
+    public static final boolean ENABLED = Boolean.parseBoolean(
+            System.getProperty("fxwavegenerationsimulator.metrics", "true"));
+
+    private static final SimulationMetrics instance = new SimulationMetrics();
+
+    /**
+     * The duration of WaveSimulationController.simulate().
+     */
+    public static final LatencyHistogram simulate = new LatencyHistogram("simulate");
+    /**
+     * The duration of the display update of a frame (e.g. redrawing the chart).
+     */
+    public static final LatencyHistogram displayUpdate = new LatencyHistogram("displayUpdate");
+    /**
+     * The delay between posting a frame with Platform.runLater and the frame being handled on the FX thread.
+     */
+    public static final LatencyHistogram runLaterDelay = new LatencyHistogram("runLaterDelay");
+    /**
+     * The duration of rebuilding the audio buffer (and reloading the clip).
+     */
+    public static final LatencyHistogram audioRebuild = new LatencyHistogram("audioRebuild");
+    /**
+     * The duration of database operations.
+     */
+    public static final LatencyHistogram databaseCall = new LatencyHistogram("databaseCall");
+
+    private final LongAdder tickCount = new LongAdder();
+    private final LongAdder skippedFrameCount = new LongAdder();
+    private final LongAdder drawnFrameCount = new LongAdder();
+    private final LongAdder pendingRunLaterCount = new LongAdder();
+    private final LongAdder audioUnderrunCount = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    /**
+     * The thread bean used to measure allocations, or null if the JVM does not support it.
+     */
+    private final com.sun.management.ThreadMXBean allocationBean;
+
+    static {
+        if (ENABLED) {
+            registerMBeans();
+        }
+    }
+
+    private SimulationMetrics() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (ENABLED && threadBean instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            allocationBean = bean;
+        } else {
+            allocationBean = null;
+        }
+    }
+
+    /**
+     * Register all metrics as MBeans on the platform MBean server.
+     */
+    private static void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(instance, new ObjectName(DOMAIN + ":type=SimulationMetrics"));
+            for (LatencyHistogram histogram : getHistograms()) {
+                server.registerMBean(histogram,
+                        new ObjectName(DOMAIN + ":type=LatencyHistogram,name=" + histogram.getName()));
+            }
+        } catch (JMException e) {
+            logger.warn("Unable to register the metrics MBeans: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the metrics instance (e.g. to read the counters).
+     * @return the metrics instance
+     */
+    public static SimulationMetrics get() {
+        return instance;
+    }
+
+    /**
+     * Get all latency histograms.
+     * @return all latency histograms
+     */
+    public static LatencyHistogram[] getHistograms() {
+        return new LatencyHistogram[]{simulate, displayUpdate, runLaterDelay, audioRebuild, databaseCall};
+    }
+
+    /**
+     * Get the current time to start a measurement.
+     * @return the current time (in nanoseconds), or 0 if the metrics are disabled
+     */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Get the number of bytes allocated so far by the current thread, to measure the allocations of a tick.
+     * @return the number of bytes allocated by the current thread, or -1 if it cannot be measured
+     */
+    public static long allocatedBytesOfCurrentThread() {
+        com.sun.management.ThreadMXBean bean = instance.allocationBean;
+        return bean == null ? -1 : bean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Count a simulation tick.
+     * @param allocatedBytesAtStart the bytes allocated by the thread at the start of the tick (or -1 if unknown)
+     */
+    public static void recordTick(long allocatedBytesAtStart) {
+        if (ENABLED) {
+            instance.tickCount.increment();
+            if (allocatedBytesAtStart >= 0) {
+                instance.allocatedBytes.add(allocatedBytesOfCurrentThread() - allocatedBytesAtStart);
+            }
+        }
+    }
+
+    /**
+     * Count a frame that was skipped (replaced by a newer one before it could be displayed).
+     */
+    public static void recordSkippedFrame() {
+        if (ENABLED) {
+            instance.skippedFrameCount.increment();
+        }
+    }
+
+    /**
+     * Count a frame that was drawn on the display.
+     */
+    public static void recordDrawnFrame() {
+        if (ENABLED) {
+            instance.drawnFrameCount.increment();
+        }
+    }
+
+    /**
+     * Count a task posted with Platform.runLater, which stays pending until recordRunLaterHandled() is called.
+     */
+    public static void recordRunLaterPosted() {
+        if (ENABLED) {
+            instance.pendingRunLaterCount.increment();
+        }
+    }
+
+    /**
+     * Count a task posted with Platform.runLater as handled (no longer pending).
+     */
+    public static void recordRunLaterHandled() {
+        if (ENABLED) {
+            instance.pendingRunLaterCount.decrement();
+        }
+    }
+
+    /**
+     * Count an audio underrun (the audio output stopped while it should have been playing).
+     */
+    public static void recordAudioUnderrun() {
+        if (ENABLED) {
+            instance.audioUnderrunCount.increment();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getTickCount() {
+        return tickCount.sum();
+    }
+
+    @Override
+    public long getSkippedFrameCount() {
+        return skippedFrameCount.sum();
+    }
+
+    @Override
+    public long getDrawnFrameCount() {
+        return drawnFrameCount.sum();
+    }
+
+    @Override
+    public long getPendingRunLaterCount() {
+        return pendingRunLaterCount.sum();
+    }
+
+    @Override
+    public long getAudioUnderrunCount() {
+        return audioUnderrunCount.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public double getAllocatedBytesPerTick() {
+        long ticks = tickCount.sum();
+        return ticks == 0 || allocationBean == null ? 0 : allocatedBytes.sum() / (double) ticks;
+    }
+
+    @Override
+    public void reset() {
+        tickCount.reset();
+        skippedFrameCount.reset();
+        drawnFrameCount.reset();
+        audioUnderrunCount.reset();
+        allocatedBytes.reset();
+        for (LatencyHistogram histogram : getHistograms()) {
+            histogram.reset();
+        }
+    }
+}
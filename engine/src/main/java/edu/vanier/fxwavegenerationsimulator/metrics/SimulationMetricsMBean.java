@@ -0,0 +1,24 @@
+package edu.vanier.fxwavegenerationsimulator.metrics;
+
+/**
+ * The JMX management interface of the simulation counters.
+ */
+public interface SimulationMetricsMBean {
+    boolean isEnabled();
+
+    long getTickCount();
+
+    long getSkippedFrameCount();
+
+    long getDrawnFrameCount();
+
+    long getPendingRunLaterCount();
+
+    long getAudioUnderrunCount();
+
+    long getAllocatedBytes();
+
+    double getAllocatedBytesPerTick();
+
+    void reset();
+}
@@ -0,0 +1,46 @@
+package edu.vanier.fxwavegenerationsimulator.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Measures and logs the phases of the application startup (e.g. layout loaded, first frame shown, audio ready),
+ * each with its time since the previous phase and since the JVM was started.
+ * It deliberately avoids the management beans (which are slow to load), so measuring the startup does not slow it down.
+ *
+ * @author Qian Qian
+ */
+public final class StartupPhases {
+    private final static Logger logger = LoggerFactory.getLogger(StartupPhases.class);
+
+    /**
+     * The time the JVM was started, or the time this class was loaded if the operating system does not tell.
+     */
+    private static final Instant processStart = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+
+    /**
+     * The time (in nanoseconds) of the previous phase.
+     */
+    private static long previousPhase = System.nanoTime();
+
+    private StartupPhases() {
+    }
+
+    /**
+     * Record that a startup phase is done, logging its duration.
+     * Phases can be done on any thread (e.g. when a background initialization completes).
+     * @param phase the name of the phase
+     * @return the time since the JVM was started (in milliseconds)
+     */
+    public static synchronized long mark(String phase) {
+        long now = System.nanoTime();
+        long sincePrevious = (now - previousPhase) / 1_000_000;
+        long sinceStart = Duration.between(processStart, Instant.now()).toMillis();
+        previousPhase = now;
+        logger.info("Startup: {} after {} ms ({} ms since JVM start)", phase, sincePrevious, sinceStart);
+        return sinceStart;
+    }
+}
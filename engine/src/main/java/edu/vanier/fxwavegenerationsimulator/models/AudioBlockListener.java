@@ -0,0 +1,17 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+/**
+ * This interface defines a receiver of the audio generated by the sound controller, in blocks of samples
+ * (e.g. a shared-memory ring or a session recording).
+ */
+@FunctionalInterface
+public interface AudioBlockListener {
+    /**
+     * Receive a block of audio samples. The array is reused, so the samples have to be copied if they are kept.
+     * @param sampleOffset the offset of the first sample of the block in the audio
+     * @param samples the signed 8-bit audio samples (at 44100 Hz)
+     * @param offset the index of the first sample of the block in the array
+     * @param length the number of samples in the block
+     */
+    void onAudioBlock(int sampleOffset, byte[] samples, int offset, int length);
+}
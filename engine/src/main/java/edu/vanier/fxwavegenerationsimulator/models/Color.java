@@ -34,6 +34,14 @@ public class Color {
         this.blue = blue;
     }
 
+    /**
+     * Instantiate a copy of a given color.
+     * @param color The color to be copied.
+     */
+    public Color(Color color) {
+        this(color.red, color.green, color.blue);
+    }
+
     /**
      * Randomly generate a color object with random RGB values.
      */
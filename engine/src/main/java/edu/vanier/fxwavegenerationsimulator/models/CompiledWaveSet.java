@@ -0,0 +1,264 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * A set of waves compiled for evaluation: the waves of the same frequency are merged into one component.
+ * SIN and COS waves of the same frequency are the real and imaginary parts of phasors, so their sum is one sine
+ * of amplitude R = sqrt(a^2 + b^2) and phase theta = atan2(b, a), where a is the sum of the SIN amplitudes
+ * and b the sum of the COS amplitudes: A sin(phi) + B cos(phi) = R sin(phi + theta).
+ * Components that cancel out (e.g. the same wave with opposite amplitudes) are dropped,
+ * so a set with many waves of few frequencies is evaluated with one sine per frequency.
+ * <p>
+ * The shapes (SQUARE, SAW, TRIANGLE and PULSE) cannot be merged with the sines, but the waves of the same shape,
+ * frequency and duty cycle are merged into one shape component (after the sine components) by adding their amplitudes.
+ * <p>
+ * The compiled set keeps the waves it was compiled from, which are still the ones shown to the user.
+ *
+ * @author Qian Qian
+ */
+public final class CompiledWaveSet {
+    /**
+     * The amplitude below which a merged component is considered cancelled out.
+     */
+    private static final double CANCELLED_AMPLITUDE = 1e-12;
+
+    private static final CompiledWaveSet EMPTY = compile(List.of());
+
+    /**
+     * The shape of a shape component, the waves with the same shape being merged.
+     */
+    private record Shape(WaveTypes waveType, int frequency, double dutyCycle) {
+    }
+
+    private static final Comparator<Shape> SHAPE_ORDER = Comparator.comparingInt(Shape::frequency)
+            .thenComparing(Shape::waveType).thenComparingDouble(Shape::dutyCycle);
+
+    private final List<Wave> waves;
+    private final int[] frequencies;
+    private final double[] amplitudes;
+    private final double[] phases;
+    private final double[] angularFrequencies;
+    private final double[] waveNumbers;
+    /**
+     * The shape components, after the sine components, as waves of amplitude 1 and their merged amplitudes
+     * (which may be beyond 1).
+     */
+    private final Wave[] shapes;
+    private final double[] shapeAmplitudes;
+
+    private CompiledWaveSet(List<Wave> waves, int[] frequencies, double[] amplitudes, double[] phases,
+                            Wave[] shapes, double[] shapeAmplitudes) {
+        this.waves = waves;
+        this.frequencies = frequencies;
+        this.amplitudes = amplitudes;
+        this.phases = phases;
+        this.shapes = shapes;
+        this.shapeAmplitudes = shapeAmplitudes;
+        this.angularFrequencies = new double[frequencies.length];
+        this.waveNumbers = new double[frequencies.length];
+        for (int i = 0; i < frequencies.length; i++) {
+            // The same formulas as Wave.amplitude, so the compiled set gives the same values as the waves.
+            angularFrequencies[i] = 2 * Math.PI * frequencies[i];
+            waveNumbers[i] = 2 * Math.PI / (343.0 / frequencies[i]);
+        }
+    }
+
+    /**
+     * Get the compiled set of no waves.
+     * @return the empty set
+     */
+    public static CompiledWaveSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile a set of waves.
+     * @param waves the (immutable) waves
+     * @return the compiled set, with one sine component per frequency that does not cancel out, sorted by frequency,
+     * followed by one component per shape that does not cancel out
+     */
+    public static CompiledWaveSet compile(List<Wave> waves) {
+        // The sums of the SIN (real) and COS (imaginary) amplitudes, by frequency.
+        TreeMap<Integer, double[]> phasors = new TreeMap<>();
+        // The sums of the amplitudes of the shapes.
+        TreeMap<Shape, double[]> shapeAmplitudes = new TreeMap<>(SHAPE_ORDER);
+        for (Wave wave : waves) {
+            switch (wave.getWaveType()) {
+                case SIN -> phasors.computeIfAbsent(wave.getFrequency(), frequency -> new double[2])[0]
+                        += wave.getAmplitude();
+                case COS -> phasors.computeIfAbsent(wave.getFrequency(), frequency -> new double[2])[1]
+                        += wave.getAmplitude();
+                case SQUARE, SAW, TRIANGLE, PULSE -> shapeAmplitudes.computeIfAbsent(
+                        new Shape(wave.getWaveType(), wave.getFrequency(), wave.getDutyCycle()),
+                        shape -> new double[1])[0] += wave.getAmplitude();
+                case DUMMY -> {
+                }
+            }
+        }
+        int[] frequencies = new int[phasors.size()];
+        double[] amplitudes = new double[phasors.size()];
+        double[] phases = new double[phasors.size()];
+        int count = 0;
+        for (var entry : phasors.entrySet()) {
+            double[] phasor = entry.getValue();
+            double amplitude = Math.hypot(phasor[0], phasor[1]);
+            if (amplitude > CANCELLED_AMPLITUDE) {
+                frequencies[count] = entry.getKey();
+                amplitudes[count] = amplitude;
+                phases[count] = Math.atan2(phasor[1], phasor[0]);
+                count++;
+            }
+        }
+        Wave[] shapes = new Wave[shapeAmplitudes.size()];
+        double[] mergedAmplitudes = new double[shapeAmplitudes.size()];
+        int shapeCount = 0;
+        for (var entry : shapeAmplitudes.entrySet()) {
+            double amplitude = entry.getValue()[0];
+            if (Math.abs(amplitude) > CANCELLED_AMPLITUDE) {
+                Shape shape = entry.getKey();
+                shapes[shapeCount] = new Wave(shape.waveType(), shape.frequency(), 1, shape.dutyCycle(),
+                        new Color(0, 0, 0));
+                mergedAmplitudes[shapeCount] = amplitude;
+                shapeCount++;
+            }
+        }
+        return new CompiledWaveSet(waves, Arrays.copyOf(frequencies, count),
+                Arrays.copyOf(amplitudes, count), Arrays.copyOf(phases, count),
+                Arrays.copyOf(shapes, shapeCount), Arrays.copyOf(mergedAmplitudes, shapeCount));
+    }
+
+    /**
+     * Get the waves the set was compiled from.
+     * @return the immutable list of the waves
+     */
+    public List<Wave> getWaves() {
+        return waves;
+    }
+
+    /**
+     * Get the number of components left after merging the waves.
+     * @return the number of components
+     */
+    public int getComponentCount() {
+        return frequencies.length + shapes.length;
+    }
+
+    /**
+     * Get the frequency of a component.
+     * @param component the index of the component
+     * @return the frequency (in Hz)
+     */
+    public int getFrequency(int component) {
+        return component < frequencies.length ? frequencies[component]
+                : shapes[component - frequencies.length].getFrequency();
+    }
+
+    /**
+     * Get the wave type of a component.
+     * @param component the index of the component
+     * @return SIN for a sine component (whose phase includes the merged COS waves), or the type of a shape component
+     */
+    public WaveTypes getWaveType(int component) {
+        return component < frequencies.length ? WaveTypes.SIN : shapes[component - frequencies.length].getWaveType();
+    }
+
+    /**
+     * Get the merged amplitude of a component.
+     * @param component the index of the component
+     * @return the amplitude (which may be beyond 1, or negative for a shape component)
+     */
+    public double getAmplitude(int component) {
+        return component < frequencies.length ? amplitudes[component] : shapeAmplitudes[component - frequencies.length];
+    }
+
+    /**
+     * Get the phase of a component.
+     * @param component the index of the component
+     * @return the phase of a sine component (in radians), 0 for a shape component
+     */
+    public double getPhase(int component) {
+        return component < frequencies.length ? phases[component] : 0;
+    }
+
+    /**
+     * Get the duty cycle of a component.
+     * @param component the index of the component
+     * @return the duty cycle of a PULSE component, 0.5 for the other components
+     */
+    public double getDutyCycle(int component) {
+        return component < frequencies.length ? Waveforms.DEFAULT_DUTY_CYCLE
+                : shapes[component - frequencies.length].getDutyCycle();
+    }
+
+    /**
+     * Calculate the value of a component at a given position and time.
+     * @param component the index of the component
+     * @param x the position (in meters)
+     * @param t the time (in seconds)
+     * @return the value of the component
+     */
+    public double amplitude(int component, double x, double t) {
+        if (component >= frequencies.length) {
+            int shape = component - frequencies.length;
+            return shapeAmplitudes[shape] * shapes[shape].amplitude(x, t);
+        }
+        return amplitudes[component] * Math.sin(angularFrequencies[component] * t - waveNumbers[component] * x
+                + phases[component]);
+    }
+
+    /**
+     * Calculate the sound of a component (at the position 0) at a given time, band-limited for the sample rate.
+     * @param component the index of the component
+     * @param t the time (in seconds)
+     * @param sampleRate the sample rate of the audio (in Hz)
+     * @return the value of the component
+     */
+    public double sample(int component, double t, double sampleRate) {
+        if (component >= frequencies.length) {
+            int shape = component - frequencies.length;
+            return shapeAmplitudes[shape] * shapes[shape].sample(t, sampleRate);
+        }
+        return amplitude(component, 0, t);
+    }
+
+    /**
+     * Calculate the amplitude of the combined waves at a given position and time.
+     * @param x the position (in meters)
+     * @param t the time (in seconds)
+     * @return the amplitude of the combined waves
+     */
+    public double combine(double x, double t) {
+        return combine(x, t, 0);
+    }
+
+    /**
+     * Calculate the amplitude of the combined waves at a given position and time,
+     * with the shapes band-limited for samples a given gap apart.
+     * @param x the position (in meters)
+     * @param t the time (in seconds)
+     * @param gap the gap between two samples (in meters), 0 for the ideal shapes
+     * @return the amplitude of the combined waves
+     */
+    public double combine(double x, double t, double gap) {
+        double sum = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            sum += amplitudes[i] * Math.sin(angularFrequencies[i] * t - waveNumbers[i] * x + phases[i]);
+        }
+        for (int i = 0; i < shapes.length; i++) {
+            sum += shapeAmplitudes[i] * shapes[i].amplitude(x, t, gap);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return waves.size() + " waves compiled into " + frequencies.length + " sine and " + shapes.length
+                + " shape components";
+    }
+}
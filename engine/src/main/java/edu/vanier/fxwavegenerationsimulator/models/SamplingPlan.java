@@ -0,0 +1,130 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * How a frame is sampled over a viewport, chosen from the content of the waves and the resolution of the display.
+ * <ul>
+ *     <li>When the shortest wavelength is resolved by the display, the waves are sampled just enough to be drawn smoothly
+ *     (SAMPLES_PER_WAVELENGTH points per shortest wavelength, well above the 2 of the Nyquist limit), which may be far
+ *     fewer points than pixels (e.g. a 10 Hz wave over 500 m). The shapes (e.g. SQUARE) count as their
+ *     SHAPE_HARMONICS-th harmonic, so their edges stay sharp; they are band-limited for the gap between the samples.</li>
+ *     <li>Otherwise the waves change faster than a pixel, and drawing one sample per pixel would only show aliasing,
+ *     so each pixel gets the minimum and the maximum of a few samples spread inside it (an envelope), as two points
+ *     half a pixel apart. The number of samples per pixel is capped, so the cost stays bounded by the pixels.</li>
+ * </ul>
+ *
+ * @param viewport the viewport the data points of the frame are placed at
+ *                 (with two points per pixel, the minimum then the maximum, for an envelope)
+ * @param subsamples the number of samples per pixel of an envelope (1 if the frame is not an envelope)
+ * @param envelope whether the frame is the min/max envelope of the waves
+ *
+ * @author Qian Qian
+ */
+public record SamplingPlan(Viewport viewport, int subsamples, boolean envelope) {
+    /**
+     * The number of samples per shortest wavelength, for the waves to look smooth when drawn with straight lines.
+     */
+    public static final int SAMPLES_PER_WAVELENGTH = 8;
+    /**
+     * The smallest number of samples of a frame.
+     */
+    public static final int MIN_SAMPLE_COUNT = 32;
+    /**
+     * The largest number of samples per pixel of an envelope.
+     */
+    public static final int MAX_SUBSAMPLES = 8;
+    /**
+     * The harmonic of a shape (e.g. SQUARE) to be resolved by the samples, for its edges to look sharp.
+     */
+    public static final int SHAPE_HARMONICS = 8;
+
+    /**
+     * The fractional part of the golden ratio, to spread the samples of each pixel of an envelope differently,
+     * so they do not line up with the period of a wave.
+     */
+    private static final double GOLDEN_RATIO_FRACTION = 0.6180339887498949;
+
+    /**
+     * Get the plan that samples a viewport exactly as it is.
+     * @param viewport the viewport
+     * @return the plan
+     */
+    public static SamplingPlan fixed(Viewport viewport) {
+        return new SamplingPlan(viewport, 1, false);
+    }
+
+    /**
+     * Choose the plan sampling the waves as little as they allow on a display.
+     * @param display the range shown by the display, with one sample per pixel
+     * @param waves the waves
+     * @return the plan
+     */
+    public static SamplingPlan of(Viewport display, List<Wave> waves) {
+        double shortestWavelength = Double.POSITIVE_INFINITY;
+        for (Wave wave : waves) {
+            if (wave.getAmplitude() != 0) {
+                double wavelength = wave.calculateWavelength();
+                if (Waveforms.isShape(wave.getWaveType())) {
+                    wavelength /= SHAPE_HARMONICS;
+                }
+                shortestWavelength = Math.min(shortestWavelength, wavelength);
+            }
+        }
+        int pixels = display.sampleCount();
+        double required = Math.ceil((display.end() - display.start()) / shortestWavelength * SAMPLES_PER_WAVELENGTH);
+        if (required <= pixels) {
+            int sampleCount = (int) Math.max(required, Math.min(MIN_SAMPLE_COUNT, pixels));
+            return new SamplingPlan(new Viewport(display.start(), display.end(), sampleCount), 1, false);
+        }
+        int subsamples = (int) Math.min(MAX_SUBSAMPLES, Math.ceil(required / pixels));
+        return new SamplingPlan(new Viewport(display.start(), display.end(), 2 * pixels), subsamples, true);
+    }
+
+    /**
+     * Get the largest number of data points of the plans chosen (by of) for a display, to size buffers up front.
+     * @param pixels the number of pixels of the display
+     * @return the largest sample count, two per pixel for an envelope
+     */
+    public static int maxSampleCount(int pixels) {
+        return 2 * pixels;
+    }
+
+    /**
+     * Evaluate a function (e.g. a wave at a given time) following the plan.
+     * @param function the function of the position
+     * @return the data points
+     */
+    public double[] evaluate(DoubleUnaryOperator function) {
+        double[] points = new double[viewport.sampleCount()];
+        if (!envelope) {
+            for (int i = 0; i < points.length; i++) {
+                points[i] = function.applyAsDouble(viewport.x(i));
+            }
+            return points;
+        }
+        double pixelGap = 2 * viewport.gap();
+        for (int pixel = 0; pixel < points.length / 2; pixel++) {
+            double jitter = pixel * GOLDEN_RATIO_FRACTION % 1;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < subsamples; j++) {
+                double value = function.applyAsDouble(viewport.start() + (pixel + (j + jitter) / subsamples) * pixelGap);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            points[2 * pixel] = min;
+            points[2 * pixel + 1] = max;
+        }
+        return points;
+    }
+
+    @Override
+    public String toString() {
+        return envelope
+                ? "%d pixel envelope of %d samples per pixel over [%s, %s] m".formatted(viewport.sampleCount() / 2,
+                subsamples, viewport.start(), viewport.end())
+                : "%d samples over [%s, %s] m".formatted(viewport.sampleCount(), viewport.start(), viewport.end());
+    }
+}
@@ -0,0 +1,23 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One frame of a wave simulation, as published by the WaveSimulationController to its subscribers.
+ * The data points of a frame are never modified after it is published.
+ *
+ * @param milliseconds the simulated time of the frame (in milliseconds)
+ * @param dataPoints the map that contains the wave objects (including the combined wave) and their data points
+ * @param waves the (immutable) snapshot of the waves the frame was computed from, which is the same list object
+ *              for all the frames until the waves are edited
+ * @param viewport the range of positions the data points were evaluated over (with two points per pixel,
+ *                 the minimum then the maximum, when the frame is an envelope, see SamplingPlan)
+ * @param envelope whether the data points are the minimum and maximum of each pixel rather than samples
+ * @param publishedNanos the time the frame was published (System.nanoTime()), to measure how late it is delivered
+ *
+ * @author Qian Qian
+ */
+public record SimulationFrame(int milliseconds, Map<Wave, double[]> dataPoints, List<Wave> waves, Viewport viewport,
+                              boolean envelope, long publishedNanos) {
+}
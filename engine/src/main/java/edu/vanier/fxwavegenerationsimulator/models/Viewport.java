@@ -0,0 +1,41 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+/**
+ * The range of positions a simulation evaluates the waves over, and at how many sample points.
+ * The waves are analytic, so they can be evaluated exactly at any position: a display only needs the range it shows,
+ * at about one sample per pixel, whatever the zoom level is.
+ * The sample points start at the start of the range and are evenly spaced, the end of the range being excluded.
+ *
+ * @param start the first position of the range (in meters)
+ * @param end the end of the range (in meters)
+ * @param sampleCount the number of sample points
+ *
+ * @author Qian Qian
+ */
+public record Viewport(double start, double end, int sampleCount) {
+    public Viewport {
+        if (!(end > start) || !Double.isFinite(start) || !Double.isFinite(end)) {
+            throw new IllegalArgumentException("Invalid viewport range [" + start + ", " + end + "].");
+        }
+        if (sampleCount <= 0) {
+            throw new IllegalArgumentException("The sample count of a viewport must be positive, not " + sampleCount + ".");
+        }
+    }
+
+    /**
+     * Get the gap between two sample points.
+     * @return the gap (in meters)
+     */
+    public double gap() {
+        return (end - start) / sampleCount;
+    }
+
+    /**
+     * Get the position of a sample point.
+     * @param index the index of the sample point
+     * @return the position (in meters)
+     */
+    public double x(int index) {
+        return start + index * gap();
+    }
+}
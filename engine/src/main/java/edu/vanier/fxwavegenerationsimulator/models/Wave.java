@@ -4,14 +4,15 @@ import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
 
 /**
  * This class represents a discrete wave in the simulation.
- * It have the following attributes to represent the wave: type (an `enum`, SIN or COS),
- * frequency (Hz, takes a integer), and amplitude (a double value that takes a value between -1 and 1).
+ * It have the following attributes to represent the wave: type (an `enum`, SIN, COS or one of the shapes
+ * SQUARE, SAW, TRIANGLE and PULSE), frequency (Hz, takes a integer), and amplitude (a double value that takes
+ * a value between -1 and 1). A PULSE wave also has a duty cycle (the fraction of the period it is positive for).
  *
  * @author Qian Qian
  */
 public class Wave {
     /**
-     * The type of the wave (sin/cos).
+     * The type of the wave (sin/cos or a shape).
      */
     private WaveTypes waveType;
     /**
@@ -22,6 +23,10 @@ public class Wave {
      * The amplitude of the wave (a value between -1 and 1).
      */
     private double amplitude;
+    /**
+     * The duty cycle of a PULSE wave (a value between 0 and 1, exclusive), 0.5 for the other wave types.
+     */
+    private final double dutyCycle;
     /**
      * The colour code of the wave.
      * This will be automatically and randomly assigned when the wave is added to the simulation.
@@ -49,6 +54,23 @@ public class Wave {
      * @throws IllegalArgumentException If the amplitude is not between -1 and 1.
      */
     public Wave(WaveTypes waveType, int frequency, double amplitude, Color color) throws IllegalArgumentException {
+        this(waveType, frequency, amplitude, Waveforms.DEFAULT_DUTY_CYCLE, color);
+    }
+
+    /**
+     * Instantiate a discrete wave object with information provided, including the duty cycle of a PULSE wave.
+     * @param waveType The type of the wave.
+     * @param frequency The frequency of the wave (in Hz).
+     * @param amplitude The amplitude of the wave (a value between -1 and 1).
+     * @param dutyCycle The duty cycle of a PULSE wave (a value between 0 and 1, exclusive), ignored by the others.
+     * @param color The colour code of the wave.
+     * @throws IllegalArgumentException If the amplitude is not between -1 and 1, or the duty cycle between 0 and 1.
+     */
+    public Wave(WaveTypes waveType, int frequency, double amplitude, double dutyCycle, Color color)
+            throws IllegalArgumentException {
+        if (waveType == WaveTypes.PULSE && !(dutyCycle > 0 && dutyCycle < 1)) {
+            throw new IllegalArgumentException("Duty cycle must be between 0 and 1.");
+        }
         if (waveType != WaveTypes.DUMMY || frequency != -1) {
             if (amplitude < -1 || amplitude > 1) {
                 throw new IllegalArgumentException("Amplitude must be between -1 and 1.");
@@ -61,15 +83,24 @@ public class Wave {
         this.waveType = waveType;
         this.frequency = frequency;
         this.amplitude = amplitude;
+        this.dutyCycle = waveType == WaveTypes.PULSE ? dutyCycle : Waveforms.DEFAULT_DUTY_CYCLE;
         this.color = color;
     }
 
+    /**
+     * Instantiate a copy of a given wave, with its own copy of the colour code.
+     * @param wave The wave to be copied.
+     */
+    public Wave(Wave wave) {
+        this(wave.waveType, wave.frequency, wave.amplitude, wave.dutyCycle, new Color(wave.color));
+    }
+
     /**
      * Calculate the wavelength of the wave, based on the frequency and the
      * sound speed as wave speed (assume the sound speed is 343 m/s).
      * @return The wavelength of the wave (in meters).
      */
-    private double calculateWavelength() {
+    public double calculateWavelength() {
         double soundSpeed = 343.0; // m/s
         return soundSpeed / frequency;
     }
@@ -77,6 +108,7 @@ public class Wave {
     /**
      * Calculate the position of the wave particle at a given position and time.
      * y(x, t) = A * sin(2pi * f * t - 2pi * x / lambda)
+     * The shapes use the same phase (f * t - x / lambda cycles) with their ideal, not band-limited, value.
      * @param x the position of the wave (in meters)
      * @param t the time of the wave (in seconds)
      * @return the position of the wave particle at the given position and time
@@ -88,10 +120,50 @@ public class Wave {
         return amplitude * switch (waveType) {
             case SIN -> Math.sin(phase);
             case COS -> Math.cos(phase);
+            case SQUARE, SAW, TRIANGLE, PULSE -> Waveforms.value(waveType, calculatePhase(x, t), dutyCycle);
             case DUMMY -> 0;
         };
     }
 
+    /**
+     * Calculate the position of the wave particle at a given position and time, band-limited for samples
+     * a given gap apart: a shape is averaged over the gap (see Waveforms), a sine is left as it is.
+     * @param x the position of the wave (in meters)
+     * @param t the time of the wave (in seconds)
+     * @param gap the gap between two samples (in meters)
+     * @return the position of the wave particle at the given position and time
+     */
+    public double amplitude(double x, double t, double gap) {
+        if (!Waveforms.isShape(waveType)) {
+            return amplitude(x, t);
+        }
+        return amplitude * Waveforms.average(waveType, calculatePhase(x, t), gap / calculateWavelength(), dutyCycle);
+    }
+
+    /**
+     * Calculate the sound of the wave (at the position 0) at a given time, band-limited for the sample rate
+     * of the audio: the jumps and corners of a shape are smoothed with PolyBLEP/PolyBLAMP (see Waveforms).
+     * @param t the time of the wave (in seconds)
+     * @param sampleRate the sample rate of the audio (in Hz)
+     * @return the position of the wave particle at the position 0 and the given time
+     */
+    public double sample(double t, double sampleRate) {
+        if (!Waveforms.isShape(waveType)) {
+            return amplitude(0, t);
+        }
+        return amplitude * Waveforms.sample(waveType, calculatePhase(0, t), frequency / sampleRate, dutyCycle);
+    }
+
+    /**
+     * Calculate the phase of the wave in cycles (f * t - x / lambda), as used by the shapes.
+     * @param x the position of the wave (in meters)
+     * @param t the time of the wave (in seconds)
+     * @return the phase (in cycles)
+     */
+    private double calculatePhase(double x, double t) {
+        return frequency * t - x / calculateWavelength();
+    }
+
     /**
      * Get the type of the wave.
      * @return The type of the wave.
@@ -104,7 +176,7 @@ public class Wave {
      * Change the type of the wave.
      * If the current wave type is SIN, change it to COS.
      * If the current wave type is COS, change it to SIN.
-     * If it is a DUMMY wave, it should stay as a DUMMY wave.
+     * If it is a DUMMY wave or a shape, it should stay as it is.
      */
     public void switchWaveType() {
         this.waveType = switch (waveType) {
@@ -114,6 +186,14 @@ public class Wave {
         };
     }
 
+    /**
+     * Get the duty cycle of the wave.
+     * @return The duty cycle of a PULSE wave, 0.5 for the other wave types.
+     */
+    public double getDutyCycle() {
+        return dutyCycle;
+    }
+
     /**
      * Get the frequency of the wave.
      * @return The frequency (in Hz).
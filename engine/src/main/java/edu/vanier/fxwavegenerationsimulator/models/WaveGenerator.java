@@ -0,0 +1,119 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class represents the generation logic behind wave calculation.
+ * It creates a list of the Wave object to be added to the simulation and allows to combine waves together by adding
+ * its amplitudes together.
+ * The waves are published as an immutable snapshot: every edit copies the list and swaps it in atomically,
+ * so the waves can be edited on one thread (e.g. the FX thread) while they are combined on another
+ * (e.g. the simulation timer) without locking, and a reader always sees a complete wave set.
+ * Every snapshot is compiled once when it is published (see {@link CompiledWaveSet}), so the waves of the same
+ * frequency are combined as one component while the original waves are still available to be shown.
+ *
+ * @author CihaoZhang
+ */
+public class WaveGenerator {
+    /**
+     * The current snapshot of the waves, compiled, which holds the (immutable) list that contains all Wave objects.
+     */
+    private final AtomicReference<CompiledWaveSet> waves;
+
+    /**
+     * Constructor for Waves Generator.
+     */
+    public WaveGenerator() {
+        waves = new AtomicReference<>(CompiledWaveSet.empty());
+    }
+
+    /**
+     * Adds a wave to the Generator.
+     * @param wave the wave to be added
+     */
+    public void addWave(Wave wave) {
+        waves.updateAndGet(current -> {
+            List<Wave> updated = new ArrayList<>(current.getWaves());
+            updated.add(wave);
+            return CompiledWaveSet.compile(List.copyOf(updated));
+        });
+    }
+
+    /**
+     * Adds a collection of waves to the Generator at once.
+     * @param waves the waves to be added
+     */
+    public void addWaves(Collection<Wave> waves) {
+        this.waves.updateAndGet(current -> {
+            List<Wave> updated = new ArrayList<>(current.getWaves());
+            updated.addAll(waves);
+            return CompiledWaveSet.compile(List.copyOf(updated));
+        });
+    }
+
+    /**
+     * Replaces all waves of the Generator with a collection of waves at once.
+     * @param waves the new waves of the Generator
+     */
+    public void replaceWaves(Collection<Wave> waves) {
+        this.waves.set(CompiledWaveSet.compile(List.copyOf(waves)));
+    }
+
+    public void clearWaves() {
+        waves.set(CompiledWaveSet.empty());
+    }
+
+    public void removeWave(Wave wave) {
+        waves.updateAndGet(current -> {
+            List<Wave> updated = new ArrayList<>(current.getWaves());
+            updated.remove(wave);
+            return CompiledWaveSet.compile(List.copyOf(updated));
+        });
+    }
+
+    /**
+     * Get the current snapshot of the waves of the Generator.
+     * The snapshot never changes, later edits publish a new one.
+     * @return the immutable list of the current waves
+     */
+    public List<Wave> getWaves() {
+        return waves.get().getWaves();
+    }
+
+    /**
+     * Get the current snapshot of the waves of the Generator, compiled for evaluation.
+     * @return the compiled snapshot, whose getWaves() is the same list as the one given by getWaves()
+     */
+    public CompiledWaveSet getCompiledWaves() {
+        return waves.get();
+    }
+
+    /**
+     * Calculates the amplitude of the combined waves at a given position and time.
+     * @param x the position of the wave (in meters)
+     * @param t the time of the wave (in seconds)
+     * @return the amplitude of the combined waves
+     */
+    public double combineWaves(double x, double t) {
+        return waves.get().combine(x, t);
+    }
+
+    /**
+     * Calculates the amplitude of the given waves combined at a given position and time.
+     * Every wave is evaluated on its own, see CompiledWaveSet.combine to combine a snapshot of the waves faster.
+     * @param waves the waves to combine
+     * @param x the position of the wave (in meters)
+     * @param t the time of the wave (in seconds)
+     * @return the amplitude of the combined waves
+     */
+    public static double combineWaves(List<Wave> waves, double x, double t) {
+        double ampFinal = 0;
+        for (Wave wave : waves) {
+            ampFinal += wave.amplitude(x, t);
+        }
+        return ampFinal;
+    }
+}
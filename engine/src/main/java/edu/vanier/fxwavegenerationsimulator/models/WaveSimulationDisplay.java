@@ -13,4 +13,13 @@ public interface WaveSimulationDisplay {
      * @param milliseconds the time elapsed since the simulation started.
      */
     void update(Map<Wave, double[]> dataPoints, double milliseconds);
+
+    /**
+     * Update the display component with a frame of the wave simulation.
+     * A display showing positions (rather than sample indices) uses the viewport of the frame to place the data points.
+     * @param frame the frame
+     */
+    default void update(SimulationFrame frame) {
+        update(frame.dataPoints(), frame.milliseconds());
+    }
 }
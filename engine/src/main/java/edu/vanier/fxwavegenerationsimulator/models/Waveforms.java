@@ -0,0 +1,171 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+
+/**
+ * The shapes of the non-sinusoidal wave types (SQUARE, SAW, TRIANGLE and PULSE), as functions of the phase
+ * of the wave in cycles (the fraction of the period, so a phase of 0.25 is a quarter of the period).
+ * The shapes follow the sine of the same phase: they start at 0 or jump up at a phase of 0, and have the same sign
+ * as the sine over the first half of the period (the pulse is positive for the duty cycle, then negative).
+ * <p>
+ * The ideal shapes have infinitely many harmonics, so they alias when sampled. Rather than summing the harmonics,
+ * which costs one sine per harmonic, each shape is band-limited in closed form at the cost of about one oscillator:
+ * <ul>
+ *     <li>For the spatial view, the value is the average of the shape over the gap between two samples,
+ *     computed exactly from the integral of the shape (a second-order polynomial per piece).
+ *     The average is a box filter, which cuts the harmonics shorter than the gap.</li>
+ *     <li>For the audio, the jumps are smoothed with a PolyBLEP (a polynomial band-limited step) and the corners
+ *     of the triangle with a PolyBLAMP (its integral) over the samples next to them.</li>
+ * </ul>
+ *
+ * @author Qian Qian
+ */
+public final class Waveforms {
+    /**
+     * The default duty cycle of a pulse wave (a square wave).
+     */
+    public static final double DEFAULT_DUTY_CYCLE = 0.5;
+
+    /**
+     * The width (in cycles) below which the average over a gap is the value of the shape itself.
+     */
+    private static final double MIN_WIDTH = 1e-9;
+
+    private Waveforms() {
+    }
+
+    /**
+     * Check whether a wave type is one of the non-sinusoidal shapes.
+     * @param waveType the wave type
+     * @return true for SQUARE, SAW, TRIANGLE and PULSE
+     */
+    public static boolean isShape(WaveTypes waveType) {
+        return switch (waveType) {
+            case SQUARE, SAW, TRIANGLE, PULSE -> true;
+            case SIN, COS, DUMMY -> false;
+        };
+    }
+
+    /**
+     * Calculate the ideal (not band-limited) value of a shape.
+     * @param waveType the wave type
+     * @param phase the phase (in cycles)
+     * @param dutyCycle the duty cycle of a pulse
+     * @return the value, between -1 and 1
+     */
+    public static double value(WaveTypes waveType, double phase, double dutyCycle) {
+        double p = phase - Math.floor(phase);
+        return switch (waveType) {
+            case SQUARE -> p < 0.5 ? 1 : -1;
+            case PULSE -> p < dutyCycle ? 1 : -1;
+            case SAW -> 1 - 2 * p;
+            case TRIANGLE -> p < 0.25 ? 4 * p : p < 0.75 ? 2 - 4 * p : 4 * p - 4;
+            case SIN -> Math.sin(2 * Math.PI * p);
+            case COS -> Math.cos(2 * Math.PI * p);
+            case DUMMY -> 0;
+        };
+    }
+
+    /**
+     * Calculate the integral of a shape from 0 to a phase within the first period.
+     */
+    private static double integral(WaveTypes waveType, double p, double dutyCycle) {
+        return switch (waveType) {
+            case SQUARE -> p < 0.5 ? p : 1 - p;
+            case PULSE -> p < dutyCycle ? p : 2 * dutyCycle - p;
+            case SAW -> p - p * p;
+            case TRIANGLE -> p < 0.25 ? 2 * p * p : p < 0.75 ? 2 * p - 2 * p * p - 0.25 : 2 * (1 - p) * (1 - p);
+            case SIN -> (1 - Math.cos(2 * Math.PI * p)) / (2 * Math.PI);
+            case COS -> Math.sin(2 * Math.PI * p) / (2 * Math.PI);
+            case DUMMY -> 0;
+        };
+    }
+
+    /**
+     * Calculate the integral of a shape from 0 to any phase, the whole periods adding their integral
+     * (which is only non-zero for a pulse that is not square).
+     */
+    private static double cumulativeIntegral(WaveTypes waveType, double phase, double dutyCycle) {
+        double periods = Math.floor(phase);
+        return periods * integral(waveType, 1, dutyCycle) + integral(waveType, phase - periods, dutyCycle);
+    }
+
+    /**
+     * Calculate the value of a shape band-limited for a given sample gap: the average of the shape over the gap
+     * centered on the phase.
+     * @param waveType the wave type
+     * @param phase the phase (in cycles)
+     * @param width the sample gap (in cycles), 0 for the ideal value
+     * @param dutyCycle the duty cycle of a pulse
+     * @return the band-limited value
+     */
+    public static double average(WaveTypes waveType, double phase, double width, double dutyCycle) {
+        if (width < MIN_WIDTH) {
+            return value(waveType, phase, dutyCycle);
+        }
+        // Shift the phase into the first period first, so the difference of the integrals keeps its precision.
+        double p = phase - Math.floor(phase);
+        return (cumulativeIntegral(waveType, p + width / 2, dutyCycle)
+                - cumulativeIntegral(waveType, p - width / 2, dutyCycle)) / width;
+    }
+
+    /**
+     * Calculate the value of a shape band-limited for audio, with PolyBLEP/PolyBLAMP corrections.
+     * @param waveType the wave type
+     * @param phase the phase (in cycles)
+     * @param increment the phase increment per audio sample (the frequency over the sample rate)
+     * @param dutyCycle the duty cycle of a pulse
+     * @return the band-limited value
+     */
+    public static double sample(WaveTypes waveType, double phase, double increment, double dutyCycle) {
+        double p = phase - Math.floor(phase);
+        // The corrections of two discontinuities must not overlap.
+        double dt = Math.min(increment, 0.25);
+        double value = value(waveType, p, dutyCycle);
+        return switch (waveType) {
+            // A jump of 2 up at the start of the period, and 2 down at the half (or the duty cycle).
+            case SQUARE -> value + polyBlep(p, dt) - polyBlep(wrap(p + 0.5), dt);
+            case PULSE -> value + polyBlep(p, dt) - polyBlep(wrap(p + 1 - dutyCycle), dt);
+            // A jump of 2 up at the start of the period.
+            case SAW -> value + polyBlep(p, dt);
+            // The slope changes by -8 at the peak and by +8 at the trough.
+            case TRIANGLE -> value - 8 * dt * polyBlamp(wrap(p + 0.75), dt) + 8 * dt * polyBlamp(wrap(p + 0.25), dt);
+            case SIN, COS, DUMMY -> value;
+        };
+    }
+
+    private static double wrap(double p) {
+        return p >= 1 ? p - 1 : p;
+    }
+
+    /**
+     * The PolyBLEP residual of a jump of 2 at a phase of 0: the difference between a band-limited step
+     * (a two-sample polynomial) and the ideal step.
+     */
+    private static double polyBlep(double p, double dt) {
+        if (p < dt) {
+            double u = p / dt;
+            return 2 * u - u * u - 1;
+        }
+        if (p > 1 - dt) {
+            double u = (p - 1) / dt;
+            return u * u + 2 * u + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * The PolyBLAMP residual of a change of slope of 1 (per sample) at a phase of 0, the integral of the PolyBLEP.
+     */
+    private static double polyBlamp(double p, double dt) {
+        if (p < dt) {
+            double u = p / dt - 1;
+            return -u * u * u / 3;
+        }
+        if (p > 1 - dt) {
+            double u = (p - 1) / dt + 1;
+            return u * u * u / 3;
+        }
+        return 0;
+    }
+}
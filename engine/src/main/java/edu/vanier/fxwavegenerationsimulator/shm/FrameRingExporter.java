@@ -0,0 +1,66 @@
+package edu.vanier.fxwavegenerationsimulator.shm;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+/**
+ * The subscriber that exports the combined wave of every frame into a shared-memory ring.
+ * It is the single writer of its ring, so when the simulation is replaced, the same exporter is subscribed to the
+ * new publisher: the frames of both can then overlap (while the old subscription drains), and are written one at a time.
+ *
+ * @author Qian Qian
+ */
+public class FrameRingExporter implements Flow.Subscriber<SimulationFrame> {
+    /**
+     * The default number of frames kept in the ring (about 2.5 seconds at the default update interval).
+     */
+    public static final int DEFAULT_SLOT_COUNT = 256;
+
+    private final SharedRingWriter writer;
+    private float[] row = new float[0];
+
+    /**
+     * Instantiate an exporter.
+     * @param writer the writer of a ring of frames, with a capacity of at least the longest frame of the simulation
+     *               (its sample count, or SamplingPlan.maxSampleCount of the display when the sampling is adaptive).
+     *               A longer frame makes the writer throw, which cancels the subscription.
+     */
+    public FrameRingExporter(SharedRingWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void onNext(SimulationFrame frame) {
+        for (Map.Entry<Wave, double[]> entry : frame.dataPoints().entrySet()) {
+            if (entry.getKey().getWaveType() == WaveTypes.DUMMY) {
+                double[] combined = entry.getValue();
+                if (row.length != combined.length) {
+                    row = new float[combined.length];
+                }
+                for (int i = 0; i < combined.length; i++) {
+                    row[i] = (float) combined[i];
+                }
+                writer.writeFloats(frame.milliseconds(), row, frame.viewport().start(), frame.viewport().end(),
+                        frame.envelope());
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
@@ -0,0 +1,114 @@
+package edu.vanier.fxwavegenerationsimulator.shm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The constants of the shared-memory ring file, which exports live frames (or audio blocks) to other processes.
+ * The file is meant to live in /dev/shm, so it is only memory: a reader maps it and reads the records in place,
+ * with no copy through the kernel and no system call per record.
+ * All values are little-endian. A file is made of:
+ * <pre>
+ * Header (64 bytes)
+ *   0  int   magic ("WRNG")
+ *   4  int   format version
+ *   8  int   kind of the records (see KIND_*)
+ *   12 int   number of slots
+ *   16 int   size of a slot (in bytes, a multiple of 64)
+ *   20 int   maximum number of elements in a record
+ *   24 int   size of an element (in bytes)
+ *   28 int   sample rate of the audio (Hz), 0 for frames
+ *   32 long  number of records published so far (the sequence number of the latest record)
+ * Slots (starting at offset 64), record n (counting from 1) is in slot (n - 1) % number of slots
+ *   0  long  seqlock: 2n - 1 while record n is being written, 2n once it is complete
+ *   8  long  the time the record was written (System.nanoTime() of the writer, which is CLOCK_MONOTONIC
+ *            on Linux and can be compared between processes of the same machine)
+ *   16 int   simulated time of a frame (in milliseconds), or offset of the first sample of an audio block
+ *   20 int   number of elements in the record
+ *   24 int   flags of a frame (FLAG_ENVELOPE), 0 for an audio block
+ *   28 int   reserved
+ *   32 double first position of the viewport of a frame (in meters), 0 for an audio block
+ *   40 double end of the viewport of a frame, excluded (in meters), 0 for an audio block
+ *   48 ...   the elements: float32 samples of the combined wave (the minimum then the maximum of each pixel
+ *            for an envelope), or signed 8-bit audio samples
+ * </pre>
+ * Version 1 records had no flags and no viewport (the elements started at 24); they cannot be read anymore.
+ * There is a single writer. A reader reads the seqlock of the slot (it must be 2n for record n),
+ * reads the record, then reads the seqlock again: if it changed, the writer overwrote the slot meanwhile
+ * (the reader was lapped) and the record must be discarded.
+ *
+ * @author Qian Qian
+ */
+public final class SharedRingFormat {
+    /**
+     * The magic number at the start of every file ("WRNG").
+     */
+    public static final int MAGIC = 0x474E5257;
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 2;
+    /**
+     * The size of the header (in bytes).
+     */
+    public static final int HEADER_SIZE = 64;
+    /**
+     * The size of the header of a record in a slot (in bytes).
+     */
+    public static final int RECORD_HEADER_SIZE = 48;
+
+    /**
+     * The kind of a ring of frames (float32 samples of the combined wave).
+     */
+    public static final int KIND_FRAME = 1;
+    /**
+     * The kind of a ring of audio blocks (signed 8-bit samples).
+     */
+    public static final int KIND_AUDIO = 2;
+
+    /**
+     * The flag of a frame holding the minimum and the maximum of each pixel rather than samples.
+     */
+    public static final int FLAG_ENVELOPE = 1;
+
+    static final int KIND_OFFSET = 8;
+    static final int SLOT_COUNT_OFFSET = 12;
+    static final int SLOT_SIZE_OFFSET = 16;
+    static final int CAPACITY_OFFSET = 20;
+    static final int ELEMENT_SIZE_OFFSET = 24;
+    static final int SAMPLE_RATE_OFFSET = 28;
+    static final int PUBLISHED_COUNT_OFFSET = 32;
+
+    static final int SEQLOCK_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int TIME_OFFSET = 16;
+    static final int LENGTH_OFFSET = 20;
+    static final int FLAGS_OFFSET = 24;
+    static final int VIEWPORT_START_OFFSET = 32;
+    static final int VIEWPORT_END_OFFSET = 40;
+
+    private SharedRingFormat() {
+    }
+
+    /**
+     * Get the size of a slot holding records of a given size, rounded up to a cache line (64 bytes)
+     * so two slots never share a cache line.
+     * @param capacity the maximum number of elements in a record
+     * @param elementSize the size of an element (in bytes)
+     * @return the size of a slot (in bytes)
+     */
+    static int slotSize(int capacity, int elementSize) {
+        long size = RECORD_HEADER_SIZE + (long) capacity * elementSize;
+        return Math.toIntExact((size + 63) & ~63L);
+    }
+
+    /**
+     * Get the directory the ring files are created in by default: /dev/shm if it exists (Linux),
+     * the temporary directory otherwise (where the file is still mapped, but may be written back to the disk).
+     * @return the directory
+     */
+    public static Path defaultDirectory() {
+        Path shm = Path.of("/dev/shm");
+        return Files.isDirectory(shm) ? shm : Path.of(System.getProperty("java.io.tmpdir"));
+    }
+}
@@ -0,0 +1,294 @@
+package edu.vanier.fxwavegenerationsimulator.shm;
+
+import edu.vanier.fxwavegenerationsimulator.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The reference reader of a shared-memory ring file, see SharedRingFormat for the layout and the seqlock protocol.
+ * A reader follows the published count and reads the records in place in the mapped memory:
+ * either copying them (read), or processing them where they are (view, then isValid to check
+ * the record was not overwritten meanwhile). Any number of readers (in any process) can read the same ring.
+ * <pre>
+ * try (SharedRingReader reader = new SharedRingReader(path)) {
+ *     float[] frame = new float[reader.getCapacity()];
+ *     long next = reader.getPublishedCount() + 1;
+ *     while (true) {
+ *         int length = reader.readFloats(next, frame);
+ *         if (length == SharedRingReader.NOT_PUBLISHED) { Thread.onSpinWait(); continue; }
+ *         if (length == SharedRingReader.OVERWRITTEN) { next = reader.getPublishedCount(); continue; }
+ *         // use frame[0 .. length)
+ *         next++;
+ *     }
+ * }
+ * </pre>
+ * Run as a program, it tails a ring and prints how many records it read and lost and their latency every second.
+ *
+ * @author Qian Qian
+ */
+public class SharedRingReader implements AutoCloseable {
+    /**
+     * Returned when the record is not published yet.
+     */
+    public static final int NOT_PUBLISHED = -1;
+    /**
+     * Returned when the record was overwritten by a newer one (the reader was lapped).
+     */
+    public static final int OVERWRITTEN = -2;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final MappedByteBuffer buffer;
+    private final int kind;
+    private final int slotCount;
+    private final int slotSize;
+    private final int capacity;
+    private final int sampleRate;
+
+    private long lastTimestampNanos;
+    private int lastTime;
+    private int lastFlags;
+    private double lastViewportStart;
+    private double lastViewportEnd;
+
+    /**
+     * Map a ring file and validate its header.
+     * @param path the path of the file
+     * @throws IOException if the file cannot be mapped or is not a valid ring file
+     */
+    public SharedRingReader(Path path) throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size < SharedRingFormat.HEADER_SIZE) {
+                throw new IOException(path + " is too small to be a ring file.");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != SharedRingFormat.MAGIC) {
+            throw new IOException(path + " is not a ring file (or is still being created).");
+        }
+        VarHandle.loadLoadFence();
+        if (buffer.getInt(4) != SharedRingFormat.VERSION) {
+            throw new IOException(path + " uses an unsupported format version " + buffer.getInt(4) + ".");
+        }
+        this.kind = buffer.getInt(SharedRingFormat.KIND_OFFSET);
+        this.slotCount = buffer.getInt(SharedRingFormat.SLOT_COUNT_OFFSET);
+        this.slotSize = buffer.getInt(SharedRingFormat.SLOT_SIZE_OFFSET);
+        this.capacity = buffer.getInt(SharedRingFormat.CAPACITY_OFFSET);
+        this.sampleRate = buffer.getInt(SharedRingFormat.SAMPLE_RATE_OFFSET);
+        if (slotCount <= 0 || SharedRingFormat.HEADER_SIZE + (long) slotCount * slotSize > size) {
+            throw new IOException(path + " is truncated or has an invalid header.");
+        }
+    }
+
+    /**
+     * Get the number of records published so far, which is the sequence number of the latest record.
+     * @return the published count
+     */
+    public long getPublishedCount() {
+        return (long) LONG.getAcquire(buffer, SharedRingFormat.PUBLISHED_COUNT_OFFSET);
+    }
+
+    /**
+     * Copy a frame out of the ring.
+     * @param sequence the sequence number of the record
+     * @param destination the array the samples are copied to (at least the capacity of the ring)
+     * @return the number of samples, or NOT_PUBLISHED or OVERWRITTEN
+     */
+    public int readFloats(long sequence, float[] destination) {
+        int slot = slotOffset(sequence);
+        int length = begin(slot, sequence);
+        if (length < 0) {
+            return length;
+        }
+        int payload = slot + SharedRingFormat.RECORD_HEADER_SIZE;
+        for (int i = 0; i < length; i++) {
+            destination[i] = buffer.getFloat(payload + i * Float.BYTES);
+        }
+        return isValid(sequence) ? length : OVERWRITTEN;
+    }
+
+    /**
+     * Copy an audio block out of the ring.
+     * @param sequence the sequence number of the record
+     * @param destination the array the samples are copied to (at least the capacity of the ring)
+     * @return the number of samples, or NOT_PUBLISHED or OVERWRITTEN
+     */
+    public int readBytes(long sequence, byte[] destination) {
+        int slot = slotOffset(sequence);
+        int length = begin(slot, sequence);
+        if (length < 0) {
+            return length;
+        }
+        buffer.get(slot + SharedRingFormat.RECORD_HEADER_SIZE, destination, 0, length);
+        return isValid(sequence) ? length : OVERWRITTEN;
+    }
+
+    /**
+     * Get a view of the elements of a record in the mapped memory, without copying them.
+     * The view has to be checked with isValid after it was processed (and the result discarded if it is not).
+     * @param sequence the sequence number of the record
+     * @return the read-only little-endian view, or null if the record is not published or was overwritten
+     */
+    public ByteBuffer view(long sequence) {
+        int slot = slotOffset(sequence);
+        int length = begin(slot, sequence);
+        if (length < 0) {
+            return null;
+        }
+        int elementSize = kind == SharedRingFormat.KIND_FRAME ? Float.BYTES : Byte.BYTES;
+        return buffer.slice(slot + SharedRingFormat.RECORD_HEADER_SIZE, length * elementSize)
+                .asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Check the seqlock of a record and read its header.
+     * @return the number of elements, or NOT_PUBLISHED or OVERWRITTEN
+     */
+    private int begin(int slot, long sequence) {
+        if (sequence <= 0 || sequence > getPublishedCount()) {
+            return NOT_PUBLISHED;
+        }
+        long seqlock = (long) LONG.getAcquire(buffer, slot + SharedRingFormat.SEQLOCK_OFFSET);
+        if (seqlock != 2 * sequence) {
+            return OVERWRITTEN;
+        }
+        lastTimestampNanos = buffer.getLong(slot + SharedRingFormat.TIMESTAMP_OFFSET);
+        lastTime = buffer.getInt(slot + SharedRingFormat.TIME_OFFSET);
+        lastFlags = buffer.getInt(slot + SharedRingFormat.FLAGS_OFFSET);
+        lastViewportStart = buffer.getDouble(slot + SharedRingFormat.VIEWPORT_START_OFFSET);
+        lastViewportEnd = buffer.getDouble(slot + SharedRingFormat.VIEWPORT_END_OFFSET);
+        return Math.min(buffer.getInt(slot + SharedRingFormat.LENGTH_OFFSET), capacity);
+    }
+
+    /**
+     * Check that a record read (or viewed) was not overwritten while it was being read.
+     * @param sequence the sequence number of the record
+     * @return true if what was read is consistent
+     */
+    public boolean isValid(long sequence) {
+        // The reads of the record must complete before the seqlock is read again.
+        VarHandle.loadLoadFence();
+        return (long) LONG.getOpaque(buffer, slotOffset(sequence) + SharedRingFormat.SEQLOCK_OFFSET) == 2 * sequence;
+    }
+
+    private int slotOffset(long sequence) {
+        return SharedRingFormat.HEADER_SIZE + (int) (Math.floorMod(sequence - 1, (long) slotCount)) * slotSize;
+    }
+
+    /**
+     * Get the time the last read record was written (System.nanoTime() of the writer).
+     * @return the timestamp (in nanoseconds)
+     */
+    public long getLastTimestampNanos() {
+        return lastTimestampNanos;
+    }
+
+    /**
+     * Get the simulated time (frames) or sample offset (audio blocks) of the last read record.
+     * @return the time of the record
+     */
+    public int getLastTime() {
+        return lastTime;
+    }
+
+    /**
+     * Get the first position of the viewport of the last read frame.
+     * @return the first position (in meters), 0 for an audio block
+     */
+    public double getLastViewportStart() {
+        return lastViewportStart;
+    }
+
+    /**
+     * Get the end of the viewport of the last read frame.
+     * @return the end, excluded (in meters), 0 for an audio block
+     */
+    public double getLastViewportEnd() {
+        return lastViewportEnd;
+    }
+
+    /**
+     * Check whether the last read frame is an envelope (the minimum then the maximum of each pixel).
+     * @return true for an envelope, false for samples or an audio block
+     */
+    public boolean isLastEnvelope() {
+        return (lastFlags & SharedRingFormat.FLAG_ENVELOPE) != 0;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Nothing to release: the mapping is released when the reader is garbage collected.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Tail a ring file, printing every second how many records were read and lost, and their latency.
+     * @param args the path of the ring file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SharedRingReader RING_FILE");
+            System.exit(2);
+        }
+        try (SharedRingReader reader = new SharedRingReader(Path.of(args[0]))) {
+            float[] frame = new float[reader.getCapacity()];
+            byte[] block = new byte[reader.getCapacity()];
+            LatencyHistogram latency = new LatencyHistogram("SharedRingLatency");
+            long next = reader.getPublishedCount() + 1;
+            long read = 0;
+            long lost = 0;
+            long reportAt = System.nanoTime() + 1_000_000_000L;
+            while (true) {
+                int length = reader.getKind() == SharedRingFormat.KIND_FRAME
+                        ? reader.readFloats(next, frame) : reader.readBytes(next, block);
+                if (length == OVERWRITTEN) {
+                    long latest = reader.getPublishedCount();
+                    lost += latest - next;
+                    next = latest;
+                } else if (length >= 0) {
+                    latency.record(System.nanoTime() - reader.getLastTimestampNanos());
+                    read++;
+                    next++;
+                } else {
+                    Thread.onSpinWait();
+                }
+                if (System.nanoTime() >= reportAt) {
+                    System.out.printf("%d records read, %d lost, latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                            read, lost, latency.getP50Micros(), latency.getP99Micros(), latency.getMaxMicros());
+                    latency.reset();
+                    read = 0;
+                    lost = 0;
+                    reportAt += 1_000_000_000L;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package edu.vanier.fxwavegenerationsimulator.shm;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The (single) writer of a shared-memory ring file, see SharedRingFormat for the layout.
+ * Writing a record only stores into the mapped memory: a seqlock in each slot tells the readers
+ * when the record is being written, and the published count in the header tells them it is complete.
+ * The writer never waits for the readers, a slow reader loses the records it was lapped on.
+ *
+ * @author Qian Qian
+ */
+public class SharedRingWriter implements AutoCloseable {
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int slotSize;
+    private final int capacity;
+    private final int elementSize;
+
+    /**
+     * The number of records published so far (only accessed by the writer).
+     */
+    private long sequence;
+
+    /**
+     * Create (or truncate) a ring file and map it.
+     * @param path the path of the file (e.g. in SharedRingFormat.defaultDirectory())
+     * @param kind the kind of the records (SharedRingFormat.KIND_FRAME or KIND_AUDIO)
+     * @param slotCount the number of records kept in the ring
+     * @param capacity the maximum number of elements in a record
+     * @param sampleRate the sample rate of the audio (Hz), 0 for frames
+     * @throws IOException if the file cannot be created or mapped
+     */
+    public SharedRingWriter(Path path, int kind, int slotCount, int capacity, int sampleRate) throws IOException {
+        if (slotCount <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Slot count and capacity must be greater than 0.");
+        }
+        this.elementSize = switch (kind) {
+            case SharedRingFormat.KIND_FRAME -> Float.BYTES;
+            case SharedRingFormat.KIND_AUDIO -> Byte.BYTES;
+            default -> throw new IllegalArgumentException("Unknown ring kind " + kind + ".");
+        };
+        this.slotCount = slotCount;
+        this.slotSize = SharedRingFormat.slotSize(capacity, elementSize);
+        this.capacity = capacity;
+        long size = SharedRingFormat.HEADER_SIZE + (long) slotCount * slotSize;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The ring must be smaller than 2 GB.");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SharedRingFormat.KIND_OFFSET, kind);
+        buffer.putInt(SharedRingFormat.SLOT_COUNT_OFFSET, slotCount);
+        buffer.putInt(SharedRingFormat.SLOT_SIZE_OFFSET, slotSize);
+        buffer.putInt(SharedRingFormat.CAPACITY_OFFSET, capacity);
+        buffer.putInt(SharedRingFormat.ELEMENT_SIZE_OFFSET, elementSize);
+        buffer.putInt(SharedRingFormat.SAMPLE_RATE_OFFSET, sampleRate);
+        buffer.putInt(4, SharedRingFormat.VERSION);
+        LONG.setRelease(buffer, SharedRingFormat.PUBLISHED_COUNT_OFFSET, 0L);
+        // The magic number is written last, so a reader never sees a valid magic with a half-written header.
+        VarHandle.storeStoreFence();
+        buffer.putInt(0, SharedRingFormat.MAGIC);
+    }
+
+    /**
+     * Publish a frame.
+     * @param milliseconds the simulated time of the frame (in milliseconds)
+     * @param samples the samples of the combined wave (at most the capacity of the ring)
+     * @param start the first position of the viewport of the frame (in meters)
+     * @param end the end of the viewport of the frame, excluded (in meters)
+     * @param envelope whether the samples are the minimum then the maximum of each pixel
+     * @return the sequence number of the record
+     */
+    public long writeFloats(int milliseconds, float[] samples, double start, double end, boolean envelope) {
+        if (elementSize != Float.BYTES) {
+            throw new IllegalStateException("This ring does not hold frames.");
+        }
+        checkLength(samples.length);
+        int length = samples.length;
+        int offset = beginRecord(milliseconds, length, envelope ? SharedRingFormat.FLAG_ENVELOPE : 0, start, end);
+        for (int i = 0; i < length; i++) {
+            buffer.putFloat(offset + i * Float.BYTES, samples[i]);
+        }
+        return endRecord();
+    }
+
+    /**
+     * Publish an audio block.
+     * @param sampleOffset the offset of the first sample of the block in the audio
+     * @param samples the audio samples
+     * @param offset the index of the first sample of the block in the array
+     * @param length the number of samples in the block (at most the capacity of the ring)
+     * @return the sequence number of the record
+     */
+    public long writeBytes(int sampleOffset, byte[] samples, int offset, int length) {
+        if (elementSize != Byte.BYTES) {
+            throw new IllegalStateException("This ring does not hold audio blocks.");
+        }
+        checkLength(length);
+        int payload = beginRecord(sampleOffset, length, 0, 0, 0);
+        buffer.put(payload, samples, offset, length);
+        return endRecord();
+    }
+
+    /**
+     * Check that a record fits in a slot, rather than publishing it cut short.
+     * @param length the number of elements of the record
+     * @throws IllegalArgumentException if the record is longer than the capacity of the ring
+     */
+    private void checkLength(int length) {
+        if (length > capacity) {
+            throw new IllegalArgumentException("A record of " + length + " elements does not fit in a ring of capacity "
+                    + capacity + ".");
+        }
+    }
+
+    /**
+     * Mark the next slot as being written and write the header of the record.
+     * @return the offset of the elements of the record
+     */
+    private int beginRecord(int time, int length, int flags, double start, double end) {
+        long next = sequence + 1;
+        int slot = slotOffset(next);
+        LONG.setOpaque(buffer, slot + SharedRingFormat.SEQLOCK_OFFSET, 2 * next - 1);
+        // The odd seqlock must be visible before any byte of the record changes.
+        VarHandle.storeStoreFence();
+        buffer.putLong(slot + SharedRingFormat.TIMESTAMP_OFFSET, System.nanoTime());
+        buffer.putInt(slot + SharedRingFormat.TIME_OFFSET, time);
+        buffer.putInt(slot + SharedRingFormat.LENGTH_OFFSET, length);
+        buffer.putInt(slot + SharedRingFormat.FLAGS_OFFSET, flags);
+        buffer.putDouble(slot + SharedRingFormat.VIEWPORT_START_OFFSET, start);
+        buffer.putDouble(slot + SharedRingFormat.VIEWPORT_END_OFFSET, end);
+        return slot + SharedRingFormat.RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Mark the record as complete and publish it.
+     * @return the sequence number of the record
+     */
+    private long endRecord() {
+        long next = sequence + 1;
+        LONG.setRelease(buffer, slotOffset(next) + SharedRingFormat.SEQLOCK_OFFSET, 2 * next);
+        LONG.setRelease(buffer, SharedRingFormat.PUBLISHED_COUNT_OFFSET, next);
+        sequence = next;
+        return next;
+    }
+
+    private int slotOffset(long sequence) {
+        return SharedRingFormat.HEADER_SIZE + (int) ((sequence - 1) % slotCount) * slotSize;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Close the file. The mapping stays valid until it is garbage collected, and the file is kept,
+     * so the readers can still read the last records.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
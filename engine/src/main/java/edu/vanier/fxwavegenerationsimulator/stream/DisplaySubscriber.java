@@ -0,0 +1,41 @@
+package edu.vanier.fxwavegenerationsimulator.stream;
+
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.WaveSimulationDisplay;
+
+import java.util.concurrent.Flow;
+
+/**
+ * The subscriber that shows the frames of a simulation on a WaveSimulationDisplay.
+ *
+ * @author Qian Qian
+ */
+public class DisplaySubscriber implements Flow.Subscriber<SimulationFrame> {
+    private final WaveSimulationDisplay display;
+
+    /**
+     * Instantiate a subscriber showing the frames on a display.
+     * @param display the display
+     */
+    public DisplaySubscriber(WaveSimulationDisplay display) {
+        this.display = display;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(SimulationFrame frame) {
+        display.update(frame);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+}
@@ -0,0 +1,117 @@
+package edu.vanier.fxwavegenerationsimulator.stream;
+
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * Publishes the frames of a simulation to any number of subscribers.
+ * Every subscriber gets its own bounded buffer and overflow policy, and receives its frames on its own delivery task,
+ * so a slow subscriber (e.g. a recorder or a network client) never stalls the simulation or the other subscribers,
+ * unless it explicitly subscribed with the BLOCK policy.
+ *
+ * @author Qian Qian
+ */
+public class FramePublisher implements Flow.Publisher<SimulationFrame>, AutoCloseable {
+    /**
+     * The default size of the buffer of a subscriber (in frames).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 16;
+
+    /**
+     * The default executor of the delivery tasks, which runs each of them on a new virtual thread.
+     */
+    private static final ExecutorService defaultExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("frame-delivery-", 0).factory());
+
+    private final Executor executor;
+    private final List<FrameSubscription> subscriptions;
+    private volatile boolean closed;
+
+    /**
+     * Instantiate a publisher delivering the frames on virtual threads.
+     */
+    public FramePublisher() {
+        this(defaultExecutor);
+    }
+
+    /**
+     * Instantiate a publisher delivering the frames on a given executor.
+     * @param executor the executor running the delivery tasks
+     */
+    public FramePublisher(Executor executor) {
+        this.executor = executor;
+        this.subscriptions = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Subscribe with a buffer of 16 frames, dropping the oldest frame when it is full.
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super SimulationFrame> subscriber) {
+        subscribe(subscriber, DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Subscribe with a given buffer size and overflow policy.
+     * @param subscriber the subscriber
+     * @param bufferSize the size of the buffer (in frames, ignored for LATEST_ONLY)
+     * @param policy what to do with a new frame when the buffer is full
+     * @return the subscription, to read its metrics
+     */
+    public FrameSubscription subscribe(Flow.Subscriber<? super SimulationFrame> subscriber, int bufferSize,
+                                       OverflowPolicy policy) {
+        FrameSubscription subscription = new FrameSubscription(this, subscriber, bufferSize, policy, executor);
+        if (closed) {
+            subscription.complete();
+            return subscription;
+        }
+        subscriptions.add(subscription);
+        subscription.scheduleDrain();
+        return subscription;
+    }
+
+    /**
+     * Publish a frame to every subscriber.
+     * @param frame the frame
+     */
+    public void submit(SimulationFrame frame) {
+        for (FrameSubscription subscription : subscriptions) {
+            subscription.offer(frame);
+        }
+    }
+
+    /**
+     * Remove a cancelled or completed subscription.
+     * @param subscription the subscription
+     */
+    void remove(FrameSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Get the active subscriptions, to read their metrics.
+     * @return a copy of the list of subscriptions
+     */
+    public List<FrameSubscription> getSubscriptions() {
+        return List.copyOf(subscriptions);
+    }
+
+    /**
+     * Stop publishing: every subscriber receives its remaining buffered frames, then is completed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (FrameSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package edu.vanier.fxwavegenerationsimulator.stream;
+
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The subscription of one subscriber to a FramePublisher.
+ * It keeps the frames the subscriber has not received yet in a bounded buffer, and applies its overflow policy
+ * when the buffer is full. The frames are delivered by a task on the executor of the publisher that only runs
+ * while there are frames to deliver, so a subscription without pending frames holds no thread.
+ * It also measures how far behind the subscriber is (buffered frames and delivery delay) and how many frames it lost.
+ *
+ * @author Qian Qian
+ */
+public class FrameSubscription implements Flow.Subscription {
+    private final static Logger logger = LoggerFactory.getLogger(FrameSubscription.class);
+
+    private final FramePublisher publisher;
+    private final Flow.Subscriber<? super SimulationFrame> subscriber;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<SimulationFrame> buffer;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Guarded by the lock.
+    private long demand;
+    private boolean cancelled;
+    private boolean completing;
+
+    // Only accessed by the delivery task, which never runs twice at once.
+    private boolean subscribed;
+
+    private volatile long publishedCount;
+    private volatile long deliveredCount;
+    private volatile long droppedCount;
+    private volatile long lastLagNanos;
+    private volatile long maxLagNanos;
+
+    /**
+     * Instantiate a subscription.
+     * @param publisher the publisher the subscriber subscribed to
+     * @param subscriber the subscriber
+     * @param capacity the size of the buffer (always 1 for LATEST_ONLY)
+     * @param policy what to do with a new frame when the buffer is full
+     * @param executor the executor running the delivery task
+     */
+    FrameSubscription(FramePublisher publisher, Flow.Subscriber<? super SimulationFrame> subscriber, int capacity,
+                      OverflowPolicy policy, Executor executor) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size must be greater than 0.");
+        }
+        this.publisher = publisher;
+        this.subscriber = subscriber;
+        this.capacity = policy == OverflowPolicy.LATEST_ONLY ? 1 : capacity;
+        this.policy = policy;
+        this.executor = executor;
+        this.buffer = new ArrayDeque<>(this.capacity);
+    }
+
+    /**
+     * Add a frame to the buffer, applying the overflow policy if it is full.
+     * With the BLOCK policy, this waits (on the thread of the simulation) until the subscriber made room.
+     * @param frame the new frame
+     */
+    void offer(SimulationFrame frame) {
+        lock.lock();
+        try {
+            if (cancelled || completing) {
+                return;
+            }
+            if (buffer.size() >= capacity) {
+                switch (policy) {
+                    case DROP_OLDEST -> {
+                        buffer.pollFirst();
+                        droppedCount++;
+                    }
+                    case LATEST_ONLY -> {
+                        droppedCount += buffer.size();
+                        buffer.clear();
+                    }
+                    case BLOCK -> {
+                        while (buffer.size() >= capacity && !cancelled && !completing) {
+                            try {
+                                notFull.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                droppedCount++;
+                                return;
+                            }
+                        }
+                        if (cancelled || completing) {
+                            return;
+                        }
+                    }
+                }
+            }
+            buffer.addLast(frame);
+            publishedCount++;
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Deliver the remaining buffered frames, then complete the subscriber.
+     * A publisher waiting for room in the buffer (BLOCK) is released: like the frames offered from now on,
+     * its frame is not delivered.
+     */
+    void complete() {
+        lock.lock();
+        try {
+            completing = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Start the delivery task, unless it is already running.
+     */
+    void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * The delivery task: signal the subscription, then deliver the buffered frames as long as the subscriber
+     * requested them.
+     */
+    private void drain() {
+        if (!subscribed) {
+            subscribed = true;
+            subscriber.onSubscribe(this);
+        }
+        while (true) {
+            SimulationFrame frame = null;
+            boolean complete = false;
+            lock.lock();
+            try {
+                if (cancelled) {
+                    drainScheduled.set(false);
+                    return;
+                }
+                if (!buffer.isEmpty() && demand > 0) {
+                    frame = buffer.pollFirst();
+                    demand--;
+                    notFull.signal();
+                } else if (buffer.isEmpty() && completing) {
+                    cancelled = true;
+                    complete = true;
+                } else {
+                    // Nothing to deliver: stop here, the next frame or request starts a new task.
+                    drainScheduled.set(false);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (complete) {
+                publisher.remove(this);
+                subscriber.onComplete();
+                return;
+            }
+            try {
+                subscriber.onNext(frame);
+            } catch (RuntimeException e) {
+                logger.error("Frame subscriber {} failed, cancelling its subscription: {}", subscriber, e.toString());
+                cancel();
+                return;
+            }
+            long lag = System.nanoTime() - frame.publishedNanos();
+            lastLagNanos = lag;
+            if (lag > maxLagNanos) {
+                maxLagNanos = lag;
+            }
+            deliveredCount++;
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            subscriber.onError(new IllegalArgumentException("The number of requested frames must be greater than 0."));
+            return;
+        }
+        lock.lock();
+        try {
+            // Saturate at Long.MAX_VALUE (unbounded demand).
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public void cancel() {
+        lock.lock();
+        try {
+            cancelled = true;
+            buffer.clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        publisher.remove(this);
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Get the number of frames buffered for the subscriber (how many frames it is behind).
+     * @return the number of buffered frames
+     */
+    public int getBufferedCount() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of frames accepted into the buffer.
+     * @return the number of frames
+     */
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * Get the number of frames lost because the buffer was full.
+     * @return the number of dropped frames
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Get the time between the publication and the delivery of the last delivered frame.
+     * @return the lag (in nanoseconds)
+     */
+    public long getLastLagNanos() {
+        return lastLagNanos;
+    }
+
+    /**
+     * Get the longest time between the publication and the delivery of a frame.
+     * @return the maximum lag (in nanoseconds)
+     */
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s): %d delivered, %d dropped, %d buffered, lag %.3f ms (max %.3f ms)",
+                subscriber, policy, deliveredCount, droppedCount, getBufferedCount(),
+                lastLagNanos / 1e6, maxLagNanos / 1e6);
+    }
+}
@@ -0,0 +1,203 @@
+package edu.vanier.fxwavegenerationsimulator.evaluator;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The compiler of the evaluators specialized for one compiled wave set.
+ * The generic evaluation loops over the components of the wave set and reads their frequency, amplitude and phase
+ * from arrays for every sample, so the JIT cannot fold them. The compiler generates a hidden class (with the ClassFile
+ * API, defined by MethodHandles.Lookup.defineHiddenClass) whose evaluate method has the components unrolled,
+ * with their constants in the constant pool:
+ * <pre>
+ * for (int i = 0; i < count; i++) {
+ *     double x = start + i * gap;
+ *     double sum = 0;
+ *     sum += 0.5 * Math.sin(omegaT0 - 0.18318... * x + 1.5707...);  // one line per sine component
+ *     sum += 0.3 * Waveforms.average(WaveTypes.SQUARE, cycles1 - x / 34.3, gap / 34.3, 0.5);  // per shape component
+ *     points[offset + i] = sum;
+ * }
+ * </pre>
+ * where the products of the time (e.g. omegaT0 = omega * t) are computed once per block. The values are the same
+ * (to the bit) as the ones of the interpreter, the operations being the same and done in the same order.
+ * <p>
+ * The components are split into chunks of CHUNK_SIZE components, each chunk being a method of its own that adds its
+ * components to the points, so no method goes beyond the size the JIT compiles (8000 bytes of bytecode).
+ * <p>
+ * The ClassFile API is a preview API of Java 22: this class can only be loaded with --enable-preview,
+ * and a LinkageError is thrown when it is used otherwise (see {@link WaveEvaluatorService}).
+ *
+ * @author Qian Qian
+ */
+public final class WaveEvaluatorCompiler {
+    /**
+     * The number of components evaluated by one generated method.
+     */
+    public static final int CHUNK_SIZE = 64;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassDesc CD_GENERATED =
+            ClassDesc.of(WaveEvaluatorCompiler.class.getPackageName() + ".GeneratedWaveEvaluator");
+    private static final ClassDesc CD_WAVE_EVALUATOR = ClassDesc.of(WaveEvaluator.class.getName());
+    private static final ClassDesc CD_WAVE_TYPES = ClassDesc.of(WaveTypes.class.getName());
+    private static final ClassDesc CD_WAVEFORMS = ClassDesc.of(Waveforms.class.getName());
+    private static final ClassDesc CD_MATH = ClassDesc.of(Math.class.getName());
+
+    /**
+     * The signature of the evaluate method (and of the chunk methods, which are static).
+     */
+    private static final MethodTypeDesc MTD_EVALUATE = MethodTypeDesc.of(ConstantDescs.CD_void,
+            ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double,
+            ConstantDescs.CD_double.arrayType(), ConstantDescs.CD_int, ConstantDescs.CD_int);
+    private static final MethodTypeDesc MTD_SIN = MethodTypeDesc.of(ConstantDescs.CD_double, ConstantDescs.CD_double);
+    private static final MethodTypeDesc MTD_AVERAGE = MethodTypeDesc.of(ConstantDescs.CD_double, CD_WAVE_TYPES,
+            ConstantDescs.CD_double, ConstantDescs.CD_double, ConstantDescs.CD_double);
+
+    /**
+     * The local variables of a chunk method (double values take two slots).
+     */
+    private static final int T = 0;
+    private static final int START = 2;
+    private static final int GAP = 4;
+    private static final int POINTS = 6;
+    private static final int OFFSET = 7;
+    private static final int COUNT = 8;
+    private static final int I = 9;
+    private static final int X = 10;
+    private static final int SUM = 12;
+    private static final int FIRST_COMPONENT = 14;
+
+    private WaveEvaluatorCompiler() {
+    }
+
+    /**
+     * Generate and load the evaluator of a compiled wave set.
+     * @param waves the compiled wave set
+     * @return the specialized evaluator
+     * @throws IllegalStateException if the generated class cannot be defined
+     */
+    public static WaveEvaluator compile(CompiledWaveSet waves) {
+        byte[] bytes = generate(waves);
+        try {
+            MethodHandles.Lookup generated = LOOKUP.defineHiddenClass(bytes, true);
+            return (WaveEvaluator) generated.findConstructor(generated.lookupClass(),
+                    MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define the evaluator of " + waves, e);
+        }
+    }
+
+    /**
+     * Generate the class file of the evaluator of a compiled wave set.
+     * @param waves the compiled wave set
+     * @return the bytes of the class file
+     */
+    static byte[] generate(CompiledWaveSet waves) {
+        int chunkCount = Math.max(1, (waves.getComponentCount() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return ClassFile.of().build(CD_GENERATED, classBuilder -> {
+            classBuilder.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+                    .withSuperclass(ConstantDescs.CD_Object)
+                    .withInterfaceSymbols(CD_WAVE_EVALUATOR)
+                    .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                            .aload(0)
+                            .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                            .return_());
+            // evaluate calls every chunk with the same arguments (shifted by one slot, without "this").
+            classBuilder.withMethodBody("evaluate", MTD_EVALUATE, ClassFile.ACC_PUBLIC, code -> {
+                for (int chunk = 0; chunk < chunkCount; chunk++) {
+                    code.dload(T + 1).dload(START + 1).dload(GAP + 1)
+                            .aload(POINTS + 1).iload(OFFSET + 1).iload(COUNT + 1)
+                            .invokestatic(CD_GENERATED, "chunk" + chunk, MTD_EVALUATE);
+                }
+                code.return_();
+            });
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                int first = chunk * CHUNK_SIZE;
+                int last = Math.min(waves.getComponentCount(), first + CHUNK_SIZE);
+                boolean accumulate = chunk > 0;
+                classBuilder.withMethodBody("chunk" + chunk, MTD_EVALUATE,
+                        ClassFile.ACC_PRIVATE | ClassFile.ACC_STATIC,
+                        code -> generateChunk(code, waves, first, last, accumulate));
+            }
+        });
+    }
+
+    /**
+     * Generate the method adding the components [first, last) to the points (or storing them, for the first chunk).
+     */
+    private static void generateChunk(CodeBuilder code, CompiledWaveSet waves, int first, int last, boolean accumulate) {
+        // The products of the time (and of the gap), computed once per block: omega * t for a sine component,
+        // the phase at x = 0 (f * t) and the gap in cycles (gap / lambda) for a shape component.
+        int slot = FIRST_COMPONENT;
+        int[] slots = new int[last - first];
+        for (int component = first; component < last; component++) {
+            int frequency = waves.getFrequency(component);
+            slots[component - first] = slot;
+            if (waves.getWaveType(component) == WaveTypes.SIN) {
+                // The same formula as CompiledWaveSet, so the values are the same.
+                double angularFrequency = 2 * Math.PI * frequency;
+                code.constantInstruction(angularFrequency).dload(T).dmul().dstore(slot);
+                slot += 2;
+            } else {
+                // The same formulas as Wave.amplitude(x, t, gap).
+                double wavelength = 343.0 / frequency;
+                code.constantInstruction((double) frequency).dload(T).dmul().dstore(slot);
+                code.dload(GAP).constantInstruction(wavelength).ddiv().dstore(slot + 2);
+                slot += 4;
+            }
+        }
+
+        Label loop = code.newLabel();
+        Label end = code.newLabel();
+        code.iconst_0().istore(I);
+        code.labelBinding(loop);
+        code.iload(I).iload(COUNT).if_icmpge(end);
+        // x = start + i * gap
+        code.dload(START).iload(I).i2d().dload(GAP).dmul().dadd().dstore(X);
+        // sum = 0, or the sum of the previous chunks
+        if (accumulate) {
+            code.aload(POINTS).iload(OFFSET).iload(I).iadd().daload();
+        } else {
+            code.dconst_0();
+        }
+        code.dstore(SUM);
+        for (int component = first; component < last; component++) {
+            int componentSlot = slots[component - first];
+            double amplitude = waves.getAmplitude(component);
+            int frequency = waves.getFrequency(component);
+            code.dload(SUM).constantInstruction(amplitude);
+            if (waves.getWaveType(component) == WaveTypes.SIN) {
+                // amplitude * Math.sin(omega * t - k * x + phase)
+                double waveNumber = 2 * Math.PI / (343.0 / frequency);
+                code.dload(componentSlot).constantInstruction(waveNumber).dload(X).dmul().dsub()
+                        .constantInstruction(waves.getPhase(component)).dadd()
+                        .invokestatic(CD_MATH, "sin", MTD_SIN);
+            } else {
+                // amplitude * Waveforms.average(type, f * t - x / lambda, gap / lambda, dutyCycle)
+                double wavelength = 343.0 / frequency;
+                code.getstatic(CD_WAVE_TYPES, waves.getWaveType(component).name(), CD_WAVE_TYPES)
+                        .dload(componentSlot).dload(X).constantInstruction(wavelength).ddiv().dsub()
+                        .dload(componentSlot + 2)
+                        .constantInstruction(waves.getDutyCycle(component))
+                        .invokestatic(CD_WAVEFORMS, "average", MTD_AVERAGE);
+            }
+            code.dmul().dadd().dstore(SUM);
+        }
+        // points[offset + i] = sum
+        code.aload(POINTS).iload(OFFSET).iload(I).iadd().dload(SUM).dastore();
+        code.iinc(I, 1).goto_(loop);
+        code.labelBinding(end);
+        code.return_();
+    }
+}
@@ -0,0 +1,129 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.SamplingPlan;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that PeriodicFrameCache finds the period of the waves, serves a cached frame again one period later,
+ * starts again when the waves or the sampling plan change, and stays within its memory budget.
+ *
+ * @author Qian Qian
+ */
+class PeriodicFrameCacheTest {
+    private static final int SAMPLE_COUNT = 16;
+
+    private static final Wave COMBINED_WAVE = new Wave(WaveTypes.DUMMY, -1, 0, new Color(0, 0, 0));
+
+    private static final SamplingPlan PLAN = SamplingPlan.fixed(new Viewport(0, 500, SAMPLE_COUNT));
+
+    private static List<Wave> waves(int... frequencies) {
+        return Arrays.stream(frequencies).mapToObj(frequency -> new Wave(WaveTypes.SIN, frequency, 0.5))
+                .toList();
+    }
+
+    /**
+     * The data points of a frame, computed from the waves like the controller does.
+     */
+    private static Map<Wave, double[]> frame(List<Wave> waves, int milliseconds) {
+        Map<Wave, double[]> dataPoints = new HashMap<>();
+        double[] combined = new double[SAMPLE_COUNT];
+        for (Wave wave : waves) {
+            double[] points = new double[SAMPLE_COUNT];
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                points[i] = wave.amplitude(PLAN.viewport().x(i), milliseconds / 1000.0);
+                combined[i] += points[i];
+            }
+            dataPoints.put(wave, points);
+        }
+        dataPoints.put(COMBINED_WAVE, combined);
+        return dataPoints;
+    }
+
+    private static long frameBytes(List<Wave> waves) {
+        return (long) (waves.size() + 1) * SAMPLE_COUNT * Float.BYTES;
+    }
+
+    @Test
+    void findsThePeriodOfTheWaves() {
+        assertEquals(100, PeriodicFrameCache.periodMillis(waves(10, 30, 50, 70)));
+        assertEquals(1000, PeriodicFrameCache.periodMillis(waves(3)));
+        assertEquals(1000, PeriodicFrameCache.periodMillis(waves(3, 5)));
+        assertEquals(4, PeriodicFrameCache.periodMillis(waves(250, 500)));
+        assertEquals(1, PeriodicFrameCache.periodMillis(waves(1000)));
+        assertEquals(1, PeriodicFrameCache.periodMillis(List.of()));
+    }
+
+    @Test
+    void servesAFrameAgainOnePeriodLater() {
+        List<Wave> waves = waves(10, 30);
+        PeriodicFrameCache cache = new PeriodicFrameCache(PeriodicFrameCache.DEFAULT_MEMORY_BUDGET);
+        assertNull(cache.get(waves, PLAN, 20, COMBINED_WAVE));
+        Map<Wave, double[]> frame = frame(waves, 20);
+        cache.put(waves, PLAN, 20, COMBINED_WAVE, frame);
+
+        Map<Wave, double[]> cached = cache.get(waves, PLAN, 120, COMBINED_WAVE);
+        assertNotNull(cached);
+        Map<Wave, double[]> expected = frame(waves, 120);
+        for (Wave wave : List.of(COMBINED_WAVE, waves.get(0), waves.get(1))) {
+            // The frames are stored as floats.
+            assertArrayEquals(expected.get(wave), cached.get(wave), 1e-6);
+        }
+        assertNull(cache.get(waves, PLAN, 130, COMBINED_WAVE));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(frameBytes(waves), cache.getUsedBytes());
+    }
+
+    @Test
+    void startsAgainWhenTheWavesOrThePlanChange() {
+        List<Wave> waves = waves(10);
+        PeriodicFrameCache cache = new PeriodicFrameCache(PeriodicFrameCache.DEFAULT_MEMORY_BUDGET);
+        cache.put(waves, PLAN, 0, COMBINED_WAVE, frame(waves, 0));
+        assertNotNull(cache.get(waves, PLAN, 100, COMBINED_WAVE));
+
+        // A new snapshot of the waves, even an equal one, is another simulation.
+        List<Wave> edited = waves(10);
+        assertNull(cache.get(edited, PLAN, 100, COMBINED_WAVE));
+        assertEquals(0, cache.getUsedBytes());
+
+        cache.put(edited, PLAN, 0, COMBINED_WAVE, frame(edited, 0));
+        SamplingPlan zoomed = SamplingPlan.fixed(new Viewport(0, 250, SAMPLE_COUNT));
+        assertNull(cache.get(edited, zoomed, 100, COMBINED_WAVE));
+        assertEquals(0, cache.getUsedBytes());
+    }
+
+    @Test
+    void staysWithinTheMemoryBudget() {
+        List<Wave> waves = waves(10);
+        PeriodicFrameCache cache = new PeriodicFrameCache(frameBytes(waves));
+        cache.put(waves, PLAN, 0, COMBINED_WAVE, frame(waves, 0));
+        cache.put(waves, PLAN, 10, COMBINED_WAVE, frame(waves, 10));
+        assertNotNull(cache.get(waves, PLAN, 0, COMBINED_WAVE));
+        assertNull(cache.get(waves, PLAN, 10, COMBINED_WAVE));
+        assertEquals(frameBytes(waves), cache.getUsedBytes());
+    }
+
+    @Test
+    void cachesNothingWithoutABudget() {
+        List<Wave> waves = waves(10);
+        PeriodicFrameCache cache = new PeriodicFrameCache(0);
+        cache.put(waves, PLAN, 0, COMBINED_WAVE, frame(waves, 0));
+        assertNull(cache.get(waves, PLAN, 0, COMBINED_WAVE));
+        assertEquals(0, cache.getUsedBytes());
+        assertEquals(0, cache.getMissCount());
+    }
+}
@@ -0,0 +1,132 @@
+package edu.vanier.fxwavegenerationsimulator.evaluator;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.CompiledWaveSet;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the evaluators generated by WaveEvaluatorCompiler give the same values, bit for bit,
+ * as the interpreter, for every sample of the wave sets below.
+ *
+ * @author Qian Qian
+ */
+class WaveEvaluatorCompilerTest {
+    /**
+     * The number of components per generated method (WaveEvaluatorCompiler.CHUNK_SIZE).
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private static final Color COLOR = new Color(0, 128, 255);
+
+    private static final double[] TIMES = {0, 0.001, 0.25, 1.37, 12.5};
+
+    /**
+     * The gaps between two samples (in meters), the last one being below the width the shapes are averaged over.
+     */
+    private static final double[] GAPS = {500.0 / 1024, 0.05, 1e-12};
+
+    private static final int SAMPLE_COUNT = 1024;
+
+    @BeforeAll
+    static void checkAvailable() {
+        assertTrue(WaveEvaluatorService.isAvailable(), "The tests must run with --enable-preview on Java 22");
+    }
+
+    @Test
+    void sinesOnly() {
+        List<Wave> waves = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            waves.add(new Wave(WaveTypes.SIN, 15 * (i + 1), 0.9 / (i + 1), COLOR));
+        }
+        assertIdentical(waves);
+    }
+
+    @Test
+    void sinesAndCosinesOfTheSameFrequency() {
+        // Merged into phasors whose amplitude is more than 1.
+        List<Wave> waves = List.of(
+                new Wave(WaveTypes.SIN, 100, 1, COLOR),
+                new Wave(WaveTypes.COS, 100, 1, COLOR),
+                new Wave(WaveTypes.SIN, 220, -0.4, COLOR),
+                new Wave(WaveTypes.COS, 330, 0.7, COLOR));
+        assertIdentical(waves);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = WaveTypes.class, names = {"SQUARE", "SAW", "TRIANGLE", "PULSE"})
+    void eachShape(WaveTypes waveType) {
+        List<Wave> waves = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waves.add(new Wave(waveType, 40 * (i + 1), 0.8 / (i + 1), 0.2 + 0.1 * i, COLOR));
+        }
+        // The same shape twice at one frequency is merged into one component.
+        waves.add(new Wave(waveType, 40, 0.5, 0.2, COLOR));
+        assertIdentical(waves);
+    }
+
+    @Test
+    void mixedTypes() {
+        assertIdentical(mixed(9));
+    }
+
+    @Test
+    void moreComponentsThanOneChunk() {
+        List<Wave> waves = mixed(3 * CHUNK_SIZE + 7);
+        assertTrue(CompiledWaveSet.compile(waves).getComponentCount() > 2 * CHUNK_SIZE);
+        assertIdentical(waves);
+    }
+
+    @Test
+    void emptySet() {
+        assertIdentical(List.of());
+    }
+
+    /**
+     * Create a wave set cycling through all the wave types, with distinct frequencies.
+     */
+    private static List<Wave> mixed(int waveCount) {
+        WaveTypes[] waveTypes = {WaveTypes.SIN, WaveTypes.COS, WaveTypes.SQUARE, WaveTypes.SAW, WaveTypes.TRIANGLE,
+                WaveTypes.PULSE};
+        List<Wave> waves = new ArrayList<>(waveCount);
+        for (int i = 0; i < waveCount; i++) {
+            waves.add(new Wave(waveTypes[i % waveTypes.length], 7 * (i + 1), (i % 2 == 0 ? 1 : -1) / (i + 1.0),
+                    0.1 + 0.8 * (i % 5) / 4, COLOR));
+        }
+        return waves;
+    }
+
+    private static void assertIdentical(List<Wave> waves) {
+        CompiledWaveSet compiledWaves = CompiledWaveSet.compile(waves);
+        WaveEvaluator interpreted = new InterpretedWaveEvaluator(compiledWaves);
+        WaveEvaluator generated = WaveEvaluatorService.generate(compiledWaves);
+        int offset = 3;
+        double[] expected = new double[offset + SAMPLE_COUNT];
+        double[] actual = new double[offset + SAMPLE_COUNT];
+        for (double t : TIMES) {
+            for (double gap : GAPS) {
+                double start = -gap * SAMPLE_COUNT / 3;
+                interpreted.evaluate(t, start, gap, expected, offset, SAMPLE_COUNT);
+                generated.evaluate(t, start, gap, actual, offset, SAMPLE_COUNT);
+                for (int i = 0; i < actual.length; i++) {
+                    long expectedBits = Double.doubleToRawLongBits(expected[i]);
+                    long actualBits = Double.doubleToRawLongBits(actual[i]);
+                    if (expectedBits != actualBits) {
+                        assertEquals(expected[i], actual[i], "t=" + t + " gap=" + gap + " index=" + i);
+                        assertEquals(expectedBits, actualBits, "t=" + t + " gap=" + gap + " index=" + i);
+                    }
+                }
+            }
+        }
+    }
+}
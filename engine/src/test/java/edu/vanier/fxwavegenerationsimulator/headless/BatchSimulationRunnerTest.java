@@ -0,0 +1,119 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that BatchSimulationRunner writes one frame of the combined wave per step to the sink, in order,
+ * opens and closes the sink around the run, reports the run, and stops at the first failure of the sink.
+ *
+ * @author Qian Qian
+ */
+class BatchSimulationRunnerTest {
+    private static final double LENGTH = 500;
+    private static final int SAMPLE_COUNT = 32;
+
+    private static final List<Wave> WAVES = List.of(new Wave(WaveTypes.SIN, 3, 0.5), new Wave(WaveTypes.COS, 7, 0.25));
+
+    /**
+     * A sink that keeps a copy of every frame, and fails at a given frame.
+     */
+    private static class RecordingSink implements FrameSink {
+        private final int failingFrame;
+        private final List<Integer> times = new ArrayList<>();
+        private final List<double[]> frames = new ArrayList<>();
+        private int openCount;
+        private int closeCount;
+
+        private RecordingSink(int failingFrame) {
+            this.failingFrame = failingFrame;
+        }
+
+        @Override
+        public void open(List<Wave> waves, double totalLength, int sampleCount) {
+            assertEquals(WAVES, waves);
+            assertEquals(LENGTH, totalLength);
+            assertEquals(SAMPLE_COUNT, sampleCount);
+            openCount++;
+        }
+
+        @Override
+        public void write(int milliseconds, double[] frame) throws IOException {
+            if (frames.size() == failingFrame) {
+                throw new IOException("Disk full.");
+            }
+            times.add(milliseconds);
+            frames.add(frame.clone());
+        }
+
+        @Override
+        public void close() {
+            closeCount++;
+        }
+    }
+
+    @Test
+    void writesOneFrameOfTheCombinedWavePerStep() throws IOException {
+        RecordingSink sink = new RecordingSink(-1);
+        BatchReport report = new BatchSimulationRunner(WAVES, LENGTH, SAMPLE_COUNT).run(100, 1000, 50, sink);
+
+        assertEquals(1, sink.openCount);
+        assertEquals(1, sink.closeCount);
+        assertEquals(19, report.frameCount());
+        assertEquals(900, report.simulatedMillis());
+        assertTrue(report.elapsedNanos() > 0);
+        assertEquals(19, sink.frames.size());
+        for (int frame = 0; frame < sink.frames.size(); frame++) {
+            int milliseconds = sink.times.get(frame);
+            assertEquals(100 + 50 * frame, milliseconds);
+            double[] samples = sink.frames.get(frame);
+            assertEquals(SAMPLE_COUNT, samples.length);
+            for (int i = 0; i < SAMPLE_COUNT; i++) {
+                double x = i * LENGTH / SAMPLE_COUNT;
+                double expected = 0;
+                for (Wave wave : WAVES) {
+                    expected += wave.amplitude(x, milliseconds / 1000.0);
+                }
+                assertEquals(expected, samples[i], 1e-9, "sample " + i + " at " + milliseconds + " ms");
+            }
+        }
+    }
+
+    @Test
+    void writesASingleFrameForAnEmptyRange() throws IOException {
+        RecordingSink sink = new RecordingSink(-1);
+        BatchReport report = new BatchSimulationRunner(WAVES, LENGTH, SAMPLE_COUNT).run(40, 40, 10, sink);
+        assertEquals(1, report.frameCount());
+        assertEquals(0, report.simulatedMillis());
+        assertEquals(List.of(40), sink.times);
+    }
+
+    @Test
+    void stopsAtTheFirstFailureOfTheSink() {
+        RecordingSink sink = new RecordingSink(3);
+        IOException e = assertThrows(IOException.class,
+                () -> new BatchSimulationRunner(WAVES, LENGTH, SAMPLE_COUNT).run(0, 100_000, 10, sink));
+        assertEquals("Disk full.", e.getMessage());
+        assertEquals(3, sink.frames.size());
+        assertEquals(1, sink.closeCount);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulationRunner(WAVES, 0, SAMPLE_COUNT));
+        assertThrows(IllegalArgumentException.class, () -> new BatchSimulationRunner(WAVES, LENGTH, 0));
+        BatchSimulationRunner runner = new BatchSimulationRunner(WAVES, LENGTH, SAMPLE_COUNT);
+        assertThrows(IllegalArgumentException.class, () -> runner.run(-1, 10, 1, new NoOpFrameSink()));
+        assertThrows(IllegalArgumentException.class, () -> runner.run(20, 10, 1, new NoOpFrameSink()));
+        assertThrows(IllegalArgumentException.class, () -> runner.run(0, 10, 0, new NoOpFrameSink()));
+    }
+}
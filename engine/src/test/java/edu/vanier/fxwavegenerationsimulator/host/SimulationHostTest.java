@@ -0,0 +1,133 @@
+package edu.vanier.fxwavegenerationsimulator.host;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.SimulationSessionStatus;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the sessions of a SimulationHost are only charged the evaluation of their frames,
+ * not the time a BLOCK subscriber holds up their ticks, and that closing a session or the host completes
+ * the subscribers of its frames, even when a tick is waiting for one of them.
+ *
+ * @author Qian Qian
+ */
+class SimulationHostTest {
+    private static final List<Wave> WAVES = List.of(new Wave(WaveTypes.SIN, 3, 0.5));
+
+    @BeforeAll
+    static void initializeTheMetrics() {
+        // The first frame initializes the metrics (e.g. registers the MBeans), which would be charged to a session.
+        new WaveSimulationController(500, 64).step(1);
+    }
+
+    /**
+     * A subscriber that requests a frame every given time (or never), and records its completion.
+     */
+    private static class SlowSubscriber implements Flow.Subscriber<SimulationFrame> {
+        private final long delayMillis;
+        private final AtomicLong frameCount = new AtomicLong();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        private SlowSubscriber(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (delayMillis > 0) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(SimulationFrame frame) {
+            frameCount.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void doesNotChargeTheWaitForABlockSubscriber() throws InterruptedException {
+        try (SimulationHost host = new SimulationHost(5, TimeUnit.MILLISECONDS.toNanos(20))) {
+            SimulationSession session = host.openSession(WAVES, 500, 64);
+            SlowSubscriber subscriber = new SlowSubscriber(30);
+            session.getController().getFramePublisher().subscribe(subscriber, 1, OverflowPolicy.BLOCK);
+            session.start();
+            Thread.sleep(500);
+
+            // The ticks wait for the subscriber (and the next ones are skipped), but none is throttled.
+            assertTrue(session.getTickCount() > 2, host.report().toString());
+            assertTrue(host.report().skippedTickCount() > 0, host.report().toString());
+            assertEquals(0, session.getThrottledTickCount());
+            assertEquals(SimulationSessionStatus.PLAYING, session.getStatus());
+        }
+    }
+
+    @Test
+    void completesTheSubscribersOfAClosedSession() throws InterruptedException {
+        try (SimulationHost host = new SimulationHost()) {
+            SimulationSession session = host.openSession(WAVES, 500, 64);
+            SlowSubscriber subscriber = new SlowSubscriber(1);
+            session.getController().getFramePublisher().subscribe(subscriber, 4, OverflowPolicy.DROP_OLDEST);
+            session.start();
+            Thread.sleep(50);
+
+            session.close();
+            assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+            assertEquals(SimulationSessionStatus.CLOSED, session.getStatus());
+            assertTrue(session.getController().getFramePublisher().getSubscriptions().isEmpty());
+            assertTrue(host.getSessions().isEmpty());
+        }
+    }
+
+    @Test
+    void closesWhileATickWaitsForABlockSubscriber() throws InterruptedException {
+        SimulationHost host = new SimulationHost(5, SimulationHost.DEFAULT_CPU_BUDGET_NANOS);
+        SimulationSession session = host.openSession(WAVES, 500, 64);
+        // This subscriber never requests a frame, so the second tick waits for it forever.
+        SlowSubscriber stalled = new SlowSubscriber(0);
+        SlowSubscriber other = new SlowSubscriber(1);
+        session.getController().getFramePublisher().subscribe(stalled, 1, OverflowPolicy.BLOCK);
+        session.getController().getFramePublisher().subscribe(other, 4, OverflowPolicy.DROP_OLDEST);
+        session.start();
+        Thread.sleep(100);
+        assertEquals(1, session.getTickCount());
+
+        Thread closer = Thread.ofPlatform().start(host::close);
+        closer.join(5_000);
+        assertFalse(closer.isAlive(), "the host is still waiting for the blocked tick");
+        assertTrue(other.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, stalled.frameCount.get());
+    }
+}
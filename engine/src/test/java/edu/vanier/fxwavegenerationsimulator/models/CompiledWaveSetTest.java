@@ -0,0 +1,100 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that CompiledWaveSet merges the SIN and COS waves of a frequency into one phasor and the identical shapes
+ * into one component, drops the components that cancel out, and still gives the sum of its waves.
+ *
+ * @author Qian Qian
+ */
+class CompiledWaveSetTest {
+    private static final double[] POSITIONS = {0, 3.7, 125, 499.9};
+    private static final double[] TIMES = {0, 0.0123, 1.5};
+
+    private static void assertSameValues(List<Wave> waves, CompiledWaveSet compiled, double gap) {
+        for (double x : POSITIONS) {
+            for (double t : TIMES) {
+                double expected = 0;
+                for (Wave wave : waves) {
+                    expected += wave.amplitude(x, t, gap);
+                }
+                assertEquals(expected, compiled.combine(x, t, gap), 1e-12, "at x = " + x + ", t = " + t);
+            }
+        }
+    }
+
+    @Test
+    void mergesTheSinAndCosOfAFrequencyIntoOnePhasor() {
+        List<Wave> waves = List.of(new Wave(WaveTypes.SIN, 3, 0.6), new Wave(WaveTypes.COS, 3, 0.8));
+        CompiledWaveSet compiled = CompiledWaveSet.compile(waves);
+        assertEquals(1, compiled.getComponentCount());
+        assertEquals(WaveTypes.SIN, compiled.getWaveType(0));
+        assertEquals(3, compiled.getFrequency(0));
+        assertEquals(1, compiled.getAmplitude(0), 1e-15);
+        assertEquals(Math.atan2(0.8, 0.6), compiled.getPhase(0), 1e-15);
+        assertSameValues(waves, compiled, 0);
+    }
+
+    @Test
+    void dropsTheComponentsThatCancelOut() {
+        List<Wave> waves = List.of(new Wave(WaveTypes.SIN, 5, 0.5), new Wave(WaveTypes.SIN, 5, -0.5),
+                new Wave(WaveTypes.SAW, 5, 0.25), new Wave(WaveTypes.SAW, 5, -0.25), new Wave(WaveTypes.COS, 7, 0.1));
+        CompiledWaveSet compiled = CompiledWaveSet.compile(waves);
+        assertEquals(1, compiled.getComponentCount());
+        assertEquals(7, compiled.getFrequency(0));
+        assertEquals(Math.PI / 2, compiled.getPhase(0), 1e-15);
+        assertSameValues(waves, compiled, 0);
+    }
+
+    @Test
+    void mergesOnlyTheSameShapes() {
+        List<Wave> waves = List.of(
+                new Wave(WaveTypes.SQUARE, 10, 0.3), new Wave(WaveTypes.SQUARE, 10, 0.4),
+                new Wave(WaveTypes.PULSE, 10, 0.5, 0.3, new Color()), new Wave(WaveTypes.PULSE, 10, 0.5, 0.4, new Color()),
+                new Wave(WaveTypes.TRIANGLE, 20, 0.9), new Wave(WaveTypes.SIN, 40, 0.2));
+        CompiledWaveSet compiled = CompiledWaveSet.compile(waves);
+        // The sine components first, then the shapes sorted by frequency, type and duty cycle.
+        assertEquals(5, compiled.getComponentCount());
+        assertEquals(WaveTypes.SIN, compiled.getWaveType(0));
+        assertEquals(40, compiled.getFrequency(0));
+        assertEquals(WaveTypes.SQUARE, compiled.getWaveType(1));
+        assertEquals(0.7, compiled.getAmplitude(1), 1e-15);
+        assertEquals(WaveTypes.PULSE, compiled.getWaveType(2));
+        assertEquals(0.3, compiled.getDutyCycle(2));
+        assertEquals(WaveTypes.PULSE, compiled.getWaveType(3));
+        assertEquals(0.4, compiled.getDutyCycle(3));
+        assertEquals(WaveTypes.TRIANGLE, compiled.getWaveType(4));
+        assertEquals(20, compiled.getFrequency(4));
+        assertSameValues(waves, compiled, 0);
+        assertSameValues(waves, compiled, 0.05);
+    }
+
+    @Test
+    void givesTheSumOfManyWavesOfFewFrequencies() {
+        WaveTypes[] waveTypes = {WaveTypes.SIN, WaveTypes.COS, WaveTypes.SQUARE, WaveTypes.SAW, WaveTypes.TRIANGLE,
+                WaveTypes.PULSE};
+        List<Wave> waves = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            waves.add(new Wave(waveTypes[i % waveTypes.length], 5 * (1 + i % 7), (i % 11 - 5) / 5.0));
+        }
+        CompiledWaveSet compiled = CompiledWaveSet.compile(waves);
+        // At most one sine per frequency and one component per shape and frequency.
+        assertTrue(compiled.getComponentCount() <= 7 + 4 * 7, compiled.toString());
+        assertSameValues(waves, compiled, 0);
+        assertSameValues(waves, compiled, 500.0 / 1024);
+    }
+
+    @Test
+    void compilesNoWavesToNothing() {
+        assertEquals(0, CompiledWaveSet.empty().getComponentCount());
+        assertEquals(0, CompiledWaveSet.empty().combine(12, 3));
+    }
+}
@@ -0,0 +1,106 @@
+package edu.vanier.fxwavegenerationsimulator.models;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the band-limited shapes of Waveforms: the closed-form averages against a numeric integral of the ideal
+ * shape, and the PolyBLEP/PolyBLAMP corrections of the audio samples at the jumps and corners.
+ *
+ * @author Qian Qian
+ */
+class WaveformsTest {
+    private static final double DUTY_CYCLE = 0.3;
+
+    private static final double[] PHASES = {0, 0.1, 0.25, 0.49, 0.5, 0.77, 3.2, -1.6};
+    private static final double[] WIDTHS = {0.01, 0.3, 1, 2.5};
+
+    /**
+     * The average of the ideal shape over [phase - width / 2, phase + width / 2], with the midpoint rule.
+     */
+    private static double numericAverage(WaveTypes waveType, double phase, double width) {
+        int steps = 100_000;
+        double sum = 0;
+        for (int i = 0; i < steps; i++) {
+            sum += Waveforms.value(waveType, phase - width / 2 + (i + 0.5) * width / steps, DUTY_CYCLE);
+        }
+        return sum / steps;
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = WaveTypes.class, names = {"SQUARE", "SAW", "TRIANGLE", "PULSE", "SIN", "COS"})
+    void averagesTheShapeOverTheGap(WaveTypes waveType) {
+        for (double phase : PHASES) {
+            for (double width : WIDTHS) {
+                assertEquals(numericAverage(waveType, phase, width),
+                        Waveforms.average(waveType, phase, width, DUTY_CYCLE), 1e-4,
+                        waveType + " at " + phase + " over " + width);
+            }
+        }
+    }
+
+    @Test
+    void averagesAWholePeriodToTheMeanOfTheShape() {
+        for (double phase : PHASES) {
+            assertEquals(0, Waveforms.average(WaveTypes.SQUARE, phase, 1, DUTY_CYCLE), 1e-12);
+            assertEquals(0, Waveforms.average(WaveTypes.SAW, phase, 1, DUTY_CYCLE), 1e-12);
+            assertEquals(0, Waveforms.average(WaveTypes.TRIANGLE, phase, 1, DUTY_CYCLE), 1e-12);
+            assertEquals(2 * DUTY_CYCLE - 1, Waveforms.average(WaveTypes.PULSE, phase, 1, DUTY_CYCLE), 1e-12);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = WaveTypes.class, names = {"SQUARE", "SAW", "TRIANGLE", "PULSE"})
+    void averagesAVeryShortGapToTheValue(WaveTypes waveType) {
+        for (double phase : PHASES) {
+            assertEquals(Waveforms.value(waveType, phase, DUTY_CYCLE), Waveforms.average(waveType, phase, 0, DUTY_CYCLE));
+        }
+    }
+
+    @Test
+    void smoothsTheJumpsWithPolyBlep() {
+        double increment = 0.01;
+        double epsilon = 1e-9;
+        // Right before and after a jump, the residual brings both sides to the middle of the jump.
+        double[][] jumps = {{0, 0.5}, {0, DUTY_CYCLE}, {0}};
+        WaveTypes[] waveTypes = {WaveTypes.SQUARE, WaveTypes.PULSE, WaveTypes.SAW};
+        for (int i = 0; i < waveTypes.length; i++) {
+            for (double jump : jumps[i]) {
+                double before = Waveforms.sample(waveTypes[i], jump - epsilon, increment, DUTY_CYCLE);
+                double after = Waveforms.sample(waveTypes[i], jump + epsilon, increment, DUTY_CYCLE);
+                assertEquals(0, before, 1e-6, waveTypes[i] + " before " + jump);
+                assertEquals(0, after, 1e-6, waveTypes[i] + " after " + jump);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = WaveTypes.class, names = {"SQUARE", "SAW", "TRIANGLE", "PULSE"})
+    void keepsTheIdealValueAwayFromTheJumpsAndCorners(WaveTypes waveType) {
+        double increment = 0.01;
+        // Further than one increment from 0, 0.25, 0.5, 0.75 and the duty cycle.
+        for (double phase : new double[]{0.05, 0.15, 0.4, 0.6, 0.9, 2.15}) {
+            assertEquals(Waveforms.value(waveType, phase, DUTY_CYCLE),
+                    Waveforms.sample(waveType, phase, increment, DUTY_CYCLE), 1e-15, waveType + " at " + phase);
+        }
+    }
+
+    @Test
+    void roundsTheCornersOfTheTriangleWithPolyBlamp() {
+        double increment = 0.01;
+        // The residual at a corner is a third of the change of slope times the increment, 8 * increment / 3.
+        assertEquals(1 - 8 * increment / 3, Waveforms.sample(WaveTypes.TRIANGLE, 0.25, increment, 0.5), 1e-12);
+        assertEquals(-1 + 8 * increment / 3, Waveforms.sample(WaveTypes.TRIANGLE, 0.75, increment, 0.5), 1e-12);
+        for (double offset = 0; offset < 1.5 * increment; offset += increment / 8) {
+            double before = Waveforms.sample(WaveTypes.TRIANGLE, 0.25 - offset, increment, 0.5);
+            double after = Waveforms.sample(WaveTypes.TRIANGLE, 0.25 + offset, increment, 0.5);
+            assertEquals(before, after, 1e-12, "symmetric around the peak at " + offset);
+            assertTrue(after < 1);
+        }
+    }
+}
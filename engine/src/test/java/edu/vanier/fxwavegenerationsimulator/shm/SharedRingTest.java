@@ -0,0 +1,211 @@
+package edu.vanier.fxwavegenerationsimulator.shm;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the seqlock protocol of the shared-memory ring: the records written by SharedRingWriter are read back
+ * by SharedRingReader with their header, records not published yet or overwritten by a newer one are reported
+ * as such, records that do not fit are rejected rather than cut short, and a FrameRingExporter subscribed
+ * to two simulations at once writes their frames one at a time.
+ *
+ * @author Qian Qian
+ */
+class SharedRingTest {
+    private static final int SLOT_COUNT = 4;
+    private static final int CAPACITY = 8;
+
+    @TempDir
+    Path directory;
+
+    private Path path() {
+        return directory.resolve("frames.ring");
+    }
+
+    private static float[] frame(int seed) {
+        float[] frame = new float[CAPACITY];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = seed + i / 10f;
+        }
+        return frame;
+    }
+
+    @Test
+    void readsFramesBackWithTheirHeader() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            assertEquals(SharedRingFormat.KIND_FRAME, reader.getKind());
+            assertEquals(SLOT_COUNT, reader.getSlotCount());
+            assertEquals(CAPACITY, reader.getCapacity());
+
+            assertEquals(1, writer.writeFloats(40, new float[]{0.5f, -0.25f, 1}, -2.5, 7.5, true));
+            float[] destination = new float[CAPACITY];
+            assertEquals(3, reader.readFloats(1, destination));
+            assertArrayEquals(new float[]{0.5f, -0.25f, 1}, Arrays.copyOf(destination, 3));
+            assertEquals(40, reader.getLastTime());
+            assertEquals(-2.5, reader.getLastViewportStart());
+            assertEquals(7.5, reader.getLastViewportEnd());
+            assertTrue(reader.isLastEnvelope());
+            assertTrue(reader.getLastTimestampNanos() <= System.nanoTime());
+
+            assertEquals(2, writer.writeFloats(50, frame(2), 0, 500, false));
+            assertEquals(CAPACITY, reader.readFloats(2, destination));
+            assertArrayEquals(frame(2), destination);
+            assertFalse(reader.isLastEnvelope());
+            assertEquals(2, reader.getPublishedCount());
+        }
+    }
+
+    @Test
+    void readsAudioBlocksBack() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_AUDIO, SLOT_COUNT, CAPACITY,
+                44100);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            assertEquals(44100, reader.getSampleRate());
+            byte[] samples = {9, 9, 1, -2, 3, -4, 5, 9};
+            writer.writeBytes(4096, samples, 2, 5);
+            byte[] destination = new byte[CAPACITY];
+            assertEquals(5, reader.readBytes(1, destination));
+            assertArrayEquals(new byte[]{1, -2, 3, -4, 5}, Arrays.copyOf(destination, 5));
+            assertEquals(4096, reader.getLastTime());
+            assertFalse(reader.isLastEnvelope());
+            assertThrows(IllegalStateException.class, () -> writer.writeFloats(0, frame(0), 0, 1, false));
+        }
+    }
+
+    @Test
+    void reportsRecordsNotPublishedYet() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            float[] destination = new float[CAPACITY];
+            assertEquals(SharedRingReader.NOT_PUBLISHED, reader.readFloats(1, destination));
+            writer.writeFloats(0, frame(1), 0, 1, false);
+            assertEquals(SharedRingReader.NOT_PUBLISHED, reader.readFloats(0, destination));
+            assertEquals(SharedRingReader.NOT_PUBLISHED, reader.readFloats(2, destination));
+            assertNull(reader.view(2));
+        }
+    }
+
+    @Test
+    void reportsLappedRecordsAsOverwritten() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            int count = SLOT_COUNT + 2;
+            for (int sequence = 1; sequence <= count; sequence++) {
+                writer.writeFloats(sequence, frame(sequence), 0, 1, false);
+            }
+            float[] destination = new float[CAPACITY];
+            for (int sequence = 1; sequence <= count - SLOT_COUNT; sequence++) {
+                assertEquals(SharedRingReader.OVERWRITTEN, reader.readFloats(sequence, destination));
+            }
+            for (int sequence = count - SLOT_COUNT + 1; sequence <= count; sequence++) {
+                assertEquals(CAPACITY, reader.readFloats(sequence, destination));
+                assertEquals(sequence, reader.getLastTime());
+                assertArrayEquals(frame(sequence), destination);
+            }
+        }
+    }
+
+    @Test
+    void invalidatesAViewOnceItsSlotIsOverwritten() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            writer.writeFloats(0, frame(1), 0, 1, false);
+            ByteBuffer view = reader.view(1);
+            assertNotNull(view);
+            assertEquals(CAPACITY * Float.BYTES, view.remaining());
+            assertEquals(frame(1)[3], view.getFloat(3 * Float.BYTES));
+            assertTrue(reader.isValid(1));
+            for (int i = 0; i < SLOT_COUNT - 1; i++) {
+                writer.writeFloats(0, frame(2), 0, 1, false);
+            }
+            assertTrue(reader.isValid(1));
+            writer.writeFloats(0, frame(3), 0, 1, false);
+            assertFalse(reader.isValid(1));
+        }
+    }
+
+    @Test
+    void rejectsRecordsLongerThanTheCapacity() throws IOException {
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.writeFloats(0, new float[CAPACITY + 1], 0, 1, false));
+            assertEquals(0, reader.getPublishedCount());
+        }
+    }
+
+    @Test
+    void rejectsOtherFormatVersions() throws IOException {
+        new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0).close();
+        try (FileChannel channel = FileChannel.open(path(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1), 4);
+        }
+        assertThrows(IOException.class, () -> new SharedRingReader(path()));
+    }
+
+    @Test
+    void alignsTheSlotsOnCacheLines() {
+        assertEquals(64, SharedRingFormat.slotSize(1, Float.BYTES));
+        int slotSize = SharedRingFormat.slotSize(1024, Float.BYTES);
+        assertEquals(0, slotSize % 64);
+        assertTrue(slotSize >= SharedRingFormat.RECORD_HEADER_SIZE + 1024 * Float.BYTES);
+        assertTrue(slotSize < SharedRingFormat.RECORD_HEADER_SIZE + 1024 * Float.BYTES + 64);
+        assertEquals(128, SharedRingFormat.slotSize(17, Byte.BYTES));
+    }
+
+    @Test
+    void exportsTheFramesOfTwoSimulationsOneAtATime() throws IOException, InterruptedException {
+        int frameCount = 20_000;
+        Wave combinedWave = new Wave(WaveTypes.DUMMY, -1, 0, new Color(0, 0, 0));
+        try (SharedRingWriter writer = new SharedRingWriter(path(), SharedRingFormat.KIND_FRAME, SLOT_COUNT, CAPACITY, 0);
+             SharedRingReader reader = new SharedRingReader(path())) {
+            FrameRingExporter exporter = new FrameRingExporter(writer);
+            // The old subscription still draining while the new one delivers its first frames.
+            Thread[] simulations = new Thread[2];
+            for (int i = 0; i < simulations.length; i++) {
+                double value = i;
+                SimulationFrame frame = new SimulationFrame(i, Map.of(combinedWave, new double[]{value, value}),
+                        List.of(), new Viewport(0, 500, 2), false, 0);
+                simulations[i] = Thread.ofPlatform().start(() -> {
+                    for (int j = 0; j < frameCount; j++) {
+                        exporter.onNext(frame);
+                    }
+                });
+            }
+            for (Thread simulation : simulations) {
+                simulation.join();
+            }
+            assertEquals(2L * frameCount, reader.getPublishedCount());
+            float[] destination = new float[CAPACITY];
+            for (long sequence = 2L * frameCount - SLOT_COUNT + 1; sequence <= 2L * frameCount; sequence++) {
+                assertEquals(2, reader.readFloats(sequence, destination));
+                assertEquals(reader.getLastTime(), destination[0]);
+                assertEquals(reader.getLastTime(), destination[1]);
+            }
+        }
+    }
+}
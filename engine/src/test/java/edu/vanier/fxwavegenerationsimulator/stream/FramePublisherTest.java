@@ -0,0 +1,423 @@
+package edu.vanier.fxwavegenerationsimulator.stream;
+
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the delivery of the frames by FramePublisher and FrameSubscription: the DROP_OLDEST, LATEST_ONLY and BLOCK
+ * policies with their drop and lag counters, the delivery task started again by every frame or request
+ * when it stopped for lack of them, cancelling during a delivery, and completing only after the buffered frames.
+ * Most tests deliver on the thread that submits or requests (a direct executor), so they are deterministic.
+ *
+ * @author Qian Qian
+ */
+class FramePublisherTest {
+    private static final Viewport VIEWPORT = new Viewport(0, 500, 16);
+
+    private static SimulationFrame frame(int milliseconds) {
+        return frame(milliseconds, System.nanoTime());
+    }
+
+    private static SimulationFrame frame(int milliseconds, long publishedNanos) {
+        return new SimulationFrame(milliseconds, Map.of(), List.of(), VIEWPORT, false, publishedNanos);
+    }
+
+    /**
+     * A subscriber recording what it receives ("onNext 10", "onComplete"...),
+     * which only requests frames when it is told to (or from its onNext hook).
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<SimulationFrame> {
+        private final long initialRequest;
+        private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile BiConsumer<RecordingSubscriber, SimulationFrame> onNextHook = (subscriber, frame) -> {
+        };
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            events.add("onSubscribe");
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(SimulationFrame frame) {
+            events.add("onNext " + frame.milliseconds());
+            onNextHook.accept(this, frame);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            events.add("onError " + throwable.getMessage());
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            events.add("onComplete");
+            completed.countDown();
+        }
+
+        private List<String> frames() {
+            synchronized (events) {
+                return events.stream().filter(event -> event.startsWith("onNext")).toList();
+            }
+        }
+    }
+
+    @Test
+    void dropsTheOldestFramesWhenTheBufferIsFull() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        FrameSubscription subscription = publisher.subscribe(subscriber, 3, OverflowPolicy.DROP_OLDEST);
+        assertEquals(List.of("onSubscribe"), subscriber.events);
+
+        for (int milliseconds = 10; milliseconds <= 50; milliseconds += 10) {
+            publisher.submit(frame(milliseconds));
+        }
+        assertEquals(5, subscription.getPublishedCount());
+        assertEquals(2, subscription.getDroppedCount());
+        assertEquals(3, subscription.getBufferedCount());
+        assertEquals(0, subscription.getDeliveredCount());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of("onNext 30", "onNext 40", "onNext 50"), subscriber.frames());
+        assertEquals(3, subscription.getDeliveredCount());
+        assertEquals(0, subscription.getBufferedCount());
+    }
+
+    @Test
+    void keepsOnlyTheLatestFrame() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        // The buffer size is ignored: the subscriber only ever gets the latest frame.
+        FrameSubscription subscription = publisher.subscribe(subscriber, 8, OverflowPolicy.LATEST_ONLY);
+        for (int milliseconds = 10; milliseconds <= 40; milliseconds += 10) {
+            publisher.submit(frame(milliseconds));
+        }
+        assertEquals(3, subscription.getDroppedCount());
+        assertEquals(1, subscription.getBufferedCount());
+
+        subscriber.subscription.request(1);
+        publisher.submit(frame(50));
+        publisher.submit(frame(60));
+        subscriber.subscription.request(1);
+        assertEquals(List.of("onNext 40", "onNext 60"), subscriber.frames());
+        assertEquals(4, subscription.getDroppedCount());
+        assertEquals(2, subscription.getDeliveredCount());
+    }
+
+    @Test
+    void blocksThePublisherUntilTheSubscriberMakesRoom() throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        FramePublisher publisher = new FramePublisher(executor);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        FrameSubscription subscription = publisher.subscribe(subscriber, 1, OverflowPolicy.BLOCK);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            for (int milliseconds = 10; milliseconds <= 30; milliseconds += 10) {
+                publisher.submit(frame(milliseconds));
+            }
+        });
+
+        // The second frame waits for room in the buffer.
+        awaitState(producer, Thread.State.WAITING);
+        assertEquals(1, subscription.getBufferedCount());
+        assertEquals(1, subscription.getPublishedCount());
+
+        subscriber.subscription.request(1);
+        awaitCondition(() -> subscription.getPublishedCount() == 2 && subscription.getDeliveredCount() == 1);
+        awaitState(producer, Thread.State.WAITING);
+        assertEquals(List.of("onNext 10"), subscriber.frames());
+
+        subscriber.subscription.request(2);
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        awaitCondition(() -> subscription.getDeliveredCount() == 3);
+        assertEquals(List.of("onNext 10", "onNext 20", "onNext 30"), subscriber.frames());
+        assertEquals(0, subscription.getDroppedCount());
+        executor.shutdown();
+    }
+
+    @Test
+    void releasesABlockedPublisherWhenTheSubscriptionIsCancelled() throws InterruptedException {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        FrameSubscription subscription = publisher.subscribe(subscriber, 1, OverflowPolicy.BLOCK);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            publisher.submit(frame(10));
+            publisher.submit(frame(20));
+        });
+        awaitState(producer, Thread.State.WAITING);
+
+        subscriber.subscription.cancel();
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(1, subscription.getPublishedCount());
+        assertEquals(List.of(), subscriber.frames());
+        assertTrue(publisher.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void releasesABlockedPublisherWhenThePublisherIsClosed() throws InterruptedException {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        FrameSubscription subscription = publisher.subscribe(subscriber, 1, OverflowPolicy.BLOCK);
+        Thread producer = Thread.ofPlatform().start(() -> {
+            publisher.submit(frame(10));
+            publisher.submit(frame(20));
+        });
+        awaitState(producer, Thread.State.WAITING);
+
+        publisher.close();
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(1, subscription.getPublishedCount());
+        // The frame buffered before the close is still delivered, then the subscriber is completed.
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of("onSubscribe", "onNext 10", "onComplete"), subscriber.events);
+    }
+
+    @Test
+    void measuresTheLagOfTheDeliveredFrames() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        FrameSubscription subscription = publisher.subscribe(subscriber, 4, OverflowPolicy.DROP_OLDEST);
+
+        long lag = TimeUnit.MILLISECONDS.toNanos(50);
+        publisher.submit(frame(10, System.nanoTime() - lag));
+        assertTrue(subscription.getLastLagNanos() >= lag);
+        assertEquals(subscription.getLastLagNanos(), subscription.getMaxLagNanos());
+
+        publisher.submit(frame(20));
+        assertTrue(subscription.getLastLagNanos() < lag);
+        assertTrue(subscription.getMaxLagNanos() >= lag);
+        assertEquals(2, subscription.getDeliveredCount());
+        assertEquals(0, subscription.getDroppedCount());
+    }
+
+    @Test
+    void restartsTheDeliveryForEveryFrameOrRequest() throws InterruptedException {
+        // Several publishers and a subscriber requesting one frame at a time from another thread, so the delivery
+        // task keeps stopping for lack of frames or demand while frames and requests arrive concurrently.
+        int producerCount = 4;
+        int frameCount = 2_000;
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        ExecutorService requester = Executors.newSingleThreadExecutor();
+        FramePublisher publisher = new FramePublisher(executor);
+        AtomicInteger delivering = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        CountDownLatch delivered = new CountDownLatch(producerCount * frameCount);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        subscriber.onNextHook = (recording, frame) -> {
+            if (delivering.incrementAndGet() != 1) {
+                overlaps.incrementAndGet();
+            }
+            delivering.decrementAndGet();
+            delivered.countDown();
+            requester.execute(() -> recording.subscription.request(1));
+        };
+        FrameSubscription subscription = publisher.subscribe(subscriber, 2, OverflowPolicy.BLOCK);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < producerCount; producer++) {
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < frameCount; i++) {
+                    publisher.submit(frame(i));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.join(30_000);
+        }
+        assertTrue(delivered.await(30, TimeUnit.SECONDS),
+                "frames left in the buffer: " + subscription + ", published " + subscription.getPublishedCount());
+        assertEquals(0, overlaps.get());
+        assertEquals(producerCount * frameCount, subscription.getDeliveredCount());
+        assertEquals(0, subscription.getDroppedCount());
+        requester.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    void stopsDeliveringWhenCancelledDuringADelivery() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        subscriber.onNextHook = (recording, frame) -> {
+            if (frame.milliseconds() == 20) {
+                recording.subscription.cancel();
+            }
+        };
+        FrameSubscription subscription = publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        for (int milliseconds = 10; milliseconds <= 50; milliseconds += 10) {
+            publisher.submit(frame(milliseconds));
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals(List.of("onSubscribe", "onNext 10", "onNext 20"), subscriber.events);
+        assertEquals(0, subscription.getBufferedCount());
+        assertTrue(publisher.getSubscriptions().isEmpty());
+        publisher.submit(frame(60));
+        publisher.close();
+        assertEquals(5, subscription.getPublishedCount());
+        assertEquals(List.of("onSubscribe", "onNext 10", "onNext 20"), subscriber.events);
+    }
+
+    @Test
+    void stopsDeliveringWhenCancelledFromAnotherThreadDuringADelivery() throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        FramePublisher publisher = new FramePublisher(executor);
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        subscriber.onNextHook = (recording, frame) -> {
+            delivering.countDown();
+            try {
+                cancelled.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        FrameSubscription subscription = publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        for (int milliseconds = 10; milliseconds <= 30; milliseconds += 10) {
+            publisher.submit(frame(milliseconds));
+        }
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        subscription.cancel();
+        cancelled.countDown();
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(List.of("onNext 10"), subscriber.frames());
+        assertFalse(subscriber.events.contains("onComplete"));
+    }
+
+    @Test
+    void completesOnlyAfterTheBufferedFrames() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        for (int milliseconds = 10; milliseconds <= 30; milliseconds += 10) {
+            publisher.submit(frame(milliseconds));
+        }
+        publisher.close();
+        // The frames not requested yet are still delivered before the completion.
+        assertEquals(List.of("onSubscribe"), subscriber.events);
+        assertEquals(1, publisher.getSubscriptions().size());
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of("onSubscribe", "onNext 10", "onNext 20"), subscriber.events);
+        subscriber.subscription.request(1);
+        assertEquals(List.of("onSubscribe", "onNext 10", "onNext 20", "onNext 30", "onComplete"), subscriber.events);
+        assertTrue(publisher.getSubscriptions().isEmpty());
+
+        // Nothing is published after the completion.
+        publisher.submit(frame(40));
+        assertEquals(5, subscriber.events.size());
+    }
+
+    @Test
+    void completesAfterTheFrameBeingDelivered() throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        FramePublisher publisher = new FramePublisher(executor);
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        subscriber.onNextHook = (recording, frame) -> {
+            delivering.countDown();
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        publisher.submit(frame(10));
+        publisher.submit(frame(20));
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        publisher.close();
+        closed.countDown();
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("onSubscribe", "onNext 10", "onNext 20", "onComplete"), subscriber.events);
+        executor.shutdown();
+    }
+
+    @Test
+    void completesASubscriberThatSubscribesAfterTheClose() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        publisher.close();
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        assertEquals(List.of("onSubscribe", "onComplete"), subscriber.events);
+        assertTrue(publisher.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void cancelsASubscriberThatFails() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        subscriber.onNextHook = (recording, frame) -> {
+            throw new IllegalStateException("Broken subscriber.");
+        };
+        FrameSubscription subscription = publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        publisher.submit(frame(10));
+        publisher.submit(frame(20));
+        assertEquals(List.of("onNext 10"), subscriber.frames());
+        assertEquals(1, subscription.getPublishedCount());
+        assertTrue(publisher.getSubscriptions().isEmpty());
+    }
+
+    @Test
+    void rejectsANonPositiveRequest() {
+        FramePublisher publisher = new FramePublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber, 8, OverflowPolicy.DROP_OLDEST);
+        publisher.submit(frame(10));
+        subscriber.subscription.request(0);
+        assertEquals(2, subscriber.events.size());
+        assertTrue(subscriber.events.get(1).startsWith("onError"));
+        assertTrue(publisher.getSubscriptions().isEmpty());
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state) {
+            assertTrue(System.nanoTime() < deadline, thread + " is " + thread.getState() + ", not " + state);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+}
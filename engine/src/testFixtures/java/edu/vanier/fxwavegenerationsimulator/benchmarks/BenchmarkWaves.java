@@ -0,0 +1,31 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The wave sets shared by the benchmarks (and tests) of all modules, so they all work on the same (reproducible) data.
+ */
+public final class BenchmarkWaves {
+    private BenchmarkWaves() {
+    }
+
+    /**
+     * Create a reproducible wave set, alternating SIN and COS waves with distinct frequencies
+     * (10 Hz apart, like the presets) and decreasing amplitudes.
+     * @param waveCount the number of waves
+     * @return the list of waves, sorted by frequency
+     */
+    public static List<Wave> create(int waveCount) {
+        List<Wave> waves = new ArrayList<>(waveCount);
+        for (int i = 0; i < waveCount; i++) {
+            WaveTypes waveType = i % 2 == 0 ? WaveTypes.SIN : WaveTypes.COS;
+            waves.add(new Wave(waveType, 10 * (i + 1), 1.0 / (i + 1), new Color(i % 256, 128, 255 - i % 256)));
+        }
+        return waves;
+    }
+}
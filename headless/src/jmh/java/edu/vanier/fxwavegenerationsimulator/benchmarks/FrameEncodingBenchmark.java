@@ -0,0 +1,66 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.server.FrameStreamServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the encoding of a frame by the streaming server (FrameStreamServer.onNext, a full frame and a delta),
+ * without any client, so only the encoding done once per frame for all the clients is measured.
+ * A moving simulation changes every sample, so no delta is smaller than the full frame;
+ * a paused one sends the same frame again, and its delta is only the header and the bitmap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrameEncodingBenchmark {
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    @Param({"false", "true"})
+    public boolean paused;
+
+    private FrameStreamServer server;
+    private SimulationFrame[] frames;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        WaveSimulationController controller = new WaveSimulationController(500, sampleCount);
+        controller.addWaves(BenchmarkWaves.create(16));
+        // The server is not started, so it neither accepts clients nor subscribes to the controller.
+        server = new FrameStreamServer(controller, 0);
+        frames = new SimulationFrame[16];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = paused && i > 0 ? frames[0] : controller.step(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Encode the next frame.
+     */
+    @Benchmark
+    public long encode() {
+        server.onNext(frames[next]);
+        next = (next + 1) % frames.length;
+        return server.getEncodedBytes();
+    }
+}
@@ -0,0 +1,383 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import com.google.gson.JsonParseException;
+import edu.vanier.fxwavegenerationsimulator.controllers.BinaryDataController;
+import edu.vanier.fxwavegenerationsimulator.controllers.DatabaseController;
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DataFileNotFoundException;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DatabaseException;
+import edu.vanier.fxwavegenerationsimulator.host.HostReport;
+import edu.vanier.fxwavegenerationsimulator.host.SimulationHost;
+import edu.vanier.fxwavegenerationsimulator.io.WaveSimFormat;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+import edu.vanier.fxwavegenerationsimulator.recording.SessionRecorder;
+import edu.vanier.fxwavegenerationsimulator.server.FrameStreamServer;
+import edu.vanier.fxwavegenerationsimulator.shm.FrameRingExporter;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingFormat;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingWriter;
+import edu.vanier.fxwavegenerationsimulator.stream.FramePublisher;
+import edu.vanier.fxwavegenerationsimulator.stream.FrameSubscription;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The command line entry point of the headless batch simulation runner.
+ * It never touches JavaFX or the audio system, so it can run in CI containers and batch jobs.
+ * <pre>
+ * Usage: HeadlessMain [--input FILE [--simulation NAME]] [--wave TYPE:FREQUENCY:AMPLITUDE[:DUTY_CYCLE]]...
+ *                     [--start MS] [--end MS] [--step MS] [--length METERS] [--samples COUNT]
+ *                     [--sink none|csv|binary] [--output FILE]
+ *                     [--sessions COUNT [--duration MS] [--cpu-budget MICROS]] [--serve PORT] [--shm FILE]
+ *                     [--record DIRECTORY]
+ * </pre>
+ * The input can be a JSON export, a .wavesim file or a database (.db, together with the simulation name),
+ * and more waves can be given on the command line (e.g. --wave SIN:440:0.5).
+ * With --sessions, the waves are instead simulated in real time by many sessions of a SimulationHost,
+ * and the aggregate throughput is reported.
+ * With --serve, --shm and/or --record, the waves are simulated in real time until the process is stopped,
+ * and the frames are streamed to clients on localhost (see FrameStreamServer), exported to a shared-memory ring file
+ * (see SharedRingFormat) and/or recorded for replay (see RecordingFormat).
+ *
+ * @author Qian Qian
+ */
+public class HeadlessMain {
+    private static final String USAGE = """
+            Usage: HeadlessMain [--input FILE [--simulation NAME]] [--wave TYPE:FREQUENCY:AMPLITUDE[:DUTY_CYCLE]]...
+                                [--start MS] [--end MS] [--step MS] [--length METERS] [--samples COUNT]
+                                [--sink none|csv|binary] [--output FILE]
+                                [--sessions COUNT [--duration MS] [--cpu-budget MICROS]] [--serve PORT] [--shm FILE]
+                                [--record DIRECTORY]
+              --input       a JSON export, a .wavesim file or a .db database to read the waves from
+              --simulation  the name of the simulation to read from the database
+              --wave        a wave to simulate, e.g. SIN:440:0.5 (can be repeated), the types being
+                            SIN, COS, SQUARE, SAW, TRIANGLE and PULSE (with a duty cycle, e.g. PULSE:440:0.5:0.25)
+              --start       the simulated time of the first frame in milliseconds (default 0)
+              --end         the simulated time of the last frame in milliseconds (default 10000)
+              --step        the simulated time between frames in milliseconds (default %d)
+              --length      the length of the simulated wave in meters (default 500)
+              --samples     the number of samples in each frame (default %d)
+              --sink        where the frames go: none (default), csv or binary
+              --output      the file the csv or binary frames are written to
+              --sessions    run this many real-time sessions on a simulation host instead of one batch run
+              --duration    how long the sessions run in milliseconds (default 10000)
+              --cpu-budget  the time a tick of a session may take in microseconds (default %d)
+              --serve       simulate in real time and stream the frames on this localhost port (e.g. %d)
+              --shm         simulate in real time and export the frames to this shared-memory ring file
+                            (e.g. /dev/shm/fxwave-frames)
+              --record      simulate in real time and record the frames and the wave edits to this new directory
+            """.formatted(WaveSimulationController.DEFAULT_UPDATE_INTERVAL, WaveSimulationController.DEFAULT_SAMPLE_COUNT,
+            SimulationHost.DEFAULT_CPU_BUDGET_NANOS / 1000, FrameStreamServer.DEFAULT_PORT);
+
+    private HeadlessMain() {
+    }
+
+    /**
+     * Parse a wave given on the command line.
+     * @param value the wave in the form TYPE:FREQUENCY:AMPLITUDE[:DUTY_CYCLE] (e.g. SIN:440:0.5 or PULSE:440:0.5:0.25)
+     * @return the wave
+     */
+    static Wave parseWave(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Invalid wave " + value
+                    + ", expected TYPE:FREQUENCY:AMPLITUDE[:DUTY_CYCLE].");
+        }
+        WaveTypes waveType = WaveTypes.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        if (waveType == WaveTypes.DUMMY) {
+            throw new IllegalArgumentException("Invalid wave type " + parts[0] + ".");
+        }
+        double dutyCycle = parts.length == 4 ? Double.parseDouble(parts[3]) : Waveforms.DEFAULT_DUTY_CYCLE;
+        return new Wave(waveType, Integer.parseInt(parts[1]), Double.parseDouble(parts[2]), dutyCycle, new Color());
+    }
+
+    /**
+     * Read the waves from an input file.
+     * @param input the JSON, .wavesim or .db file
+     * @param simulationName the name of the simulation (only used for databases)
+     * @param waves the list the waves are added to
+     */
+    private static void readWaves(Path input, String simulationName, List<Wave> waves)
+            throws DataFileNotFoundException, IOException {
+        String fileName = input.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(WaveSimFormat.EXTENSION)) {
+            BinaryDataController.importWaveSimulation(input, waves::add);
+        } else if (fileName.endsWith(".db")) {
+            if (simulationName == null) {
+                throw new IllegalArgumentException("--simulation is required to read from a database.");
+            }
+            if (!Files.exists(input)) {
+                throw new DataFileNotFoundException(input.toString());
+            }
+            waves.addAll(new DatabaseController(input.toAbsolutePath().toString()).getWavesDB(simulationName));
+        } else {
+            JsonDataController.importWaveSimulation(input, waves::add);
+        }
+    }
+
+    /**
+     * Simulate the waves in real time in many sessions of a simulation host.
+     * @param waves the waves simulated by every session
+     * @param length the length of the simulated wave (in meters)
+     * @param samples the number of samples in each frame
+     * @param sessionCount the number of sessions
+     * @param tickInterval the time between two ticks (in milliseconds)
+     * @param cpuBudgetNanos the time a tick of a session may take (in nanoseconds)
+     * @param duration how long the sessions run (in milliseconds)
+     * @return the aggregate throughput of the host
+     */
+    private static HostReport runSessions(List<Wave> waves, double length, int samples, int sessionCount,
+                                          int tickInterval, long cpuBudgetNanos, int duration) {
+        try (SimulationHost host = new SimulationHost(tickInterval, cpuBudgetNanos)) {
+            for (int i = 0; i < sessionCount; i++) {
+                host.openSession(waves, length, samples).start();
+            }
+            Thread.sleep(duration);
+            return host.report();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the sessions were running.", e);
+        }
+    }
+
+    /**
+     * Simulate the waves in real time, streaming the frames to clients, exporting them to a shared-memory ring
+     * and/or recording them, and print the statistics every 10 seconds, until the JVM is stopped (e.g. with Ctrl+C).
+     * @param waves the initial waves (stream clients can replace them)
+     * @param length the length of the simulated wave (in meters)
+     * @param samples the number of samples in each frame
+     * @param port the localhost port to stream the frames on (or -1)
+     * @param ringPath the shared-memory ring file to export the frames to (or null)
+     * @param recordingPath the directory to record the session to (or null)
+     */
+    private static void runLive(List<Wave> waves, double length, int samples, int port, Path ringPath,
+                                Path recordingPath) throws IOException {
+        WaveSimulationController controller = new WaveSimulationController(length, samples);
+        controller.addWaves(waves);
+        FrameStreamServer server = null;
+        SharedRingWriter ringWriter = null;
+        SessionRecorder recorder = null;
+        try {
+            if (port >= 0) {
+                server = new FrameStreamServer(controller, port);
+                server.start();
+                System.out.println("Streaming " + waves.size() + " waves on " + server.getAddress());
+            }
+            if (ringPath != null) {
+                ringWriter = new SharedRingWriter(ringPath, SharedRingFormat.KIND_FRAME,
+                        FrameRingExporter.DEFAULT_SLOT_COUNT, samples, 0);
+                controller.getFramePublisher().subscribe(new FrameRingExporter(ringWriter),
+                        FramePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST);
+                System.out.println("Exporting " + waves.size() + " waves to " + ringPath);
+            }
+            if (recordingPath != null) {
+                recorder = new SessionRecorder(recordingPath);
+                // The recorder never blocks, so the subscription only needs to absorb the scheduling jitter.
+                controller.getFramePublisher().subscribe(recorder, FramePublisher.DEFAULT_BUFFER_SIZE,
+                        OverflowPolicy.DROP_OLDEST);
+                System.out.println("Recording " + waves.size() + " waves to " + recordingPath);
+            }
+            // The loop below only ends when the JVM is stopped, which does not run the finally block,
+            // so a shutdown hook stops the simulation and closes the outputs (writing the rest of the recording).
+            FrameStreamServer liveServer = server;
+            SharedRingWriter liveRingWriter = ringWriter;
+            SessionRecorder liveRecorder = recorder;
+            Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().name("headless-shutdown").unstarted(() -> {
+                try {
+                    stopLive(controller, liveServer, liveRingWriter, liveRecorder);
+                } catch (IOException e) {
+                    System.err.println("Error closing the outputs: " + e.getMessage());
+                }
+            }));
+            controller.start();
+            while (true) {
+                Thread.sleep(10_000);
+                if (server != null) {
+                    System.out.printf("%d clients, %d frames encoded (%.1f MB), %d frames skipped by slow clients%n",
+                            server.getClientCount(), server.getEncodedFrameCount(), server.getEncodedBytes() / 1e6,
+                            server.getSkippedFrameCount());
+                }
+                for (FrameSubscription subscription : controller.getFramePublisher().getSubscriptions()) {
+                    System.out.println(subscription);
+                }
+                if (recorder != null) {
+                    System.out.println(recorder);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopLive(controller, server, ringWriter, recorder);
+        }
+    }
+
+    /**
+     * Stop a live simulation and close its outputs (closing them again does nothing).
+     * @param controller the simulation
+     * @param server the stream server (or null)
+     * @param ringWriter the shared-memory ring (or null)
+     * @param recorder the recorder (or null)
+     * @throws IOException if the recording failed
+     */
+    private static void stopLive(WaveSimulationController controller, FrameStreamServer server,
+                                 SharedRingWriter ringWriter, SessionRecorder recorder) throws IOException {
+        controller.pause();
+        if (server != null) {
+            server.close();
+        }
+        if (ringWriter != null) {
+            ringWriter.close();
+        }
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    /**
+     * The options given on the command line.
+     */
+    static final class Options {
+        boolean help;
+        Path input;
+        String simulationName;
+        final List<Wave> waves = new ArrayList<>();
+        int start = 0;
+        int end = 10_000;
+        int step = WaveSimulationController.DEFAULT_UPDATE_INTERVAL;
+        double length = 500;
+        int samples = WaveSimulationController.DEFAULT_SAMPLE_COUNT;
+        String sinkName = "none";
+        Path output;
+        int sessionCount = 0;
+        int duration = 10_000;
+        long cpuBudgetNanos = SimulationHost.DEFAULT_CPU_BUDGET_NANOS;
+        int servePort = -1;
+        Path ringPath;
+        Path recordingPath;
+
+        /**
+         * Parse the command line arguments.
+         * @param args the arguments
+         * @return the options (with help set if the usage was asked for)
+         * @throws IllegalArgumentException if an option is unknown, misses its value or has an invalid value
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--help") || option.equals("-h")) {
+                    options.help = true;
+                    return options;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option + ".");
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--input" -> options.input = Path.of(value);
+                    case "--simulation" -> options.simulationName = value;
+                    case "--wave" -> options.waves.add(parseWave(value));
+                    case "--start" -> options.start = Integer.parseInt(value);
+                    case "--end" -> options.end = Integer.parseInt(value);
+                    case "--step" -> options.step = Integer.parseInt(value);
+                    case "--length" -> options.length = Double.parseDouble(value);
+                    case "--samples" -> options.samples = Integer.parseInt(value);
+                    case "--sink" -> options.sinkName = value.toLowerCase(Locale.ROOT);
+                    case "--output" -> options.output = Path.of(value);
+                    case "--sessions" -> options.sessionCount = Integer.parseInt(value);
+                    case "--duration" -> options.duration = Integer.parseInt(value);
+                    case "--cpu-budget" -> options.cpuBudgetNanos = Long.parseLong(value) * 1000;
+                    case "--serve" -> options.servePort = Integer.parseInt(value);
+                    case "--shm" -> options.ringPath = Path.of(value);
+                    case "--record" -> options.recordingPath = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + option + ".");
+                }
+            }
+            if (!options.sinkName.equals("none") && options.output == null) {
+                throw new IllegalArgumentException("--output is required for the " + options.sinkName + " sink.");
+            }
+            // Check the sink name now, so a typo is reported with the usage.
+            options.createSink();
+            return options;
+        }
+
+        /**
+         * Create the sink the batch frames are written to (the file is only created when the sink is opened).
+         * @return the sink
+         */
+        FrameSink createSink() {
+            return switch (sinkName) {
+                case "none" -> new NoOpFrameSink();
+                case "csv" -> new CsvFrameSink(output);
+                case "binary" -> new BinaryFrameSink(output);
+                default -> throw new IllegalArgumentException("Unknown sink " + sinkName + ".");
+            };
+        }
+
+        /**
+         * Check whether the waves are simulated in real time until the process is stopped.
+         * @return true if the frames are streamed, exported to a shared-memory ring or recorded
+         */
+        boolean isLive() {
+            return servePort >= 0 || ringPath != null || recordingPath != null;
+        }
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help) {
+            System.out.print(USAGE);
+            return;
+        }
+        List<Wave> waves = options.waves;
+
+        try {
+            if (options.input != null) {
+                readWaves(options.input, options.simulationName, waves);
+            }
+            if (waves.isEmpty()) {
+                throw new IllegalArgumentException("No waves to simulate, use --input or --wave.");
+            }
+            if (options.isLive()) {
+                runLive(waves, options.length, options.samples, options.servePort, options.ringPath,
+                        options.recordingPath);
+                return;
+            }
+            if (options.sessionCount > 0) {
+                HostReport report = runSessions(waves, options.length, options.samples, options.sessionCount,
+                        options.step, options.cpuBudgetNanos, options.duration);
+                System.out.println(waves.size() + " waves, " + options.samples + " samples per frame: " + report);
+                return;
+            }
+            BatchSimulationRunner runner = new BatchSimulationRunner(waves, options.length, options.samples);
+            BatchReport report = runner.run(options.start, options.end, options.step, options.createSink());
+            System.out.println(waves.size() + " waves, " + options.samples + " samples per frame: " + report);
+        } catch (IllegalArgumentException | JsonParseException | DataFileNotFoundException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (DatabaseException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
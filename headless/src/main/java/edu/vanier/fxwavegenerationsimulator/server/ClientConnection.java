@@ -0,0 +1,183 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The connection of one client to the FrameStreamServer.
+ * It has a virtual thread writing to the client and one reading from it. The writer only keeps the latest frame,
+ * so a slow client skips frames (and falls back to full frames) instead of slowing down the other clients.
+ *
+ * @author Qian Qian
+ */
+class ClientConnection {
+    private final static Logger logger = LoggerFactory.getLogger(ClientConnection.class);
+
+    private final FrameStreamServer server;
+    private final SocketChannel channel;
+    private final long id;
+
+    /**
+     * The latest frame not sent yet.
+     */
+    private final AtomicReference<EncodedFrame> pendingFrame = new AtomicReference<>();
+
+    /**
+     * The messages to send before the next frame (e.g. HELLO and WAVES).
+     */
+    private final Queue<ByteBuffer> pendingMessages = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean deltaEnabled;
+    private volatile boolean closed;
+    private volatile long skippedFrameCount;
+
+    /**
+     * The writer thread, unparked by offer, send and close from the other threads (null until start).
+     */
+    private volatile Thread writer;
+
+    /**
+     * The sequence number of the last frame sent (only accessed by the writer).
+     */
+    private long lastSentSequence = -1;
+
+    ClientConnection(FrameStreamServer server, SocketChannel channel, long id) {
+        this.server = server;
+        this.channel = channel;
+        this.id = id;
+    }
+
+    /**
+     * Start the writer and the reader threads of the connection.
+     */
+    void start() {
+        // The writer is published before it starts, and checks the messages and the frame before it first parks:
+        // what was sent before (while unpark had no thread to wake up) is written right away.
+        Thread thread = Thread.ofVirtual().name("stream-writer-" + id).unstarted(this::writeLoop);
+        writer = thread;
+        thread.start();
+        Thread.ofVirtual().name("stream-reader-" + id).start(this::readLoop);
+    }
+
+    /**
+     * Send a frame to the client, replacing the previous one if it has not been sent yet.
+     * @param frame the frame
+     */
+    void offer(EncodedFrame frame) {
+        if (pendingFrame.getAndSet(frame) != null) {
+            skippedFrameCount++;
+        }
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Send a message to the client before the next frame.
+     * @param message the message (not modified, a duplicate is written)
+     */
+    void send(ByteBuffer message) {
+        pendingMessages.add(message);
+        LockSupport.unpark(writer);
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed) {
+                ByteBuffer message;
+                while ((message = pendingMessages.poll()) != null) {
+                    write(message);
+                }
+                EncodedFrame frame = pendingFrame.getAndSet(null);
+                if (frame == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                boolean useDelta = deltaEnabled && frame.delta() != null && frame.sequence() == lastSentSequence + 1;
+                write(useDelta ? frame.delta() : frame.full());
+                lastSentSequence = frame.sequence();
+            }
+        } catch (IOException e) {
+            logger.debug("Stream client {} disconnected: {}", id, e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void write(ByteBuffer message) throws IOException {
+        ByteBuffer buffer = message.duplicate();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void readLoop() {
+        ByteBuffer header = ByteBuffer.allocate(StreamProtocol.MESSAGE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (!closed) {
+                header.clear();
+                readFully(header);
+                header.flip();
+                int length = header.getInt();
+                byte type = header.get();
+                if (length < 1 || length > StreamProtocol.MAX_CLIENT_MESSAGE_SIZE) {
+                    throw new IOException("Invalid message length " + length + ".");
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length - 1).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(payload);
+                payload.flip();
+                switch (type) {
+                    case StreamProtocol.SUBSCRIBE ->
+                            deltaEnabled = payload.hasRemaining() && (payload.get() & StreamProtocol.FLAG_DELTA) != 0;
+                    case StreamProtocol.SET_WAVES ->
+                            server.replaceWaves(StandardCharsets.UTF_8.decode(payload).toString(), id);
+                    default -> logger.warn("Stream client {} sent an unknown message type {}.", id, type);
+                }
+            }
+        } catch (EOFException e) {
+            logger.debug("Stream client {} closed the connection.", id);
+        } catch (IOException e) {
+            logger.debug("Stream client {} disconnected: {}", id, e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    /**
+     * Close the connection and remove it from the server.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Error closing stream client {}: {}", id, e.getMessage());
+        }
+        server.remove(this);
+        LockSupport.unpark(writer);
+    }
+
+    long getSkippedFrameCount() {
+        return skippedFrameCount;
+    }
+}
@@ -0,0 +1,16 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A frame encoded once by the server and shared by all the clients (each client writes a duplicate of the buffers).
+ *
+ * @param sequence the sequence number of the frame
+ * @param full the read-only FRAME message
+ * @param delta the read-only DELTA_FRAME message against the previous frame,
+ *              or null if there is no previous frame or the delta would not be smaller
+ *
+ * @author Qian Qian
+ */
+record EncodedFrame(long sequence, ByteBuffer full, ByteBuffer delta) {
+}
@@ -0,0 +1,313 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import com.google.gson.JsonParseException;
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the frames of a running simulation to any number of clients on localhost, without JavaFX
+ * (see {@link StreamProtocol} for the protocol).
+ * The server subscribes to the frames of the WaveSimulationController and encodes every frame once
+ * (as a full frame and as a delta against the previous frame), and all the clients send the same read-only buffers.
+ * Every client is served by two virtual threads, so thousands of viewers do not need thousands of platform threads.
+ * Clients can also replace the waves of the simulation on the same connection.
+ *
+ * @author Qian Qian
+ */
+public class FrameStreamServer implements Flow.Subscriber<SimulationFrame>, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(FrameStreamServer.class);
+
+    /**
+     * The default TCP port of the server.
+     */
+    public static final int DEFAULT_PORT = 7640;
+
+    private final WaveSimulationController controller;
+    private final ServerSocketChannel serverChannel;
+    private final Set<ClientConnection> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextClientId = new AtomicLong();
+    private final ByteBuffer helloMessage;
+    private volatile ByteBuffer wavesMessage;
+
+    /**
+     * Held to replace the waves and send them to the clients, and to add a client with the current waves,
+     * so every client gets the waves in the order they were replaced, ending with the latest.
+     */
+    private final Object wavesLock = new Object();
+    private volatile boolean closed;
+    private Flow.Subscription subscription;
+
+    // Only accessed by the encoder (the frame delivery task).
+    private float[] previousRow;
+    private long sequence;
+
+    private volatile long encodedFrameCount;
+    private volatile long encodedBytes;
+
+    /**
+     * Instantiate a server listening on localhost.
+     * @param controller the controller of the simulation to stream
+     * @param port the TCP port (0 for any free port)
+     * @throws IOException if the port cannot be bound
+     */
+    public FrameStreamServer(WaveSimulationController controller, int port) throws IOException {
+        this.controller = controller;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+
+        helloMessage = StreamProtocol.allocateMessage(StreamProtocol.HELLO, StreamProtocol.MAGIC.length + 4);
+        helloMessage.put(StreamProtocol.MAGIC);
+        helloMessage.putInt(StreamProtocol.VERSION);
+        helloMessage.flip();
+        wavesMessage = encodeWaves();
+    }
+
+    /**
+     * Start accepting clients and streaming the frames of the controller.
+     */
+    public void start() {
+        controller.getFramePublisher().subscribe(this, 1, OverflowPolicy.LATEST_ONLY);
+        Thread.ofVirtual().name("stream-acceptor").start(this::acceptLoop);
+        logger.info("Streaming frames on {}", getAddress());
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                ClientConnection client = new ClientConnection(this, channel, nextClientId.incrementAndGet());
+                client.send(helloMessage);
+                synchronized (wavesLock) {
+                    clients.add(client);
+                    client.send(wavesMessage);
+                }
+                client.start();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("Error accepting a stream client: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    /**
+     * Encode the frame once and hand it to every client.
+     * @param frame the new frame
+     */
+    @Override
+    public void onNext(SimulationFrame frame) {
+        double[] combined = null;
+        for (Map.Entry<Wave, double[]> entry : frame.dataPoints().entrySet()) {
+            if (entry.getKey().getWaveType() == WaveTypes.DUMMY) {
+                combined = entry.getValue();
+                break;
+            }
+        }
+        if (combined == null) {
+            return;
+        }
+        float[] row = new float[combined.length];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = (float) combined[i];
+        }
+        long timestamp = StreamProtocol.nowMicros();
+        sequence++;
+
+        ByteBuffer full = StreamProtocol.allocateMessage(StreamProtocol.FRAME,
+                StreamProtocol.FRAME_HEADER_SIZE + row.length * Float.BYTES);
+        putFrameHeader(full, frame, timestamp, row.length);
+        for (float value : row) {
+            full.putFloat(value);
+        }
+        full.flip();
+        ByteBuffer delta = encodeDelta(row, frame, timestamp, full.remaining());
+        previousRow = row;
+
+        EncodedFrame encoded = new EncodedFrame(sequence, full.asReadOnlyBuffer(),
+                delta == null ? null : delta.asReadOnlyBuffer());
+        encodedFrameCount++;
+        encodedBytes += full.remaining() + (delta == null ? 0 : delta.remaining());
+        for (ClientConnection client : clients) {
+            client.offer(encoded);
+        }
+    }
+
+    /**
+     * Encode the changes of a row since the previous row.
+     * @return the DELTA_FRAME message, or null if there is no previous row or it would not be smaller than the full frame
+     */
+    private ByteBuffer encodeDelta(float[] row, SimulationFrame frame, long timestamp, int fullSize) {
+        if (previousRow == null || previousRow.length != row.length) {
+            return null;
+        }
+        byte[] bitmap = new byte[(row.length + 7) / 8];
+        int changed = 0;
+        for (int i = 0; i < row.length; i++) {
+            if (Float.floatToRawIntBits(row[i]) != Float.floatToRawIntBits(previousRow[i])) {
+                bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                changed++;
+            }
+        }
+        int payloadSize = StreamProtocol.FRAME_HEADER_SIZE + bitmap.length + changed * Float.BYTES;
+        if (StreamProtocol.MESSAGE_HEADER_SIZE + payloadSize >= fullSize) {
+            return null;
+        }
+        ByteBuffer delta = StreamProtocol.allocateMessage(StreamProtocol.DELTA_FRAME, payloadSize);
+        putFrameHeader(delta, frame, timestamp, row.length);
+        delta.put(bitmap);
+        for (int i = 0; i < row.length; i++) {
+            if ((bitmap[i >>> 3] & (1 << (i & 7))) != 0) {
+                delta.putFloat(row[i]);
+            }
+        }
+        return delta.flip();
+    }
+
+    private void putFrameHeader(ByteBuffer buffer, SimulationFrame frame, long timestamp, int sampleCount) {
+        buffer.putLong(sequence);
+        buffer.putInt(frame.milliseconds());
+        buffer.putLong(timestamp);
+        buffer.putInt(sampleCount);
+        buffer.putInt(frame.envelope() ? StreamProtocol.FLAG_ENVELOPE : 0);
+        buffer.putDouble(frame.viewport().start());
+        buffer.putDouble(frame.viewport().end());
+    }
+
+    private ByteBuffer encodeWaves() {
+        byte[] json = JsonDataController.exportWaveSimulation(controller).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer message = StreamProtocol.allocateMessage(StreamProtocol.WAVES, json.length);
+        message.put(json);
+        return message.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Replace the waves of the simulation with the waves sent by a client, and send them to every client.
+     * @param json the waves, as a JSON array
+     * @param clientId the client that sent them (for logging)
+     */
+    void replaceWaves(String json, long clientId) {
+        List<Wave> waves;
+        try {
+            waves = JsonDataController.importWaveSimulation(json);
+        } catch (JsonParseException | IllegalArgumentException e) {
+            logger.warn("Stream client {} sent invalid waves: {}", clientId, e.getMessage());
+            return;
+        }
+        if (waves == null || waves.contains(null)) {
+            logger.warn("Stream client {} sent invalid waves: {}", clientId, json);
+            return;
+        }
+        synchronized (wavesLock) {
+            controller.replaceWaves(waves);
+            wavesMessage = encodeWaves();
+            for (ClientConnection client : clients) {
+                client.send(wavesMessage);
+            }
+        }
+        logger.info("Stream client {} replaced the waves ({} waves)", clientId, waves.size());
+    }
+
+    void remove(ClientConnection client) {
+        clients.remove(client);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        logger.error("Frame stream failed: {}", throwable.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        close();
+    }
+
+    /**
+     * Get the address the server listens on.
+     * @return the local address
+     */
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public long getEncodedFrameCount() {
+        return encodedFrameCount;
+    }
+
+    /**
+     * Get the number of bytes encoded since the server started (full and delta frames, each encoded once for all clients).
+     * @return the number of bytes
+     */
+    public long getEncodedBytes() {
+        return encodedBytes;
+    }
+
+    /**
+     * Get the number of frames skipped by the connected clients because they were too slow.
+     * @return the number of skipped frames
+     */
+    public long getSkippedFrameCount() {
+        long skipped = 0;
+        for (ClientConnection client : clients) {
+            skipped += client.getSkippedFrameCount();
+        }
+        return skipped;
+    }
+
+    /**
+     * Stop streaming and disconnect every client.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.error("Error closing the stream server: {}", e.getMessage());
+        }
+        for (ClientConnection client : List.copyOf(clients)) {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import edu.vanier.fxwavegenerationsimulator.metrics.LatencyHistogram;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A load-test client of the FrameStreamServer: it connects many viewers at once (each on a virtual thread),
+ * decodes every frame they receive (applying the deltas) and reports the aggregate throughput and latency.
+ * <pre>
+ * Usage: StreamLoadTestClient [--port PORT] [--clients COUNT] [--duration MS] [--delta true|false]
+ * </pre>
+ *
+ * @author Qian Qian
+ */
+public class StreamLoadTestClient {
+    private final InetSocketAddress address;
+    private final boolean delta;
+    private final LongAdder frameCount = new LongAdder();
+    private final LongAdder deltaFrameCount = new LongAdder();
+    private final LongAdder byteCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram("StreamLatency");
+    private volatile boolean running = true;
+
+    /**
+     * Instantiate a load-test client.
+     * @param address the address of the server
+     * @param delta whether the viewers ask for delta frames
+     */
+    public StreamLoadTestClient(InetSocketAddress address, boolean delta) {
+        this.address = address;
+        this.delta = delta;
+    }
+
+    /**
+     * Run one viewer until the test is over.
+     */
+    private void view() {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            ByteBuffer subscribe = StreamProtocol.allocateMessage(StreamProtocol.SUBSCRIBE, 1);
+            subscribe.put((byte) (delta ? StreamProtocol.FLAG_DELTA : 0)).flip();
+            while (subscribe.hasRemaining()) {
+                channel.write(subscribe);
+            }
+            ByteBuffer header = ByteBuffer.allocate(StreamProtocol.MESSAGE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer payload = ByteBuffer.allocate(0);
+            float[] row = new float[0];
+            while (running) {
+                header.clear();
+                readFully(channel, header);
+                header.flip();
+                int length = header.getInt();
+                byte type = header.get();
+                if (payload.capacity() < length - 1) {
+                    payload = ByteBuffer.allocate(length - 1).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                payload.clear().limit(length - 1);
+                readFully(channel, payload);
+                payload.flip();
+                byteCount.add(StreamProtocol.MESSAGE_HEADER_SIZE + length - 1);
+                switch (type) {
+                    case StreamProtocol.HELLO -> {
+                        int version = payload.getInt(StreamProtocol.MAGIC.length);
+                        if (version != StreamProtocol.VERSION) {
+                            throw new IOException("Unsupported stream protocol version " + version + ".");
+                        }
+                    }
+                    case StreamProtocol.FRAME, StreamProtocol.DELTA_FRAME -> {
+                        long timestamp = payload.getLong(12);
+                        row = decodeFrame(type, payload, row);
+                        if (type == StreamProtocol.DELTA_FRAME) {
+                            deltaFrameCount.increment();
+                        }
+                        recordFrame(timestamp);
+                    }
+                    default -> {
+                        // WAVES and future messages are not needed by the load test.
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                errorCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Decode the samples of a FRAME, or apply a DELTA_FRAME to the samples of the previous frame
+     * (the other fields of the frame header are read at their offsets by the caller when needed).
+     * @param type the message type, FRAME or DELTA_FRAME
+     * @param payload the payload of the message
+     * @param row the samples of the previous frame (updated in place by a delta)
+     * @return the samples of the frame (a new array if a full frame has another sample count)
+     * @throws IOException if a delta frame does not have the sample count of the previous frame
+     */
+    static float[] decodeFrame(byte type, ByteBuffer payload, float[] row) throws IOException {
+        int sampleCount = payload.getInt(20);
+        payload.position(StreamProtocol.FRAME_HEADER_SIZE);
+        if (type == StreamProtocol.FRAME) {
+            if (row.length != sampleCount) {
+                row = new float[sampleCount];
+            }
+            payload.asFloatBuffer().get(row);
+            return row;
+        }
+        if (sampleCount != row.length) {
+            throw new IOException("A delta frame does not have the sample count of the previous frame.");
+        }
+        int bitmapOffset = payload.position();
+        payload.position(bitmapOffset + (row.length + 7) / 8);
+        for (int i = 0; i < row.length; i++) {
+            if ((payload.get(bitmapOffset + (i >>> 3)) & (1 << (i & 7))) != 0) {
+                row[i] = payload.getFloat();
+            }
+        }
+        return row;
+    }
+
+    private void recordFrame(long timestamp) {
+        frameCount.increment();
+        latency.record((StreamProtocol.nowMicros() - timestamp) * 1000);
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    /**
+     * Connect the viewers, let them watch for a while and report.
+     * @param clientCount the number of viewers
+     * @param duration how long they watch (in milliseconds)
+     * @return the report
+     */
+    public String run(int clientCount, int duration) throws InterruptedException {
+        List<Thread> viewers = new ArrayList<>(clientCount);
+        for (int i = 0; i < clientCount; i++) {
+            viewers.add(Thread.ofVirtual().name("stream-viewer-" + i).start(this::view));
+        }
+        long start = System.nanoTime();
+        Thread.sleep(duration);
+        running = false;
+        long elapsed = System.nanoTime() - start;
+        long frames = frameCount.sum();
+        long bytes = byteCount.sum();
+        for (Thread viewer : viewers) {
+            viewer.interrupt();
+        }
+        return String.format("%d viewers, %d errors: %d frames (%d deltas) in %.3f s, %.1f frames/s, %.2f MB/s, latency p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                clientCount, errorCount.sum(), frames, deltaFrameCount.sum(), elapsed / 1e9, frames * 1e9 / elapsed,
+                bytes * 1e3 / elapsed, latency.getP50Micros() / 1000, latency.getP99Micros() / 1000,
+                latency.getMaxMicros() / 1000);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = FrameStreamServer.DEFAULT_PORT;
+        int clientCount = 100;
+        int duration = 10_000;
+        boolean delta = true;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--clients" -> clientCount = Integer.parseInt(args[i + 1]);
+                case "--duration" -> duration = Integer.parseInt(args[i + 1]);
+                case "--delta" -> delta = Boolean.parseBoolean(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option " + args[i] + ".");
+                    System.exit(2);
+                }
+            }
+        }
+        StreamLoadTestClient client = new StreamLoadTestClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), delta);
+        System.out.println(client.run(clientCount, duration));
+        System.exit(0);
+    }
+}
@@ -0,0 +1,108 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The constants and helpers of the frame streaming protocol, a length-prefixed binary protocol over TCP.
+ * All numbers are little-endian. Every message is:
+ * <pre>
+ * offset  type     field
+ *   0     int32    length of the rest of the message (type and payload, in bytes)
+ *   4     uint8    message type
+ *   5     ...      payload
+ * </pre>
+ * Messages sent by the server:
+ * <pre>
+ * HELLO (1)        4 bytes "WSTR", int32 version
+ * FRAME (2)        frame header, then float32[sample count] the combined wave
+ * DELTA_FRAME (3)  frame header, then a bitmap of ceil(sample count / 8) bytes (bit i of byte i / 8 set if sample i
+ *                  changed since the previous frame), then a float32 for each changed sample;
+ *                  only sent to a client that subscribed to deltas and received the previous frame (sequence - 1),
+ *                  which had the same sample count
+ * WAVES (4)        the waves of the simulation, as a UTF-8 JSON array (the same format as the JSON export),
+ *                  sent after HELLO and whenever the waves change
+ * </pre>
+ * The frame header describes the frame, since its sampling changes with the viewport and the waves (see SamplingPlan):
+ * <pre>
+ *   0     int64    sequence number
+ *   8     int32    simulated time (in milliseconds)
+ *   12    int64    time the frame was encoded (in microseconds since the epoch, to measure the latency
+ *                  on the same machine)
+ *   20    int32    sample count
+ *   24    int32    flags (bit 0: the samples are the minimum then the maximum of each pixel, an envelope)
+ *   28    float64  first position of the viewport (in meters)
+ *   36    float64  end of the viewport, excluded (in meters)
+ * </pre>
+ * Version 1 sent the sample count and the total length once in HELLO, and its frame header stopped at the sample
+ * count; a client must check the version of HELLO.
+ * Messages sent by a client:
+ * <pre>
+ * SUBSCRIBE (16)   uint8 flags (bit 0: send delta frames when possible)
+ * SET_WAVES (17)   the new waves of the simulation, as a UTF-8 JSON array
+ * </pre>
+ *
+ * @author Qian Qian
+ */
+public final class StreamProtocol {
+    public static final byte[] MAGIC = {'W', 'S', 'T', 'R'};
+    public static final int VERSION = 2;
+
+    public static final byte HELLO = 1;
+    public static final byte FRAME = 2;
+    public static final byte DELTA_FRAME = 3;
+    public static final byte WAVES = 4;
+    public static final byte SUBSCRIBE = 16;
+    public static final byte SET_WAVES = 17;
+
+    /**
+     * The SUBSCRIBE flag asking for delta frames.
+     */
+    public static final int FLAG_DELTA = 1;
+
+    /**
+     * The frame header flag of an envelope.
+     */
+    public static final int FLAG_ENVELOPE = 1;
+
+    /**
+     * The size of the length prefix and the message type (in bytes).
+     */
+    public static final int MESSAGE_HEADER_SIZE = 5;
+
+    /**
+     * The size of the header of FRAME and DELTA_FRAME messages (in bytes).
+     */
+    public static final int FRAME_HEADER_SIZE = 44;
+
+    /**
+     * The largest message a client may send (in bytes), so a broken client cannot make the server allocate too much.
+     */
+    public static final int MAX_CLIENT_MESSAGE_SIZE = 1 << 20;
+
+    private StreamProtocol() {
+    }
+
+    /**
+     * Allocate a message and write its length and type.
+     * @param type the message type
+     * @param payloadSize the size of the payload (in bytes)
+     * @return the little-endian buffer, positioned at the start of the payload
+     */
+    public static ByteBuffer allocateMessage(byte type, int payloadSize) {
+        ByteBuffer buffer = ByteBuffer.allocate(MESSAGE_HEADER_SIZE + payloadSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(1 + payloadSize);
+        buffer.put(type);
+        return buffer;
+    }
+
+    /**
+     * Get the current time in microseconds since the epoch, the clock of the frame timestamps.
+     * @return the current time (in microseconds)
+     */
+    public static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+}
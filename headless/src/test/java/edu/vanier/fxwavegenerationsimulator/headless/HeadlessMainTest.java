@@ -0,0 +1,106 @@
+package edu.vanier.fxwavegenerationsimulator.headless;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.host.SimulationHost;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the parsing of the command line of HeadlessMain: the defaults, every option, the waves
+ * and the errors reported with the usage.
+ *
+ * @author Qian Qian
+ */
+class HeadlessMainTest {
+    private static HeadlessMain.Options parse(String... args) {
+        return HeadlessMain.Options.parse(args);
+    }
+
+    @Test
+    void usesTheDefaultsWithoutOptions() {
+        HeadlessMain.Options options = parse();
+        assertFalse(options.help);
+        assertNull(options.input);
+        assertTrue(options.waves.isEmpty());
+        assertEquals(0, options.start);
+        assertEquals(10_000, options.end);
+        assertEquals(WaveSimulationController.DEFAULT_UPDATE_INTERVAL, options.step);
+        assertEquals(500, options.length);
+        assertEquals(WaveSimulationController.DEFAULT_SAMPLE_COUNT, options.samples);
+        assertInstanceOf(NoOpFrameSink.class, options.createSink());
+        assertEquals(0, options.sessionCount);
+        assertEquals(SimulationHost.DEFAULT_CPU_BUDGET_NANOS, options.cpuBudgetNanos);
+        assertFalse(options.isLive());
+    }
+
+    @Test
+    void parsesEveryOption() {
+        HeadlessMain.Options options = parse("--input", "waves.db", "--simulation", "Chord", "--start", "100",
+                "--end", "2000", "--step", "20", "--length", "12.5", "--samples", "64", "--sink", "CSV",
+                "--output", "frames.csv", "--sessions", "8", "--duration", "500", "--cpu-budget", "250",
+                "--serve", "7000", "--shm", "frames.ring", "--record", "session");
+        assertEquals(Path.of("waves.db"), options.input);
+        assertEquals("Chord", options.simulationName);
+        assertEquals(100, options.start);
+        assertEquals(2000, options.end);
+        assertEquals(20, options.step);
+        assertEquals(12.5, options.length);
+        assertEquals(64, options.samples);
+        assertInstanceOf(CsvFrameSink.class, options.createSink());
+        assertEquals(Path.of("frames.csv"), options.output);
+        assertEquals(8, options.sessionCount);
+        assertEquals(500, options.duration);
+        assertEquals(250_000, options.cpuBudgetNanos);
+        assertEquals(7000, options.servePort);
+        assertEquals(Path.of("frames.ring"), options.ringPath);
+        assertEquals(Path.of("session"), options.recordingPath);
+        assertTrue(options.isLive());
+    }
+
+    @Test
+    void parsesTheWaves() {
+        HeadlessMain.Options options = parse("--wave", "sin:440:0.5", "--wave", "PULSE:220:-1:0.25");
+        assertEquals(2, options.waves.size());
+        Wave sine = options.waves.get(0);
+        assertEquals(WaveTypes.SIN, sine.getWaveType());
+        assertEquals(440, sine.getFrequency());
+        assertEquals(0.5, sine.getAmplitude());
+        assertEquals(Waveforms.DEFAULT_DUTY_CYCLE, sine.getDutyCycle());
+        Wave pulse = options.waves.get(1);
+        assertEquals(WaveTypes.PULSE, pulse.getWaveType());
+        assertEquals(220, pulse.getFrequency());
+        assertEquals(-1, pulse.getAmplitude());
+        assertEquals(0.25, pulse.getDutyCycle());
+    }
+
+    @Test
+    void stopsAtTheHelp() {
+        assertTrue(parse("--help", "--unknown").help);
+        assertTrue(parse("--wave", "SIN:1:1", "-h").help);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> parse("--unknown", "1"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--end"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--end", "ten"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--sink", "csv"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--sink", "xml", "--output", "frames.xml"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--wave", "SIN:440"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--wave", "NOISE:440:1"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--wave", "DUMMY:440:1"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--wave", "SIN:440:2"));
+        assertThrows(IllegalArgumentException.class, () -> parse("--wave", "PULSE:440:1:1.5"));
+    }
+}
@@ -0,0 +1,239 @@
+package edu.vanier.fxwavegenerationsimulator.server;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the streaming server over a loopback connection: the delta frames decode back to the frames,
+ * the waves sent by a client (SET_WAVES) replace the waves of the simulation and are sent to every client,
+ * and a client connecting while the waves are replaced still ends with the latest waves.
+ *
+ * @author Qian Qian
+ */
+class FrameStreamServerTest {
+    private static final Wave COMBINED_WAVE = new Wave(WaveTypes.DUMMY, -1, 0, new Color(0, 0, 0));
+
+    private WaveSimulationController controller;
+    private FrameStreamServer server;
+
+    /**
+     * A client reading the messages of the server, failing instead of waiting forever.
+     */
+    private static final class TestClient implements AutoCloseable {
+        private record Message(byte type, ByteBuffer payload) {
+        }
+
+        private final SocketChannel channel;
+        private final InputStream input;
+
+        private TestClient(InetSocketAddress address, boolean delta) throws IOException {
+            channel = SocketChannel.open(address);
+            channel.socket().setSoTimeout(5_000);
+            input = channel.socket().getInputStream();
+            ByteBuffer subscribe = StreamProtocol.allocateMessage(StreamProtocol.SUBSCRIBE, 1);
+            send(subscribe.put((byte) (delta ? StreamProtocol.FLAG_DELTA : 0)));
+        }
+
+        private void send(ByteBuffer message) throws IOException {
+            message.flip();
+            while (message.hasRemaining()) {
+                channel.write(message);
+            }
+        }
+
+        private void sendWaves(String json) throws IOException {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            send(StreamProtocol.allocateMessage(StreamProtocol.SET_WAVES, bytes.length).put(bytes));
+        }
+
+        private Message read() throws IOException {
+            ByteBuffer header = ByteBuffer.wrap(input.readNBytes(StreamProtocol.MESSAGE_HEADER_SIZE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            int length = header.getInt();
+            byte type = header.get();
+            return new Message(type, ByteBuffer.wrap(input.readNBytes(length - 1)).order(ByteOrder.LITTLE_ENDIAN));
+        }
+
+        /**
+         * Read the messages up to the next one of a type.
+         */
+        private Message read(byte type) throws IOException {
+            Message message;
+            do {
+                message = read();
+            } while (message.type() != type);
+            return message;
+        }
+
+        /**
+         * Read the frequencies of the waves of the next WAVES message.
+         */
+        private List<Integer> readWaves() throws IOException {
+            String json = StandardCharsets.UTF_8.decode(read(StreamProtocol.WAVES).payload()).toString();
+            return frequencies(JsonDataController.importWaveSimulation(json));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static List<Integer> frequencies(List<Wave> waves) {
+        return waves.stream().map(Wave::getFrequency).toList();
+    }
+
+    private static List<Wave> waves(int... frequencies) {
+        List<Wave> waves = new ArrayList<>();
+        for (int frequency : frequencies) {
+            waves.add(new Wave(WaveTypes.SIN, frequency, 0.5));
+        }
+        return waves;
+    }
+
+    private static SimulationFrame frame(int milliseconds, float[] row) {
+        double[] combined = new double[row.length];
+        for (int i = 0; i < row.length; i++) {
+            combined[i] = row[i];
+        }
+        return new SimulationFrame(milliseconds, Map.of(COMBINED_WAVE, combined), List.of(),
+                new Viewport(0, 500, row.length), false, System.nanoTime());
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        controller = new WaveSimulationController(500, 64);
+        controller.addWaves(waves(3));
+        // The controller is not started: the tests send the frames to the server themselves.
+        server = new FrameStreamServer(controller, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void closeServer() {
+        server.close();
+    }
+
+    @Test
+    void decodesTheDeltaFramesBackToTheFrames() throws IOException {
+        try (TestClient client = new TestClient(server.getAddress(), true)) {
+            TestClient.Message hello = client.read(StreamProtocol.HELLO);
+            assertEquals(StreamProtocol.VERSION, hello.payload().getInt(StreamProtocol.MAGIC.length));
+            assertEquals(List.of(3), client.readWaves());
+
+            float[] row = new float[64];
+            float[] decoded = new float[0];
+            List<Byte> types = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                if (i == 5) {
+                    // Every sample changes: the delta would not be smaller than the full frame.
+                    Arrays.fill(row, i);
+                } else if (i == 7) {
+                    // Another sample count: there is no previous row to apply a delta to.
+                    row = Arrays.copyOf(row, 32);
+                } else {
+                    row[i] = i + 0.5f;
+                    row[row.length - 1 - i] = -i;
+                }
+                // One frame at a time, so the client never skips one and every frame can be a delta.
+                server.onNext(frame(10 * i, row));
+                TestClient.Message message = client.read();
+                types.add(message.type());
+                assertEquals(i + 1, message.payload().getLong(0));
+                assertEquals(10 * i, message.payload().getInt(8));
+                decoded = StreamLoadTestClient.decodeFrame(message.type(), message.payload(), decoded);
+                assertArrayEquals(row, decoded, "frame " + i);
+            }
+            // The first frames may be full if the SUBSCRIBE message was not read yet.
+            assertEquals(List.of(StreamProtocol.DELTA_FRAME, StreamProtocol.DELTA_FRAME, StreamProtocol.FRAME,
+                    StreamProtocol.DELTA_FRAME, StreamProtocol.FRAME), types.subList(3, 8));
+        }
+    }
+
+    @Test
+    void rejectsADeltaOfAnotherSampleCount() {
+        // The payload of a delta frame of 8 samples (its sample count is at offset 20 of the frame header).
+        ByteBuffer payload = ByteBuffer.allocate(StreamProtocol.FRAME_HEADER_SIZE + 1).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(20, 8);
+        assertThrows(IOException.class,
+                () -> StreamLoadTestClient.decodeFrame(StreamProtocol.DELTA_FRAME, payload, new float[4]));
+    }
+
+    @Test
+    void sendsTheWavesSetByAClientToEveryClient() throws IOException {
+        try (TestClient editor = new TestClient(server.getAddress(), false);
+             TestClient viewer = new TestClient(server.getAddress(), false)) {
+            assertEquals(List.of(3), editor.readWaves());
+            assertEquals(List.of(3), viewer.readWaves());
+
+            // Invalid waves are ignored, and not sent to the clients.
+            editor.sendWaves("not waves");
+            editor.sendWaves(JsonDataController.exportWaveSimulation(waves(5, 7)));
+            assertEquals(List.of(5, 7), editor.readWaves());
+            assertEquals(List.of(5, 7), viewer.readWaves());
+            assertEquals(List.of(5, 7), frequencies(controller.getWaves()));
+        }
+    }
+
+    @Test
+    void sendsTheLatestWavesToTheClientsConnectingWhileTheyAreReplaced() throws IOException, InterruptedException {
+        int changeCount = 200;
+        try (TestClient editor = new TestClient(server.getAddress(), false)) {
+            editor.readWaves();
+            Thread edits = Thread.ofPlatform().start(() -> {
+                try {
+                    for (int i = 1; i <= changeCount; i++) {
+                        editor.sendWaves(JsonDataController.exportWaveSimulation(waves(100 + i)));
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            List<TestClient> viewers = new ArrayList<>();
+            try {
+                for (int i = 0; i < 20; i++) {
+                    viewers.add(new TestClient(server.getAddress(), false));
+                }
+                edits.join();
+                // Every client gets the waves in the order they were replaced, ending with the latest.
+                for (TestClient viewer : viewers) {
+                    int previous = 0;
+                    while (previous != 100 + changeCount) {
+                        int frequency = viewer.readWaves().getFirst();
+                        assertTrue(frequency >= previous, frequency + " after " + previous);
+                        previous = frequency;
+                    }
+                }
+            } finally {
+                for (TestClient viewer : viewers) {
+                    viewer.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.DatabaseController;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks saving and loading a simulation through the DatabaseController, against a temporary SQLite file.
+ * The sample count does not apply to the stored data, so only the wave count is a parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseBenchmark {
+    @Param({"1", "16", "256"})
+    public int waveCount;
+
+    private Path directory;
+    private DatabaseController databaseController;
+    private List<Wave> waves;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("benchmark");
+        databaseController = new DatabaseController(directory.resolve("benchmark.db").toAbsolutePath().toString());
+        databaseController.initializeDatabase();
+        waves = BenchmarkWaves.create(waveCount);
+        databaseController.addWavesDB("Loaded", waves);
+    }
+
+    /**
+     * Remove the simulations saved during the iteration, so the table does not grow across iterations.
+     */
+    @Setup(Level.Iteration)
+    public void clearSaved() {
+        databaseController.clearWavesDB("Saved");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void save() {
+        databaseController.addWavesDB("Saved", waves);
+    }
+
+    /**
+     * Load the simulation from the database itself, bypassing the cache of the controller.
+     */
+    @Benchmark
+    public ArrayList<Wave> load() {
+        databaseController.getCache().invalidateAll();
+        return databaseController.getWavesDB("Loaded");
+    }
+
+    /**
+     * Load the simulation from the cache of the controller.
+     */
+    @Benchmark
+    public ArrayList<Wave> loadCached() {
+        return databaseController.getWavesDB("Loaded");
+    }
+}
@@ -0,0 +1,63 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON round trips of the JsonDataController, both through strings and through (streamed) files.
+ * The sample count does not apply to the JSON data, so only the wave count is a parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonDataBenchmark {
+    @Param({"1", "256", "65536"})
+    public int waveCount;
+
+    private WaveSimulationController waveSimulationController;
+    private List<Wave> waves;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        waves = BenchmarkWaves.create(waveCount);
+        waveSimulationController = new WaveSimulationController(500, (dataPoints, milliseconds) -> {});
+        waveSimulationController.addWaves(waves);
+        file = Files.createTempFile("benchmark", ".json");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public List<Wave> stringRoundTrip() {
+        return JsonDataController.importWaveSimulation(JsonDataController.exportWaveSimulation(waveSimulationController));
+    }
+
+    @Benchmark
+    public List<Wave> fileRoundTrip() throws Exception {
+        JsonDataController.exportWaveSimulation(waves, file);
+        List<Wave> importedWaves = new ArrayList<>(waveCount);
+        JsonDataController.importWaveSimulation(file, importedWaves::add);
+        return importedWaves;
+    }
+}
@@ -0,0 +1,56 @@
+package edu.vanier.fxwavegenerationsimulator.adapters;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+
+import java.io.IOException;
+
+/**
+ * The hand-written GSON type adapter for the Color class, so colors are (de)serialized
+ * without reflection, in the format of {"red": 0, "green": 0, "blue": 0}.
+ *
+ * @author Qian Qian
+ */
+public class ColorTypeAdapter extends TypeAdapter<Color> {
+    @Override
+    public void write(JsonWriter out, Color color) throws IOException {
+        if (color == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("red").value(color.getRed());
+        out.name("green").value(color.getGreen());
+        out.name("blue").value(color.getBlue());
+        out.endObject();
+    }
+
+    @Override
+    public Color read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "red" -> red = in.nextInt();
+                case "green" -> green = in.nextInt();
+                case "blue" -> blue = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (red < 0 || red > 255 || green < 0 || green > 255 || blue < 0 || blue > 255) {
+            throw new JsonParseException("Color values must be between 0 and 255 at " + in.getPath());
+        }
+        return new Color(red, green, blue);
+    }
+}
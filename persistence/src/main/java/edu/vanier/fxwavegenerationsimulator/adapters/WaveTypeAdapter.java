@@ -0,0 +1,88 @@
+package edu.vanier.fxwavegenerationsimulator.adapters;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+
+import java.io.IOException;
+
+/**
+ * The hand-written GSON type adapter for the Wave class, so waves are (de)serialized without reflection.
+ * The waves are created through the Wave constructor, so every deserialized wave is validated.
+ * The format stays the same as the one previously produced by GSON:
+ * {"waveType": "SIN", "frequency": 1, "amplitude": 1.0, "color": {"red": 0, "green": 0, "blue": 0}},
+ * with an additional "dutyCycle" only for the PULSE waves (0.5 when it is missing).
+ *
+ * @author Qian Qian
+ */
+public class WaveTypeAdapter extends TypeAdapter<Wave> {
+    /**
+     * The adapter for the color of the wave.
+     */
+    private final ColorTypeAdapter colorTypeAdapter = new ColorTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, Wave wave) throws IOException {
+        if (wave == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("waveType").value(wave.getWaveType().name());
+        out.name("frequency").value(wave.getFrequency());
+        out.name("amplitude").value(wave.getAmplitude());
+        if (wave.getWaveType() == WaveTypes.PULSE) {
+            out.name("dutyCycle").value(wave.getDutyCycle());
+        }
+        out.name("color");
+        colorTypeAdapter.write(out, wave.getColor());
+        out.endObject();
+    }
+
+    @Override
+    public Wave read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String path = in.getPath();
+        WaveTypes waveType = null;
+        int frequency = 0;
+        double amplitude = 0;
+        double dutyCycle = Waveforms.DEFAULT_DUTY_CYCLE;
+        Color color = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "waveType" -> {
+                    String name = in.nextString();
+                    try {
+                        waveType = WaveTypes.valueOf(name);
+                    } catch (IllegalArgumentException e) {
+                        throw new JsonParseException("Invalid wave type " + name + " at " + path);
+                    }
+                }
+                case "frequency" -> frequency = in.nextInt();
+                case "amplitude" -> amplitude = in.nextDouble();
+                case "dutyCycle" -> dutyCycle = in.nextDouble();
+                case "color" -> color = colorTypeAdapter.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (waveType == null || waveType == WaveTypes.DUMMY) {
+            throw new JsonParseException("Missing or invalid wave type at " + path);
+        }
+        try {
+            return new Wave(waveType, frequency, amplitude, dutyCycle, color == null ? new Color() : color);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Invalid wave at " + path + ": " + e.getMessage());
+        }
+    }
+}
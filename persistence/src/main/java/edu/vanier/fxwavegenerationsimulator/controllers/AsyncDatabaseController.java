@@ -0,0 +1,152 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * The asynchronous counterpart of the DatabaseController, so database operations never block the calling
+ * (e.g. JavaFX application) thread.
+ * Reads run concurrently on virtual threads (which SQLite allows in WAL mode), while writes to the same
+ * database are serialized through a single writer, so they never fight for the database lock.
+ * All results are delivered through the given callback executor (e.g. Platform::runLater for the UI).
+ *
+ * @author Qian Qian
+ */
+public class AsyncDatabaseController {
+    /**
+     * The executor that runs all read operations, one virtual thread per operation.
+     */
+    private static final ExecutorService readExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * The single-threaded writers of each database, shared by all controllers working on the same database.
+     */
+    private static final Map<String, ExecutorService> writeExecutors = new ConcurrentHashMap<>();
+
+    /**
+     * The synchronous database controller that does the real work.
+     */
+    private final DatabaseController databaseController;
+
+    /**
+     * The executor that the results are delivered to.
+     */
+    private final Executor callbackExecutor;
+
+    /**
+     * The writer of the database this controller works on.
+     */
+    private final ExecutorService writeExecutor;
+
+    /**
+     * Instantiate an asynchronous database controller.
+     * @param databaseController the synchronous database controller that does the real work
+     * @param callbackExecutor the executor that the results are delivered to (e.g. Platform::runLater)
+     */
+    public AsyncDatabaseController(DatabaseController databaseController, Executor callbackExecutor) {
+        this.databaseController = databaseController;
+        this.callbackExecutor = callbackExecutor;
+        this.writeExecutor = writeExecutors.computeIfAbsent(databaseController.getDatabase(), database ->
+                Executors.newSingleThreadExecutor(Thread.ofVirtual().name("db-writer-" + database).factory()));
+    }
+
+    /**
+     * Run a database operation, recording how long it takes.
+     * @param operation the database operation
+     * @return the result of the operation
+     */
+    private static <T> T timed(Supplier<T> operation) {
+        long start = SimulationMetrics.now();
+        try {
+            return operation.get();
+        } finally {
+            SimulationMetrics.databaseCall.recordSince(start);
+        }
+    }
+
+    /**
+     * Run a read operation concurrently with the other reads.
+     * @param operation the read operation
+     * @return the future result, completed through the callback executor
+     */
+    private <T> CompletableFuture<T> read(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(() -> timed(operation), readExecutor)
+                .whenCompleteAsync((result, exception) -> {}, callbackExecutor);
+    }
+
+    /**
+     * Run a write operation after all previously submitted writes on the same database.
+     * @param operation the write operation
+     * @return the future result, completed through the callback executor
+     */
+    private <T> CompletableFuture<T> write(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(() -> timed(operation), writeExecutor)
+                .whenCompleteAsync((result, exception) -> {}, callbackExecutor);
+    }
+
+    /**
+     * Create the database table (if needed) and load the presets into the database (if they have changed).
+     * @param presetController the controller that holds the bundled presets
+     * @return the future that completes when the database is ready
+     */
+    public CompletableFuture<Void> initializeDatabase(PresetController presetController) {
+        return write(() -> {
+            databaseController.initializeDatabase();
+            databaseController.loadPresets(presetController);
+            return null;
+        });
+    }
+
+    /**
+     * Get the waves of a simulation.
+     * @param simulationName the name of the simulation
+     * @return the future list of waves of the simulation
+     */
+    public CompletableFuture<List<Wave>> getWaves(String simulationName) {
+        return read(() -> databaseController.getWavesDB(simulationName));
+    }
+
+    /**
+     * Get the names of all simulations.
+     * @return the future list of all simulation names
+     */
+    public CompletableFuture<List<String>> getAllSimulationNames() {
+        return read(databaseController::getAllSimulationNames);
+    }
+
+    /**
+     * Save the waves as a new simulation, named after the next available simulation number.
+     * The name is picked by the writer itself, so two saves in a row never get the same number.
+     * @param waves the waves to be saved
+     * @return the future name of the saved simulation
+     */
+    public CompletableFuture<String> saveSimulation(List<Wave> waves) {
+        List<Wave> wavesToSave = List.copyOf(waves);
+        return write(() -> {
+            String simulationName = "Simulation " + databaseController.getNextSimulationNumber();
+            databaseController.addWavesDB(simulationName, wavesToSave);
+            return simulationName;
+        });
+    }
+
+    /**
+     * Remove a simulation.
+     * @param simulationName the name of the simulation
+     * @return the future that completes when the simulation is removed
+     */
+    public CompletableFuture<Void> clearWaves(String simulationName) {
+        return write(() -> {
+            databaseController.clearWavesDB(simulationName);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.exceptions.ChosenFileIsDirectoryException;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DataFileNotFoundException;
+import edu.vanier.fxwavegenerationsimulator.io.WaveSimReader;
+import edu.vanier.fxwavegenerationsimulator.io.WaveSimWriter;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * This controller handles the binary (.wavesim) data processing for the wave simulation import/export,
+ * and the conversion between the binary format and the JSON format of the JsonDataController.
+ *
+ * @author Qian Qian
+ */
+public class BinaryDataController {
+    /**
+     * Check that the path can be read from.
+     * @param path the path of the file
+     */
+    private static void checkReadable(Path path) throws DataFileNotFoundException {
+        if (Files.isDirectory(path)) {
+            throw new ChosenFileIsDirectoryException(path.toString());
+        }
+        if (!Files.exists(path)) {
+            throw new DataFileNotFoundException(path.toString());
+        }
+    }
+
+    /**
+     * Import the waves from a binary file, streaming them one by one to the consumer.
+     * @param path the path of the binary file
+     * @param consumer the consumer that receives each wave
+     * @return the number of waves imported
+     * @throws DataFileNotFoundException if the file does not exist
+     * @throws ChosenFileIsDirectoryException if the path is a directory
+     * @throws IOException if the file cannot be read or is not a valid binary file
+     */
+    public static long importWaveSimulation(Path path, Consumer<Wave> consumer) throws DataFileNotFoundException, IOException {
+        checkReadable(path);
+        try (WaveSimReader reader = new WaveSimReader(path)) {
+            for (Wave wave : reader) {
+                consumer.accept(wave);
+            }
+            return reader.getWaveCount();
+        }
+    }
+
+    /**
+     * Export the waves to a binary file.
+     * @param waves the waves to be exported
+     * @param path the path of the binary file (which is overwritten if it already exists)
+     * @return the number of waves exported
+     * @throws ChosenFileIsDirectoryException if the path is a directory
+     * @throws IOException if the file cannot be written
+     */
+    public static long exportWaveSimulation(Iterable<Wave> waves, Path path) throws IOException {
+        return exportWaveSimulation(waves, null, null, path);
+    }
+
+    /**
+     * Export the waves to a binary file, together with a pre-rendered frame or pre-rendered audio.
+     * @param waves the waves to be exported
+     * @param frame the pre-rendered frame to be embedded (or null)
+     * @param audio the pre-rendered audio to be embedded (or null), ignored if a frame is given
+     * @param path the path of the binary file (which is overwritten if it already exists)
+     * @return the number of waves exported
+     * @throws ChosenFileIsDirectoryException if the path is a directory
+     * @throws IOException if the file cannot be written
+     */
+    public static long exportWaveSimulation(Iterable<Wave> waves, float[] frame, byte[] audio, Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            throw new ChosenFileIsDirectoryException(path.toString());
+        }
+        try (WaveSimWriter writer = new WaveSimWriter(path)) {
+            for (Wave wave : waves) {
+                writer.write(wave);
+            }
+            if (frame != null) {
+                writer.writeFrameBlock(frame);
+            } else if (audio != null) {
+                writer.writeAudioBlock(audio);
+            }
+            return writer.getWaveCount();
+        }
+    }
+
+    /**
+     * Convert a JSON file (in the format of the JsonDataController) to a binary file.
+     * The waves are streamed from one file to the other, so the conversion runs in bounded memory.
+     * @param jsonPath the path of the JSON file
+     * @param binaryPath the path of the binary file (which is overwritten if it already exists)
+     * @return the number of waves converted
+     * @throws DataFileNotFoundException if the JSON file does not exist
+     * @throws IOException if either file cannot be read or written
+     */
+    public static long convertJsonToBinary(Path jsonPath, Path binaryPath) throws DataFileNotFoundException, IOException {
+        if (Files.isDirectory(binaryPath)) {
+            throw new ChosenFileIsDirectoryException(binaryPath.toString());
+        }
+        try (WaveSimWriter writer = new WaveSimWriter(binaryPath)) {
+            JsonDataController.importWaveSimulation(jsonPath, wave -> {
+                try {
+                    writer.write(wave);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return writer.getWaveCount();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Convert a binary file to a JSON file (in the format of the JsonDataController).
+     * The embedded block, if any, has no JSON counterpart and is dropped.
+     * @param binaryPath the path of the binary file
+     * @param jsonPath the path of the JSON file (which is overwritten if it already exists)
+     * @return the number of waves converted
+     * @throws DataFileNotFoundException if the binary file does not exist
+     * @throws IOException if either file cannot be read or written
+     */
+    public static long convertBinaryToJson(Path binaryPath, Path jsonPath) throws DataFileNotFoundException, IOException {
+        checkReadable(binaryPath);
+        try (WaveSimReader reader = new WaveSimReader(binaryPath)) {
+            return JsonDataController.exportWaveSimulation(reader, jsonPath);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.db.DBConnector;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.events.DatabaseOperationEvent;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DatabaseException;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The controller that handles all database related operations.
+ *
+ * @author Qian Qian
+ */
+public class DatabaseController extends DBConnector {
+    private final static Logger logger = LoggerFactory.getLogger(DatabaseController.class);
+    /**
+     * The default name of the database file used by the application.
+     */
+    public static final String DEFAULT_DATABASE = "wave.db";
+
+    /**
+     * The name of the database file this controller reads from and writes to.
+     */
+    private final String database;
+
+    /**
+     * The cache of the simulations loaded from the database, so recently used simulations are not read again.
+     */
+    private final SimulationCache cache = new SimulationCache();
+
+    /**
+     * Instantiate a database controller that works on the default database of the application.
+     */
+    public DatabaseController() {
+        this(DEFAULT_DATABASE);
+    }
+
+    /**
+     * Instantiate a database controller that works on a given database.
+     * @param database the name of the database file
+     */
+    public DatabaseController(String database) {
+        this.database = database;
+    }
+
+    /**
+     * Get the name of the database file this controller works on.
+     * @return the name of the database file
+     */
+    public String getDatabase() {
+        return database;
+    }
+
+    /**
+     * Get the cache of the simulations loaded from the database (e.g. to read its hit and miss counters).
+     * @return the cache of this controller
+     */
+    public SimulationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Start the JFR event of a database operation (only if the event is enabled, so it costs nothing otherwise).
+     * @return the started event
+     */
+    private static DatabaseOperationEvent beginEvent() {
+        DatabaseOperationEvent event = new DatabaseOperationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Commit the JFR event of a database operation (only if the event is enabled).
+     * @param event the event started by beginEvent()
+     * @param sqlKind the kind of the SQL statement (SELECT, INSERT, UPDATE, DELETE)
+     * @param rowCount the number of rows read or written
+     */
+    private void commitEvent(DatabaseOperationEvent event, String sqlKind, long rowCount) {
+        if (event.isEnabled()) {
+            event.end();
+            event.database = database;
+            event.sqlKind = sqlKind;
+            event.rowCount = rowCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * If a table does not already exist within the user's computer, it will create a new SQLite table with the
+     * corresponding variables. This will server as a local database to write to.
+     */
+    public void initializeDatabase() {
+        String createTableSQL = """
+        CREATE TABLE IF NOT EXISTS Wave (
+            id INTEGER PRIMARY KEY AUTOINCREMENT,
+            Name TEXT NOT NULL,
+            waveType TEXT NOT NULL,
+            frequency INTEGER NOT NULL,
+            amplitude REAL NOT NULL,
+            color TEXT NOT NULL,
+            dutyCycle REAL NOT NULL DEFAULT 0.5
+        );
+    """;
+        String createMetadataTableSQL = """
+        CREATE TABLE IF NOT EXISTS Metadata (
+            key TEXT PRIMARY KEY,
+            value TEXT NOT NULL
+        );
+    """;
+        // In the event that it has not been created, it will be created.
+        try (Connection conn = Connector(database);
+             Statement stmt = conn.createStatement()) {
+
+            // Write-ahead logging lets reads run concurrently with the (serialized) writes.
+            // The journal mode is persisted in the database file, so this only needs to be done once.
+            stmt.execute("PRAGMA journal_mode=WAL;");
+            stmt.execute(createTableSQL);
+            stmt.execute(createMetadataTableSQL);
+            migrateDutyCycle(stmt);
+            logger.info("Table 'Wave' created or already exists.");
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot initialize the database " + database, e);
+        }
+    }
+
+    /**
+     * Add the dutyCycle column (of the PULSE waves) to a Wave table created before it existed.
+     * The column defaults to 0.5, the duty cycle of every other wave.
+     * @param stmt a statement on the database
+     */
+    private void migrateDutyCycle(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(Wave);")) {
+            while (rs.next()) {
+                if ("dutyCycle".equalsIgnoreCase(rs.getString("name"))) {
+                    return;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE Wave ADD COLUMN dutyCycle REAL NOT NULL DEFAULT 0.5;");
+        logger.info("Column 'dutyCycle' added to table 'Wave'.");
+    }
+
+    /**
+     * Adding the wave to the database, which retrieves all parameters (Wave, waveType, frequency, amplitude and color)
+     * and the related data points.
+     *
+     * @param wave a wave object
+     */
+    public void addWaveDB(String simulationName, Wave wave) {
+        String sql = String.format(
+                "INSERT INTO %s (%s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?)", "Wave", "Name", "waveType",
+                "frequency", "amplitude", "color", "dutyCycle");
+
+        DatabaseOperationEvent event = beginEvent();
+        try (Connection conn = Connector(database);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, simulationName);
+            stmt.setString(2, wave.getWaveType().toString());
+            stmt.setInt(3, wave.getFrequency());
+            stmt.setDouble(4, wave.getAmplitude());
+            stmt.setString(5, wave.getColor().toString());
+            stmt.setDouble(6, wave.getDutyCycle());
+            commitEvent(event, "INSERT", stmt.executeUpdate());
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot add a wave to " + simulationName, e);
+        } finally {
+            cache.invalidate(simulationName);
+        }
+    }
+
+    /**
+     * Adding a list of waves to the database under the same simulation name,
+     * using a single connection and a single transaction.
+     *
+     * @param simulationName the name of the simulation
+     * @param waves the waves to be added
+     */
+    public void addWavesDB(String simulationName, List<Wave> waves) {
+        String sql = String.format(
+                "INSERT INTO %s (%s, %s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?, ?)", "Wave", "Name", "waveType",
+                "frequency", "amplitude", "color", "dutyCycle");
+
+        DatabaseOperationEvent event = beginEvent();
+        try (Connection conn = Connector(database)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Wave wave : waves) {
+                    stmt.setString(1, simulationName);
+                    stmt.setString(2, wave.getWaveType().toString());
+                    stmt.setInt(3, wave.getFrequency());
+                    stmt.setDouble(4, wave.getAmplitude());
+                    stmt.setString(5, wave.getColor().toString());
+                    stmt.setDouble(6, wave.getDutyCycle());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                commitEvent(event, "INSERT", waves.size());
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot add the waves of " + simulationName, e);
+        } finally {
+            cache.invalidate(simulationName);
+        }
+    }
+
+    /**
+     * Retrieves the wave to the database, which puts all parameters (Wave, waveType, frequency, amplitude and color)
+     * and related data points as a resultSet
+     *
+     * Recently loaded simulations are served from the cache instead.
+     *
+     * @param simulationName the name of the simulation
+     * @return an ArrayList of waves
+     */
+    public ArrayList<Wave> getWavesDB(String simulationName) {
+        ArrayList<Wave> cachedWaves = cache.getWaves(simulationName);
+        if (cachedWaves != null) {
+            return cachedWaves;
+        }
+        long generation = cache.getGeneration();
+        DatabaseOperationEvent event = beginEvent();
+
+        String sql = String.format("SELECT * FROM %s WHERE Name = ?", "Wave");
+
+        ArrayList<Wave> wavesToAdd = new ArrayList<>();
+
+        try (Connection conn = Connector(database);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, simulationName);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                String waveType = rs.getString("waveType");
+                int frequency = rs.getInt("frequency");
+                double amplitude = rs.getDouble("amplitude");
+                String color = rs.getString("color");
+                double dutyCycle = rs.getDouble("dutyCycle");
+                String format = color.substring(1, color.length() - 1);
+                String[] rgb = format.split(",");
+                int red = Integer.parseInt(rgb[0]);
+                int green = Integer.parseInt(rgb[1]);
+                int blue = Integer.parseInt(rgb[2]);
+                Color waveColor = new Color(red, green, blue);
+
+                WaveTypes type = switch (waveType) {
+                    case "SIN" -> WaveTypes.SIN;
+                    case "COS" -> WaveTypes.COS;
+                    case "SQUARE" -> WaveTypes.SQUARE;
+                    case "SAW" -> WaveTypes.SAW;
+                    case "TRIANGLE" -> WaveTypes.TRIANGLE;
+                    case "PULSE" -> WaveTypes.PULSE;
+                    default -> throw new IllegalArgumentException("Invalid wave type: " + waveType);
+                };
+                Wave wave = new Wave(type, frequency, amplitude, dutyCycle, waveColor);
+                wavesToAdd.add(wave);
+            }
+            cache.putWaves(simulationName, wavesToAdd, generation);
+            commitEvent(event, "SELECT", wavesToAdd.size());
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot read the waves of " + simulationName, e);
+        }
+
+        return wavesToAdd;
+    }
+
+
+    /**
+     * Removes the wave based on a unique modifier color in the database.
+     *
+     * @param simulationName the name of the given simulation
+     */
+    public void clearWavesDB(String simulationName) {
+        String sql = String.format("DELETE FROM %s WHERE Name = ?", "Wave");
+        DatabaseOperationEvent event = beginEvent();
+        try (Connection conn = Connector(database);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, simulationName);
+            commitEvent(event, "DELETE", stmt.executeUpdate());
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot remove the waves of " + simulationName, e);
+        } finally {
+            cache.invalidate(simulationName);
+        }
+    }
+
+    public void clearAllWavesDB() {
+        String sql = String.format("DELETE FROM %s", "Wave");
+        DatabaseOperationEvent event = beginEvent();
+        try (Connection conn = Connector(database);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            commitEvent(event, "DELETE", stmt.executeUpdate());
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot remove all the waves of " + database, e);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Gets all simulationNames in a list from the database by using the SQL query.
+     * @return A list of all simulation names
+     */
+    public List<String> getAllSimulationNames() {
+        List<String> cachedNames = cache.getSimulationNames();
+        if (cachedNames != null) {
+            return cachedNames;
+        }
+        long generation = cache.getGeneration();
+        DatabaseOperationEvent event = beginEvent();
+
+        String sql = "SELECT DISTINCT Name FROM Wave";
+        List<String> simulationNames = new ArrayList<>();
+
+        try (Connection conn = Connector(database);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                simulationNames.add(rs.getString("Name"));
+            }
+            cache.putSimulationNames(simulationNames, generation);
+            commitEvent(event, "SELECT", simulationNames.size());
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot read the simulation names of " + database, e);
+        }
+
+        return simulationNames;
+    }
+
+    /**
+     * Used to increment the next simulation number in the database.
+     * @return An increment for simulation numbers.
+     */
+    public int getNextSimulationNumber() {
+        List<String> simulationNames = getAllSimulationNames();
+        int maxSimulationNumber = 0;
+
+        for (String name : simulationNames) {
+            if (name.startsWith("Simulation ")) {
+                try {
+                    int number = Integer.parseInt(name.substring("Simulation ".length()));
+                    maxSimulationNumber = Math.max(maxSimulationNumber, number);
+                } catch (NumberFormatException e) {
+                    logger.debug("The simulation name {} is not numbered, it is ignored.", name);
+                }
+            }
+        }
+
+        return maxSimulationNumber + 1; // Return the next number
+    }
+
+    /**
+     * Get the version of the presets currently stored in the database.
+     * @return the stored preset version, or 0 if no presets have been stored yet
+     */
+    public int getPresetVersion() {
+        String sql = "SELECT value FROM Metadata WHERE key = 'presetVersion'";
+        try (Connection conn = Connector(database);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return Integer.parseInt(rs.getString("value"));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot read the preset version of " + database, e);
+        }
+        return 0;
+    }
+
+    /**
+     * Load the presets into the database, only if the stored presets are older than the given ones.
+     * The old presets are replaced, and the new version is recorded, in a single transaction,
+     * so nothing is written at all when the presets have not changed.
+     *
+     * @param presetController the controller that holds the bundled presets
+     */
+    public void loadPresets(PresetController presetController) {
+        int storedVersion = getPresetVersion();
+        if (storedVersion >= presetController.getVersion()) {
+            logger.info("Presets are up to date (version {}).", storedVersion);
+            return;
+        }
+
+        String deleteSQL = "DELETE FROM Wave WHERE Name = ?";
+        String insertSQL = "INSERT INTO Wave (Name, waveType, frequency, amplitude, color, dutyCycle) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
+        String versionSQL = "INSERT OR REPLACE INTO Metadata (key, value) VALUES ('presetVersion', ?)";
+        DatabaseOperationEvent event = beginEvent();
+        try (Connection conn = Connector(database)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSQL);
+                 PreparedStatement insertStmt = conn.prepareStatement(insertSQL);
+                 PreparedStatement versionStmt = conn.prepareStatement(versionSQL)) {
+                for (String presetName : presetController.getPresetNames()) {
+                    // Clear the old version of the preset
+                    deleteStmt.setString(1, presetName);
+                    deleteStmt.addBatch();
+                    for (Wave wave : presetController.getWaves(presetName)) {
+                        insertStmt.setString(1, presetName);
+                        insertStmt.setString(2, wave.getWaveType().toString());
+                        insertStmt.setInt(3, wave.getFrequency());
+                        insertStmt.setDouble(4, wave.getAmplitude());
+                        insertStmt.setString(5, wave.getColor().toString());
+                        insertStmt.setDouble(6, wave.getDutyCycle());
+                        insertStmt.addBatch();
+                    }
+                }
+                deleteStmt.executeBatch();
+                int[] insertedRows = insertStmt.executeBatch();
+                versionStmt.setString(1, Integer.toString(presetController.getVersion()));
+                versionStmt.executeUpdate();
+                conn.commit();
+                commitEvent(event, "INSERT", insertedRows.length);
+                logger.info("Presets updated from version {} to version {}.", storedVersion, presetController.getVersion());
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Cannot load the presets into " + database, e);
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import edu.vanier.fxwavegenerationsimulator.adapters.ColorTypeAdapter;
+import edu.vanier.fxwavegenerationsimulator.adapters.WaveTypeAdapter;
+import edu.vanier.fxwavegenerationsimulator.events.JsonTransferEvent;
+import edu.vanier.fxwavegenerationsimulator.exceptions.ChosenFileIsDirectoryException;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DataFileNotFoundException;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This controller handles the JSON data processing for the wave simulation import/export.
+ * As only the list of waves is needed to recreate simulation,
+ * only the list of waves is imported/exported.
+ *
+ * @author Qian Qian
+ */
+public class JsonDataController {
+    /**
+     * The size of the buffers used to read and write the JSON files.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The adapter that (de)serializes each wave, shared by the streaming import/export.
+     */
+    private static final TypeAdapter<Wave> waveTypeAdapter = new WaveTypeAdapter();
+
+    /**
+     * The GSON object shared by all JSON processing, which uses the hand-written adapters instead of reflection.
+     */
+    static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Wave.class, waveTypeAdapter)
+            .registerTypeAdapter(Color.class, new ColorTypeAdapter())
+            .create();
+
+    /**
+     * Start the JFR event of a JSON transfer (only if the event is enabled, so it costs nothing otherwise).
+     * @return the started event
+     */
+    private static JsonTransferEvent beginEvent() {
+        JsonTransferEvent event = new JsonTransferEvent();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Commit the JFR event of a JSON transfer (only if the event is enabled).
+     * @param event the event started by beginEvent()
+     * @param direction Import or Export
+     * @param bytes the size of the JSON data
+     * @param waveCount the number of waves transferred
+     */
+    private static void commitEvent(JsonTransferEvent event, String direction, long bytes, long waveCount) {
+        if (event.isEnabled()) {
+            event.end();
+            event.direction = direction;
+            event.bytes = bytes;
+            event.waveCount = waveCount;
+            event.commit();
+        }
+    }
+
+    List<Wave> waves; // The list of waves to be imported/exported>
+    /**
+     * Given a wave simulation controller, add the waves imported from the JSON string to the controller.
+     * @param json the JSON string that contains wave data to deserialize
+     * @return A list of waves deserialized from the JSON string
+     */
+    public static List<Wave> importWaveSimulation(String json) {
+        // Convert the JSON string to a list of Wave objects.
+        TypeToken<List<Wave>> collectionType = new TypeToken<>(){};
+
+        JsonTransferEvent event = beginEvent();
+        List<Wave> waves = gson.fromJson(json, collectionType);
+        commitEvent(event, "Import", json.length(), waves == null ? 0 : waves.size());
+        return waves;
+    }
+
+    /**
+     * Import the waves from a JSON file, streaming them one by one to the consumer as they are parsed,
+     * so the file never has to be held in memory as a whole.
+     * @param path the path of the JSON file
+     * @param consumer the consumer that receives each (validated) wave
+     * @return the number of waves imported
+     * @throws DataFileNotFoundException if the file does not exist
+     * @throws ChosenFileIsDirectoryException if the path is a directory
+     * @throws IOException if the file cannot be read
+     * @throws com.google.gson.JsonParseException if the file contains an invalid wave
+     */
+    public static long importWaveSimulation(Path path, Consumer<Wave> consumer) throws DataFileNotFoundException, IOException {
+        if (Files.isDirectory(path)) {
+            throw new ChosenFileIsDirectoryException(path.toString());
+        }
+        if (!Files.exists(path)) {
+            throw new DataFileNotFoundException(path.toString());
+        }
+
+        JsonTransferEvent event = beginEvent();
+        long count = 0;
+        long bytes;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonReader jsonReader = new JsonReader(reader)) {
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                Wave wave = waveTypeAdapter.read(jsonReader);
+                if (wave != null) {
+                    consumer.accept(wave);
+                    count++;
+                }
+            }
+            jsonReader.endArray();
+            bytes = channel.size();
+        }
+        commitEvent(event, "Import", bytes, count);
+        return count;
+    }
+
+    /**
+     * Export the data of discrete waves in a wave simulation from its controller to a JSON string.
+     * @param waveSimulationController the wave simulation controller to export the data from
+     * @return the JSON string that contains the wave data
+     */
+    public static String exportWaveSimulation(WaveSimulationController waveSimulationController) {
+        // Get list of wave to simulate.
+        return exportWaveSimulation(waveSimulationController.getWaves());
+    }
+
+    /**
+     * Export the data of discrete waves to a JSON string.
+     * @param waves the waves to be exported
+     * @return the JSON string that contains the wave data
+     */
+    public static String exportWaveSimulation(List<Wave> waves) {
+        // Return the generated JSON string.
+        JsonTransferEvent event = beginEvent();
+        String json = gson.toJson(waves);
+        commitEvent(event, "Export", json.length(), waves.size());
+        return json;
+    }
+
+    /**
+     * Export the waves to a JSON file, writing them one by one, so the JSON string is never built in memory.
+     * @param waves the waves to be exported
+     * @param path the path of the JSON file (which is overwritten if it already exists)
+     * @return the number of waves exported
+     * @throws ChosenFileIsDirectoryException if the path is a directory
+     * @throws IOException if the file cannot be written
+     */
+    public static long exportWaveSimulation(Iterable<Wave> waves, Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            throw new ChosenFileIsDirectoryException(path.toString());
+        }
+
+        JsonTransferEvent event = beginEvent();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             BufferedWriter writer = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+             JsonWriter jsonWriter = new JsonWriter(writer)) {
+            jsonWriter.beginArray();
+            for (Wave wave : waves) {
+                waveTypeAdapter.write(jsonWriter, wave);
+                count++;
+            }
+            jsonWriter.endArray();
+        }
+        if (event.isEnabled()) {
+            commitEvent(event, "Export", Files.size(path), count);
+        }
+        return count;
+    }
+}
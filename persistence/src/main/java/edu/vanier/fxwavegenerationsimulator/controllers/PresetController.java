@@ -0,0 +1,109 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The controller that holds the preset simulations bundled with the application.
+ * The presets are read once from a versioned resource file and served from memory afterward,
+ * the version is used to only (re)write the presets into the database when they have changed.
+ *
+ * @author Qian Qian
+ */
+public class PresetController {
+    /**
+     * The path of the bundled preset resource file.
+     */
+    public static final String PRESETS_RESOURCE = "/presets/presets.json";
+
+    /**
+     * The structure of the preset resource file, used to deserialize it.
+     */
+    private static class PresetFile {
+        int version;
+        List<Preset> presets;
+    }
+
+    /**
+     * The structure of one preset in the resource file, used to deserialize it.
+     */
+    private static class Preset {
+        String name;
+        List<Wave> waves;
+    }
+
+    /**
+     * The version of the presets.
+     */
+    private final int version;
+
+    /**
+     * The waves of each preset, by preset name, in the order they are defined.
+     */
+    private final Map<String, List<Wave>> presets = new LinkedHashMap<>();
+
+    /**
+     * Instantiate the preset controller with the presets bundled with the application.
+     */
+    public PresetController() {
+        this(PresetController.class.getResourceAsStream(PRESETS_RESOURCE));
+    }
+
+    /**
+     * Instantiate the preset controller with the presets read from a given stream.
+     * @param inputStream the stream to read the presets from (in the format of the bundled resource file)
+     */
+    public PresetController(InputStream inputStream) {
+        if (inputStream == null) {
+            throw new IllegalStateException("Preset resource " + PRESETS_RESOURCE + " is not found.");
+        }
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            PresetFile presetFile = JsonDataController.gson.fromJson(reader, PresetFile.class);
+            this.version = presetFile.version;
+            for (Preset preset : presetFile.presets) {
+                presets.put(preset.name, List.copyOf(preset.waves));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Get the version of the presets, which is increased every time the presets are changed.
+     * @return the version of the presets
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the names of all presets.
+     * @return the names of all presets, in the order they are defined
+     */
+    public List<String> getPresetNames() {
+        return List.copyOf(presets.keySet());
+    }
+
+    /**
+     * Get a copy of the waves of a preset.
+     * @param presetName the name of the preset
+     * @return a copy of the waves of the preset, or an empty list if there is no such preset
+     */
+    public List<Wave> getWaves(String presetName) {
+        List<Wave> waves = new ArrayList<>();
+        for (Wave wave : presets.getOrDefault(presetName, List.of())) {
+            waves.add(new Wave(wave));
+        }
+        return waves;
+    }
+}
@@ -0,0 +1,195 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, least-recently-used cache of the simulations loaded from the database,
+ * so switching between recently used simulations does not touch the disk.
+ * The cache is bounded by the total number of waves it holds (rather than the number of simulations),
+ * so a few large simulations cannot take up an unbounded amount of memory.
+ * The cached waves are never handed out directly: every read gets its own copies,
+ * so changes made by the caller never leak back into the cache.
+ *
+ * @author Qian Qian
+ */
+public class SimulationCache {
+    /**
+     * The default maximum number of waves held by the cache.
+     */
+    public static final int DEFAULT_MAX_WAVES = 10_000;
+
+    /**
+     * The maximum number of waves held by the cache.
+     */
+    private final int maxWaves;
+
+    /**
+     * The cached simulations, in access order (the least recently used simulation comes first).
+     */
+    private final LinkedHashMap<String, List<Wave>> simulations = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The cached list of all simulation names (or null if it is not cached).
+     */
+    private List<String> simulationNames;
+
+    /**
+     * The total number of waves currently held by the cache.
+     */
+    private int cachedWaves;
+
+    /**
+     * The generation of the cache, increased on every invalidation, so results read from the database
+     * before an invalidation are not put into the cache after it.
+     */
+    private long generation;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Instantiate a cache with the default maximum number of waves.
+     */
+    public SimulationCache() {
+        this(DEFAULT_MAX_WAVES);
+    }
+
+    /**
+     * Instantiate a cache with a given maximum number of waves.
+     * @param maxWaves the maximum number of waves held by the cache
+     */
+    public SimulationCache(int maxWaves) {
+        this.maxWaves = maxWaves;
+    }
+
+    /**
+     * Copy a list of waves.
+     * @param waves the waves to be copied
+     * @return a new list that contains a copy of each wave
+     */
+    private static ArrayList<Wave> copyOf(List<Wave> waves) {
+        ArrayList<Wave> copies = new ArrayList<>(waves.size());
+        for (Wave wave : waves) {
+            copies.add(new Wave(wave));
+        }
+        return copies;
+    }
+
+    /**
+     * Get the current generation of the cache, which should be read before loading data from the database
+     * and passed back when putting the data into the cache.
+     * @return the current generation of the cache
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Get a copy of the waves of a cached simulation.
+     * @param simulationName the name of the simulation
+     * @return a copy of the waves of the simulation, or null if it is not cached
+     */
+    public synchronized ArrayList<Wave> getWaves(String simulationName) {
+        List<Wave> waves = simulations.get(simulationName);
+        if (waves == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return copyOf(waves);
+    }
+
+    /**
+     * Put the waves of a simulation into the cache, evicting the least recently used simulations if needed.
+     * @param simulationName the name of the simulation
+     * @param waves the waves of the simulation
+     * @param generation the generation of the cache when the waves were read from the database
+     */
+    public synchronized void putWaves(String simulationName, List<Wave> waves, long generation) {
+        if (generation != this.generation || waves.size() > maxWaves) {
+            return;
+        }
+        List<Wave> previous = simulations.put(simulationName, List.copyOf(copyOf(waves)));
+        if (previous != null) {
+            cachedWaves -= previous.size();
+        }
+        cachedWaves += waves.size();
+
+        // Evict the least recently used simulations until the cache fits in its bound again.
+        Iterator<Map.Entry<String, List<Wave>>> iterator = simulations.entrySet().iterator();
+        while (cachedWaves > maxWaves && iterator.hasNext()) {
+            cachedWaves -= iterator.next().getValue().size();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Get the cached list of all simulation names.
+     * @return the list of all simulation names, or null if it is not cached
+     */
+    public synchronized List<String> getSimulationNames() {
+        if (simulationNames == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return new ArrayList<>(simulationNames);
+    }
+
+    /**
+     * Put the list of all simulation names into the cache.
+     * @param simulationNames the list of all simulation names
+     * @param generation the generation of the cache when the names were read from the database
+     */
+    public synchronized void putSimulationNames(List<String> simulationNames, long generation) {
+        if (generation == this.generation) {
+            this.simulationNames = List.copyOf(simulationNames);
+        }
+    }
+
+    /**
+     * Invalidate a simulation (and the list of simulation names) after it has been written to or deleted.
+     * @param simulationName the name of the simulation
+     */
+    public synchronized void invalidate(String simulationName) {
+        generation++;
+        List<Wave> previous = simulations.remove(simulationName);
+        if (previous != null) {
+            cachedWaves -= previous.size();
+        }
+        simulationNames = null;
+    }
+
+    /**
+     * Invalidate everything in the cache.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        simulations.clear();
+        cachedWaves = 0;
+        simulationNames = null;
+    }
+
+    /**
+     * Get the number of reads that were served by the cache.
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of reads that had to go to the database.
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+}
@@ -3,6 +3,7 @@ package edu.vanier.fxwavegenerationsimulator.db;
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.sql.Statement;
 
 /**
@@ -12,18 +13,20 @@ import java.sql.Statement;
  */
 public class DBConnector {
     /**
-     * Setting up the connection with the SQLite database. This system uses a local directory to store the database.
-     * @param database the name of the database
+     * Setting up the connection with the SQLite database. This system uses a local directory to store the database,
+     * unless the database is given as an absolute path.
+     * @param database the name of the database (or its absolute path)
      * @return the connection to the database
+     * @throws SQLException if the database cannot be opened (or the SQLite driver is missing)
      */
-    public Connection Connector(String database) {
+    public Connection Connector(String database) throws SQLException {
         try {
             // Define a local location for the database
             String userHome = System.getProperty("user.home");
-            String dbPath = userHome + "/AppData/" + database;
+            String dbPath = new File(database).isAbsolute() ? database : userHome + "/AppData/" + database;
 
             // Create directories if they don't exist
-            File dbDirectory = new File(userHome + "/AppData/");
+            File dbDirectory = new File(dbPath).getParentFile();
             if (!dbDirectory.exists()) {
                 dbDirectory.mkdirs();
             }
@@ -31,9 +34,8 @@ public class DBConnector {
             String url = "jdbc:sqlite:" + dbPath;
             Class.forName("org.sqlite.JDBC");
             return DriverManager.getConnection(url);
-        } catch (ClassNotFoundException | java.sql.SQLException e) {
-            e.printStackTrace();
-            return null;
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("The SQLite JDBC driver is not available.", e);
         }
     }
 }
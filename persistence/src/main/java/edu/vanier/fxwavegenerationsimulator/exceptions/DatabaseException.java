@@ -0,0 +1,13 @@
+package edu.vanier.fxwavegenerationsimulator.exceptions;
+
+/**
+ * This represents an exception that is thrown when a database operation fails (e.g. the database cannot be opened,
+ * or a query fails), so the callers (and the futures of the AsyncDatabaseController) fail with it.
+ *
+ * @author Qian Qian
+ */
+public class DatabaseException extends RuntimeException {
+    public DatabaseException(String message, Throwable cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+}
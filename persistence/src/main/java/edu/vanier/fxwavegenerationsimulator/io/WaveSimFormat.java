@@ -0,0 +1,137 @@
+package edu.vanier.fxwavegenerationsimulator.io;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+
+/**
+ * The constants and codecs of the binary wave simulation format (.wavesim).
+ * All values are little-endian. A file is made of:
+ * <pre>
+ * Header (32 bytes)
+ *   0  int   magic ("WSIM")
+ *   4  short format version
+ *   6  short record size (in bytes)
+ *   8  long  number of wave records
+ *   16 long  offset of the embedded block (0 if there is none)
+ *   24 int   type of the embedded block (see BLOCK_*)
+ *   28 int   number of samples in the embedded block
+ * Wave records (record size bytes each, starting at offset 32)
+ *   0  int    frequency (Hz)
+ *   4  double amplitude
+ *   12 int    wave type (highest byte) and packed RGB color (lowest 3 bytes)
+ *   16 double duty cycle of a PULSE wave (since version 2, 0.5 for the other wave types)
+ * Embedded block (optional, 8-byte aligned, after the records)
+ *   float32 samples of a pre-rendered frame, or signed 8-bit samples of pre-rendered audio
+ * </pre>
+ * Version 1 files (16-byte records, SIN and COS only) are still read, their waves having the default duty cycle.
+ *
+ * @author Qian Qian
+ */
+public final class WaveSimFormat {
+    /**
+     * The file extension of the format.
+     */
+    public static final String EXTENSION = ".wavesim";
+    /**
+     * The magic number at the start of every file ("WSIM").
+     */
+    public static final int MAGIC = 0x4D495357;
+    /**
+     * The current version of the format.
+     */
+    public static final short VERSION = 2;
+    /**
+     * The size of the header (in bytes).
+     */
+    public static final int HEADER_SIZE = 32;
+    /**
+     * The size of a wave record in the current version (in bytes).
+     */
+    public static final int RECORD_SIZE = 24;
+    /**
+     * The size of a wave record in version 1, without the duty cycle (in bytes).
+     */
+    public static final int RECORD_SIZE_V1 = 16;
+
+    /**
+     * The block type meaning that there is no embedded block.
+     */
+    public static final int BLOCK_NONE = 0;
+    /**
+     * The block type of an embedded pre-rendered frame (float32 samples).
+     */
+    public static final int BLOCK_FRAME_FLOAT32 = 1;
+    /**
+     * The block type of embedded pre-rendered audio (signed 8-bit samples at 44100 Hz).
+     */
+    public static final int BLOCK_AUDIO_PCM8 = 2;
+
+    private WaveSimFormat() {
+    }
+
+    /**
+     * Get the code of a wave type stored in the records.
+     * The codes are fixed (rather than the ordinal of the enum), so reordering the enum never breaks old files.
+     * @param waveType the wave type
+     * @return the code of the wave type
+     */
+    static int encodeWaveType(WaveTypes waveType) {
+        return switch (waveType) {
+            case SIN -> 1;
+            case COS -> 2;
+            case SQUARE -> 3;
+            case SAW -> 4;
+            case TRIANGLE -> 5;
+            case PULSE -> 6;
+            default -> throw new IllegalArgumentException("Wave type " + waveType + " cannot be stored.");
+        };
+    }
+
+    /**
+     * Get the wave type of a code stored in the records.
+     * @param code the code of the wave type
+     * @return the wave type
+     */
+    static WaveTypes decodeWaveType(int code) {
+        return switch (code) {
+            case 1 -> WaveTypes.SIN;
+            case 2 -> WaveTypes.COS;
+            case 3 -> WaveTypes.SQUARE;
+            case 4 -> WaveTypes.SAW;
+            case 5 -> WaveTypes.TRIANGLE;
+            case 6 -> WaveTypes.PULSE;
+            default -> throw new IllegalArgumentException("Invalid wave type code: " + code);
+        };
+    }
+
+    /**
+     * Pack a wave type and a color into a single int.
+     * @param waveType the wave type
+     * @param color the color
+     * @return the wave type in the highest byte and the RGB color in the lowest 3 bytes
+     */
+    static int pack(WaveTypes waveType, Color color) {
+        return encodeWaveType(waveType) << 24
+                | (color.getRed() & 0xFF) << 16
+                | (color.getGreen() & 0xFF) << 8
+                | (color.getBlue() & 0xFF);
+    }
+
+    /**
+     * Unpack the color from a packed int.
+     * @param packed the packed wave type and color
+     * @return the color
+     */
+    static Color unpackColor(int packed) {
+        return new Color((packed >>> 16) & 0xFF, (packed >>> 8) & 0xFF, packed & 0xFF);
+    }
+
+    /**
+     * Unpack the wave type from a packed int.
+     * @param packed the packed wave type and color
+     * @return the wave type
+     */
+    static WaveTypes unpackWaveType(int packed) {
+        return decodeWaveType(packed >>> 24);
+    }
+}
@@ -0,0 +1,213 @@
+package edu.vanier.fxwavegenerationsimulator.io;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The reader of the binary wave simulation format (.wavesim), see WaveSimFormat for the layout.
+ * The file is memory-mapped as a whole (as a MemorySegment, so files larger than 2 GB are supported),
+ * and only the pages that are actually accessed are read from the disk.
+ * Records are decoded on demand, so a library can be browsed (or streamed) without loading all of it.
+ *
+ * @author Qian Qian
+ */
+public class WaveSimReader implements AutoCloseable, Iterable<Wave> {
+    private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment segment;
+
+    private final int version;
+    private final int recordSize;
+    private final long waveCount;
+    private final long blockOffset;
+    private final int blockType;
+    private final int blockLength;
+
+    /**
+     * Open a reader on a file and validate its header.
+     * @param path the path of the file
+     * @throws IOException if the file cannot be opened or is not a valid .wavesim file
+     */
+    public WaveSimReader(Path path) throws IOException {
+        this.arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < WaveSimFormat.HEADER_SIZE) {
+                throw new IOException(path + " is too small to be a " + WaveSimFormat.EXTENSION + " file.");
+            }
+            this.segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+
+        try {
+            if (segment.get(INT, 0) != WaveSimFormat.MAGIC) {
+                throw new IOException(path + " is not a " + WaveSimFormat.EXTENSION + " file.");
+            }
+            this.version = segment.get(SHORT, 4);
+            this.recordSize = segment.get(SHORT, 6);
+            this.waveCount = segment.get(LONG, 8);
+            this.blockOffset = segment.get(LONG, 16);
+            this.blockType = segment.get(INT, 24);
+            this.blockLength = segment.get(INT, 28);
+            if (version < 1 || version > WaveSimFormat.VERSION) {
+                throw new IOException(path + " uses an unsupported format version " + version + ".");
+            }
+            if (recordSize < (version >= 2 ? WaveSimFormat.RECORD_SIZE : WaveSimFormat.RECORD_SIZE_V1)
+                    || waveCount < 0 || recordsEnd(waveCount, recordSize) > segment.byteSize()) {
+                throw new IOException(path + " is truncated or has an invalid header.");
+            }
+            long blockSize = switch (blockType) {
+                case WaveSimFormat.BLOCK_NONE -> 0;
+                case WaveSimFormat.BLOCK_FRAME_FLOAT32 -> (long) blockLength * Float.BYTES;
+                case WaveSimFormat.BLOCK_AUDIO_PCM8 -> blockLength;
+                default -> throw new IOException(path + " has an unknown block type " + blockType + ".");
+            };
+            if (blockType != WaveSimFormat.BLOCK_NONE && (blockLength < 0
+                    || blockOffset < recordsEnd(waveCount, recordSize)
+                    || blockOffset > segment.byteSize() - blockSize)) {
+                throw new IOException(path + " has an embedded block out of the file.");
+            }
+        } catch (IOException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the end of the wave records (the offset of the byte after the last one).
+     * @throws IOException if the header is so corrupt that the end is not even a long
+     */
+    private static long recordsEnd(long waveCount, int recordSize) throws IOException {
+        try {
+            return Math.addExact(WaveSimFormat.HEADER_SIZE, Math.multiplyExact(waveCount, recordSize));
+        } catch (ArithmeticException e) {
+            throw new IOException("The number of waves " + waveCount + " is too large.", e);
+        }
+    }
+
+    /**
+     * Get the format version of the file.
+     * @return the format version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the number of waves stored in the file.
+     * @return the number of waves
+     */
+    public long getWaveCount() {
+        return waveCount;
+    }
+
+    /**
+     * Decode a wave record.
+     * @param index the index of the wave
+     * @return a new wave object with the data of the record
+     */
+    public Wave getWave(long index) {
+        if (index < 0 || index >= waveCount) {
+            throw new IndexOutOfBoundsException("Wave index " + index + " out of bounds for " + waveCount + " waves.");
+        }
+        long offset = WaveSimFormat.HEADER_SIZE + index * recordSize;
+        int frequency = segment.get(INT, offset);
+        double amplitude = segment.get(DOUBLE, offset + 4);
+        int packed = segment.get(INT, offset + 12);
+        double dutyCycle = version >= 2 ? segment.get(DOUBLE, offset + 16) : Waveforms.DEFAULT_DUTY_CYCLE;
+        return new Wave(WaveSimFormat.unpackWaveType(packed), frequency, amplitude, dutyCycle,
+                WaveSimFormat.unpackColor(packed));
+    }
+
+    /**
+     * Iterate over the waves of the file, decoding each of them on demand.
+     * @return an iterator over the waves
+     */
+    @Override
+    public Iterator<Wave> iterator() {
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return index < waveCount;
+            }
+
+            @Override
+            public Wave next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getWave(index++);
+            }
+        };
+    }
+
+    /**
+     * Get the type of the embedded block.
+     * @return the type of the block (see WaveSimFormat.BLOCK_*)
+     */
+    public int getBlockType() {
+        return blockType;
+    }
+
+    /**
+     * Get the number of samples in the embedded block.
+     * @return the number of samples, or 0 if there is no block
+     */
+    public int getBlockLength() {
+        return blockLength;
+    }
+
+    /**
+     * Read the embedded pre-rendered frame.
+     * @return the samples of the frame
+     */
+    public float[] getFrameBlock() {
+        if (blockType != WaveSimFormat.BLOCK_FRAME_FLOAT32) {
+            throw new IllegalStateException("The file does not contain a pre-rendered frame.");
+        }
+        float[] frame = new float[blockLength];
+        MemorySegment.copy(segment, FLOAT, blockOffset, frame, 0, blockLength);
+        return frame;
+    }
+
+    /**
+     * Read the embedded pre-rendered audio.
+     * @return the signed 8-bit samples of the audio
+     */
+    public byte[] getAudioBlock() {
+        if (blockType != WaveSimFormat.BLOCK_AUDIO_PCM8) {
+            throw new IllegalStateException("The file does not contain pre-rendered audio.");
+        }
+        byte[] audio = new byte[blockLength];
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, blockOffset, audio, 0, blockLength);
+        return audio;
+    }
+
+    /**
+     * Unmap the file.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
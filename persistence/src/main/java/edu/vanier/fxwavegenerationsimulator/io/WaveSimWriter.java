@@ -0,0 +1,164 @@
+package edu.vanier.fxwavegenerationsimulator.io;
+
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The writer of the binary wave simulation format (.wavesim), see WaveSimFormat for the layout.
+ * Waves are streamed to the file through a FileChannel as they are written, so the number of waves
+ * does not need to be known in advance: the header is completed when the writer is closed.
+ *
+ * @author Qian Qian
+ */
+public class WaveSimWriter implements AutoCloseable {
+    /**
+     * The size of the write buffer.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * The number of waves written so far.
+     */
+    private long waveCount;
+
+    private long blockOffset;
+    private int blockType = WaveSimFormat.BLOCK_NONE;
+    private int blockLength;
+
+    /**
+     * Open a writer on a file (which is overwritten if it already exists).
+     * @param path the path of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public WaveSimWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        // Leave room for the header, which is written when the writer is closed.
+        channel.position(WaveSimFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Make sure there is enough room left in the buffer, flushing it to the file if needed.
+     * @param bytes the number of bytes about to be put into the buffer
+     */
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write a wave record.
+     * @param wave the wave to be written
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Wave wave) throws IOException {
+        if (blockType != WaveSimFormat.BLOCK_NONE) {
+            throw new IllegalStateException("Waves cannot be written after the embedded block.");
+        }
+        ensureRemaining(WaveSimFormat.RECORD_SIZE);
+        buffer.putInt(wave.getFrequency());
+        buffer.putDouble(wave.getAmplitude());
+        buffer.putInt(WaveSimFormat.pack(wave.getWaveType(), wave.getColor()));
+        buffer.putDouble(wave.getDutyCycle());
+        waveCount++;
+    }
+
+    /**
+     * Start the embedded block after the wave records (there can only be one block per file).
+     * @param type the type of the block
+     * @param length the number of samples in the block
+     */
+    private void beginBlock(int type, int length) throws IOException {
+        if (blockType != WaveSimFormat.BLOCK_NONE) {
+            throw new IllegalStateException("A file can only have one embedded block.");
+        }
+        flush();
+        // Align the block to 8 bytes.
+        long position = channel.position();
+        blockOffset = (position + 7) & ~7L;
+        channel.position(blockOffset);
+        blockType = type;
+        blockLength = length;
+    }
+
+    /**
+     * Write a pre-rendered frame (e.g. the combined wave at a given time) as the embedded block.
+     * @param frame the samples of the frame
+     * @throws IOException if the file cannot be written
+     */
+    public void writeFrameBlock(float[] frame) throws IOException {
+        beginBlock(WaveSimFormat.BLOCK_FRAME_FLOAT32, frame.length);
+        for (float sample : frame) {
+            ensureRemaining(Float.BYTES);
+            buffer.putFloat(sample);
+        }
+    }
+
+    /**
+     * Write pre-rendered audio (e.g. the SoundController buffer) as the embedded block.
+     * @param audio the signed 8-bit samples of the audio
+     * @throws IOException if the file cannot be written
+     */
+    public void writeAudioBlock(byte[] audio) throws IOException {
+        beginBlock(WaveSimFormat.BLOCK_AUDIO_PCM8, audio.length);
+        int offset = 0;
+        while (offset < audio.length) {
+            ensureRemaining(1);
+            int length = Math.min(buffer.remaining(), audio.length - offset);
+            buffer.put(audio, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Get the number of waves written so far.
+     * @return the number of waves written
+     */
+    public long getWaveCount() {
+        return waveCount;
+    }
+
+    /**
+     * Flush the remaining data, complete the header and close the file.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(WaveSimFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(WaveSimFormat.MAGIC);
+            header.putShort(WaveSimFormat.VERSION);
+            header.putShort((short) WaveSimFormat.RECORD_SIZE);
+            header.putLong(waveCount);
+            header.putLong(blockOffset);
+            header.putInt(blockType);
+            header.putInt(blockLength);
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package edu.vanier.fxwavegenerationsimulator.recording;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A cursor over the records of a recording, from a position given by RecordingReader.seek (or the start).
+ * The cursor keeps track of the waves of the recording, so getWaves always returns the waves at the time of the
+ * current record, and the records are decoded on demand.
+ * The audio blocks are the looping clip of the audio, given again every time the waves are edited, so the clip of
+ * the current waves is the audio blocks that follow the latest edit.
+ *
+ * @author Qian Qian
+ */
+public class RecordingCursor {
+    private final RecordingReader reader;
+    private int segmentNumber;
+    private long position;
+
+    private MemorySegment current;
+    private short version;
+    private int type;
+    private long timeMicros;
+    private long payloadOffset;
+    private int payloadLength;
+    private List<Wave> waves;
+
+    /**
+     * Instantiate a cursor before a record.
+     * @param reader the reader of the recording
+     * @param segmentNumber the segment of the record
+     * @param position the offset of the record in the segment
+     */
+    RecordingCursor(RecordingReader reader, int segmentNumber, long position) {
+        this.reader = reader;
+        this.segmentNumber = segmentNumber;
+        this.position = position;
+    }
+
+    /**
+     * Make the position point to the next complete record, moving to the next segment when the current one ends.
+     * @return false if there are no more complete records
+     */
+    private boolean locate() {
+        while (true) {
+            MemorySegment segment = reader.segment(segmentNumber);
+            if (segment == null) {
+                return false;
+            }
+            long size = segment.byteSize();
+            if (position + RecordingFormat.RECORD_HEADER_SIZE <= size) {
+                int length = segment.get(RecordingReader.INT, position);
+                int recordType = segment.get(ValueLayout.JAVA_BYTE, position + 4);
+                if (length >= 0 && recordType >= RecordingFormat.RECORD_FRAME && recordType <= RecordingFormat.RECORD_AUDIO
+                        && position + RecordingFormat.RECORD_HEADER_SIZE + length <= size) {
+                    return true;
+                }
+            }
+            // The rest of the segment is empty or cut short.
+            segmentNumber++;
+            position = RecordingFormat.SEGMENT_HEADER_SIZE;
+        }
+    }
+
+    /**
+     * Move to the first record at or after a recording time, without reading it.
+     * @param time the recording time (in microseconds)
+     */
+    void skipTo(long time) {
+        while (locate() && reader.segment(segmentNumber).get(RecordingReader.LONG, position + 8) < time) {
+            next();
+        }
+    }
+
+    /**
+     * Move to the next record.
+     * @return false if there are no more records
+     */
+    public boolean next() {
+        if (!locate()) {
+            return false;
+        }
+        current = reader.segment(segmentNumber);
+        version = current.get(RecordingReader.SHORT, 4);
+        payloadLength = current.get(RecordingReader.INT, position);
+        type = current.get(ValueLayout.JAVA_BYTE, position + 4);
+        timeMicros = current.get(RecordingReader.LONG, position + 8);
+        payloadOffset = position + RecordingFormat.RECORD_HEADER_SIZE;
+        position = payloadOffset + RecordingFormat.alignedLength(payloadLength);
+        if (type == RecordingFormat.RECORD_WAVES) {
+            byte[] json = new byte[payloadLength];
+            MemorySegment.copy(current, ValueLayout.JAVA_BYTE, payloadOffset, json, 0, payloadLength);
+            waves = List.copyOf(JsonDataController.importWaveSimulation(new String(json, StandardCharsets.UTF_8)));
+        }
+        return true;
+    }
+
+    /**
+     * Get the type of the current record.
+     * @return the record type (see RecordingFormat.RECORD_*)
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Get the recording time of the current record.
+     * @return the recording time (in microseconds)
+     */
+    public long getTimeMicros() {
+        return timeMicros;
+    }
+
+    /**
+     * Get the waves at the time of the current record.
+     * @return the immutable list of the waves, or null if no waves were recorded yet
+     */
+    public List<Wave> getWaves() {
+        return waves;
+    }
+
+    private void checkType(int expected) {
+        if (type != expected) {
+            throw new IllegalStateException("The current record is not of type " + expected + ".");
+        }
+    }
+
+    /**
+     * Get the simulated time of the current frame.
+     * @return the simulated time (in milliseconds)
+     */
+    public int getMilliseconds() {
+        checkType(RecordingFormat.RECORD_FRAME);
+        return current.get(RecordingReader.INT, payloadOffset);
+    }
+
+    /**
+     * Get the range of positions the current frame was evaluated over.
+     * @return the viewport, or null for a frame of a version 1 recording
+     */
+    public Viewport getViewport() {
+        checkType(RecordingFormat.RECORD_FRAME);
+        if (version < 2) {
+            return null;
+        }
+        return new Viewport(current.get(RecordingReader.DOUBLE, payloadOffset + 16),
+                current.get(RecordingReader.DOUBLE, payloadOffset + 24),
+                current.get(RecordingReader.INT, payloadOffset + 4));
+    }
+
+    /**
+     * Check whether the current frame is an envelope (the minimum then the maximum of each pixel).
+     * @return true for an envelope, false for samples (always for a frame of a version 1 recording)
+     */
+    public boolean isEnvelope() {
+        checkType(RecordingFormat.RECORD_FRAME);
+        return version >= 2
+                && (current.get(RecordingReader.INT, payloadOffset + 8) & RecordingFormat.FLAG_ENVELOPE) != 0;
+    }
+
+    /**
+     * Read the samples of the combined wave of the current frame.
+     * @return the samples
+     */
+    public float[] getFrame() {
+        checkType(RecordingFormat.RECORD_FRAME);
+        float[] frame = new float[current.get(RecordingReader.INT, payloadOffset + 4)];
+        long samplesOffset = payloadOffset + (version < 2 ? 8 : RecordingFormat.FRAME_HEADER_SIZE);
+        MemorySegment.copy(current, RecordingReader.FLOAT, samplesOffset, frame, 0, frame.length);
+        return frame;
+    }
+
+    /**
+     * Get the offset of the first sample of the current audio block in the looping clip.
+     * @return the offset of the block
+     */
+    public int getAudioOffset() {
+        checkType(RecordingFormat.RECORD_AUDIO);
+        return current.get(RecordingReader.INT, payloadOffset);
+    }
+
+    /**
+     * Read the samples of the current audio block.
+     * @return the signed 8-bit samples at 44100 Hz
+     */
+    public byte[] getAudio() {
+        checkType(RecordingFormat.RECORD_AUDIO);
+        byte[] audio = new byte[payloadLength - 4];
+        MemorySegment.copy(current, ValueLayout.JAVA_BYTE, payloadOffset + 4, audio, 0, audio.length);
+        return audio;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case RecordingFormat.RECORD_FRAME -> "%s at %.3f s (t = %d ms, %s)".formatted(
+                    isEnvelope() ? "Envelope" : "Frame", timeMicros / 1e6, getMilliseconds(), getViewport());
+            case RecordingFormat.RECORD_WAVES -> "Waves at %.3f s".formatted(timeMicros / 1e6);
+            case RecordingFormat.RECORD_AUDIO -> "Audio at %.3f s (offset %d)".formatted(timeMicros / 1e6, getAudioOffset());
+            default -> "Before the first record";
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package edu.vanier.fxwavegenerationsimulator.recording;
+
+import java.nio.file.Path;
+
+/**
+ * The constants of the session recording format.
+ * A recording is a directory holding an append-only log split into segment files, and a sparse time index.
+ * All values are little-endian. The files are made of:
+ * <pre>
+ * Segment file (segment-NNNNNN.wrec)
+ *   Header (16 bytes)
+ *     0  int   magic ("WREC")
+ *     4  short format version
+ *     6  short reserved
+ *     8  int   segment number
+ *     12 int   reserved
+ *   Records (each 8-byte aligned, one after the other until the end of the file)
+ *     0  int   payload length (in bytes)
+ *     4  byte  record type (see RECORD_*)
+ *     5  byte[3] padding
+ *     8  long  recording time (in microseconds since the recording started)
+ *     16 payload, padded to a multiple of 8 bytes
+ * Payloads
+ *   RECORD_FRAME  (FRAME_HEADER_SIZE bytes, then the samples)
+ *     0  int   simulated time (in milliseconds)
+ *     4  int   sample count
+ *     8  int   flags (FLAG_ENVELOPE)
+ *     12 int   reserved
+ *     16 double first position of the viewport (in meters)
+ *     24 double end of the viewport, excluded (in meters)
+ *     32 float32 samples of the combined wave (the minimum then the maximum of each pixel for an envelope)
+ *   RECORD_WAVES  UTF-8 JSON of the waves (see JsonDataController), a keyframe that replaces the current waves
+ *   RECORD_AUDIO  int offset of the first sample in the looping clip, signed 8-bit samples at 44100 Hz
+ * Index file (index.widx)
+ *   Header (16 bytes)
+ *     0  int   magic ("WIDX")
+ *     4  short format version
+ *     6  short reserved
+ *     8  long  reserved
+ *   Entries (16 bytes each, in increasing recording time)
+ *     0  long  recording time (in microseconds)
+ *     8  int   segment number
+ *     12 int   offset of a RECORD_WAVES keyframe in the segment
+ * </pre>
+ * Version 1 frames only held the simulated time, the sample count and the samples (from offset 8); they are still
+ * read, without a viewport.
+ * A keyframe is written at the start of every segment, every time the waves are edited, and at least every
+ * KEYFRAME_INTERVAL_MICROS of recording time, and only keyframes are indexed. Seeking is therefore a binary search
+ * in the index followed by a short forward scan, and never needs the records before the keyframe.
+ * A record is valid only if it fits in the file, so a recording cut short (e.g. by a crash) can still be read
+ * up to its last complete record.
+ *
+ * @author Qian Qian
+ */
+public final class RecordingFormat {
+    /**
+     * The magic number at the start of every segment file ("WREC").
+     */
+    public static final int SEGMENT_MAGIC = 0x43455257;
+    /**
+     * The magic number at the start of the index file ("WIDX").
+     */
+    public static final int INDEX_MAGIC = 0x58444957;
+    /**
+     * The current version of the format.
+     */
+    public static final short VERSION = 2;
+
+    /**
+     * The size of the header of a segment file (in bytes).
+     */
+    public static final int SEGMENT_HEADER_SIZE = 16;
+    /**
+     * The size of the header of a record (in bytes).
+     */
+    public static final int RECORD_HEADER_SIZE = 16;
+    /**
+     * The size of the header of the index file (in bytes).
+     */
+    public static final int INDEX_HEADER_SIZE = 16;
+    /**
+     * The size of an index entry (in bytes).
+     */
+    public static final int INDEX_ENTRY_SIZE = 16;
+
+    /**
+     * The record type of a frame of the combined wave.
+     */
+    public static final int RECORD_FRAME = 1;
+    /**
+     * The record type of a keyframe holding the current waves.
+     */
+    public static final int RECORD_WAVES = 2;
+    /**
+     * The record type of a block of audio.
+     */
+    public static final int RECORD_AUDIO = 3;
+
+    /**
+     * The size of the fixed part of a frame payload, before the samples (in bytes).
+     */
+    public static final int FRAME_HEADER_SIZE = 32;
+    /**
+     * The flag of a frame holding the minimum and the maximum of each pixel rather than samples.
+     */
+    public static final int FLAG_ENVELOPE = 1;
+
+    /**
+     * The size a segment grows to before the next record starts a new segment (64 MB).
+     */
+    public static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    /**
+     * The longest recording time between two keyframes (1 second), which bounds the forward scan of a seek.
+     */
+    public static final long KEYFRAME_INTERVAL_MICROS = 1_000_000;
+
+    /**
+     * The name of the index file in a recording directory.
+     */
+    public static final String INDEX_FILE_NAME = "index.widx";
+
+    private RecordingFormat() {
+    }
+
+    /**
+     * Get the path of a segment file of a recording.
+     * @param directory the directory of the recording
+     * @param segment the segment number
+     * @return the path of the segment file
+     */
+    public static Path segmentPath(Path directory, int segment) {
+        return directory.resolve("segment-%06d.wrec".formatted(segment));
+    }
+
+    /**
+     * Round the size of a payload up to the 8-byte alignment of the records.
+     * @param payloadLength the length of the payload (in bytes)
+     * @return the length of the payload including the padding
+     */
+    public static int alignedLength(int payloadLength) {
+        return (payloadLength + 7) & ~7;
+    }
+}
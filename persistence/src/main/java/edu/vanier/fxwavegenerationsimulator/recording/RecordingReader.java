@@ -0,0 +1,232 @@
+package edu.vanier.fxwavegenerationsimulator.recording;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The reader of a session recording, see RecordingFormat for the layout.
+ * The index and the segments are memory-mapped (as MemorySegments, segments only when they are first accessed),
+ * so seeking anywhere in a recording of many hours is a binary search in the index followed by a scan of at most
+ * one keyframe interval of records, and only the pages that are actually accessed are read from the disk.
+ * A recording that is still being written can be read up to the records written when it was opened.
+ *
+ * @author Qian Qian
+ */
+public class RecordingReader implements AutoCloseable {
+    static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfFloat FLOAT = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Path directory;
+    private final Arena arena;
+    private final MemorySegment index;
+    private final long keyframeCount;
+    private final MemorySegment[] segments;
+
+    /**
+     * Open a recording and validate its index.
+     * @param directory the directory of the recording
+     * @throws IOException if the recording cannot be opened or is not a valid recording
+     */
+    public RecordingReader(Path directory) throws IOException {
+        this.directory = directory;
+        int segmentCount = 0;
+        while (Files.exists(RecordingFormat.segmentPath(directory, segmentCount))) {
+            segmentCount++;
+        }
+        if (segmentCount == 0) {
+            throw new IOException(directory + " does not contain a recording.");
+        }
+        this.segments = new MemorySegment[segmentCount];
+        this.arena = Arena.ofShared();
+        try {
+            this.index = map(directory.resolve(RecordingFormat.INDEX_FILE_NAME));
+            if (index.byteSize() < RecordingFormat.INDEX_HEADER_SIZE
+                    || index.get(INT, 0) != RecordingFormat.INDEX_MAGIC) {
+                throw new IOException(directory + " does not contain a valid recording index.");
+            }
+            checkVersion(index.get(SHORT, 4));
+            // An entry cut short at the end of the index is ignored.
+            this.keyframeCount = (index.byteSize() - RecordingFormat.INDEX_HEADER_SIZE) / RecordingFormat.INDEX_ENTRY_SIZE;
+            MemorySegment first = segment(0);
+            if (first.byteSize() < RecordingFormat.SEGMENT_HEADER_SIZE
+                    || first.get(INT, 0) != RecordingFormat.SEGMENT_MAGIC) {
+                throw new IOException(directory + " does not contain a valid recording segment.");
+            }
+            checkVersion(first.get(SHORT, 4));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Check that a version of the format can be read.
+     * @param version the version of the index or of a segment
+     * @throws IOException if the version is unknown
+     */
+    private void checkVersion(short version) throws IOException {
+        if (version < 1 || version > RecordingFormat.VERSION) {
+            throw new IOException(directory + " is a recording of unsupported version " + version + ".");
+        }
+    }
+
+    /**
+     * Map a whole file.
+     * @param path the path of the file
+     * @return the mapped file
+     */
+    private MemorySegment map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+    }
+
+    /**
+     * Get a segment, mapping it the first time it is accessed.
+     * @param number the segment number
+     * @return the mapped segment, or null if there is no such segment
+     */
+    synchronized MemorySegment segment(int number) {
+        if (number < 0 || number >= segments.length) {
+            return null;
+        }
+        if (segments[number] == null) {
+            try {
+                segments[number] = map(RecordingFormat.segmentPath(directory, number));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map segment " + number + " of " + directory + ".", e);
+            }
+        }
+        return segments[number];
+    }
+
+    /**
+     * Get the number of segments of the recording.
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Get the number of keyframes in the index.
+     * @return the number of keyframes
+     */
+    public long getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * Get the recording time of a keyframe.
+     * @param keyframe the index of the keyframe
+     * @return the recording time of the keyframe (in microseconds)
+     */
+    public long getKeyframeTime(long keyframe) {
+        return index.get(LONG, RecordingFormat.INDEX_HEADER_SIZE + keyframe * RecordingFormat.INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Find the last keyframe at or before a recording time, with a binary search in the index.
+     * @param timeMicros the recording time (in microseconds)
+     * @return the index of the keyframe, or -1 if the time is before the first keyframe
+     */
+    public long findKeyframe(long timeMicros) {
+        long low = 0;
+        long high = keyframeCount - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            if (getKeyframeTime(middle) <= timeMicros) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Get the recording time of the last record.
+     * @return the recording time of the last record (in microseconds), or 0 if the recording is empty
+     */
+    public long getDurationMicros() {
+        RecordingCursor cursor = seek(keyframeCount == 0 ? 0 : getKeyframeTime(keyframeCount - 1));
+        long duration = 0;
+        while (cursor.next()) {
+            duration = cursor.getTimeMicros();
+        }
+        return duration;
+    }
+
+    /**
+     * Get a cursor before the first record of the recording.
+     * @return the cursor
+     */
+    public RecordingCursor cursor() {
+        return new RecordingCursor(this, 0, RecordingFormat.SEGMENT_HEADER_SIZE);
+    }
+
+    /**
+     * Get a cursor before the first record at or after a recording time, which already knows the waves at that time.
+     * @param timeMicros the recording time (in microseconds)
+     * @return the cursor
+     */
+    public RecordingCursor seek(long timeMicros) {
+        long keyframe = findKeyframe(timeMicros);
+        RecordingCursor cursor;
+        if (keyframe < 0) {
+            cursor = cursor();
+        } else {
+            long entry = RecordingFormat.INDEX_HEADER_SIZE + keyframe * RecordingFormat.INDEX_ENTRY_SIZE;
+            cursor = new RecordingCursor(this, index.get(INT, entry + 8), index.get(INT, entry + 12));
+            // Read the keyframe, so the cursor knows the waves even if it is at the given time.
+            cursor.next();
+        }
+        cursor.skipTo(timeMicros);
+        return cursor;
+    }
+
+    /**
+     * Unmap the recording. The cursors must not be used anymore.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Print the summary of a recording, and the state of the recording at some times.
+     * Usage: RecordingReader DIRECTORY [SECONDS]...
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RecordingReader DIRECTORY [SECONDS]...");
+            System.exit(2);
+        }
+        try (RecordingReader reader = new RecordingReader(Path.of(args[0]))) {
+            System.out.printf("%d segments, %d keyframes, %.3f s%n", reader.getSegmentCount(),
+                    reader.getKeyframeCount(), reader.getDurationMicros() / 1e6);
+            for (String time : List.of(args).subList(1, args.length)) {
+                long start = System.nanoTime();
+                RecordingCursor cursor = reader.seek((long) (Double.parseDouble(time) * 1e6));
+                long seekNanos = System.nanoTime() - start;
+                if (cursor.next()) {
+                    System.out.printf("%s s (seek %d us): %s, %d waves%n", time, seekNanos / 1000, cursor,
+                            cursor.getWaves() == null ? 0 : cursor.getWaves().size());
+                } else {
+                    System.out.printf("%s s (seek %d us): end of the recording%n", time, seekNanos / 1000);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package edu.vanier.fxwavegenerationsimulator.recording;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.AudioBlockListener;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records a running session (the frames, the edits of the waves and the audio blocks) into a recording directory,
+ * see RecordingFormat for the layout. It is subscribed to the frame publisher of a simulation,
+ * and can be given to SoundController.addAudioBlockListener to record the audio as well.
+ * <p>
+ * Recording never blocks the simulation: the frames and audio blocks are only offered to a bounded queue
+ * (they are dropped and counted when the queue is full), and a background writer encodes and writes them in batches.
+ * The edits of the waves are detected from the snapshot of the waves of each frame, so they are never lost
+ * even when frames are dropped.
+ *
+ * @author Qian Qian
+ */
+public class SessionRecorder implements Flow.Subscriber<SimulationFrame>, AudioBlockListener, AutoCloseable {
+    private final static Logger logger = LoggerFactory.getLogger(SessionRecorder.class);
+
+    /**
+     * The default number of frames and audio blocks waiting to be written.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * The largest number of records written in one batch.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * An audio block waiting to be written (a copy of the samples, as the listener may reuse its buffer).
+     */
+    private record AudioBlock(long timeMicros, int sampleOffset, byte[] samples) {
+    }
+
+    /**
+     * How long close() waits for room for END in the queue before it checks that the writer is still running.
+     */
+    private static final long END_OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * The marker that tells the writer to stop once everything before it is written.
+     */
+    private static final Object END = new Object();
+
+    private final Path directory;
+    private final BlockingQueue<Object> queue;
+    private final Thread writer;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong recordedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    // Only used by the writer thread.
+    private final FileChannel indexChannel;
+    private final ByteBuffer indexBuffer = ByteBuffer.allocate(BATCH_SIZE * RecordingFormat.INDEX_ENTRY_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel segmentChannel;
+    private int segmentNumber = -1;
+    private long segmentPosition;
+    private List<Wave> waves;
+    private long lastKeyframeMicros;
+    private long lastTimeMicros;
+
+    /**
+     * Start a recording with the default queue capacity.
+     * @param directory the directory of the recording (created if needed, and must not hold another recording)
+     * @throws IOException if the files of the recording cannot be created
+     */
+    public SessionRecorder(Path directory) throws IOException {
+        this(directory, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Start a recording.
+     * @param directory the directory of the recording (created if needed, and must not hold another recording)
+     * @param queueCapacity the number of frames and audio blocks that can wait to be written before they are dropped
+     * @throws IOException if the files of the recording cannot be created
+     */
+    public SessionRecorder(Path directory, int queueCapacity) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.indexChannel = FileChannel.open(directory.resolve(RecordingFormat.INDEX_FILE_NAME),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(RecordingFormat.INDEX_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(RecordingFormat.INDEX_MAGIC).putShort(RecordingFormat.VERSION).putShort((short) 0).putLong(0)
+                    .flip();
+            indexChannel.write(header);
+            startSegment();
+        } catch (IOException e) {
+            indexChannel.close();
+            throw e;
+        }
+        this.writer = Thread.ofVirtual().name("session-recorder-" + directory.getFileName()).start(this::writeLoop);
+        logger.info("Recording the session to {}", directory);
+    }
+
+    /**
+     * Get the recording time of now.
+     * @param nanos a time given by System.nanoTime()
+     * @return the time since the recording started (in microseconds)
+     */
+    private long timeMicros(long nanos) {
+        return Math.max(0, (nanos - startNanos) / 1000);
+    }
+
+    /**
+     * Offer a frame or audio block to the writer without waiting.
+     * @param item the frame or audio block
+     */
+    private void offer(Object item) {
+        if (closed || failure != null || !queue.offer(item)) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(SimulationFrame frame) {
+        offer(frame);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+    }
+
+    @Override
+    public void onComplete() {
+    }
+
+    @Override
+    public void onAudioBlock(int sampleOffset, byte[] samples, int offset, int length) {
+        offer(new AudioBlock(timeMicros(System.nanoTime()), sampleOffset,
+                Arrays.copyOfRange(samples, offset, offset + length)));
+    }
+
+    /**
+     * Write the queued frames and audio blocks in batches until the recording is closed.
+     */
+    private void writeLoop() {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                boolean end = false;
+                for (Object item : batch) {
+                    if (item == END) {
+                        end = true;
+                    } else if (item instanceof SimulationFrame frame) {
+                        writeFrame(frame);
+                    } else if (item instanceof AudioBlock block) {
+                        writeAudio(block);
+                    }
+                }
+                recordedCount.addAndGet(batch.size() - (end ? 1 : 0));
+                batch.clear();
+                flush();
+                if (end) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Any failure stops the writer, so it is recorded for close() (which would otherwise wait for it forever).
+            logger.error("Recording to {} failed, the rest of the session is not recorded.", directory, e);
+            failure = e instanceof IOException ioException ? ioException
+                    : new IOException("Recording to " + directory + " failed.", e);
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write a frame (the combined wave), preceded by a keyframe if the waves were edited or the last one is too old.
+     * @param frame the frame
+     */
+    private void writeFrame(SimulationFrame frame) throws IOException {
+        long time = Math.max(lastTimeMicros, timeMicros(frame.publishedNanos()));
+        if (frame.waves() != waves || time - lastKeyframeMicros >= RecordingFormat.KEYFRAME_INTERVAL_MICROS) {
+            waves = frame.waves();
+            writeKeyframe(time);
+        }
+        for (Map.Entry<Wave, double[]> entry : frame.dataPoints().entrySet()) {
+            if (entry.getKey().getWaveType() == WaveTypes.DUMMY) {
+                double[] combined = entry.getValue();
+                ByteBuffer payload = beginRecord(RecordingFormat.RECORD_FRAME, time,
+                        RecordingFormat.FRAME_HEADER_SIZE + combined.length * Float.BYTES);
+                payload.putInt(frame.milliseconds()).putInt(combined.length)
+                        .putInt(frame.envelope() ? RecordingFormat.FLAG_ENVELOPE : 0).putInt(0)
+                        .putDouble(frame.viewport().start()).putDouble(frame.viewport().end());
+                for (double value : combined) {
+                    payload.putFloat((float) value);
+                }
+                endRecord();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write an audio block.
+     * @param block the audio block
+     */
+    private void writeAudio(AudioBlock block) throws IOException {
+        long time = Math.max(lastTimeMicros, block.timeMicros());
+        if (waves != null && time - lastKeyframeMicros >= RecordingFormat.KEYFRAME_INTERVAL_MICROS) {
+            writeKeyframe(time);
+        }
+        beginRecord(RecordingFormat.RECORD_AUDIO, time, 4 + block.samples().length)
+                .putInt(block.sampleOffset()).put(block.samples());
+        endRecord();
+    }
+
+    /**
+     * Write a keyframe with the current waves, and index it.
+     * @param time the recording time of the keyframe (in microseconds)
+     */
+    private void writeKeyframe(long time) throws IOException {
+        byte[] json = JsonDataController.exportWaveSimulation(waves).getBytes(StandardCharsets.UTF_8);
+        int recordSize = RecordingFormat.RECORD_HEADER_SIZE + RecordingFormat.alignedLength(json.length);
+        if (segmentPosition + buffer.position() > RecordingFormat.SEGMENT_HEADER_SIZE
+                && segmentPosition + buffer.position() + recordSize > RecordingFormat.SEGMENT_SIZE) {
+            flush();
+            startSegment();
+        }
+        long offset = segmentPosition + buffer.position();
+        beginRecord(RecordingFormat.RECORD_WAVES, time, json.length).put(json);
+        endRecord();
+        if (!indexBuffer.hasRemaining()) {
+            flush();
+        }
+        indexBuffer.putLong(time).putInt(segmentNumber).putInt((int) offset);
+        lastKeyframeMicros = time;
+    }
+
+    /**
+     * Start a record in the batch buffer, starting a new segment first if the record does not fit in the current one.
+     * @param type the record type
+     * @param time the recording time (in microseconds)
+     * @param payloadLength the length of the payload (in bytes)
+     * @return the batch buffer, to put the payload into
+     */
+    private ByteBuffer beginRecord(int type, long time, int payloadLength) throws IOException {
+        int recordSize = RecordingFormat.RECORD_HEADER_SIZE + RecordingFormat.alignedLength(payloadLength);
+        if (type != RecordingFormat.RECORD_WAVES
+                && segmentPosition + buffer.position() + recordSize > RecordingFormat.SEGMENT_SIZE) {
+            // Every segment starts with a keyframe, so it can be read on its own.
+            flush();
+            startSegment();
+            if (waves != null) {
+                writeKeyframe(time);
+            }
+        }
+        if (buffer.remaining() < recordSize) {
+            flush();
+            if (buffer.capacity() < recordSize) {
+                buffer = ByteBuffer.allocateDirect(recordSize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        buffer.putInt(payloadLength).put((byte) type).put((byte) 0).putShort((short) 0).putLong(time);
+        lastTimeMicros = time;
+        return buffer;
+    }
+
+    /**
+     * End a record in the batch buffer by padding its payload.
+     */
+    private void endRecord() {
+        while ((buffer.position() & 7) != 0) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Write the batch buffer to the current segment, then the new index entries
+     * (so the index never points past the written records).
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            segmentPosition += segmentChannel.write(buffer);
+        }
+        writtenBytes.addAndGet(buffer.limit());
+        buffer.clear();
+        indexBuffer.flip();
+        while (indexBuffer.hasRemaining()) {
+            indexChannel.write(indexBuffer);
+        }
+        indexBuffer.clear();
+    }
+
+    /**
+     * Close the current segment (if any) and start the next one.
+     */
+    private void startSegment() throws IOException {
+        if (segmentChannel != null) {
+            segmentChannel.close();
+        }
+        segmentNumber++;
+        segmentChannel = FileChannel.open(RecordingFormat.segmentPath(directory, segmentNumber),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(RecordingFormat.SEGMENT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(RecordingFormat.SEGMENT_MAGIC).putShort(RecordingFormat.VERSION).putShort((short) 0)
+                .putInt(segmentNumber).putInt(0).flip();
+        segmentChannel.write(header);
+        segmentPosition = RecordingFormat.SEGMENT_HEADER_SIZE;
+    }
+
+    /**
+     * Get the directory of the recording.
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the number of frames and audio blocks written so far.
+     * @return the number of frames and audio blocks written
+     */
+    public long getRecordedCount() {
+        return recordedCount.get();
+    }
+
+    /**
+     * Get the number of frames and audio blocks dropped because the writer was too slow (or failed).
+     * @return the number of frames and audio blocks dropped
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Get the number of bytes written to the segments so far.
+     * @return the number of bytes written
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    /**
+     * Stop recording, and wait until everything queued before is written (or the writer failed).
+     * @throws IOException if the recording failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            // The queue may stay full if the writer stopped, so END is only offered while it is running.
+            while (!queue.offer(END, END_OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS) && writer.isAlive()) {
+                logger.debug("Waiting for the writer of {} to catch up", directory);
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try (indexChannel; FileChannel channel = segmentChannel) {
+                indexChannel.force(false);
+                channel.force(false);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        logger.info("Recorded {} frames and audio blocks ({} dropped) to {}", getRecordedCount(), getDroppedCount(),
+                directory);
+    }
+
+    @Override
+    public String toString() {
+        return "Recording %s: %d recorded, %d dropped, %.1f MB".formatted(directory, getRecordedCount(),
+                getDroppedCount(), getWrittenBytes() / 1e6);
+    }
+}
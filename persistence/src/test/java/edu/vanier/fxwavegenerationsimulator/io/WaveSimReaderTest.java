@@ -0,0 +1,209 @@
+package edu.vanier.fxwavegenerationsimulator.io;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the .wavesim files written by WaveSimWriter are read back by WaveSimReader (including version 1 files),
+ * and that truncated or corrupt files are rejected with an IOException when they are opened.
+ *
+ * @author Qian Qian
+ */
+class WaveSimReaderTest {
+    @TempDir
+    Path directory;
+
+    private static List<Wave> waves() {
+        return List.of(
+                new Wave(WaveTypes.SIN, 3, 1, new Color(255, 0, 0)),
+                new Wave(WaveTypes.COS, 10, -0.5, new Color(0, 255, 0)),
+                new Wave(WaveTypes.PULSE, 20, 0.25, 0.2, new Color(0, 0, 255)),
+                new Wave(WaveTypes.TRIANGLE, 40, 0.75, new Color(12, 34, 56)));
+    }
+
+    private static void assertSameWave(Wave expected, Wave actual) {
+        assertEquals(expected.getWaveType(), actual.getWaveType());
+        assertEquals(expected.getFrequency(), actual.getFrequency());
+        assertEquals(expected.getAmplitude(), actual.getAmplitude());
+        assertEquals(expected.getDutyCycle(), actual.getDutyCycle());
+        assertEquals(expected.getColor().getRed(), actual.getColor().getRed());
+        assertEquals(expected.getColor().getGreen(), actual.getColor().getGreen());
+        assertEquals(expected.getColor().getBlue(), actual.getColor().getBlue());
+    }
+
+    private Path write(float[] frame) throws IOException {
+        Path path = directory.resolve("waves" + WaveSimFormat.EXTENSION);
+        try (WaveSimWriter writer = new WaveSimWriter(path)) {
+            for (Wave wave : waves()) {
+                writer.write(wave);
+            }
+            if (frame != null) {
+                writer.writeFrameBlock(frame);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Overwrite a part of a file (e.g. a field of the header).
+     */
+    private static void patch(Path path, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(bytes.flip(), position);
+        }
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    void readsTheWavesAndTheFrameBlock() throws IOException {
+        float[] frame = {0, 0.5f, -1, 1e-7f, Float.MAX_VALUE};
+        try (WaveSimReader reader = new WaveSimReader(write(frame))) {
+            assertEquals(WaveSimFormat.VERSION, reader.getVersion());
+            assertEquals(waves().size(), reader.getWaveCount());
+            List<Wave> read = new ArrayList<>();
+            reader.forEach(read::add);
+            for (int i = 0; i < waves().size(); i++) {
+                assertSameWave(waves().get(i), read.get(i));
+            }
+            assertEquals(WaveSimFormat.BLOCK_FRAME_FLOAT32, reader.getBlockType());
+            assertArrayEquals(frame, reader.getFrameBlock());
+        }
+    }
+
+    @Test
+    void readsTheAudioBlock() throws IOException {
+        Path path = directory.resolve("audio" + WaveSimFormat.EXTENSION);
+        byte[] audio = new byte[100_000];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = (byte) (i * 31);
+        }
+        try (WaveSimWriter writer = new WaveSimWriter(path)) {
+            writer.write(waves().getFirst());
+            writer.writeAudioBlock(audio);
+        }
+        try (WaveSimReader reader = new WaveSimReader(path)) {
+            assertEquals(1, reader.getWaveCount());
+            assertArrayEquals(audio, reader.getAudioBlock());
+        }
+    }
+
+    @Test
+    void readsVersion1Files() throws IOException {
+        Path path = directory.resolve("v1" + WaveSimFormat.EXTENSION);
+        ByteBuffer file = buffer(WaveSimFormat.HEADER_SIZE + 2 * WaveSimFormat.RECORD_SIZE_V1);
+        file.putInt(WaveSimFormat.MAGIC).putShort((short) 1).putShort((short) WaveSimFormat.RECORD_SIZE_V1)
+                .putLong(2).putLong(0).putInt(WaveSimFormat.BLOCK_NONE).putInt(0);
+        file.putInt(5).putDouble(0.5).putInt(WaveSimFormat.pack(WaveTypes.SIN, new Color(1, 2, 3)));
+        file.putInt(7).putDouble(-1).putInt(WaveSimFormat.pack(WaveTypes.COS, new Color(4, 5, 6)));
+        Files.write(path, file.array());
+        try (WaveSimReader reader = new WaveSimReader(path)) {
+            assertEquals(1, reader.getVersion());
+            assertSameWave(new Wave(WaveTypes.SIN, 5, 0.5, new Color(1, 2, 3)), reader.getWave(0));
+            assertSameWave(new Wave(WaveTypes.COS, 7, -1, new Color(4, 5, 6)), reader.getWave(1));
+            assertEquals(Waveforms.DEFAULT_DUTY_CYCLE, reader.getWave(1).getDutyCycle());
+        }
+    }
+
+    @Test
+    void rejectsAFileSmallerThanTheHeader() throws IOException {
+        Path path = directory.resolve("small" + WaveSimFormat.EXTENSION);
+        Files.write(path, new byte[WaveSimFormat.HEADER_SIZE - 1]);
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+
+    @Test
+    void rejectsAnotherFormat() throws IOException {
+        Path path = write(null);
+        patch(path, 0, buffer(4).putInt(0x46464952));
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+
+    @Test
+    void rejectsUnsupportedVersions() throws IOException {
+        for (short version : new short[]{0, -1, WaveSimFormat.VERSION + 1}) {
+            Path path = write(null);
+            patch(path, 4, buffer(2).putShort(version));
+            assertThrows(IOException.class, () -> new WaveSimReader(path), "version " + version);
+        }
+    }
+
+    @Test
+    void rejectsATooSmallRecordSize() throws IOException {
+        Path path = write(null);
+        patch(path, 6, buffer(2).putShort((short) WaveSimFormat.RECORD_SIZE_V1));
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+
+    @Test
+    void rejectsInvalidWaveCounts() throws IOException {
+        for (long waveCount : new long[]{-1, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE / 16, waves().size() + 1}) {
+            Path path = write(null);
+            patch(path, 8, buffer(8).putLong(waveCount));
+            assertThrows(IOException.class, () -> new WaveSimReader(path), "wave count " + waveCount);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedRecords() throws IOException {
+        Path path = write(null);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+
+    @Test
+    void rejectsATruncatedBlock() throws IOException {
+        Path path = write(new float[256]);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+
+    @Test
+    void rejectsInvalidBlockOffsets() throws IOException {
+        for (long blockOffset : new long[]{-8, 0, WaveSimFormat.HEADER_SIZE, Long.MAX_VALUE}) {
+            Path path = write(new float[4]);
+            patch(path, 16, buffer(8).putLong(blockOffset));
+            assertThrows(IOException.class, () -> new WaveSimReader(path), "block offset " + blockOffset);
+        }
+    }
+
+    @Test
+    void rejectsInvalidBlockLengths() throws IOException {
+        for (int blockLength : new int[]{-1, Integer.MIN_VALUE, 5, Integer.MAX_VALUE}) {
+            Path path = write(new float[4]);
+            patch(path, 28, buffer(4).putInt(blockLength));
+            assertThrows(IOException.class, () -> new WaveSimReader(path), "block length " + blockLength);
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownBlockType() throws IOException {
+        Path path = write(new float[4]);
+        patch(path, 24, buffer(4).putInt(42));
+        assertThrows(IOException.class, () -> new WaveSimReader(path));
+    }
+}
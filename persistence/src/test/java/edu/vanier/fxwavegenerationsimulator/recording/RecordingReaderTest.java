@@ -0,0 +1,290 @@
+package edu.vanier.fxwavegenerationsimulator.recording;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.JsonDataController;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a session recorded by SessionRecorder is read back by RecordingReader: the frames with their viewport,
+ * the audio blocks, the keyframes of the index and the seeks, across segments, and version 1 recordings,
+ * and that a failure of the writer is reported when the recording is closed.
+ *
+ * @author Qian Qian
+ */
+class RecordingReaderTest {
+    private static final Wave COMBINED_WAVE = new Wave(WaveTypes.DUMMY, -1, 0, new Color(0, 0, 0));
+
+    /**
+     * The gap between the frames (in milliseconds of recording time).
+     */
+    private static final int FRAME_INTERVAL = 100;
+
+    @TempDir
+    Path directory;
+
+    private static List<Wave> waves(int frequency) {
+        return List.of(new Wave(WaveTypes.SIN, frequency, 0.5, new Color(255, 0, 0)),
+                new Wave(WaveTypes.SQUARE, 2 * frequency, 0.25, new Color(0, 0, 255)));
+    }
+
+    private static SimulationFrame frame(int milliseconds, double[] combined, List<Wave> waves, Viewport viewport,
+                                         boolean envelope, long publishedNanos) {
+        return new SimulationFrame(milliseconds, Map.of(COMBINED_WAVE, combined), waves, viewport, envelope,
+                publishedNanos);
+    }
+
+    private static SessionRecorder recorder(Path directory) throws IOException {
+        SessionRecorder recorder = new SessionRecorder(directory, 100_000);
+        recorder.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        return recorder;
+    }
+
+    @Test
+    void readsFramesAndAudioBack() throws IOException {
+        List<Wave> waves = waves(3);
+        try (SessionRecorder recorder = recorder(directory)) {
+            long start = System.nanoTime();
+            recorder.onNext(frame(10, new double[]{-1, 1, -0.5, 0.5}, waves, new Viewport(-10, 30, 4), true, start));
+            recorder.onAudioBlock(512, new byte[]{7, 1, 2, 3, 7}, 1, 3);
+            recorder.onNext(frame(20, new double[]{0.25, 0.75}, waves, new Viewport(0, 500, 2), false, start + 1000));
+        }
+        try (RecordingReader reader = new RecordingReader(directory)) {
+            assertEquals(1, reader.getSegmentCount());
+            assertEquals(1, reader.getKeyframeCount());
+            RecordingCursor cursor = reader.cursor();
+
+            assertTrue(cursor.next());
+            assertEquals(RecordingFormat.RECORD_WAVES, cursor.getType());
+            assertEquals(2, cursor.getWaves().size());
+            assertEquals(WaveTypes.SQUARE, cursor.getWaves().get(1).getWaveType());
+
+            assertTrue(cursor.next());
+            assertEquals(RecordingFormat.RECORD_FRAME, cursor.getType());
+            assertEquals(10, cursor.getMilliseconds());
+            assertTrue(cursor.isEnvelope());
+            assertEquals(new Viewport(-10, 30, 4), cursor.getViewport());
+            assertArrayEquals(new float[]{-1, 1, -0.5f, 0.5f}, cursor.getFrame());
+
+            // The audio block and the next frame, in the order they were recorded (with the same time or later).
+            List<Integer> types = new ArrayList<>();
+            while (cursor.next()) {
+                types.add(cursor.getType());
+                if (cursor.getType() == RecordingFormat.RECORD_AUDIO) {
+                    assertEquals(512, cursor.getAudioOffset());
+                    assertArrayEquals(new byte[]{1, 2, 3}, cursor.getAudio());
+                } else {
+                    assertEquals(20, cursor.getMilliseconds());
+                    assertFalse(cursor.isEnvelope());
+                    assertEquals(new Viewport(0, 500, 2), cursor.getViewport());
+                    assertArrayEquals(new float[]{0.25f, 0.75f}, cursor.getFrame());
+                }
+            }
+            assertEquals(2, types.size());
+            assertTrue(types.contains(RecordingFormat.RECORD_AUDIO));
+            assertTrue(types.contains(RecordingFormat.RECORD_FRAME));
+        }
+    }
+
+    @Test
+    void seeksWithTheKeyframesOfTheIndex() throws IOException {
+        List<Wave> waves = waves(3);
+        List<Wave> edited = waves(5);
+        int frameCount = 50;
+        int editedAt = 25;
+        try (SessionRecorder recorder = recorder(directory)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                recorder.onNext(frame(i, new double[]{i}, i < editedAt ? waves : edited, new Viewport(0, 500, 1), false,
+                        start + i * FRAME_INTERVAL * 1_000_000L));
+            }
+        }
+        try (RecordingReader reader = new RecordingReader(directory)) {
+            // A keyframe at the start, every second (10 frames), and at the edit: at frames 0, 10, 20, 25, 35 and 45.
+            assertEquals(6, reader.getKeyframeCount());
+
+            long[] times = new long[frameCount];
+            RecordingCursor cursor = reader.cursor();
+            while (cursor.next()) {
+                if (cursor.getType() == RecordingFormat.RECORD_FRAME) {
+                    times[cursor.getMilliseconds()] = cursor.getTimeMicros();
+                }
+            }
+            assertEquals(times[frameCount - 1], reader.getDurationMicros());
+            for (int i = 1; i < frameCount; i++) {
+                assertEquals(FRAME_INTERVAL * 1000L, times[i] - times[i - 1]);
+            }
+            assertEquals(times[editedAt], reader.getKeyframeTime(reader.findKeyframe(times[editedAt])));
+            assertEquals(-1, reader.findKeyframe(times[0] - 1));
+
+            for (int i = 0; i < frameCount; i++) {
+                cursor = reader.seek(times[i]);
+                assertTrue(cursor.next());
+                // The keyframe of the edit comes right before its frame.
+                if (cursor.getType() == RecordingFormat.RECORD_WAVES) {
+                    assertTrue(cursor.next());
+                }
+                assertEquals(RecordingFormat.RECORD_FRAME, cursor.getType());
+                assertEquals(i, cursor.getMilliseconds());
+                assertArrayEquals(new float[]{i}, cursor.getFrame());
+                int frequency = cursor.getWaves().get(0).getFrequency();
+                assertEquals(i < editedAt ? 3 : 5, frequency, "waves at frame " + i);
+            }
+        }
+    }
+
+    @Test
+    void startsEverySegmentWithAKeyframe() throws IOException {
+        // Frames of 1 MB (all sharing the same data points), so the recording takes two segments.
+        double[] combined = new double[256 * 1024];
+        for (int i = 0; i < combined.length; i++) {
+            combined[i] = i % 3 - 1;
+        }
+        int frameCount = (int) (RecordingFormat.SEGMENT_SIZE / (combined.length * Float.BYTES)) + 4;
+        List<Wave> waves = waves(3);
+        try (SessionRecorder recorder = recorder(directory)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                recorder.onNext(frame(i, combined, waves, new Viewport(0, 500, combined.length), false,
+                        start + i * 1000L));
+            }
+        }
+        try (RecordingReader reader = new RecordingReader(directory)) {
+            assertEquals(2, reader.getSegmentCount());
+            assertEquals(2, reader.getKeyframeCount());
+            RecordingCursor cursor = reader.seek(reader.getKeyframeTime(1));
+            assertTrue(cursor.next());
+            assertEquals(RecordingFormat.RECORD_FRAME, cursor.getType());
+            assertEquals(3, cursor.getWaves().get(0).getFrequency());
+            assertTrue(cursor.getMilliseconds() > 0);
+            float[] frame = cursor.getFrame();
+            assertEquals(combined.length, frame.length);
+            for (int i = 0; i < combined.length; i += 1000) {
+                assertEquals(combined[i], frame[i]);
+            }
+
+            int frames = 0;
+            cursor = reader.cursor();
+            while (cursor.next()) {
+                if (cursor.getType() == RecordingFormat.RECORD_FRAME) {
+                    assertEquals(frames, cursor.getMilliseconds());
+                    frames++;
+                }
+            }
+            assertEquals(frameCount, frames);
+        }
+    }
+
+    /**
+     * Write a file made of little-endian buffers.
+     */
+    private static void write(Path path, ByteBuffer... buffers) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (ByteBuffer buffer : buffers) {
+                channel.write(buffer.flip());
+            }
+        }
+    }
+
+    private static ByteBuffer allocate(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Test
+    void readsVersion1Frames() throws IOException {
+        byte[] json = JsonDataController.exportWaveSimulation(waves(3)).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer index = allocate(RecordingFormat.INDEX_HEADER_SIZE + RecordingFormat.INDEX_ENTRY_SIZE);
+        index.putInt(RecordingFormat.INDEX_MAGIC).putShort((short) 1).putShort((short) 0).putLong(0);
+        index.putLong(0).putInt(0).putInt(RecordingFormat.SEGMENT_HEADER_SIZE);
+        ByteBuffer segment = allocate(RecordingFormat.SEGMENT_HEADER_SIZE + 2 * RecordingFormat.RECORD_HEADER_SIZE
+                + RecordingFormat.alignedLength(json.length) + 8 + 3 * Float.BYTES + 4);
+        segment.putInt(RecordingFormat.SEGMENT_MAGIC).putShort((short) 1).putShort((short) 0).putInt(0).putInt(0);
+        segment.putInt(json.length).put((byte) RecordingFormat.RECORD_WAVES).put(new byte[3]).putLong(0).put(json);
+        segment.put(new byte[RecordingFormat.alignedLength(json.length) - json.length]);
+        // A version 1 frame: the simulated time, the sample count and the samples.
+        segment.putInt(8 + 3 * Float.BYTES).put((byte) RecordingFormat.RECORD_FRAME).put(new byte[3]).putLong(40);
+        segment.putInt(70).putInt(3).putFloat(0.5f).putFloat(-1).putFloat(1).putInt(0);
+        write(directory.resolve(RecordingFormat.INDEX_FILE_NAME), index);
+        write(RecordingFormat.segmentPath(directory, 0), segment);
+
+        try (RecordingReader reader = new RecordingReader(directory)) {
+            RecordingCursor cursor = reader.seek(1);
+            assertTrue(cursor.next());
+            assertEquals(RecordingFormat.RECORD_FRAME, cursor.getType());
+            assertEquals(40, cursor.getTimeMicros());
+            assertEquals(70, cursor.getMilliseconds());
+            assertArrayEquals(new float[]{0.5f, -1, 1}, cursor.getFrame());
+            assertNull(cursor.getViewport());
+            assertFalse(cursor.isEnvelope());
+            assertEquals(2, cursor.getWaves().size());
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    void rejectsNewerVersions() throws IOException {
+        try (SessionRecorder recorder = recorder(directory)) {
+            recorder.onNext(frame(0, new double[]{0}, waves(3), new Viewport(0, 500, 1), false, System.nanoTime()));
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(RecordingFormat.INDEX_FILE_NAME),
+                StandardOpenOption.WRITE)) {
+            channel.write(allocate(2).putShort((short) (RecordingFormat.VERSION + 1)).flip(), 4);
+        }
+        assertThrows(IOException.class, () -> new RecordingReader(directory));
+    }
+
+    @Test
+    void rejectsADirectoryWithoutARecording() throws IOException {
+        assertThrows(IOException.class, () -> new RecordingReader(directory));
+        Files.writeString(RecordingFormat.segmentPath(directory, 0), "not a recording");
+        assertThrows(IOException.class, () -> new RecordingReader(directory));
+    }
+
+    @Test
+    void reportsAFailureOfTheWriterOnClose() throws IOException {
+        SessionRecorder recorder = recorder(directory);
+        // A frame without a viewport makes the writer fail with a NullPointerException.
+        recorder.onNext(frame(0, new double[]{0}, waves(3), null, false, System.nanoTime()));
+        IOException e = assertThrows(IOException.class,
+                () -> assertTimeoutPreemptively(Duration.ofSeconds(5), recorder::close));
+        assertInstanceOf(NullPointerException.class, e.getCause());
+
+        recorder.onNext(frame(10, new double[]{0}, waves(3), new Viewport(0, 500, 1), false, System.nanoTime()));
+        assertEquals(1, recorder.getDroppedCount());
+    }
+}
@@ -0,0 +1,55 @@
+package edu.vanier.fxwavegenerationsimulator.benchmarks;
+
+import edu.vanier.fxwavegenerationsimulator.controllers.MainAppFXMLController;
+import edu.vanier.fxwavegenerationsimulator.controllers.WaveSimulationController;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import io.fair_acc.dataset.spi.DefaultDataSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the datasets created on the FX thread for every drawn frame (MainAppFXMLController.createDataSet),
+ * one per wave and one for the combined wave, without the JavaFX toolkit or the chart.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChartDataSetBenchmark {
+    @Param({"1", "16"})
+    public int waveCount;
+
+    @Param({"1024", "8192"})
+    public int sampleCount;
+
+    private SimulationFrame frame;
+
+    @Setup
+    public void setup() {
+        WaveSimulationController waveSimulationController = new WaveSimulationController(500, sampleCount);
+        waveSimulationController.addWaves(BenchmarkWaves.create(waveCount));
+        frame = waveSimulationController.step(10);
+    }
+
+    /**
+     * Create the datasets of a frame.
+     */
+    @Benchmark
+    public void createDataSets(Blackhole blackhole) {
+        for (Map.Entry<Wave, double[]> entry : frame.dataPoints().entrySet()) {
+            DefaultDataSet dataSet = MainAppFXMLController.createDataSet(entry.getKey(), entry.getValue(),
+                    frame.viewport());
+            blackhole.consume(dataSet);
+        }
+    }
+}
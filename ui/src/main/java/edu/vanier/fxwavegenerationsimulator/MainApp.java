@@ -3,10 +3,13 @@ package edu.vanier.fxwavegenerationsimulator;
 import edu.vanier.fxwavegenerationsimulator.controllers.AnalyzerFXMLController;
 import edu.vanier.fxwavegenerationsimulator.controllers.DatabaseController;
 import edu.vanier.fxwavegenerationsimulator.controllers.MainAppFXMLController;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.metrics.StartupPhases;
 import java.io.IOException;
 
 import edu.vanier.fxwavegenerationsimulator.stages.WaveAnalyzer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -26,28 +29,52 @@ public class MainApp extends Application {
     public static final String MAINAPP_LAYOUT = "MainApp_layout";
     public static final String ANALYZER_LAYOUT = "Analyzer_layout";
     private final static Logger logger = LoggerFactory.getLogger(MainApp.class);
+    /**
+     * The system property that makes the application exit once it has started
+     * (used to record the classes loaded at startup into the AppCDS archive, see the appCds Gradle task).
+     */
+    public static final String EXIT_AFTER_STARTUP_PROPERTY = "fxwavegenerationsimulator.exitAfterStartup";
     private static Scene scene;
+    private static Stage primaryStage;
+    private static MainAppFXMLController mainAppFXMLController;
+    /**
+     * The Wave Analyzer Window, which is only loaded the first time it is shown.
+     */
     private static WaveAnalyzer waveAnalyzer;
 
     @Override
     public void start(Stage primaryStage) {
         try {
+            StartupPhases.mark("JavaFX started");
             logger.info("Bootstrapping the application...");
+            MainApp.primaryStage = primaryStage;
+            // Register the metrics MBeans in the background (loading JMX is slow),
+            // so they can still be read with JMX tools right after the startup.
+            Thread.ofVirtual().name("metrics-init").start(() ->
+                    logger.info("Metrics enabled: {}", SimulationMetrics.get().isEnabled()));
 
             // Load the scene of the primary stage.
-            MainAppFXMLController mainAppFXMLController = new MainAppFXMLController();
+            // The Wave Analyzer is only loaded when it is first shown, and the audio and the database
+            // are initialized in the background by the controller.
+            mainAppFXMLController = new MainAppFXMLController();
             Parent root = loadFXML(MAINAPP_LAYOUT, mainAppFXMLController);
             scene = new Scene(root, 940, 600);
             primaryStage.setScene(scene);
+            StartupPhases.mark("main layout loaded");
 
-            // Load and initialize the analyzer.
-            AnalyzerFXMLController analyzerFXMLController = new AnalyzerFXMLController();
-            Parent analyzerRoot = loadFXML(ANALYZER_LAYOUT, analyzerFXMLController);
-            waveAnalyzer = new WaveAnalyzer(analyzerRoot, primaryStage, mainAppFXMLController.getShowAnalyzerCheckBox());
-            analyzerFXMLController.setSoundController(
-                    mainAppFXMLController.getSoundController()
-            );
-            mainAppFXMLController.setAnalyzerFXMLController(analyzerFXMLController);
+            // Record the first frame, the first pulse after the window is shown.
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    scene.removePostLayoutPulseListener(this);
+                    StartupPhases.mark("first frame shown");
+                    if (Boolean.getBoolean(EXIT_AFTER_STARTUP_PROPERTY)) {
+                        // Also wait for the background initialization, so its classes are recorded as well.
+                        mainAppFXMLController.getBackgroundInitialization()
+                                .whenComplete((result, exception) -> Platform.runLater(Platform::exit));
+                    }
+                }
+            });
 
             // Put this appliation's main window on top of other already-opened windows
             // upon launching the app.
@@ -61,11 +88,47 @@ public class MainApp extends Application {
     }
 
     /**
-     * Show the individual Wave Analyzer Window.
+     * Close the simulation, the audio, the recording and the shared-memory rings when the application exits.
+     * @author Qian Qian
+     */
+    @Override
+    public void stop() {
+        if (mainAppFXMLController != null) {
+            mainAppFXMLController.close();
+        }
+    }
+
+    /**
+     * Get the Wave Analyzer Window, loading it the first time.
+     * @return the Wave Analyzer Window
+     * @throws IOException if the layout of the Wave Analyzer cannot be loaded
+     */
+    private static WaveAnalyzer getWaveAnalyzer() throws IOException {
+        if (waveAnalyzer == null) {
+            long start = System.nanoTime();
+            AnalyzerFXMLController analyzerFXMLController = new AnalyzerFXMLController();
+            Parent analyzerRoot = loadFXML(ANALYZER_LAYOUT, analyzerFXMLController);
+            waveAnalyzer = new WaveAnalyzer(analyzerRoot, primaryStage, mainAppFXMLController.getShowAnalyzerCheckBox());
+            // The sound controller may still be starting, in which case the main controller passes it on when it is ready.
+            analyzerFXMLController.setSoundController(
+                    mainAppFXMLController.getSoundController()
+            );
+            mainAppFXMLController.setAnalyzerFXMLController(analyzerFXMLController);
+            logger.info("Wave Analyzer loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+        return waveAnalyzer;
+    }
+
+    /**
+     * Show the individual Wave Analyzer Window (loading it the first time).
      * @author Qian Qian
      */
     public static void showWaveAnalyzer() {
-        waveAnalyzer.show();
+        try {
+            getWaveAnalyzer().show();
+        } catch (IOException ex) {
+            logger.error(ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -73,7 +136,9 @@ public class MainApp extends Application {
      * @author Qian Qian
      */
     public static void hideWaveAnalyzer() {
-        waveAnalyzer.hide();
+        if (waveAnalyzer != null) {
+            waveAnalyzer.hide();
+        }
     }
 
     /**
@@ -1,5 +1,8 @@
 package edu.vanier.fxwavegenerationsimulator.controllers;
 
+import edu.vanier.fxwavegenerationsimulator.events.AnalyzerFrameEvent;
+import edu.vanier.fxwavegenerationsimulator.events.ChartUpdateEvent;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
 import io.fair_acc.chartfx.XYChart;
 import io.fair_acc.chartfx.axes.spi.DefaultNumericAxis;
 import io.fair_acc.chartfx.renderer.LineStyle;
@@ -19,7 +22,7 @@ import java.util.TimerTask;
  */
 public class AnalyzerFXMLController {
     /**
-     * The timer to keep data updating on the chart.
+     * The timer to keep data updating on the chart (only created when the analyzer is started).
      */
     private Timer timer;
     /**
@@ -51,6 +54,11 @@ public class AnalyzerFXMLController {
         public void run() {
             milliseconds++;
             if (soundController != null) {
+                AnalyzerFrameEvent frameEvent = new AnalyzerFrameEvent();
+                if (frameEvent.isEnabled()) {
+                    frameEvent.begin();
+                }
+
                 // Get the sound data buffer from the controller.
                 byte[] buffer = soundController.getBuffer();
                 byte[][] frequencyBuffer = soundController.getFrequencyBuffer();
@@ -64,8 +72,21 @@ public class AnalyzerFXMLController {
                 // To prevent out of bound exception, we do the index modulo of the buffer length to get the real index.
                 byte amplitude = buffer[bufferIndex % buffer.length];
 
+                if (frameEvent.isEnabled()) {
+                    frameEvent.end();
+                    frameEvent.bufferIndex = bufferIndex % buffer.length;
+                    frameEvent.frequencyCount = frequencyBuffer[bufferIndex % buffer.length].length;
+                    frameEvent.commit();
+                }
+
                 // Update the charts.
+                SimulationMetrics.recordRunLaterPosted();
                 Platform.runLater(() -> {
+                    SimulationMetrics.recordRunLaterHandled();
+                    ChartUpdateEvent chartEvent = new ChartUpdateEvent();
+                    if (chartEvent.isEnabled()) {
+                        chartEvent.begin();
+                    }
                     volumeLabel.setText(amplitude + "/127");
 
                     DefaultDataSet volumeDataSet = new DefaultDataSet("Volume");
@@ -90,6 +111,13 @@ public class AnalyzerFXMLController {
                         }
                     }
                     waveAnalyzerRenderer.getDatasets().setAll(frequencyDataSets);
+                    if (chartEvent.isEnabled()) {
+                        chartEvent.end();
+                        chartEvent.chart = "Wave Analyzer";
+                        chartEvent.dataSetCount = 2;
+                        chartEvent.pointCount = volumeDataSet.getDataCount() + frequencyDataSets.getDataCount();
+                        chartEvent.commit();
+                    }
                 });
             }
         }
@@ -118,8 +146,6 @@ public class AnalyzerFXMLController {
 
     @FXML
     public void initialize() {
-        timer = new Timer();
-
         // Create the axis for the wave analyzer chart.
         // The x-axis ranges till 20000Hz, which is the maximum frequency that human can hear.
         DefaultNumericAxis xAxis = new DefaultNumericAxis("Frequency", 0.0, 20000.0, 1000.0);
@@ -198,14 +224,18 @@ public class AnalyzerFXMLController {
      * Pause the updating of the data on the analyzer.
      */
     public void pause() {
-        this.timer.cancel();
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
     }
 
     /**
      * Stop the updating of the data on the analyzer (the time is also reset).
      */
     public void stop() {
-        this.timer.cancel();
+        if (this.timer != null) {
+            this.timer.cancel();
+        }
         this.milliseconds = 0;
 
         // Clear all charts to reset.
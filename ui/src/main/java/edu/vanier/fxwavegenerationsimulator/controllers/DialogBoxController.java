@@ -1,7 +1,9 @@
 package edu.vanier.fxwavegenerationsimulator.controllers;
 
 import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
 import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.Waveforms;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -42,19 +44,32 @@ public class DialogBoxController extends Stage {
         Label typeLabel = new Label("Type:");
         Label frequencyLabel = new Label("Frequency:");
         Label amplitudeLabel = new Label("Amplitude:");
+        Label dutyCycleLabel = new Label("Duty cycle:");
         TextField frequencyField = new TextField();
         TextField amplitudeField = new TextField();
+        TextField dutyCycleField = new TextField(Double.toString(Waveforms.DEFAULT_DUTY_CYCLE));
 
         // Create checkboxes for the type
         RadioButton sinSelected = new RadioButton("Sin");
         RadioButton cosSelected = new RadioButton("Cos");
+        RadioButton squareSelected = new RadioButton("Square");
+        RadioButton sawSelected = new RadioButton("Sawtooth");
+        RadioButton triangleSelected = new RadioButton("Triangle");
+        RadioButton pulseSelected = new RadioButton("Pulse");
         ToggleGroup group = new ToggleGroup();
         sinSelected.setToggleGroup(group);
         cosSelected.setToggleGroup(group);
+        squareSelected.setToggleGroup(group);
+        sawSelected.setToggleGroup(group);
+        triangleSelected.setToggleGroup(group);
+        pulseSelected.setToggleGroup(group);
 
         // Set default selection
         sinSelected.setSelected(true);
 
+        // The duty cycle only applies to pulse waves
+        dutyCycleField.disableProperty().bind(pulseSelected.selectedProperty().not());
+
         // Create buttons
         Button addButton = new Button("Add");
         Button cancelButton = new Button("Cancel");
@@ -62,20 +77,26 @@ public class DialogBoxController extends Stage {
         // Add elements to the grid pane
         gridPane.add(typeLabel, 0, 0);
         gridPane.add(sinSelected, 0, 1);
-        gridPane.add(cosSelected, 0, 2);
-        gridPane.add(frequencyLabel, 0, 3);
-        gridPane.add(frequencyField, 1, 3);
-        gridPane.add(amplitudeLabel, 0, 4);
-        gridPane.add(amplitudeField, 1, 4);
+        gridPane.add(cosSelected, 1, 1);
+        gridPane.add(squareSelected, 0, 2);
+        gridPane.add(sawSelected, 1, 2);
+        gridPane.add(triangleSelected, 0, 3);
+        gridPane.add(pulseSelected, 1, 3);
+        gridPane.add(frequencyLabel, 0, 4);
+        gridPane.add(frequencyField, 1, 4);
+        gridPane.add(amplitudeLabel, 0, 5);
+        gridPane.add(amplitudeField, 1, 5);
+        gridPane.add(dutyCycleLabel, 0, 6);
+        gridPane.add(dutyCycleField, 1, 6);
 
         // Create an HBox for the buttons
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
         buttonBox.getChildren().addAll(addButton, cancelButton);
-        gridPane.add(buttonBox, 0, 5, 2, 1);
+        gridPane.add(buttonBox, 0, 7, 2, 1);
 
         // Create a scene and add the grid pane to it
-        Scene scene = new Scene(gridPane, 300, 250);
+        Scene scene = new Scene(gridPane, 300, 340);
         this.setScene(scene);
 
         // Add event handlers
@@ -87,12 +108,16 @@ public class DialogBoxController extends Stage {
 
             int frequency = -1;
             double amplitude = 0;
+            double dutyCycle = Waveforms.DEFAULT_DUTY_CYCLE;
 
             try {
                 frequency = Integer.parseInt(frequencyField.getText());
                 amplitude = Double.parseDouble(amplitudeField.getText());
+                if (pulseSelected.isSelected()) {
+                    dutyCycle = Double.parseDouble(dutyCycleField.getText());
+                }
             } catch (NumberFormatException exception) {
-                MainAppFXMLController.showAlert("Error", "Frequency and amplitude must be numbers.");
+                MainAppFXMLController.showAlert("Error", "Frequency, amplitude and duty cycle must be numbers.");
                 return;
             }
 
@@ -102,10 +127,18 @@ public class DialogBoxController extends Stage {
                 waveType = WaveTypes.SIN;
             } else if (cosSelected.isSelected()) {
                 waveType = WaveTypes.COS;
+            } else if (squareSelected.isSelected()) {
+                waveType = WaveTypes.SQUARE;
+            } else if (sawSelected.isSelected()) {
+                waveType = WaveTypes.SAW;
+            } else if (triangleSelected.isSelected()) {
+                waveType = WaveTypes.TRIANGLE;
+            } else if (pulseSelected.isSelected()) {
+                waveType = WaveTypes.PULSE;
             }
 
             try {
-                wave = new Wave(waveType, frequency, amplitude);
+                wave = new Wave(waveType, frequency, amplitude, dutyCycle, new Color());
             } catch (IllegalArgumentException exception) {
                 MainAppFXMLController.showAlert("Error", exception.getMessage());
                 return;
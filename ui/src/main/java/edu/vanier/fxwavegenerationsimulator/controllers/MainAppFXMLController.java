@@ -0,0 +1,1136 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import com.google.gson.JsonParseException;
+import edu.vanier.fxwavegenerationsimulator.MainApp;
+import edu.vanier.fxwavegenerationsimulator.enums.OverflowPolicy;
+import edu.vanier.fxwavegenerationsimulator.enums.WaveSimulationStatus;
+import edu.vanier.fxwavegenerationsimulator.events.ChartUpdateEvent;
+import edu.vanier.fxwavegenerationsimulator.exceptions.ChosenFileIsDirectoryException;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DataFileNotFoundException;
+import edu.vanier.fxwavegenerationsimulator.io.WaveSimFormat;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import edu.vanier.fxwavegenerationsimulator.metrics.StartupPhases;
+import edu.vanier.fxwavegenerationsimulator.models.SamplingPlan;
+import edu.vanier.fxwavegenerationsimulator.models.SimulationFrame;
+import edu.vanier.fxwavegenerationsimulator.models.Viewport;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import edu.vanier.fxwavegenerationsimulator.models.WaveSimulationDisplay;
+import edu.vanier.fxwavegenerationsimulator.recording.SessionRecorder;
+import edu.vanier.fxwavegenerationsimulator.shm.FrameRingExporter;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingFormat;
+import edu.vanier.fxwavegenerationsimulator.shm.SharedRingWriter;
+import edu.vanier.fxwavegenerationsimulator.stream.FramePublisher;
+import io.fair_acc.chartfx.XYChart;
+import io.fair_acc.chartfx.axes.spi.DefaultNumericAxis;
+import io.fair_acc.chartfx.plugins.Zoomer;
+import io.fair_acc.dataset.spi.DefaultDataSet;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.effect.ColorAdjust;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.AnchorPane;
+import javafx.stage.FileChooser;
+import javafx.stage.Screen;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.LineUnavailableException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * FXML controller class for the main application.
+ * This class handles all UI elements in the main application.
+ * Requires the WaveSimulationController class to be initialized.
+ *
+ * @author CihaoZhang
+ */
+public class MainAppFXMLController implements WaveSimulationDisplay {
+    private final static Logger logger = LoggerFactory.getLogger(MainAppFXMLController.class);
+
+    private WaveSimulationController waveSimulationController;
+    private SoundController soundController;
+    public DatabaseController databaseController;
+    /**
+     * The asynchronous access to the database, so database operations don't freeze the UI.
+     */
+    private AsyncDatabaseController asyncDatabaseController;
+    /**
+     * The presets bundled with the application, served from memory.
+     */
+    private PresetController presetController;
+
+    private Wave wave;
+
+    /**
+     * The analyzer window controller that controls the window that shows data about playing sound.
+     */
+    private AnalyzerFXMLController analyzerFXMLController;
+
+    /**
+     * The addWave dialog box controller that controls the pop-up window for adding waves.
+     */
+    public DialogBoxController dialogBoxController;
+
+    private Map<String, Wave> predefinedSimulations = new HashMap<>();
+
+    @FXML
+    private Button importButton;
+
+    @FXML
+    private Button exportButton;
+
+    @FXML
+    private Button saveButton;
+
+    @FXML
+    private Button refreshButton;
+
+    @FXML
+    private ComboBox<String> presetComboBox;
+
+    @FXML
+    private ImageView playButton;
+
+    @FXML
+    private ImageView pauseButton;
+
+    @FXML
+    private ImageView stopButton;
+
+    @FXML
+    private ImageView stepButton;
+
+    @FXML
+    private TableView<Wave> addedWavesTableView;
+
+    @FXML
+    private TableColumn<Wave, String> typeColumn;
+
+    @FXML
+    private TableColumn<Wave, Double> frequencyColumn;
+
+    @FXML
+    private TableColumn<Wave, Double> amplitudeColumn;
+
+    @FXML
+    private Button addWaveButton;
+
+    @FXML
+    private Button removeWaveButton;
+
+    @FXML
+    private Button clearWavesButton;
+
+    @FXML
+    private AnchorPane chartPane;
+
+    @FXML
+    private Label audioLabel;
+
+    @FXML
+    private RadioButton audioOffButton;
+
+    @FXML
+    private RadioButton audioOnButton;
+
+    @FXML
+    private CheckBox showAnalyzerCheckBox;
+
+    @FXML
+    private CheckBox showPerformanceCheckBox;
+
+    @FXML
+    private ListView<String> simulationListView = new ListView<>();
+
+    private XYChart chart;
+
+    /**
+     * The performance overlay shown on top of the chart.
+     */
+    private PerformanceOverlayController performanceOverlayController;
+
+    /**
+     * The latest frame waiting to be drawn on the FX thread (or null if there is none),
+     * so a slow FX thread only ever draws the latest frame instead of a queue of outdated ones.
+     */
+    private final AtomicReference<SimulationFrame> pendingFrame = new AtomicReference<>();
+
+    /**
+     * The x-axis of the chart (the position in meters), whose range and width give the viewport of the simulation.
+     */
+    private DefaultNumericAxis xAxis;
+
+    /**
+     * The executor of the startup initialization (audio and presets), so it runs in parallel and off the FX thread.
+     */
+    private static final Executor startupExecutor = runnable ->
+            Thread.ofPlatform().daemon().name("startup-init").start(runnable);
+
+    /**
+     * The executor reading the imported files, so a large file is parsed off the FX thread.
+     */
+    private static final Executor importExecutor = runnable -> Thread.ofVirtual().name("import").start(runnable);
+
+    /**
+     * The maximum number of waves of the simulation (each wave being a row, a series of the chart and a sound),
+     * above which an import is refused.
+     */
+    private static final int MAX_WAVES = 1_000;
+
+    /**
+     * The initialization of the audio and the database, which completes when both are ready (or have failed).
+     */
+    private CompletableFuture<Void> backgroundInitialization;
+
+    /**
+     * The system property giving the directory of the shared-memory rings the frames and the audio are exported to
+     * (e.g. -Dfxwavegenerationsimulator.shm=/dev/shm), so other processes can read them live.
+     */
+    public static final String SHARED_MEMORY_PROPERTY = "fxwavegenerationsimulator.shm";
+
+    /**
+     * The writers of the shared-memory rings of the frames and the audio (or null if they are not exported).
+     */
+    private SharedRingWriter frameRingWriter;
+    private SharedRingWriter audioRingWriter;
+
+    /**
+     * The exporter of the frames to the shared-memory ring (or null), the only writer of the ring:
+     * it is subscribed again to every new WaveSimulationController, even while the old one still drains into it.
+     */
+    private FrameRingExporter frameRingExporter;
+
+    /**
+     * The most pixels the viewport is sampled at: the width of all the screens side by side, which the chart
+     * never exceeds, so the frame ring can be sized for the longest frame up front.
+     */
+    private final int maxViewportPixels = Math.max(WaveSimulationController.DEFAULT_SAMPLE_COUNT,
+            (int) Math.ceil(Screen.getScreens().stream().mapToDouble(screen -> screen.getBounds().getWidth()).sum()));
+
+    /**
+     * The system property giving the directory the sessions are recorded to
+     * (e.g. -Dfxwavegenerationsimulator.record=recordings), each run of the application in a new recording,
+     * so they can be replayed with a RecordingReader.
+     */
+    public static final String RECORDING_PROPERTY = "fxwavegenerationsimulator.record";
+
+    /**
+     * The recorder of the session (or null if it is not recorded).
+     * Everything is written as soon as possible, and the rest when the application exits (see close()).
+     */
+    private SessionRecorder sessionRecorder;
+
+    /**
+     * The setter for the analyzerFXMLController, so the MainApp can pass in the controller
+     * so the current Main App Controller can control the Analyzer Window.
+     *
+     * @param analyzerFXMLController the controller of the Analyzer Window
+     */
+    public void setAnalyzerFXMLController(AnalyzerFXMLController analyzerFXMLController) {
+        this.analyzerFXMLController = analyzerFXMLController;
+        // The analyzer is only loaded when it is first shown, which may be while the simulation is playing.
+        if (waveSimulationController.getSimulationStatus() == WaveSimulationStatus.PLAYING) {
+            analyzerFXMLController.start();
+        }
+    }
+
+    /**
+     * Get the initialization of the audio and the database running in the background since the controller was initialized.
+     *
+     * @return the future that completes when both the audio and the database are ready (or have failed)
+     */
+    public CompletableFuture<Void> getBackgroundInitialization() {
+        return backgroundInitialization;
+    }
+
+    /**
+     * Start using the sound controller once it has been created in the background,
+     * catching up with the waves added in the meantime.
+     *
+     * @param readySoundController the new sound controller (or null if it could not be created)
+     * @param exception the exception thrown while creating the sound controller (or null)
+     */
+    private void onAudioReady(SoundController readySoundController, Throwable exception) {
+        if (exception != null) {
+            logger.error("Error initializing the audio: {}", exception.getMessage());
+            audioLabel.setText("Audio (unavailable):");
+            return;
+        }
+        try {
+            readySoundController.replaceWaves(waveSimulationController.getWaves());
+        } catch (LineUnavailableException | IOException e) {
+            logger.error("Error initializing the audio: {}", e.getMessage());
+            audioLabel.setText("Audio (unavailable):");
+            return;
+        }
+        soundController = readySoundController;
+        if (audioRingWriter != null) {
+            soundController.addAudioBlockListener(audioRingWriter::writeBytes);
+        }
+        if (sessionRecorder != null) {
+            soundController.addAudioBlockListener(sessionRecorder);
+        }
+        if (analyzerFXMLController != null) {
+            analyzerFXMLController.setSoundController(soundController);
+        }
+        audioLabel.setText("Audio:");
+        audioOnButton.setDisable(false);
+        audioOffButton.setDisable(false);
+        StartupPhases.mark("audio ready");
+    }
+
+    /**
+     * Add the new wave to ALL required places (simulation controller, audio controller, table view, etc.)
+     *
+     * @param newWave the new wave to be added
+     * @author Qian Qian
+     */
+    private void addWave(Wave newWave) throws LineUnavailableException, IOException {
+        addWaves(List.of(newWave));
+    }
+
+    /**
+     * Add a collection of new waves to ALL required places at once, so the sound is only generated
+     * and the chart only updated once, no matter how many waves are added.
+     *
+     * @param newWaves the new waves to be added
+     */
+    private void addWaves(Collection<Wave> newWaves) throws LineUnavailableException, IOException {
+        // Add the new waves to the TableView
+        addedWavesTableView.getItems().addAll(newWaves);
+        // Add the new waves to the WaveSimulationController and SoundController
+        waveSimulationController.addWaves(newWaves);
+        if (soundController != null) {
+            soundController.addWaves(newWaves);
+        }
+        // Update the chart with the new waves
+        waveSimulationController.simulate();
+    }
+
+    /**
+     * Replace all waves in ALL required places with a collection of new waves at once.
+     *
+     * @param newWaves the new waves of the simulation
+     */
+    private void replaceWaves(Collection<Wave> newWaves) throws LineUnavailableException, IOException {
+        // Replace the waves in the TableView
+        addedWavesTableView.getItems().setAll(newWaves);
+        // Replace the waves in the WaveSimulationController and SoundController
+        waveSimulationController.replaceWaves(newWaves);
+        if (soundController != null) {
+            soundController.replaceWaves(newWaves);
+        }
+        // Update the chart with the new waves
+        waveSimulationController.simulate();
+    }
+
+    /**
+     * Remove a specific wave from all places.
+     *
+     * @param wave the wave to be removed
+     */
+    private void removeWave(Wave wave) throws LineUnavailableException, IOException {
+        // Remove the wave from the TableView
+        addedWavesTableView.getItems().remove(wave);
+        // Remove the wave from the WaveSimulationController and SoundController
+        waveSimulationController.removeWave(wave);
+        if (soundController != null) {
+            soundController.removeWave(wave);
+        }
+        // Update the chart with the new wave
+        waveSimulationController.simulate();
+    }
+
+    /**
+     * Clear all waves from the all places.
+     *
+     * @author Qian Qian
+     */
+    private void clearWaves() throws LineUnavailableException, IOException {
+        // Clear the TableView
+        addedWavesTableView.getItems().clear();
+        // Clear the SoundController
+        if (soundController != null) {
+            soundController.clearWaves();
+        }
+        // Clear the chart
+        chart.getDatasets().clear();
+
+        // Reinstantiate the WaveSimulationController (the old one stops publishing frames to the chart)
+        waveSimulationController.getFramePublisher().close();
+        waveSimulationController = new WaveSimulationController(500, this);
+        updateViewport();
+        exportFrames();
+    }
+
+    /**
+     * Simulate only the range shown by the x-axis, with one sample point per pixel,
+     * so zooming in stays sharp and zooming out shows any length for the same cost.
+     */
+    private void updateViewport() {
+        int pixels = (int) Math.ceil(xAxis.getWidth());
+        waveSimulationController.setViewport(xAxis.getMin(), xAxis.getMax(),
+                pixels > 1 ? Math.min(pixels, maxViewportPixels) : WaveSimulationController.DEFAULT_SAMPLE_COUNT);
+    }
+
+    /**
+     * Create the shared-memory rings if they are enabled with the fxwavegenerationsimulator.shm property.
+     */
+    private void openSharedMemoryRings() {
+        String directory = System.getProperty(SHARED_MEMORY_PROPERTY);
+        if (directory == null) {
+            return;
+        }
+        try {
+            // The frames have up to two points per pixel of the chart (when they are an envelope, see SamplingPlan).
+            frameRingWriter = new SharedRingWriter(Path.of(directory, "fxwave-frames"), SharedRingFormat.KIND_FRAME,
+                    FrameRingExporter.DEFAULT_SLOT_COUNT, SamplingPlan.maxSampleCount(maxViewportPixels), 0);
+            frameRingExporter = new FrameRingExporter(frameRingWriter);
+            audioRingWriter = SoundController.createAudioRing(Path.of(directory, "fxwave-audio"));
+            logger.info("Exporting the frames and the audio to the shared-memory rings in {}", directory);
+        } catch (IOException e) {
+            logger.error("Error creating the shared-memory rings: {}", e.getMessage());
+            frameRingWriter = null;
+            frameRingExporter = null;
+            audioRingWriter = null;
+        }
+    }
+
+    /**
+     * Create the session recorder if it is enabled with the fxwavegenerationsimulator.record property.
+     */
+    private void openSessionRecorder() {
+        String directory = System.getProperty(RECORDING_PROPERTY);
+        if (directory == null) {
+            return;
+        }
+        try {
+            sessionRecorder = new SessionRecorder(Path.of(directory, "session-" + System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.error("Error creating the session recording: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Export the frames of the current WaveSimulationController to the shared-memory ring and the recording (if enabled).
+     */
+    private void exportFrames() {
+        if (frameRingExporter != null) {
+            waveSimulationController.getFramePublisher().subscribe(frameRingExporter,
+                    FramePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST);
+        }
+        if (sessionRecorder != null) {
+            waveSimulationController.getFramePublisher().subscribe(sessionRecorder,
+                    FramePublisher.DEFAULT_BUFFER_SIZE, OverflowPolicy.DROP_OLDEST);
+        }
+    }
+
+    /**
+     * Stop the simulation and the audio, and close the recording (writing what is still queued)
+     * and the shared-memory rings, when the application exits.
+     */
+    public void close() {
+        waveSimulationController.pause();
+        waveSimulationController.getFramePublisher().close();
+        if (soundController != null) {
+            soundController.stop();
+        }
+        if (sessionRecorder != null) {
+            try {
+                sessionRecorder.close();
+            } catch (IOException e) {
+                logger.error("Error closing the session recording: {}", e.getMessage());
+            }
+        }
+        try {
+            if (frameRingWriter != null) {
+                frameRingWriter.close();
+            }
+            if (audioRingWriter != null) {
+                audioRingWriter.close();
+            }
+        } catch (IOException e) {
+            logger.error("Error closing the shared-memory rings: {}", e.getMessage());
+        }
+    }
+
+    @FXML
+    public void initialize() {
+        logger.info("Initializing MainAppController...");
+
+        // Initialize WaveSimulationController and databaseController
+        waveSimulationController = new WaveSimulationController(500, this);
+        databaseController = new DatabaseController();
+        asyncDatabaseController = new AsyncDatabaseController(databaseController, Platform::runLater);
+        openSharedMemoryRings();
+        openSessionRecorder();
+        exportFrames();
+
+        // Open the audio clip in the background, the audio controls are disabled until it is ready.
+        audioLabel.setText("Audio (starting...):");
+        audioOnButton.setDisable(true);
+        audioOffButton.setDisable(true);
+        CompletableFuture<SoundController> audioReady = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new SoundController();
+            } catch (LineUnavailableException | IOException e) {
+                throw new CompletionException(e);
+            }
+        }, startupExecutor);
+        audioReady.whenCompleteAsync(this::onAudioReady, Platform::runLater);
+
+        // Load the presets in the background, then initialize the database with them (in parallel with the audio).
+        presetComboBox.setPromptText("Loading presets...");
+        presetComboBox.setDisable(true);
+        presetComboBox.setOnAction(this::handlePresetComboBox);
+        CompletableFuture<PresetController> presetsReady = CompletableFuture.supplyAsync(PresetController::new, startupExecutor);
+        presetsReady.thenAcceptAsync(presets -> {
+            presetController = presets;
+            presetComboBox.getItems().addAll(presetController.getPresetNames());
+            presetComboBox.setPromptText(null);
+            presetComboBox.setDisable(false);
+            StartupPhases.mark("presets loaded");
+        }, Platform::runLater);
+
+        // Use ToggleGroup to ensure only one audio button is selected at a time
+        ToggleGroup audioToggleGroup = new ToggleGroup();
+        audioOffButton.setToggleGroup(audioToggleGroup);
+        audioOnButton.setToggleGroup(audioToggleGroup);
+        // Make sure audio is off by default
+        audioOffButton.setSelected(true);
+
+        // Initialize TableView columns
+        typeColumn.setCellValueFactory(new PropertyValueFactory<>("waveType"));
+        frequencyColumn.setCellValueFactory(new PropertyValueFactory<>("frequency"));
+        amplitudeColumn.setCellValueFactory(new PropertyValueFactory<>("amplitude"));
+
+        // Initialize import/export buttons
+        importButton.setOnAction(this::handleImportButton);
+        exportButton.setOnAction(this::handleExportButton);
+
+        // Initialize saveButton to save previous simulations to database
+        saveButton.setOnAction(this::handleSaveButton);
+        refreshButton.setOnAction(this::handleRefreshButton);
+        setupSimulationListView();
+        // Create the table and load the presets in the background, then show the saved simulations.
+        simulationListView.setPlaceholder(new Label("Loading simulations..."));
+        saveButton.setDisable(true);
+        refreshButton.setDisable(true);
+        CompletableFuture<Void> databaseReady = presetsReady
+                .thenCompose(presets -> asyncDatabaseController.initializeDatabase(presets))
+                .thenRun(() -> {
+                    StartupPhases.mark("database ready");
+                    saveButton.setDisable(false);
+                    refreshButton.setDisable(false);
+                    displaySimulationNames();
+                });
+        databaseReady.exceptionallyAsync(e -> {
+            logger.error("Error initializing the database: {}", causeMessage(e));
+            simulationListView.setPlaceholder(new Label("Database unavailable"));
+            showAlert("Error", "Error initializing the database: " + causeMessage(e));
+            return null;
+        }, Platform::runLater);
+        backgroundInitialization = CompletableFuture.allOf(audioReady, databaseReady);
+
+        //Attribute images to buttons
+        Image play = new Image("/images/circle-play.png");
+        playButton.setImage(play);
+
+        Image stop = new Image("/images/circle-stop.png");
+        stopButton.setImage(stop);
+
+        Image pause = new Image("/images/circle-pause.png");
+        pauseButton.setImage(pause);
+
+        Image step = new Image("/images/circle-step.png");
+        stepButton.setImage(step);
+
+        //Instantiating the ColorAdjust class
+        ColorAdjust clickedButton = new ColorAdjust();
+
+        //setting the color of the button
+        clickedButton.setContrast(0.4);
+        clickedButton.setHue(-0.05);
+        clickedButton.setBrightness(1.0);
+        clickedButton.setSaturation(0.5);
+
+        //Instantiating the ColorAdjust class
+        ColorAdjust unClickedButton = new ColorAdjust();
+
+        //resizing the images & buttons
+        playButton.setFitHeight(40);
+        playButton.setFitWidth(40);
+
+        stopButton.setFitHeight(40);
+        stopButton.setFitWidth(40);
+
+        pauseButton.setFitHeight(40);
+        pauseButton.setFitWidth(40);
+
+        stepButton.setFitHeight(40);
+        stepButton.setFitWidth(40);
+
+        //Setting up the functionalities of buttons & light up effect.
+        try {
+            playButton.setOnMouseClicked(event -> {
+                waveSimulationController.start();
+                if (analyzerFXMLController != null) {
+                    // Update the sound data on the chart
+                    analyzerFXMLController.start();
+                }
+                playButton.setEffect(clickedButton);
+                pauseButton.setEffect(unClickedButton);
+                stopButton.setEffect(unClickedButton);
+            });
+            pauseButton.setOnMouseClicked(event -> {
+                waveSimulationController.pause();
+                if (analyzerFXMLController != null) {
+                    // Stop updating the sound data on the chart
+                    analyzerFXMLController.pause();
+                }
+
+                // Stop sound when the simulation is paused
+                if (soundController != null) {
+                    soundController.stop();
+                }
+                // Reset the audio playing toggle
+                audioOffButton.setSelected(true);
+                playButton.setEffect(unClickedButton);
+                pauseButton.setEffect(clickedButton);
+                stopButton.setEffect(unClickedButton);
+            });
+            stopButton.setOnMouseClicked(event -> {
+                waveSimulationController.stop();
+                if (analyzerFXMLController != null) {
+                    // Stop updating the sound data on the chart
+                    analyzerFXMLController.stop();
+                }
+
+                // Stop sound when the simulation is stopped
+                if (soundController != null) {
+                    soundController.stop();
+                }
+                // Reset the audio playing toggle
+                audioOffButton.setSelected(true);
+                playButton.setEffect(unClickedButton);
+                pauseButton.setEffect(unClickedButton);
+                stopButton.setEffect(clickedButton);
+            });
+            stepButton.setOnMouseClicked(event -> {
+                int stepping = 1;
+                waveSimulationController.step(stepping);
+                if (analyzerFXMLController != null) {
+                    // Update the sound data on the chart
+                    analyzerFXMLController.step(stepping);
+                }
+            });
+
+            stepButton.setOnMousePressed(event -> {
+                stepButton.setEffect(clickedButton);
+            });
+
+            stepButton.setOnMouseReleased(event -> {
+                stepButton.setEffect(unClickedButton);
+            });
+
+        } catch (Exception e) {
+            logger.error("Error initializing wave simulation: {}", e.getMessage());
+            showAlert("Error", "Error initializing wave simulation: " + e.getMessage());
+        }
+
+        //Set up the buttons for adding waves
+        addWaveButton.setOnAction(event -> {
+            dialogBoxController = new DialogBoxController();
+            dialogBoxController.showAndWait();
+            if (!dialogBoxController.isCancelled()) {
+                // Only read new wave data if the add wave dialog is not closed by cancel
+                Wave newWave = dialogBoxController.getWave();
+                if (!(newWave == null)) {
+                    try {
+                        addWave(newWave);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+
+        // Set up the buttons for removing waves
+        removeWaveButton.setOnAction(event -> {
+            Wave selectedWave = addedWavesTableView.getSelectionModel().getSelectedItem();
+            if (selectedWave != null) {
+                try {
+                    removeWave(selectedWave);
+                } catch (LineUnavailableException | IOException e) {
+                    logger.error("Error removing wave: {}", e.getMessage());
+                }
+            }
+        });
+
+        // Set up the button for clearing waves
+        clearWavesButton.setOnAction(event -> {
+            try {
+                clearWaves();
+            } catch (LineUnavailableException | IOException e) {
+                logger.error("Error clearing waves: {}", e.getMessage());
+            }
+        });
+
+        // Play sound when the audioOnButton is selected
+        audioOnButton.setOnAction(event -> {
+            if (soundController != null && waveSimulationController.getSimulationStatus() == WaveSimulationStatus.PLAYING) {
+                // Only play sound if the simulation is playing
+                soundController.start();
+            } else {
+                // Prevent the on button from being selected it's not playing
+                audioOffButton.setSelected(true);
+            }
+        });
+        // Stop sound when the audioOffButton is selected
+        audioOffButton.setOnAction(event -> {
+            if (soundController != null) {
+                soundController.stop();
+            }
+        });
+
+        // Set up the checkbox for the wave analyzer
+        showAnalyzerCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                // Show the Wave Analyzer
+                MainApp.showWaveAnalyzer();
+            } else {
+                // Hide the Wave Analyzer
+                MainApp.hideWaveAnalyzer();
+            }
+        });
+
+        // Set up the chart for wave visualization
+        xAxis = new DefaultNumericAxis("Position", "m");
+        DefaultNumericAxis yAxis = new DefaultNumericAxis("Frequency", "Hz");
+        chart = new XYChart(xAxis, yAxis);
+
+        chart.setTitle("Wave Simulation");
+
+        // Enable zoom
+        chart.getPlugins().add(new Zoomer());
+
+        // Add the chart to the chartPane (the placeholder in FXML)
+        chartPane.getChildren().add(chart);
+        AnchorPane.setTopAnchor(chart, 0.0);
+        AnchorPane.setBottomAnchor(chart, 0.0);
+        AnchorPane.setLeftAnchor(chart, 0.0);
+        AnchorPane.setRightAnchor(chart, 0.0);
+        xAxis.setMin(0);
+        xAxis.setMax(waveSimulationController.getTotalLength());
+        xAxis.setAutoRanging(false);
+        xAxis.setTickUnit(1);
+        // Evaluate the waves again whenever the range shown (e.g. by the zoomer) or the size of the chart changes.
+        xAxis.minProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        xAxis.maxProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        xAxis.widthProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        updateViewport();
+
+        // Set up the performance overlay on top of the chart
+        performanceOverlayController = new PerformanceOverlayController(WaveSimulationController.DEFAULT_UPDATE_INTERVAL);
+        chartPane.getChildren().add(performanceOverlayController.getCanvas());
+        AnchorPane.setTopAnchor(performanceOverlayController.getCanvas(), 8.0);
+        AnchorPane.setRightAnchor(performanceOverlayController.getCanvas(), 8.0);
+        showPerformanceCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                performanceOverlayController.show();
+            } else {
+                performanceOverlayController.hide();
+            }
+        });
+    }
+
+    /**
+     * Handles the features from the import button. Opens a file chooser to select the JSON file to import.
+     * The file is read in the background (so a large file never freezes the UI), and its waves are added at once
+     * when it is read, unless the simulation would then have more than MAX_WAVES waves.
+     *
+     * @param event The event triggered by the user clicking the import button.
+     */
+    @FXML
+    private void handleImportButton(ActionEvent event) {
+        // Implement Import functionality
+        logger.info("Importing wave data...");
+        // File chooser for selecting the JSON file
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Open Wave Simulation Data File");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("JSON Files", "*.json"),
+                new FileChooser.ExtensionFilter("Binary Wave Simulation Files", "*" + WaveSimFormat.EXTENSION));
+        File file = fileChooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
+            logger.warn("Import canceled or no file selected.");
+            return;
+        }
+
+        int maxImportedWaves = MAX_WAVES - addedWavesTableView.getItems().size();
+        importButton.setDisable(true);
+        CompletableFuture.supplyAsync(() -> readWaves(file, maxImportedWaves), importExecutor)
+                .whenCompleteAsync((importedWaves, e) -> {
+                    importButton.setDisable(false);
+                    if (e == null) {
+                        try {
+                            addWaves(importedWaves);
+                            logger.info("Wave data imported successfully from " + file.getAbsolutePath());
+                        } catch (LineUnavailableException | IOException ex) {
+                            logger.error("Error playing the imported waves: " + ex.getMessage());
+                            showAlert("Error", "Error playing the imported waves: " + ex.getMessage());
+                        }
+                        return;
+                    }
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof ChosenFileIsDirectoryException) {
+                        logger.error("Chosen file is a directory: " + cause.getMessage());
+                        showAlert("Error", "Chosen file is a directory: " + cause.getMessage());
+                    } else if (cause instanceof DataFileNotFoundException || cause instanceof TooManyWavesException) {
+                        logger.error(cause.getMessage());
+                        showAlert("Error", cause.getMessage());
+                    } else if (cause instanceof JsonParseException) {
+                        logger.error("Invalid wave data: " + cause.getMessage());
+                        showAlert("Error", "Invalid wave data: " + cause.getMessage());
+                    } else {
+                        logger.error("An error occurred while importing wave data: " + cause.getMessage());
+                        showAlert("Error", "An error occurred while importing wave data: " + cause.getMessage());
+                    }
+                }, Platform::runLater);
+    }
+
+    /**
+     * Read the waves of a JSON (or .wavesim) file, stopping as soon as it has too many waves.
+     * This runs in the background (see handleImportButton).
+     *
+     * @param file the file to import
+     * @param maxWaves the number of waves that can still be added to the simulation
+     * @return the waves of the file
+     */
+    static List<Wave> readWaves(File file, int maxWaves) {
+        List<Wave> importedWaves = new ArrayList<>();
+        Consumer<Wave> consumer = wave -> {
+            if (importedWaves.size() >= maxWaves) {
+                throw new TooManyWavesException(file.getName() + " has too many waves: a simulation can have at most "
+                        + MAX_WAVES + " waves.");
+            }
+            importedWaves.add(wave);
+        };
+        try {
+            // Use the JsonDataController (or BinaryDataController) to stream the wave data from the file
+            if (file.getName().endsWith(WaveSimFormat.EXTENSION)) {
+                BinaryDataController.importWaveSimulation(file.toPath(), consumer);
+            } else {
+                JsonDataController.importWaveSimulation(file.toPath(), consumer);
+            }
+        } catch (DataFileNotFoundException | IOException e) {
+            throw new CompletionException(e);
+        }
+        return importedWaves;
+    }
+
+    /**
+     * The exception stopping an import that would give the simulation more than MAX_WAVES waves.
+     */
+    static class TooManyWavesException extends RuntimeException {
+        TooManyWavesException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Get the message of the exception a background operation failed with, rather than of its CompletionException.
+     * @param e the exception given to a handler of a future
+     * @return the message of the original exception
+     */
+    static String causeMessage(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+    }
+
+    /**
+     * Gives an alert with the given title and message
+     *
+     * @param title   the title of the alert
+     * @param message the error message
+     */
+    public static void showAlert(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    /**
+     * Handles the logic behind the refresh button. Refreshes the list of simulation names.
+     * @param event The event triggered by the user clicking the refresh button.
+     */
+    private void handleRefreshButton(ActionEvent event) {
+        displaySimulationNames();
+    }
+
+    /**
+     * Handles the features from the export button. Opens a file chooser to select the JSON file to export.
+     *
+     * @param event The event triggered by the user clicking the export button.
+     */
+    @FXML
+    private void handleExportButton(ActionEvent event) {
+        logger.info("Exporting wave data...");
+        try {
+            // File chooser for selecting the export destination
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Save Wave Simulation Data File");
+            fileChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("JSON Files", "*.json"),
+                    new FileChooser.ExtensionFilter("Binary Wave Simulation Files", "*" + WaveSimFormat.EXTENSION));
+            File file = fileChooser.showSaveDialog(exportButton.getScene().getWindow());
+
+            if (file != null) {
+                // Use the JsonDataController (or BinaryDataController) to stream the wave data to the file
+                if (file.getName().endsWith(WaveSimFormat.EXTENSION)) {
+                    BinaryDataController.exportWaveSimulation(waveSimulationController.getWaves(), file.toPath());
+                } else {
+                    JsonDataController.exportWaveSimulation(waveSimulationController.getWaves(), file.toPath());
+                }
+                logger.info("Wave data exported successfully to " + file.getAbsolutePath());
+            } else {
+                logger.warn("Export canceled or no file selected.");
+            }
+        } catch (ChosenFileIsDirectoryException e) {
+            logger.error("Chosen file is a directory: " + e.getMessage());
+            showAlert("Error", "Chosen file is a directory: " + e.getMessage());
+        } catch (IOException e) {
+            logger.error("An error occurred while exporting wave data: " + e.getMessage());
+            showAlert("Error", "An error occurred while exporting wave data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The logic behind the save button. Saves the current wave simulation to the database. This can be later retrieved
+     * in read previous simulations.
+     * @param event The event triggered by the user clicking the save button.
+     */
+    private void handleSaveButton(ActionEvent event) {
+        // Checks if there are any waves to save
+        if (!waveSimulationController.getWaves().isEmpty()) {
+            // Save all waves under the next available simulation name in the background
+            saveButton.setDisable(true);
+            asyncDatabaseController.saveSimulation(waveSimulationController.getWaves())
+                    .whenComplete((newSimulationName, e) -> {
+                        saveButton.setDisable(false);
+                        if (e != null) {
+                            logger.error("Error saving simulation: {}", causeMessage(e));
+                            showAlert("Error", "Error saving simulation: " + causeMessage(e));
+                        } else {
+                            logger.info("Simulation saved as: " + newSimulationName);
+                        }
+                    });
+        } else {
+            logger.warn("No waves to save!");
+        }
+    }
+
+    /**
+     * Handles the selection of each preset in the ComboBox and loads its waves from the bundled presets.
+     *
+     * @param event The clicked event
+     */
+    public void handlePresetComboBox(ActionEvent event) {
+        // Get the selected preset
+        String preset = presetComboBox.getSelectionModel().getSelectedItem();
+        if (preset == null) {
+            return;
+        }
+        try {
+            // Replace the current waves with the corresponding waves from the presets in memory
+            replaceWaves(presetController.getWaves(preset));
+        } catch (Exception e) {
+            System.err.println("An unexpected error occurred: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Displays the names of all simulations in the database in the simulation list view.
+     * The names are fetched in the background and shown once they are ready.
+     */
+    private void displaySimulationNames() {
+        // Fetch simulation names from the database
+        asyncDatabaseController.getAllSimulationNames()
+                .thenAccept(simulationNames -> {
+                    simulationListView.setPlaceholder(new Label("No saved simulations"));
+                    simulationListView.getItems().setAll(simulationNames);
+                })
+                .exceptionally(e -> {
+                    logger.error("Error fetching simulation names: {}", causeMessage(e));
+                    simulationListView.setPlaceholder(new Label("Database unavailable"));
+                    return null;
+                });
+    }
+
+    /**
+     * Sets up the selection listener of the simulation list view, which loads the selected simulation.
+     * This also locks the selection in the list view.
+     */
+    private void setupSimulationListView() {
+        // Reads the last selected simulation
+        AtomicReference<String> lastSelectedSimulation = new AtomicReference<>(null);
+
+        // Add a selection listener for loading simulations
+        simulationListView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null) {
+                if (!newValue.equals(lastSelectedSimulation.get())) {
+                    System.out.println("Selected simulation: " + newValue);
+
+                    // Check if the simulation exists in predefined ones
+                    if (!predefinedSimulations.containsKey(newValue)) {
+                        // Check if the simulation exists in the database, without blocking the UI
+                        asyncDatabaseController.getWaves(newValue)
+                                .thenAccept(waves -> {
+                                    if (waves.isEmpty()) {
+                                        // Simulation not found in the database either
+                                        System.out.println("Simulation not found in database.");
+                                    } else {
+                                        // Simulation found in the database
+                                        System.out.println("Simulation found in database.");
+                                        try {
+                                            addWaves(waves);
+                                        } catch (LineUnavailableException | IOException e) {
+                                            throw new RuntimeException(e);
+                                        }
+                                    }
+                                })
+                                .exceptionally(e -> {
+                                    logger.error("Error loading simulation {}: {}", newValue, causeMessage(e));
+                                    showAlert("Error", "Error loading simulation " + newValue + ": " + causeMessage(e));
+                                    return null;
+                                });
+                    } else {
+                        System.out.println("Simulation not created yet: " + newValue);
+                    }
+                } else {
+                    System.out.println("You cannot re-select the same simulation: " + newValue);
+                    simulationListView.getSelectionModel().clearSelection();
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a dataset for each wave and adds it to the chart, the data points being spread over the current viewport.
+     *
+     * @param dataPoints   the map that contains the wave object and its corresponding data points to generate the wave graph.
+     * @param milliseconds the time elapsed since the simulation started.
+     */
+    @Override
+    public void update(Map<Wave, double[]> dataPoints, double milliseconds) {
+        update(new SimulationFrame((int) milliseconds, dataPoints, List.of(), waveSimulationController.getViewport(),
+                false, System.nanoTime()));
+    }
+
+    /**
+     * Creates a dataset for each wave and adds it to the chart. This method draws the graph of the wave.
+     * This is the main UI component of the application.
+     *
+     * @param simulationFrame the frame, whose data points are placed at the positions of its viewport
+     */
+    @Override
+    public void update(SimulationFrame simulationFrame) {
+        long postedAt = SimulationMetrics.now();
+        if (pendingFrame.getAndSet(simulationFrame) != null) {
+            // The previous frame has not been drawn yet, so it is replaced by this one instead of queuing another draw.
+            SimulationMetrics.recordSkippedFrame();
+            return;
+        }
+        SimulationMetrics.recordRunLaterPosted();
+        Platform.runLater(() -> {
+            SimulationMetrics.recordRunLaterHandled();
+            SimulationMetrics.runLaterDelay.recordSince(postedAt);
+            long start = SimulationMetrics.now();
+            ChartUpdateEvent chartEvent = new ChartUpdateEvent();
+            if (chartEvent.isEnabled()) {
+                chartEvent.begin();
+            }
+            SimulationFrame latestFrame = pendingFrame.getAndSet(null);
+            Map<Wave, double[]> frame = latestFrame.dataPoints();
+            Viewport viewport = latestFrame.viewport();
+
+            // Clear previous data series
+            chart.getDatasets().clear();
+
+            // Iterate over each wave and its corresponding data points
+            for (Map.Entry<Wave, double[]> entry : frame.entrySet()) {
+                Wave wave = entry.getKey();
+                double[] points = entry.getValue();
+
+                // Create a dataset for each wave and add it to the chart
+                chart.getDatasets().add(createDataSet(wave, points, viewport));
+            }
+            SimulationMetrics.displayUpdate.recordSince(start);
+            SimulationMetrics.recordDrawnFrame();
+            if (chartEvent.isEnabled()) {
+                chartEvent.end();
+                chartEvent.chart = "Wave Simulation";
+                chartEvent.dataSetCount = frame.size();
+                chartEvent.pointCount = frame.size() * (frame.isEmpty() ? 0 : frame.values().iterator().next().length);
+                chartEvent.commit();
+            }
+        });
+    }
+
+    /**
+     * Create the dataset of a wave drawn on the chart, its data points being spread over the viewport.
+     * This runs on the FX thread for every wave of every drawn frame, but does not need the JavaFX toolkit.
+     *
+     * @param wave the wave (which names the dataset)
+     * @param points the data points of the wave
+     * @param viewport the viewport the data points were sampled over
+     * @return the dataset, X being the position and Y the amplitude
+     */
+    public static DefaultDataSet createDataSet(Wave wave, double[] points, Viewport viewport) {
+        DefaultDataSet dataSet = new DefaultDataSet(wave.getWaveType().toString());
+        for (int i = 0; i < points.length; i++) {
+            dataSet.add(viewport.x(i), points[i]);
+        }
+        return dataSet;
+    }
+
+    /**
+     * A getter for the "Show Analyzer" CheckBox, so it can be
+     * automatically unchecked elsewhere when the Analyzer Window is closed.
+     *
+     * @return the object of the "Show Analyzer" CheckBox
+     * @author Qian Qian
+     */
+    public CheckBox getShowAnalyzerCheckBox() {
+        return showAnalyzerCheckBox;
+    }
+
+    /**
+     * A getter for the Sound Controller so that the Wave Analyzer can access it
+     * to get sound data to show.
+     *
+     * @return the Sound Controller object that is active in this simulation (or null if the audio is not ready yet)
+     * @author Qian Qian
+     */
+    public SoundController getSoundController() {
+        return soundController;
+    }
+}
@@ -0,0 +1,241 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.metrics.LatencyHistogram;
+import edu.vanier.fxwavegenerationsimulator.metrics.SimulationMetrics;
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * The controller of the performance overlay (HUD) shown on top of the wave simulation chart.
+ * It shows the frame rate, simulation tick rate and tick time, dropped frames, pending runLater tasks,
+ * audio underruns, heap use and garbage collections of the last second, so it is easy to tell whether
+ * the renderer, the simulator or the audio is the bottleneck when the simulation stutters.
+ * The overlay is drawn on its own Canvas once per pulse (through an AnimationTimer) from the lock-free counters
+ * of the SimulationMetrics, so it does not go through chart-fx and barely adds to the load it measures.
+ *
+ * @author Qian Qian
+ */
+public class PerformanceOverlayController {
+    /**
+     * The length of the window the rates are measured over (in nanoseconds).
+     */
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final double WIDTH = 260;
+    private static final double LINE_HEIGHT = 16;
+    private static final double PADDING = 8;
+    private static final int LINE_COUNT = 9;
+    private static final Color BACKGROUND = Color.rgb(0, 0, 0, 0.65);
+    private static final Color NORMAL = Color.WHITE;
+    private static final Color WARNING = Color.rgb(255, 90, 90);
+
+    /**
+     * The canvas the overlay is drawn on.
+     */
+    private final Canvas canvas = new Canvas(WIDTH, 2 * PADDING + LINE_COUNT * LINE_HEIGHT);
+
+    /**
+     * The timer that redraws the overlay on every pulse while it is shown.
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onPulse(now);
+        }
+    };
+
+    /**
+     * The time budget of a simulation tick (in nanoseconds), above which the simulator is the bottleneck.
+     */
+    private final long tickBudgetNanos;
+
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> garbageCollectorBeans = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // The counters at the start of the current window (only used on the FX thread).
+    private long windowStart;
+    private long pulseCount;
+    private long tickCount;
+    private long drawnFrameCount;
+    private long skippedFrameCount;
+    private long audioUnderrunCount;
+    private long gcCount;
+    private long gcMillis;
+    private long[] simulateSnapshot;
+
+    // The measurements of the last complete window.
+    private double pulsesPerSecond;
+    private double framesPerSecond;
+    private double ticksPerSecond;
+    private double tickP50Millis;
+    private double tickP99Millis;
+    private long droppedFrames;
+    private long audioUnderruns;
+    private long heapUsedMegabytes;
+    private long heapMaxMegabytes;
+    private long gcCountInWindow;
+    private long gcMillisInWindow;
+
+    /**
+     * Instantiate the overlay (hidden until show() is called).
+     * @param tickBudgetMillis the update interval of the simulation (in milliseconds),
+     *                         which is the time budget of a simulation tick
+     */
+    public PerformanceOverlayController(long tickBudgetMillis) {
+        this.tickBudgetNanos = tickBudgetMillis * 1_000_000L;
+        // The overlay must never get in the way of the chart (e.g. zooming).
+        canvas.setMouseTransparent(true);
+        canvas.setVisible(false);
+        canvas.getGraphicsContext2D().setFont(Font.font("Monospaced", 12));
+    }
+
+    /**
+     * Get the canvas of the overlay, to be put on top of the chart.
+     * @return the canvas the overlay is drawn on
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    /**
+     * Show the overlay and start updating it.
+     */
+    public void show() {
+        startWindow(System.nanoTime());
+        canvas.setVisible(true);
+        timer.start();
+    }
+
+    /**
+     * Stop updating the overlay and hide it.
+     */
+    public void hide() {
+        timer.stop();
+        canvas.setVisible(false);
+    }
+
+    /**
+     * Start a new measurement window from the current value of the counters.
+     * @param now the current time (in nanoseconds)
+     */
+    private void startWindow(long now) {
+        SimulationMetrics metrics = SimulationMetrics.get();
+        windowStart = now;
+        pulseCount = 0;
+        tickCount = metrics.getTickCount();
+        drawnFrameCount = metrics.getDrawnFrameCount();
+        skippedFrameCount = metrics.getSkippedFrameCount();
+        audioUnderrunCount = metrics.getAudioUnderrunCount();
+        gcCount = 0;
+        gcMillis = 0;
+        for (GarbageCollectorMXBean bean : garbageCollectorBeans) {
+            gcCount += Math.max(0, bean.getCollectionCount());
+            gcMillis += Math.max(0, bean.getCollectionTime());
+        }
+        simulateSnapshot = SimulationMetrics.simulate.snapshot();
+    }
+
+    /**
+     * Measure the window that just ended.
+     * @param now the current time (in nanoseconds)
+     */
+    private void endWindow(long now) {
+        SimulationMetrics metrics = SimulationMetrics.get();
+        double seconds = (now - windowStart) / 1e9;
+        pulsesPerSecond = pulseCount / seconds;
+        framesPerSecond = (metrics.getDrawnFrameCount() - drawnFrameCount) / seconds;
+        ticksPerSecond = (metrics.getTickCount() - tickCount) / seconds;
+        droppedFrames = metrics.getSkippedFrameCount() - skippedFrameCount;
+        audioUnderruns = metrics.getAudioUnderrunCount() - audioUnderrunCount;
+
+        long[] currentSnapshot = SimulationMetrics.simulate.snapshot();
+        tickP50Millis = LatencyHistogram.getValueAtPercentile(simulateSnapshot, currentSnapshot, 50) / 1e6;
+        tickP99Millis = LatencyHistogram.getValueAtPercentile(simulateSnapshot, currentSnapshot, 99) / 1e6;
+
+        MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        heapUsedMegabytes = heap.getUsed() >> 20;
+        heapMaxMegabytes = (heap.getMax() < 0 ? heap.getCommitted() : heap.getMax()) >> 20;
+
+        long previousGcCount = gcCount;
+        long previousGcMillis = gcMillis;
+        startWindow(now);
+        gcCountInWindow = gcCount - previousGcCount;
+        gcMillisInWindow = gcMillis - previousGcMillis;
+    }
+
+    /**
+     * Update the overlay on a pulse.
+     * @param now the time of the pulse (in nanoseconds)
+     */
+    private void onPulse(long now) {
+        pulseCount++;
+        if (now - windowStart >= WINDOW_NANOS) {
+            endWindow(now);
+        }
+        draw();
+    }
+
+    /**
+     * Draw a line of the overlay.
+     * @param gc the graphics context of the canvas
+     * @param line the index of the line
+     * @param text the text of the line
+     * @param warning whether the value is a problem (drawn in red)
+     */
+    private static void drawLine(GraphicsContext gc, int line, String text, boolean warning) {
+        gc.setFill(warning ? WARNING : NORMAL);
+        gc.fillText(text, PADDING, PADDING + (line + 1) * LINE_HEIGHT - 4);
+    }
+
+    /**
+     * Redraw the overlay from the measurements of the last window and the current pending runLater tasks.
+     */
+    private void draw() {
+        long pendingRunLater = SimulationMetrics.get().getPendingRunLaterCount();
+        // The renderer is behind if frames had to be dropped or draws are piling up on the FX thread,
+        // the simulator is behind if its ticks take longer than their interval,
+        // and the audio is behind if its output stopped while it should have been playing.
+        boolean rendererBehind = droppedFrames > 0 || pendingRunLater > 1;
+        boolean simulatorBehind = tickP99Millis * 1e6 > tickBudgetNanos;
+        boolean audioBehind = audioUnderruns > 0;
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        gc.setFill(BACKGROUND);
+        gc.fillRoundRect(0, 0, canvas.getWidth(), canvas.getHeight(), 8, 8);
+
+        if (!SimulationMetrics.ENABLED) {
+            drawLine(gc, 0, "Metrics disabled", true);
+        } else {
+            drawLine(gc, 0, String.format("FPS        %5.1f (pulses %.0f)", framesPerSecond, pulsesPerSecond), rendererBehind);
+            drawLine(gc, 1, String.format("Ticks/s    %5.1f", ticksPerSecond), simulatorBehind);
+            drawLine(gc, 2, String.format("Tick p50   %6.2f ms", tickP50Millis), false);
+            drawLine(gc, 3, String.format("Tick p99   %6.2f ms", tickP99Millis), simulatorBehind);
+            drawLine(gc, 4, String.format("Dropped    %5d frames", droppedFrames), droppedFrames > 0);
+            drawLine(gc, 5, String.format("runLater   %5d pending", pendingRunLater), pendingRunLater > 1);
+            drawLine(gc, 6, String.format("Underruns  %5d", audioUnderruns), audioBehind);
+        }
+        drawLine(gc, 7, String.format("Heap %d/%d MB, GC %d (%d ms)",
+                heapUsedMegabytes, heapMaxMegabytes, gcCountInWindow, gcMillisInWindow), false);
+
+        String bottleneck;
+        if (simulatorBehind) {
+            bottleneck = "simulator";
+        } else if (rendererBehind) {
+            bottleneck = "renderer";
+        } else if (audioBehind) {
+            bottleneck = "audio";
+        } else {
+            bottleneck = "none";
+        }
+        drawLine(gc, 8, "Bottleneck: " + bottleneck, !bottleneck.equals("none"));
+    }
+}
@@ -0,0 +1,83 @@
+package edu.vanier.fxwavegenerationsimulator.controllers;
+
+import edu.vanier.fxwavegenerationsimulator.enums.WaveTypes;
+import edu.vanier.fxwavegenerationsimulator.exceptions.DataFileNotFoundException;
+import edu.vanier.fxwavegenerationsimulator.models.Color;
+import edu.vanier.fxwavegenerationsimulator.models.Wave;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the background import of the main window (which does not need the JavaFX toolkit):
+ * the waves of JSON and .wavesim files are read back, an import stops as soon as the simulation would have
+ * too many waves, and the errors are reported with the message of their cause.
+ *
+ * @author Qian Qian
+ */
+class MainAppFXMLControllerTest {
+    private static final List<Wave> WAVES = List.of(new Wave(WaveTypes.SIN, 440, 0.5),
+            new Wave(WaveTypes.PULSE, 220, -0.25, 0.3, new Color()),
+            new Wave(WaveTypes.TRIANGLE, 5, 1));
+
+    @TempDir
+    Path directory;
+
+    private static void assertSameWaves(List<Wave> expected, List<Wave> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getWaveType(), actual.get(i).getWaveType());
+            assertEquals(expected.get(i).getFrequency(), actual.get(i).getFrequency());
+            assertEquals(expected.get(i).getAmplitude(), actual.get(i).getAmplitude());
+            assertEquals(expected.get(i).getDutyCycle(), actual.get(i).getDutyCycle());
+        }
+    }
+
+    @Test
+    void readsTheWavesOfJsonAndWaveSimFiles() throws IOException {
+        Path json = directory.resolve("waves.json");
+        JsonDataController.exportWaveSimulation(WAVES, json);
+        assertSameWaves(WAVES, MainAppFXMLController.readWaves(json.toFile(), 10));
+
+        Path binary = directory.resolve("waves.wavesim");
+        BinaryDataController.exportWaveSimulation(WAVES, binary);
+        assertSameWaves(WAVES, MainAppFXMLController.readWaves(binary.toFile(), 10));
+    }
+
+    @Test
+    void stopsAnImportWithTooManyWaves() throws IOException {
+        Path json = directory.resolve("waves.json");
+        JsonDataController.exportWaveSimulation(WAVES, json);
+        assertSameWaves(WAVES, MainAppFXMLController.readWaves(json.toFile(), WAVES.size()));
+        MainAppFXMLController.TooManyWavesException e = assertThrows(MainAppFXMLController.TooManyWavesException.class,
+                () -> MainAppFXMLController.readWaves(json.toFile(), WAVES.size() - 1));
+        assertTrue(e.getMessage().startsWith("waves.json has too many waves"), e.getMessage());
+    }
+
+    @Test
+    void reportsAMissingFileWithItsCause() {
+        File missing = directory.resolve("missing.json").toFile();
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> MainAppFXMLController.readWaves(missing, 10));
+        assertInstanceOf(DataFileNotFoundException.class, e.getCause());
+        assertEquals(e.getCause().getMessage(), MainAppFXMLController.causeMessage(e));
+    }
+
+    @Test
+    void givesTheMessageOfTheCause() {
+        IOException cause = new IOException("Disk full.");
+        assertEquals("Disk full.", MainAppFXMLController.causeMessage(new CompletionException(cause)));
+        assertEquals("Disk full.", MainAppFXMLController.causeMessage(cause));
+        assertEquals("Failed.", MainAppFXMLController.causeMessage(new CompletionException("Failed.", null)));
+    }
+}